@@ -0,0 +1,378 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.metrics.ConnectionPoolSnapshot;
+import de.codecentric.reedelk.database.internal.metrics.LatencyHistogram;
+import de.codecentric.reedelk.runtime.api.commons.ModuleContext;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.Disposable;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static org.mockito.Mockito.*;
+
+// Multi-threaded load generator running the Select, Insert, Update and Delete components
+// as a flow would (initialize, apply, payload consumption, dispose) against in-memory H2.
+// Each worker thread cycles through the configured operations. The warm up and the measured
+// run use separate connection pools, so that the reported pool wait time covers the measured run only.
+//
+// mvn -P benchmarks test-compile exec:exec@load [-Dload.args="threads=16 maxPoolSize=8 operations=select"]
+public class LoadHarness {
+
+    private static final String CONNECTION_URL = "jdbc:h2:mem:" + LoadHarness.class.getSimpleName() + ";DB_CLOSE_DELAY=-1";
+    private static final String TABLE = "LOAD_TEST";
+
+    private final LoadOptions options;
+    private final AtomicLong nextInsertId;
+    private final AtomicLong nextDeleteId = new AtomicLong();
+    private final ModuleContext moduleContext = new ModuleContext(1L);
+    private final Message message = MessageBuilder.get(Select.class).withText("Load").build();
+
+    LoadHarness(LoadOptions options) {
+        this.options = options;
+        this.nextInsertId = new AtomicLong(options.rows());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = new LoadOptions(args);
+        LoadHarness harness = new LoadHarness(options);
+        try (Connection keepAlive = DriverManager.getConnection(CONNECTION_URL)) {
+            harness.createTable(keepAlive);
+
+            System.out.println(format("Warm up: %d seconds", options.warmupSeconds()));
+            harness.run("warmup", options.warmupSeconds());
+
+            System.out.println(format("Measurement: %d seconds", options.durationSeconds()));
+            LoadResult result = harness.run("measurement", options.durationSeconds());
+
+            String json = result.toJson(options);
+            Path output = Paths.get(options.output());
+            if (output.getParent() != null) Files.createDirectories(output.getParent());
+            Files.write(output, json.getBytes(StandardCharsets.UTF_8));
+            System.out.println(json);
+            System.out.println(format("Results written to %s", output.toAbsolutePath()));
+        }
+    }
+
+    private LoadResult run(String phase, int seconds) throws InterruptedException {
+        ConnectionConfiguration configuration = new ConnectionConfiguration();
+        configuration.setId("load-" + phase);
+        configuration.setConnectionURL(CONNECTION_URL);
+        configuration.setDatabaseDriver(DatabaseDriver.H2);
+        configuration.setMinPoolSize(options.minPoolSize());
+        configuration.setMaxPoolSize(options.maxPoolSize());
+
+        DataSourceService dataSourceService = new DataSourceService();
+        Map<String, ProcessorSync> components = new LinkedHashMap<>();
+        for (String operation : options.operations()) {
+            components.put(operation, create(operation, configuration, dataSourceService));
+        }
+
+        Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+        components.keySet().forEach(operation -> latencies.put(operation, new LatencyHistogram()));
+        LatencyHistogram total = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        AtomicBoolean errorReported = new AtomicBoolean();
+        LongAdder allocatedBytes = new LongAdder();
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(options.threads());
+        List<String> operations = new ArrayList<>(components.keySet());
+        long start = System.nanoTime();
+
+        for (int i = 0; i < options.threads(); i++) {
+            int offset = i;
+            Thread worker = new Thread(() -> {
+                List<Disposable> disposables = new ArrayList<>();
+                FlowContext flowContext = flowContextOf(disposables);
+                long allocatedBefore = allocatedBytes();
+                int cycle = offset;
+                while (System.nanoTime() < deadline) {
+                    String operation = operations.get(cycle++ % operations.size());
+                    long operationStart = System.nanoTime();
+                    try {
+                        Message result = components.get(operation).apply(flowContext, message);
+                        // Select results are streamed: the rows are fetched when the payload is consumed.
+                        result.payload();
+                        // The flow execution is complete: what the components registered with it is disposed.
+                        dispose(disposables);
+                        long elapsed = System.nanoTime() - operationStart;
+                        latencies.get(operation).record(elapsed);
+                        total.record(elapsed);
+                    } catch (Exception exception) {
+                        dispose(disposables);
+                        errors.increment();
+                        if (errorReported.compareAndSet(false, true)) exception.printStackTrace();
+                    }
+                }
+                allocatedBytes.add(allocatedBytes() - allocatedBefore);
+                done.countDown();
+            }, "load-" + phase + "-" + i);
+            worker.start();
+        }
+
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+
+        ConnectionPoolSnapshot pool = dataSourceService.metrics(configuration.getId())
+                .orElseThrow(() -> new IllegalStateException("Connection pool metrics not available"));
+
+        components.values().forEach(ProcessorSync::dispose);
+        dataSourceService.dispose();
+
+        Map<String, LatencyHistogram.Snapshot> operationLatencies = new LinkedHashMap<>();
+        latencies.forEach((operation, histogram) -> operationLatencies.put(operation, histogram.snapshot()));
+        return new LoadResult(elapsedNanos, total.snapshot(), operationLatencies, errors.sum(), pool, allocatedBytes.sum(), heapUsedBytes());
+    }
+
+    private ProcessorSync create(String operation, ConnectionConfiguration configuration, DataSourceService dataSourceService) {
+        String columns = payloadColumnNames();
+        switch (operation) {
+            case "select": {
+                Select select = new Select();
+                select.setConnection(configuration);
+                select.setQuery("SELECT * FROM " + TABLE + " WHERE ID >= :from AND ID < :to");
+                select.setParametersMapping(mappingOf("from", "to"));
+                select.dataSourceService = dataSourceService;
+                select.scriptEngine = scriptEngineOf(() -> {
+                    long from = ThreadLocalRandom.current().nextLong(Math.max(1, options.rows() - options.selectRows()));
+                    Map<String, Object> parameters = new HashMap<>();
+                    parameters.put("from", from);
+                    parameters.put("to", from + options.selectRows());
+                    return parameters;
+                });
+                select.initialize();
+                return select;
+            }
+            case "insert": {
+                Insert insert = new Insert();
+                insert.setConnection(configuration);
+                insert.setQuery("INSERT INTO " + TABLE + " VALUES (:ID, :QUANTITY, :TOTAL, :NAME" + payloadParameters() + ")");
+                insert.setParametersMapping(mappingOf(("ID,QUANTITY,TOTAL,NAME" + columns).split(",")));
+                insert.dataSourceService = dataSourceService;
+                insert.scriptEngine = scriptEngineOf(() -> rowOf(nextInsertId.getAndIncrement()));
+                insert.initialize();
+                return insert;
+            }
+            case "update": {
+                Update update = new Update();
+                update.setConnection(configuration);
+                update.setQuery("UPDATE " + TABLE + " SET TOTAL = :total, NAME = :name WHERE ID = :id");
+                update.setParametersMapping(mappingOf("total", "name", "id"));
+                update.dataSourceService = dataSourceService;
+                update.scriptEngine = scriptEngineOf(() -> {
+                    Map<String, Object> parameters = new HashMap<>();
+                    parameters.put("id", ThreadLocalRandom.current().nextLong(options.rows()));
+                    parameters.put("total", ThreadLocalRandom.current().nextDouble());
+                    parameters.put("name", text(options.payloadSize()));
+                    return parameters;
+                });
+                update.initialize();
+                return update;
+            }
+            case "delete": {
+                Delete delete = new Delete();
+                delete.setConnection(configuration);
+                delete.setQuery("DELETE FROM " + TABLE + " WHERE ID = :id");
+                delete.setParametersMapping(mappingOf("id"));
+                delete.dataSourceService = dataSourceService;
+                delete.scriptEngine = scriptEngineOf(() -> Collections.singletonMap("id", nextDeleteId.getAndIncrement()));
+                delete.initialize();
+                return delete;
+            }
+            default:
+                throw new IllegalArgumentException(format("Unknown operation [%s], valid operations: select, insert, update, delete", operation));
+        }
+    }
+
+    private void createTable(Connection connection) throws SQLException {
+        StringBuilder definition = new StringBuilder("CREATE TABLE " + TABLE + "(ID BIGINT PRIMARY KEY, QUANTITY BIGINT, TOTAL DOUBLE, NAME VARCHAR(" + options.payloadSize() + ")");
+        for (int column = 0; column < options.payloadColumns(); column++) {
+            definition.append(", C").append(column).append(column % 2 == 0 ? " INTEGER" : " VARCHAR(" + options.payloadSize() + ")");
+        }
+        definition.append(")");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute(definition.toString());
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(4 + options.payloadColumns(), "?"));
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + TABLE + " VALUES (" + placeholders + ")")) {
+            List<String> columns = new ArrayList<>(Arrays.asList(("ID,QUANTITY,TOTAL,NAME" + payloadColumnNames()).split(",")));
+            for (long id = 0; id < options.rows(); id++) {
+                Map<String, Object> row = rowOf(id);
+                for (int i = 0; i < columns.size(); i++) {
+                    insert.setObject(i + 1, row.get(columns.get(i)));
+                }
+                insert.addBatch();
+                if (id % 1000 == 999) insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private Map<String, Object> rowOf(long id) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("ID", id);
+        row.put("QUANTITY", id * 3);
+        row.put("TOTAL", id * 1.5d);
+        row.put("NAME", text(options.payloadSize()));
+        for (int column = 0; column < options.payloadColumns(); column++) {
+            row.put("C" + column, column % 2 == 0 ? (Object) (int) id : text(options.payloadSize()));
+        }
+        return row;
+    }
+
+    private String payloadColumnNames() {
+        StringBuilder columns = new StringBuilder();
+        for (int column = 0; column < options.payloadColumns(); column++) columns.append(",C").append(column);
+        return columns.toString();
+    }
+
+    private String payloadParameters() {
+        StringBuilder parameters = new StringBuilder();
+        for (int column = 0; column < options.payloadColumns(); column++) parameters.append(", :C").append(column);
+        return parameters.toString();
+    }
+
+    // The parameter values are generated by the harness: only the mapping keys are used by the components.
+    private DynamicObjectMap mappingOf(String... parameterNames) {
+        Map<String, Object> mapping = new LinkedHashMap<>();
+        for (String parameterName : parameterNames) mapping.put(parameterName, "#[null]");
+        return DynamicObjectMap.from(mapping, moduleContext);
+    }
+
+    // One flow context per worker thread, each executing one flow at a time: the disposables
+    // registered by an execution are collected, and disposed by the worker when it completes.
+    private static FlowContext flowContextOf(List<Disposable> disposables) {
+        FlowContext flowContext = mock(FlowContext.class, withSettings().stubOnly());
+        doAnswer(invocation -> disposables.add(invocation.getArgument(0)))
+                .when(flowContext)
+                .register(any(Disposable.class));
+        return flowContext;
+    }
+
+    private static void dispose(List<Disposable> disposables) {
+        try {
+            disposables.forEach(Disposable::dispose);
+        } finally {
+            disposables.clear();
+        }
+    }
+
+    // Stub only: invocations are not recorded, hence they do not add to the allocated bytes.
+    private static ScriptEngineService scriptEngineOf(Supplier<Map<String, Object>> parameters) {
+        ScriptEngineService scriptEngine = mock(ScriptEngineService.class, withSettings().stubOnly());
+        doAnswer(invocation -> parameters.get())
+                .when(scriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+        return scriptEngine;
+    }
+
+    private static String text(int length) {
+        char[] text = new char[length];
+        Arrays.fill(text, (char) ('a' + ThreadLocalRandom.current().nextInt(26)));
+        return new String(text);
+    }
+
+    // Bytes allocated by the calling thread. Allocations made by the pool helper threads are not included.
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static long heapUsedBytes() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    static class LoadResult {
+
+        private final long elapsedNanos;
+        private final LatencyHistogram.Snapshot total;
+        private final Map<String, LatencyHistogram.Snapshot> operations;
+        private final long errors;
+        private final ConnectionPoolSnapshot pool;
+        private final long allocatedBytes;
+        private final long heapUsedBytes;
+
+        LoadResult(long elapsedNanos,
+                   LatencyHistogram.Snapshot total,
+                   Map<String, LatencyHistogram.Snapshot> operations,
+                   long errors,
+                   ConnectionPoolSnapshot pool,
+                   long allocatedBytes,
+                   long heapUsedBytes) {
+            this.elapsedNanos = elapsedNanos;
+            this.total = total;
+            this.operations = operations;
+            this.errors = errors;
+            this.pool = pool;
+            this.allocatedBytes = allocatedBytes;
+            this.heapUsedBytes = heapUsedBytes;
+        }
+
+        String toJson(LoadOptions options) {
+            double seconds = elapsedNanos / 1_000_000_000d;
+            StringBuilder json = new StringBuilder("{\n");
+            json.append("  \"timestamp\": \"").append(Instant.now()).append("\",\n");
+            json.append("  \"label\": \"").append(options.label()).append("\",\n");
+            json.append("  \"options\": {");
+            StringJoiner values = new StringJoiner(", ");
+            options.asMap().forEach((key, value) -> values.add("\"" + key + "\": \"" + value + "\""));
+            json.append(values).append("},\n");
+            json.append("  \"durationSeconds\": ").append(seconds).append(",\n");
+            json.append("  \"operations\": ").append(total.getCount()).append(",\n");
+            json.append("  \"errors\": ").append(errors).append(",\n");
+            json.append("  \"opsPerSecond\": ").append(total.getCount() / seconds).append(",\n");
+            json.append("  \"latencyMillis\": ").append(latencyOf(total)).append(",\n");
+            json.append("  \"operationLatencyMillis\": {");
+            StringJoiner operationLatencies = new StringJoiner(",");
+            operations.forEach((operation, snapshot) -> operationLatencies.add("\n    \"" + operation + "\": " + latencyOf(snapshot)));
+            json.append(operationLatencies).append("\n  },\n");
+            json.append("  \"poolWaitMillis\": ").append(latencyOf(pool.getCheckoutWaitTime())).append(",\n");
+            json.append("  \"poolCheckoutFailures\": ").append(pool.getCheckoutFailures()).append(",\n");
+            json.append("  \"allocatedBytesPerOperation\": ").append(total.getCount() == 0 ? 0 : allocatedBytes / total.getCount()).append(",\n");
+            json.append("  \"heapUsedBytes\": ").append(heapUsedBytes).append("\n");
+            json.append("}\n");
+            return json.toString();
+        }
+
+        private static String latencyOf(LatencyHistogram.Snapshot snapshot) {
+            return format(Locale.ROOT, "{\"count\": %d, \"mean\": %.3f, \"p50\": %.3f, \"p99\": %.3f, \"p999\": %.3f, \"max\": %.3f}",
+                    snapshot.getCount(),
+                    snapshot.getMeanMillis(),
+                    snapshot.getP50Millis(),
+                    snapshot.getP99Millis(),
+                    snapshot.percentileMillis(0.999),
+                    snapshot.getMaxMillis());
+        }
+    }
+}
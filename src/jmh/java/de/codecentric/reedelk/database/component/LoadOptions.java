@@ -0,0 +1,94 @@
+package de.codecentric.reedelk.database.component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+// Options of the load harness, given as key=value arguments.
+class LoadOptions {
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    LoadOptions(String[] args) {
+        values.put("operations", "select,insert,update,delete");
+        values.put("threads", "8");
+        values.put("minPoolSize", "3");
+        values.put("maxPoolSize", "15");
+        values.put("rows", "100000");
+        values.put("selectRows", "10");
+        values.put("payloadColumns", "4");
+        values.put("payloadSize", "64");
+        values.put("warmupSeconds", "10");
+        values.put("durationSeconds", "30");
+        values.put("output", "target/load-result.json");
+        values.put("label", "");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) throw new IllegalArgumentException(format("Invalid argument [%s], expected key=value", arg));
+            String key = arg.substring(0, separator);
+            if (!values.containsKey(key)) throw new IllegalArgumentException(format("Unknown option [%s], valid options: %s", key, values.keySet()));
+            values.put(key, arg.substring(separator + 1));
+        }
+    }
+
+    List<String> operations() {
+        return Arrays.asList(values.get("operations").split(","));
+    }
+
+    int threads() {
+        return intOf("threads");
+    }
+
+    int minPoolSize() {
+        return intOf("minPoolSize");
+    }
+
+    int maxPoolSize() {
+        return intOf("maxPoolSize");
+    }
+
+    // Number of rows in the table before the run: the delete operation removes them in order.
+    int rows() {
+        return intOf("rows");
+    }
+
+    int selectRows() {
+        return intOf("selectRows");
+    }
+
+    // Payload shape: number of additional columns (alternating INTEGER and VARCHAR) and VARCHAR values length.
+    int payloadColumns() {
+        return intOf("payloadColumns");
+    }
+
+    int payloadSize() {
+        return intOf("payloadSize");
+    }
+
+    int warmupSeconds() {
+        return intOf("warmupSeconds");
+    }
+
+    int durationSeconds() {
+        return intOf("durationSeconds");
+    }
+
+    String output() {
+        return values.get("output");
+    }
+
+    String label() {
+        return values.get("label");
+    }
+
+    Map<String, String> asMap() {
+        return values;
+    }
+
+    private int intOf(String key) {
+        return Integer.parseInt(values.get(key));
+    }
+}
@@ -0,0 +1,101 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.type.DatabaseRow;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+// The whole Select pipeline against embedded H2, as executed by a flow: pool checkout,
+// statement preparation and execution, row conversion and result stream consumption.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectBenchmark {
+
+    private static final String CONNECTION_URL = "jdbc:h2:mem:" + SelectBenchmark.class.getSimpleName() + ";DB_CLOSE_DELAY=-1";
+
+    @Param({"1", "100", "1000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean primitiveNumerics;
+
+    private Connection keepAlive;
+    private Select component;
+    private FlowContext flowContext;
+    private Message message;
+
+    @Setup
+    public void setUp() throws SQLException {
+        keepAlive = DriverManager.getConnection(CONNECTION_URL);
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS Orders");
+            statement.execute("CREATE TABLE Orders(id INTEGER PRIMARY KEY, quantity BIGINT, total DOUBLE, name VARCHAR(255))");
+        }
+        try (PreparedStatement insert = keepAlive.prepareStatement("INSERT INTO Orders VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setInt(1, i);
+                insert.setLong(2, i * 3L);
+                insert.setDouble(3, i * 1.5d);
+                insert.setString(4, "Order " + i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        // Stub only mocks: invocations are not recorded, hence they do not add to the allocation rate.
+        ScriptEngineService scriptEngine = mock(ScriptEngineService.class, withSettings().stubOnly());
+        doReturn(new HashMap<>())
+                .when(scriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+        flowContext = mock(FlowContext.class, withSettings().stubOnly());
+        message = MessageBuilder.get(Select.class).withText("Benchmark").build();
+
+        ConnectionConfiguration configuration = new ConnectionConfiguration();
+        configuration.setId("select-benchmark");
+        configuration.setConnectionURL(CONNECTION_URL);
+        configuration.setDatabaseDriver(DatabaseDriver.H2);
+
+        component = new Select();
+        component.setConnection(configuration);
+        component.setQuery("SELECT * FROM Orders");
+        component.setPrimitiveNumerics(primitiveNumerics);
+        component.dataSourceService = new DataSourceService();
+        component.scriptEngine = scriptEngine;
+        component.initialize();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        component.dispose();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("DROP TABLE Orders");
+        }
+        keepAlive.close();
+    }
+
+    @Benchmark
+    public List<DatabaseRow> select() {
+        Message result = component.apply(flowContext, message);
+        return result.payload();
+    }
+}
@@ -0,0 +1,117 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import de.codecentric.reedelk.database.internal.type.DatabaseRow;
+import de.codecentric.reedelk.database.internal.type.DatabaseRowSchema;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+// Per row conversion cost over narrow (5 columns) and wide (50 columns) results: the per cell metadata
+// lookup (the converter before the precompiled plan) against the precompiled extractors,
+// with boxed and with primitive storage of the numeric columns.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseRowConverterBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final int[] COLUMN_TYPES = { Types.INTEGER, Types.BIGINT, Types.VARCHAR, Types.DOUBLE, Types.DECIMAL };
+
+    @Param({"5", "50"})
+    private int columns;
+
+    private SimpleResultSet resultSet;
+    private DatabaseRowSchema schema;
+
+    @Setup
+    public void setUp() throws SQLException {
+        resultSet = new SimpleResultSet();
+        resultSet.setAutoClose(false);
+        for (int column = 0; column < columns; column++) {
+            resultSet.addColumn("COLUMN_" + column, COLUMN_TYPES[column % COLUMN_TYPES.length], 20, 2);
+        }
+        for (int row = 0; row < ROWS; row++) {
+            Object[] values = new Object[columns];
+            for (int column = 0; column < columns; column++) {
+                values[column] = valueOf(COLUMN_TYPES[column % COLUMN_TYPES.length], row);
+            }
+            resultSet.addRow(values);
+        }
+        schema = MetadataUtils.getSchema(resultSet.getMetaData());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void perCellTypeLookup(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        while (resultSet.next()) {
+            int columnCount = metaData.getColumnCount();
+            Serializable[] values = new Serializable[columnCount];
+            for (int i = 1; i <= columnCount; i++) {
+                values[i - 1] = perCellTypeLookup(metaData, i, resultSet);
+            }
+            blackhole.consume(new DatabaseRow(schema, values));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void precompiledExtractors(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        DatabaseRowConverter converter =
+                DatabaseRowConverter.from(resultSet.getMetaData());
+        while (resultSet.next()) {
+            blackhole.consume(converter.convert(resultSet));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void precompiledExtractorsPrimitiveNumerics(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        DatabaseRowConverter converter = DatabaseRowConverter.from(resultSet.getMetaData(), true, null);
+        while (resultSet.next()) {
+            blackhole.consume(converter.convert(resultSet));
+        }
+    }
+
+    private static Object valueOf(int columnType, int row) {
+        if (columnType == Types.INTEGER) return row;
+        if (columnType == Types.BIGINT) return (long) row * 31;
+        if (columnType == Types.VARCHAR) return "value-" + row;
+        if (columnType == Types.DOUBLE) return row * 1.5d;
+        return BigDecimal.valueOf(row, 2);
+    }
+
+    // The conversion as it was before the precompiled plan: the column type
+    // is looked up and compared for every cell of every row.
+    private static Serializable perCellTypeLookup(ResultSetMetaData metaData, int columnId, ResultSet row) throws SQLException {
+        int columnType = metaData.getColumnType(columnId);
+        if (columnType == Types.CHAR) return row.getString(columnId);
+        if (columnType == Types.VARCHAR) return row.getString(columnId);
+        if (columnType == Types.LONGNVARCHAR) return row.getString(columnId);
+        if (columnType == Types.NUMERIC) return row.getBigDecimal(columnId);
+        if (columnType == Types.DECIMAL) return row.getBigDecimal(columnId);
+        if (columnType == Types.BIT) return row.getBoolean(columnId);
+        if (columnType == Types.TINYINT) return row.getByte(columnId);
+        if (columnType == Types.SMALLINT) return row.getShort(columnId);
+        if (columnType == Types.INTEGER) return row.getInt(columnId);
+        if (columnType == Types.BIGINT) return row.getLong(columnId);
+        if (columnType == Types.REAL) return row.getFloat(columnId);
+        if (columnType == Types.FLOAT) return row.getDouble(columnId);
+        if (columnType == Types.DOUBLE) return row.getDouble(columnId);
+        throw new IllegalStateException("Column type not supported by the benchmark: " + columnType);
+    }
+}
@@ -0,0 +1,56 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import de.codecentric.reedelk.database.internal.type.DatabaseRowSchema;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Cost of building the per result set column maps and schema from the result set metadata.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataUtilsBenchmark {
+
+    @Param({"5", "50"})
+    private int columns;
+
+    private ResultSetMetaData metaData;
+
+    @Setup
+    public void setUp() throws SQLException {
+        SimpleResultSet resultSet = new SimpleResultSet();
+        for (int column = 0; column < columns; column++) {
+            resultSet.addColumn("COLUMN_" + column, column % 2 == 0 ? Types.INTEGER : Types.VARCHAR, 20, 0);
+        }
+        metaData = resultSet.getMetaData();
+    }
+
+    @Benchmark
+    public List<Integer> columnTypes() {
+        return MetadataUtils.getColumnType(metaData);
+    }
+
+    @Benchmark
+    public Map<String, Integer> columnNameIndexMap() {
+        return MetadataUtils.getColumnNameIndexMap(metaData);
+    }
+
+    @Benchmark
+    public Map<Integer, String> columnIndexNameMap() {
+        return MetadataUtils.getColumnIndexNameMap(metaData);
+    }
+
+    @Benchmark
+    public DatabaseRowSchema schema() {
+        return MetadataUtils.getSchema(metaData);
+    }
+}
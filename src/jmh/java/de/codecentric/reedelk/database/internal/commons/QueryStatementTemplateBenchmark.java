@@ -0,0 +1,48 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+// Cost of parsing a query template and of rendering it with the legacy
+// literal replacement, for queries with an increasing number of named parameters.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryStatementTemplateBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int parameters;
+
+    private String query;
+    private QueryStatementTemplate template;
+    private Map<String, Object> replacements;
+
+    @Setup
+    public void setUp() {
+        StringJoiner where = new StringJoiner(" AND ", "SELECT * FROM orders WHERE ", "");
+        replacements = new HashMap<>();
+        for (int i = 0; i < parameters; i++) {
+            where.add("column_" + i + " = :param" + i);
+            replacements.put("param" + i, i % 2 == 0 ? "value-" + i : i);
+        }
+        query = where.toString();
+        template = new QueryStatementTemplate(query, replacements.keySet());
+    }
+
+    @Benchmark
+    public QueryStatementTemplate parse() {
+        return new QueryStatementTemplate(query, replacements.keySet());
+    }
+
+    @Benchmark
+    public String replace() {
+        return template.replace(replacements);
+    }
+}
@@ -0,0 +1,79 @@
+package de.codecentric.reedelk.database.internal.type;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Serializable;
+import java.sql.Types;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Cost of reading a row through the Map API (by name, entry set, forEach) and by column index,
+// with boxed values and with numeric columns in primitive storage (boxed on read).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseRowBenchmark {
+
+    @Param({"5", "50"})
+    private int columns;
+
+    @Param({"false", "true"})
+    private boolean primitiveNumerics;
+
+    private DatabaseRow row;
+    private String[] columnNames;
+
+    @Setup
+    public void setUp() {
+        columnNames = new String[columns];
+        int[] columnTypes = new int[columns];
+        for (int column = 0; column < columns; column++) {
+            columnNames[column] = "COLUMN_" + column;
+            columnTypes[column] = column % 2 == 0 ? Types.INTEGER : Types.VARCHAR;
+        }
+        DatabaseRowSchema schema = new DatabaseRowSchema(columnNames, columnTypes, primitiveNumerics);
+
+        Serializable[] values = new Serializable[schema.getObjectSlotCount()];
+        long[] longValues = new long[schema.getLongSlotCount()];
+        for (int column = 0; column < columns; column++) {
+            int slot = schema.getColumnSlot(column);
+            if (schema.isPrimitive(column)) longValues[slot] = column;
+            else values[slot] = column % 2 == 0 ? (Serializable) column : "value-" + column;
+        }
+        row = new DatabaseRow(schema, values, longValues, new double[0], new long[(columns + 63) / 64]);
+    }
+
+    @Benchmark
+    public void getByName(Blackhole blackhole) {
+        for (String columnName : columnNames) {
+            blackhole.consume(row.get(columnName));
+        }
+    }
+
+    @Benchmark
+    public void getByIndex(Blackhole blackhole) {
+        for (int column = 0; column < columns; column++) {
+            blackhole.consume(row.get(column));
+        }
+    }
+
+    @Benchmark
+    public void entrySetIteration(Blackhole blackhole) {
+        for (Map.Entry<String, Serializable> entry : row.entrySet()) {
+            blackhole.consume(entry.getKey());
+            blackhole.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        row.forEach((name, value) -> {
+            blackhole.consume(name);
+            blackhole.consume(value);
+        });
+    }
+}
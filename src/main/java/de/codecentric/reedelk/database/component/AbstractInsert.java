@@ -0,0 +1,251 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.attribute.BatchAttributes;
+import de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes;
+import de.codecentric.reedelk.database.internal.batch.BatchResult;
+import de.codecentric.reedelk.database.internal.batch.BatchStatementExecutor;
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
+import de.codecentric.reedelk.database.internal.commons.FlowConnections;
+import de.codecentric.reedelk.database.internal.commons.QueryStatementTemplate;
+import de.codecentric.reedelk.database.internal.exception.InsertException;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
+import de.codecentric.reedelk.database.internal.metrics.QueryPhase;
+import de.codecentric.reedelk.database.internal.metrics.QueryTimings;
+import de.codecentric.reedelk.database.internal.slowquery.SlowQueryLog;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.Component;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import org.osgi.service.component.annotations.Reference;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.Optional;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Insert.QUERY_EXECUTE_ERROR;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Insert.QUERY_EXECUTE_ERROR_WITH_QUERY;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireTrue;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+// The configuration and the execution shared by the Insert and InsertAsync components.
+public abstract class AbstractInsert implements Component {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    @DialogTitle("Data Source Configuration")
+    @Property("Connection")
+    @Description("Data source configuration to be used by this query. " +
+            "Shared configurations use the same connection pool.")
+    ConnectionConfiguration connection;
+
+    @Property("Insert Query")
+    @Example("<ul>" +
+            "<li><code>INSERT orders (id, name) VALUES (1, 'Items order')</code></li>" +
+            "<li><code>INSERT orders VALUES (32, 'Items order', 'Online shop order')</code></li>" +
+            "</ul>")
+    @Hint("INSERT orders (id, name) VALUES (1, 'Items order')")
+    @Description("The <b>insert</b> query to be executed on the database with the given Data Source connection. " +
+            "The query might contain parameters which will be filled from the expressions defined in " +
+            "the parameters mapping configuration below.")
+    private String query;
+
+    @Property("Query Parameter Mappings")
+    @TabGroup("Query Parameter Mappings")
+    @KeyName("Query Parameter Name")
+    @ValueName("Query Parameter Value")
+    @Example("name > <code>message.payload()</code>")
+    @Description("Mapping of insert query parameters > values. Query parameters will be evaluated and bound to the prepared statement each time before the query is executed.")
+    private DynamicObjectMap parametersMapping = DynamicObjectMap.empty();
+
+    @Property("Batch Mode")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the input payload is expected to be a collection or a stream of records. " +
+            "The query parameter mappings are evaluated for each record, in which <code>message.payload()</code> " +
+            "is the current record, and the rows are inserted in JDBC batches of <i>Batch Size</i> records, " +
+            "each committed in its own transaction. If a batch fails, the batches before it stay committed.")
+    private Boolean batch;
+
+    @Property("Batch Size")
+    @Hint("1000")
+    @Example("500")
+    @DefaultValue("1000")
+    @When(propertyName = "batch", propertyValue = "true")
+    @Description("The number of records sent to the database in a single batch. " +
+            "Each batch is executed and committed in its own transaction: if a batch fails, only that batch " +
+            "is rolled back and the batches before it stay committed. Within a flow transaction, " +
+            "the batches are committed or rolled back together with the transaction.")
+    private Integer batchSize;
+
+    @Property("Timing Attributes")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the time spent in each query phase (pool checkout, parameters evaluation, " +
+            "statement preparation and binding, execution) is added in microseconds to the <i>timings</i> message attribute.")
+    private Boolean timingAttributes;
+
+    @Reference
+    DataSourceService dataSourceService;
+    @Reference
+    ScriptEngineService scriptEngine;
+
+    private QueryStatementTemplate queryStatement;
+    private BatchStatementExecutor batchExecutor;
+    private QueryMetrics queryMetrics;
+    private SlowQueryLog slowQueryLog;
+    private FlowConnections flowConnections;
+
+    @Override
+    public void initialize() {
+        requireNotBlank(getClass(), query, "Insert query is not defined");
+        dataSourceService.getDataSource(this, connection);
+        queryStatement = new QueryStatementTemplate(query, parametersMapping.keySet());
+        queryMetrics = dataSourceService.queryMetrics().register(getClass(), query);
+        slowQueryLog = dataSourceService.getSlowQueryLog(connection);
+        flowConnections = dataSourceService.getFlowConnections(connection);
+        dataSourceService.prepareStatement(connection, queryStatement.preparedQuery());
+        if (Boolean.TRUE.equals(batch)) {
+            int size = Optional.ofNullable(batchSize).orElse(DEFAULT_BATCH_SIZE);
+            requireTrue(getClass(), size > 0, "Batch size must be greater than zero");
+            batchExecutor = new BatchStatementExecutor(queryStatement, size);
+        }
+    }
+
+    protected Message execute(FlowContext flowContext, Message message) {
+        if (batchExecutor != null) {
+            return applyBatch(flowContext, message);
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        String realQuery = null;
+        try {
+            QueryTimings timings = new QueryTimings(queryMetrics);
+
+            connection = flowConnections.getConnection(flowContext);
+            timings.mark(QueryPhase.CHECKOUT);
+
+            realQuery = queryStatement.preparedQuery();
+
+            Map<String, Object> evaluatedMap = scriptEngine.evaluate(parametersMapping, flowContext, message);
+            timings.mark(QueryPhase.EVALUATE);
+
+            statement = connection.prepareStatement(realQuery);
+            queryStatement.bind(statement, evaluatedMap);
+            timings.mark(QueryPhase.RENDER);
+
+            int rowCount = statement.executeUpdate();
+            timings.mark(QueryPhase.EXECUTE);
+
+            slowQueryLog.record(queryMetrics.getId(), queryStatement, evaluatedMap, timings.nanos(QueryPhase.EXECUTE), rowCount);
+
+            DatabaseAttributes attributes = new DatabaseAttributes(query);
+            if (isTimingAttributes()) attributes.setTimings(timings.asMap());
+
+            return MessageBuilder.get(Select.class)
+                    .withJavaObject(rowCount)
+                    .attributes(attributes)
+                    .build();
+
+        } catch (Throwable exception) {
+            String error = Optional.ofNullable(realQuery)
+                    .map(query -> QUERY_EXECUTE_ERROR_WITH_QUERY.format(query, rootCauseMessageOf(exception)))
+                    .orElse(QUERY_EXECUTE_ERROR.format(rootCauseMessageOf(exception)));
+            throw new InsertException(error, exception);
+
+        } finally {
+            DatabaseUtils.closeSilently(resultSet);
+            DatabaseUtils.closeSilently(statement);
+            DatabaseUtils.closeSilently(connection);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        this.dataSourceService.queryMetrics().unregister(queryMetrics);
+        this.dataSourceService.dispose(this, connection);
+        this.flowConnections = null;
+        this.queryStatement = null;
+        this.batchExecutor = null;
+        this.queryMetrics = null;
+        this.slowQueryLog = null;
+    }
+
+    public void setParametersMapping(DynamicObjectMap parametersMapping) {
+        this.parametersMapping = parametersMapping;
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public void setBatch(Boolean batch) {
+        this.batch = batch;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setTimingAttributes(Boolean timingAttributes) {
+        this.timingAttributes = timingAttributes;
+    }
+
+    private boolean isTimingAttributes() {
+        return Boolean.TRUE.equals(timingAttributes);
+    }
+
+    private Message applyBatch(FlowContext flowContext, Message message) {
+        Connection connection = null;
+        try {
+            QueryTimings timings = new QueryTimings(queryMetrics);
+
+            connection = flowConnections.getConnection(flowContext);
+            timings.mark(QueryPhase.CHECKOUT);
+
+            Iterable<?> records = BatchStatementExecutor.recordsOf(message.payload());
+
+            BatchResult result = batchExecutor.execute(connection, records, record -> {
+                Message recordMessage = MessageBuilder.get(Insert.class)
+                        .withJavaObject(record)
+                        .attributes(message.getAttributes())
+                        .build();
+                return scriptEngine.evaluate(parametersMapping, flowContext, recordMessage);
+            });
+
+            // Parameters are evaluated and bound record by record while the batches
+            // are executed: in batch mode all of it is recorded as execution time.
+            timings.mark(QueryPhase.EXECUTE);
+
+            // A batch has no single set of parameters: the plan is not captured.
+            slowQueryLog.record(queryMetrics.getId(), queryStatement, null, timings.nanos(QueryPhase.EXECUTE), result.total());
+
+            BatchAttributes attributes = new BatchAttributes(query, result);
+            if (isTimingAttributes()) attributes.setTimings(timings.asMap());
+
+            return MessageBuilder.get(Insert.class)
+                    .withJavaObject(result.total())
+                    .attributes(attributes)
+                    .build();
+
+        } catch (Throwable exception) {
+            String error = QUERY_EXECUTE_ERROR_WITH_QUERY.format(queryStatement.preparedQuery(), rootCauseMessageOf(exception));
+            throw new InsertException(error, exception);
+
+        } finally {
+            DatabaseUtils.closeSilently(connection);
+        }
+    }
+}
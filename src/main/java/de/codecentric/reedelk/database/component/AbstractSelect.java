@@ -0,0 +1,300 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.attribute.SelectAttributes;
+import de.codecentric.reedelk.database.internal.commons.*;
+import de.codecentric.reedelk.database.internal.exception.SelectException;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
+import de.codecentric.reedelk.database.internal.metrics.QueryPhase;
+import de.codecentric.reedelk.database.internal.metrics.QueryTimings;
+import de.codecentric.reedelk.database.internal.slowquery.SlowQueryLog;
+import de.codecentric.reedelk.database.internal.type.DatabaseRow;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.Component;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.TypedPublisher;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.*;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireTrue;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+// The configuration and the execution shared by the Select and SelectAsync components.
+public abstract class AbstractSelect implements Component {
+
+    @DialogTitle("Data Source Configuration")
+    @Property("Connection")
+    @Description("Data source configuration to be used by this query. " +
+            "Shared configurations use the same connection pool.")
+    ConnectionConfiguration connection;
+
+    @Example("<ul>" +
+            "<li><code>SELECT * FROM orders WHERE name = 'John' AND surname = 'Doe'</code></li>" +
+            "<li><code>SELECT * FROM orders WHERE name LIKE :name AND surname = :surname</code></li>" +
+            "</ul>")
+    @Property("Select Query")
+    @Hint("SELECT * FROM orders WHERE name LIKE :name")
+    @Description("The <b>select</b> query to be executed on the database with the given Data Source connection. " +
+            "The query might contain parameters which will be filled from the expressions defined in " +
+            "the parameters mapping configuration. below.")
+    private String query;
+
+    @Property("Query Parameter Mappings")
+    @TabGroup("Query Parameter Mappings")
+    @KeyName("Query Parameter Name")
+    @ValueName("Query Parameter Value")
+    @Example("name > <code>message.payload()</code>")
+    @Description("Mapping of select query parameters > values. Query parameters will be evaluated and bound to the prepared statement each time before the query is executed.")
+    private DynamicObjectMap parametersMapping = DynamicObjectMap.empty();
+
+    @Property("Fetch Size")
+    @Hint("1000")
+    @Example("500")
+    @Description("The number of rows fetched from the database in a single round trip when more rows are needed. " +
+            "If not defined, the driver's default fetch size is used (e.g. 10 rows for Oracle).")
+    private Integer fetchSize;
+
+    @Property("Streaming Cursor")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the rows are read from a forward only, read only server side cursor, " +
+            "fetching <i>fetchSize</i> rows at a time (1000 if not defined). The connection is configured " +
+            "accordingly for the selected driver (e.g. auto commit is disabled for PostgreSQL and rows are " +
+            "streamed one by one for MySQL), so that memory usage stays constant regardless of the result size.")
+    private Boolean streaming;
+
+    @Property("Primitive Numeric Storage")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the values of numeric columns (e.g. INTEGER, BIGINT, SMALLINT, BIT, DOUBLE) are stored " +
+            "in primitive arrays in each row and boxed only when read by column name or index. " +
+            "Numeric values can be read without boxing using the row <i>getLong</i> and <i>getDouble</i> functions. " +
+            "Unlike the default storage, a SQL NULL numeric value is returned as null instead of 0.")
+    private Boolean primitiveNumerics;
+
+    @Property("Lazy LOB Access")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, BLOB and CLOB columns are not read into memory: each row holds a handle " +
+            "(<i>getInputStream()</i>, <i>getReader()</i>, <i>read(position, length)</i>) and the content is read from " +
+            "the database only when it is consumed. The connection is kept open and the handles are valid " +
+            "until the end of the flow execution, or until more than <i>Max Open LOBs</i> handles are read " +
+            "by the same query execution, in which case the oldest ones are released. Handles are not serialized.")
+    private Boolean lazyLobs;
+
+    @Property("Max Open LOBs")
+    @Hint("1000")
+    @Example("5000")
+    @DefaultValue("1000")
+    @When(propertyName = "lazyLobs", propertyValue = "true")
+    @Description("The maximum number of lazy LOB handles kept open for each query execution. Each open handle might hold " +
+            "a locator or a temporary copy of the value in the database. Beyond this number the oldest handles are released " +
+            "and a warning is logged: reading the content of a released handle fails.")
+    private Integer maxOpenLobs;
+
+    @Property("Timing Attributes")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the time spent in each query phase (pool checkout, parameters evaluation, " +
+            "statement preparation and binding, execution) is added in microseconds to the <i>timings</i> message attribute. " +
+            "The time spent fetching the rows is recorded in the query metrics only, since rows are fetched when consumed.")
+    private Boolean timingAttributes;
+
+    @Reference
+    DataSourceService dataSourceService;
+    @Reference
+    ScriptEngineService scriptEngine;
+
+    private DataSource dataSource;
+    private DatabaseDriver databaseDriver;
+    private QueryStatementTemplate queryStatement;
+    private QueryMetrics queryMetrics;
+    private SlowQueryLog slowQueryLog;
+    private FlowConnections flowConnections;
+
+    @Override
+    public void initialize() {
+        requireNotBlank(getClass(), query, "Select query is not defined");
+        requireTrue(getClass(), maxOpenLobs == null || maxOpenLobs > 0, "Max open LOBs must be greater than zero");
+        dataSource = dataSourceService.getReadDataSource(this, connection);
+        databaseDriver = connection.getDatabaseDriver();
+        queryStatement = new QueryStatementTemplate(query, parametersMapping.keySet());
+        queryMetrics = dataSourceService.queryMetrics().register(getClass(), query);
+        slowQueryLog = dataSourceService.getSlowQueryLog(connection);
+        flowConnections = dataSourceService.getFlowConnections(connection);
+        dataSourceService.prepareStatement(connection, queryStatement.preparedQuery(),
+                isStreaming() ? StreamingCursor::prepareStatement : Connection::prepareStatement);
+    }
+
+    protected Message execute(FlowContext flowContext, Message message) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        String realQuery = null;
+        Map<String, Object> evaluatedMap = null;
+        QueryTimings timings = new QueryTimings(queryMetrics);
+
+        // Within a transaction the query is executed on its connection, so that it sees the
+        // transaction writes. Otherwise a streaming cursor keeps its connection busy until the
+        // result set is disposed: it does not use the connection bound to the flow. The read
+        // connection bound to the flow comes from the replicas, if any are configured.
+        boolean bound = flowConnections.isTransactionActive(flowContext) ||
+                (flowConnections.isAffinity() && !isStreaming());
+        // The transaction opened for a cursor on a connection of its own is ended with the result set.
+        boolean restoreAutoCommit = isStreaming() && !bound;
+
+        try {
+            connection = bound ?
+                    flowConnections.getReadConnection(flowContext) :
+                    dataSource.getConnection();
+            timings.mark(QueryPhase.CHECKOUT);
+
+            realQuery = queryStatement.preparedQuery();
+
+            evaluatedMap = scriptEngine.evaluate(parametersMapping, flowContext, message);
+            timings.mark(QueryPhase.EVALUATE);
+
+            if (isStreaming()) {
+                statement = StreamingCursor.prepare(connection, databaseDriver, realQuery, fetchSize);
+            } else {
+                statement = connection.prepareStatement(realQuery);
+                if (fetchSize != null) statement.setFetchSize(fetchSize);
+            }
+
+            queryStatement.bind(statement, evaluatedMap);
+            timings.mark(QueryPhase.RENDER);
+
+            resultSet = statement.executeQuery();
+            timings.mark(QueryPhase.EXECUTE);
+
+        } catch (Throwable exception) {
+            DatabaseUtils.closeSilently(resultSet);
+            DatabaseUtils.closeSilently(statement);
+            if (restoreAutoCommit) DatabaseUtils.restoreAutoCommitSilently(connection);
+            DatabaseUtils.closeSilently(connection);
+
+            String error = Optional.ofNullable(realQuery)
+                    .map(query -> QUERY_EXECUTE_ERROR_WITH_QUERY.format(query, rootCauseMessageOf(exception)))
+                    .orElse(QUERY_EXECUTE_ERROR.format(rootCauseMessageOf(exception)));
+            throw new SelectException(error, exception);
+        }
+
+        DisposableResultSet disposableResultSet = new DisposableResultSet(connection, statement, resultSet, restoreAutoCommit,
+                Optional.ofNullable(maxOpenLobs).orElse(DisposableResultSet.DEFAULT_MAX_OPEN_LOBS));
+        flowContext.register(disposableResultSet);
+
+        ResultSetMetaData metaData;
+        DatabaseRowConverter converter;
+        try {
+            metaData = disposableResultSet.getMetaData();
+            converter = DatabaseRowConverter.from(
+                    metaData,
+                    Boolean.TRUE.equals(primitiveNumerics),
+                    isLazyLobs() ? disposableResultSet::track : null);
+        } catch (SQLException exception) {
+            String error = METADATA_FETCH_ERROR.format(
+                    exception.getErrorCode(),
+                    exception.getSQLState(),
+                    exception.getMessage());
+            throw new SelectException(error, exception);
+        }
+
+        List<Integer> columnTypes = MetadataUtils.getColumnType(metaData);
+
+        TypedPublisher<DatabaseRow> result = createResultStream(converter, disposableResultSet, evaluatedMap, timings.nanos(QueryPhase.EXECUTE));
+
+        SelectAttributes selectAttributes = new SelectAttributes(query, columnTypes);
+        if (isTimingAttributes()) selectAttributes.setTimings(timings.asMap());
+
+        return MessageBuilder.get(Select.class)
+                .withTypedPublisher(result)
+                .attributes(selectAttributes)
+                .build();
+    }
+
+    @Override
+    public void dispose() {
+        this.dataSourceService.queryMetrics().unregister(queryMetrics);
+        this.dataSourceService.dispose(this, connection);
+        this.dataSource = null;
+        this.databaseDriver = null;
+        this.queryStatement = null;
+        this.queryMetrics = null;
+        this.slowQueryLog = null;
+        this.flowConnections = null;
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setParametersMapping(DynamicObjectMap parametersMapping) {
+        this.parametersMapping = parametersMapping;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public void setFetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public void setStreaming(Boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public void setPrimitiveNumerics(Boolean primitiveNumerics) {
+        this.primitiveNumerics = primitiveNumerics;
+    }
+
+    public void setLazyLobs(Boolean lazyLobs) {
+        this.lazyLobs = lazyLobs;
+    }
+
+    public void setMaxOpenLobs(Integer maxOpenLobs) {
+        this.maxOpenLobs = maxOpenLobs;
+    }
+
+    public void setTimingAttributes(Boolean timingAttributes) {
+        this.timingAttributes = timingAttributes;
+    }
+
+    private boolean isTimingAttributes() {
+        return Boolean.TRUE.equals(timingAttributes);
+    }
+
+    private boolean isLazyLobs() {
+        return Boolean.TRUE.equals(lazyLobs);
+    }
+
+    private boolean isStreaming() {
+        return Boolean.TRUE.equals(streaming);
+    }
+
+    private TypedPublisher<DatabaseRow> createResultStream(
+            DatabaseRowConverter converter,
+            DisposableResultSet disposableResultSet,
+            Map<String, Object> evaluatedMap,
+            long executeNanos) {
+        return DatabaseRowStream.from(
+                converter,
+                disposableResultSet,
+                queryMetrics,
+                slowQueryLog,
+                queryStatement,
+                evaluatedMap,
+                executeNanos,
+                isLazyLobs());
+    }
+}
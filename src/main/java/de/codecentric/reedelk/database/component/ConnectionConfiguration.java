@@ -1,11 +1,15 @@
 package de.codecentric.reedelk.database.component;
 
 import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPoolType;
+import de.codecentric.reedelk.database.internal.replica.ReplicaBalancingPolicy;
 import de.codecentric.reedelk.runtime.api.annotation.*;
 import de.codecentric.reedelk.runtime.api.component.Implementor;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.ServiceScope;
 
+import java.util.List;
+
 @Shared
 @Component(service = ConnectionConfiguration.class, scope = ServiceScope.PROTOTYPE)
 public class ConnectionConfiguration implements Implementor {
@@ -47,6 +51,46 @@ public class ConnectionConfiguration implements Implementor {
             "The JDBC drivers must be present in the {RUNTIME_HOME}/lib directory.")
     private DatabaseDriver databaseDriver;
 
+    @Property("Replica Connection URLs")
+    @TabGroup("Read Replicas")
+    @Example("jdbc:postgresql://replica1:5432/database")
+    @Description("Connection URLs of the read replicas of the database above, each one with its own connection pool " +
+            "using the same driver, credentials and pool settings. Select components read from the replicas, " +
+            "while all the other components always use the primary connection URL.")
+    private List<String> replicaURLs;
+
+    @Property("Replica Load Balancing")
+    @InitValue("ROUND_ROBIN")
+    @Example("LEAST_BUSY")
+    @DefaultValue("ROUND_ROBIN")
+    @Description("How Select components choose among the replicas in rotation: <b>ROUND_ROBIN</b> in turn, " +
+            "<b>LEAST_BUSY</b> the replica whose pool has the fewest busy connections.")
+    private ReplicaBalancingPolicy replicaBalancing;
+
+    @Property("Replica Check Interval (s)")
+    @Hint("5")
+    @Example("10")
+    @DefaultValue("5")
+    @Description("Seconds between the validation of the replicas: a replica failing validation is taken out of rotation " +
+            "until it is valid again. When no replica is in rotation, reads go to the primary.")
+    private Integer replicaCheckInterval;
+
+    @Property("Max Replica Lag (s)")
+    @Hint("10")
+    @Example("30")
+    @Description("If set, a replica lagging behind the primary by more than the given number of seconds is taken out of rotation. " +
+            "Supported for MySQL and PostgreSQL.")
+    private Integer replicaMaxLag;
+
+    @Property("Connection Pool")
+    @Example("CONCURRENT_BAG")
+    @InitValue("C3P0")
+    @DefaultValue("C3P0")
+    @Description("The connection pool implementation. <b>C3P0</b> caches prepared statements for each connection. " +
+            "<b>CONCURRENT_BAG</b> is a lightweight pool with a lock free checkout path, suited to flows " +
+            "executing many concurrent queries; it does not cache prepared statements and ignores the <i>Acquire Increment</i> and <i>Statement Cache Size</i>.")
+    private ConnectionPoolType connectionPool;
+
     @Property("Min Pool Size")
     @Hint("3")
     @Example("5")
@@ -69,6 +113,83 @@ public class ConnectionConfiguration implements Implementor {
             "when the pool is exhausted.")
     private Integer acquireIncrement;
 
+    @Property("Checkout Timeout (ms)")
+    @Hint("30000")
+    @Example("5000")
+    @Description("Maximum time in milliseconds a component waits for a connection from the pool, " +
+            "either because all connections are busy or because the database cannot be reached. " +
+            "Set to 0 to wait indefinitely. If empty, the c3p0 pool waits indefinitely and the concurrent bag pool " +
+            "waits 30 seconds. Connections to read replicas never wait for more than 2 seconds, so that a replica " +
+            "which is down falls back to the primary quickly.")
+    private Integer checkoutTimeout;
+
+    @Property("Statement Cache Size")
+    @Hint("50")
+    @Example("100")
+    @DefaultValue("50")
+    @Description("Number of prepared statements the connection pool will cache for each pooled connection. " +
+            "Cached statements are not parsed and planned again by the database when re-executed. " +
+            "Set to 0 to disable statements caching.")
+    private Integer maxStatementsPerConnection;
+
+    @Property("Async Queue Size")
+    @Hint("1000")
+    @Example("5000")
+    @DefaultValue("1000")
+    @Description("Maximum number of executions of the async SQL components waiting for a thread of the executor, " +
+            "which has as many threads as the <i>Max Pool Size</i>. Executions submitted when the queue is full " +
+            "fail immediately instead of waiting.")
+    private Integer asyncQueueSize;
+
+    @Property("Warm Up Pool")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the pool opens and validates <i>Min Pool Size</i> connections in parallel when the first component " +
+            "using this configuration is initialized, instead of opening them on the first requests. " +
+            "The initialization fails if the database is not reachable within the <i>Warm Up Timeout</i>.")
+    private Boolean warmUp;
+
+    @Property("Warm Up Timeout (ms)")
+    @Hint("10000")
+    @Example("5000")
+    @DefaultValue("10000")
+    @When(propertyName = "warmUp", propertyValue = "true")
+    @Description("Maximum time in milliseconds to wait for the warm up connections to be opened and validated.")
+    private Integer warmUpTimeout;
+
+    @Property("Warm Up Statements")
+    @Example("true")
+    @DefaultValue("false")
+    @When(propertyName = "warmUp", propertyValue = "true")
+    @Description("If true, the statement of each component using this configuration is prepared on the idle connections " +
+            "of the pool, one at a time, when the component is initialized, so that it is in the statement cache before " +
+            "the first request. Connections in use by other components are not waited for.")
+    private Boolean warmUpStatements;
+
+    @Property("Slow Query Threshold (ms)")
+    @Hint("500")
+    @Example("1000")
+    @Description("Queries taking longer than the given number of milliseconds are logged and aggregated " +
+            "by fingerprint in the slow query log of this connection. If empty, slow queries are not recorded.")
+    private Integer slowQueryThreshold;
+
+    @Property("Explain Slow Queries")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the execution plan of each slow query fingerprint is captured once in the background " +
+            "using a separate connection. Supported for H2, MySQL and PostgreSQL.")
+    private Boolean explainSlowQueries;
+
+    @Property("Flow Connection Affinity")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the SQL components using this configuration within the same flow execution share one connection, " +
+            "which is given back to the pool when the flow execution ends, instead of checking out a connection each. " +
+            "Streaming Select components still use a connection of their own. When <i>Replica Connection URLs</i> are defined, " +
+            "Select components outside of a transaction share a replica connection, bound apart from the primary one: " +
+            "use a transaction to read the writes of the same flow execution.")
+    private Boolean connectionAffinity;
+
     public String getId() {
         return id;
     }
@@ -109,6 +230,46 @@ public class ConnectionConfiguration implements Implementor {
         this.databaseDriver = databaseDriver;
     }
 
+    public List<String> getReplicaURLs() {
+        return replicaURLs;
+    }
+
+    public void setReplicaURLs(List<String> replicaURLs) {
+        this.replicaURLs = replicaURLs;
+    }
+
+    public ReplicaBalancingPolicy getReplicaBalancing() {
+        return replicaBalancing;
+    }
+
+    public void setReplicaBalancing(ReplicaBalancingPolicy replicaBalancing) {
+        this.replicaBalancing = replicaBalancing;
+    }
+
+    public Integer getReplicaCheckInterval() {
+        return replicaCheckInterval;
+    }
+
+    public void setReplicaCheckInterval(Integer replicaCheckInterval) {
+        this.replicaCheckInterval = replicaCheckInterval;
+    }
+
+    public Integer getReplicaMaxLag() {
+        return replicaMaxLag;
+    }
+
+    public void setReplicaMaxLag(Integer replicaMaxLag) {
+        this.replicaMaxLag = replicaMaxLag;
+    }
+
+    public ConnectionPoolType getConnectionPool() {
+        return connectionPool;
+    }
+
+    public void setConnectionPool(ConnectionPoolType connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
     public Integer getMinPoolSize() {
         return minPoolSize;
     }
@@ -132,4 +293,76 @@ public class ConnectionConfiguration implements Implementor {
     public void setAcquireIncrement(Integer acquireIncrement) {
         this.acquireIncrement = acquireIncrement;
     }
+
+    public Integer getCheckoutTimeout() {
+        return checkoutTimeout;
+    }
+
+    public void setCheckoutTimeout(Integer checkoutTimeout) {
+        this.checkoutTimeout = checkoutTimeout;
+    }
+
+    public Integer getMaxStatementsPerConnection() {
+        return maxStatementsPerConnection;
+    }
+
+    public void setMaxStatementsPerConnection(Integer maxStatementsPerConnection) {
+        this.maxStatementsPerConnection = maxStatementsPerConnection;
+    }
+
+    public Integer getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    public void setAsyncQueueSize(Integer asyncQueueSize) {
+        this.asyncQueueSize = asyncQueueSize;
+    }
+
+    public Boolean getWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(Boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public Integer getWarmUpTimeout() {
+        return warmUpTimeout;
+    }
+
+    public void setWarmUpTimeout(Integer warmUpTimeout) {
+        this.warmUpTimeout = warmUpTimeout;
+    }
+
+    public Boolean getWarmUpStatements() {
+        return warmUpStatements;
+    }
+
+    public void setWarmUpStatements(Boolean warmUpStatements) {
+        this.warmUpStatements = warmUpStatements;
+    }
+
+    public Integer getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    public void setSlowQueryThreshold(Integer slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    public Boolean getExplainSlowQueries() {
+        return explainSlowQueries;
+    }
+
+    public void setExplainSlowQueries(Boolean explainSlowQueries) {
+        this.explainSlowQueries = explainSlowQueries;
+    }
+
+    public Boolean getConnectionAffinity() {
+        return connectionAffinity;
+    }
+
+    public void setConnectionAffinity(Boolean connectionAffinity) {
+        this.connectionAffinity = connectionAffinity;
+    }
 }
@@ -5,6 +5,7 @@ import de.codecentric.reedelk.database.internal.commons.DataSourceService;
 import de.codecentric.reedelk.database.internal.ddlexecute.DDLDefinitionStrategy;
 import de.codecentric.reedelk.database.internal.ddlexecute.ExecutionStrategy;
 import de.codecentric.reedelk.database.internal.ddlexecute.ExecutionStrategyBuilder;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
 import de.codecentric.reedelk.runtime.api.annotation.*;
 import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
 import de.codecentric.reedelk.runtime.api.flow.FlowContext;
@@ -65,28 +66,53 @@ public class DDLExecute implements ProcessorSync {
     @HintBrowseFile("Select DDL File ...")
     @Example("assets/create_table_company.sql")
     @When(propertyName = "strategy", propertyValue = "FROM_FILE")
-    @Description("Sets the file path in the project's resources directory containing the DDL statements to be executed when the strategy is <b>FROM_FILE</b>.")
+    @Description("Sets the file path in the project's resources directory containing the DDL statements to be executed when the strategy is <b>FROM_FILE</b>. " +
+            "The file is read once, when the component is initialized. Statements are separated by ';'.")
     private ResourceText ddlFile;
 
+    @Property("Timing Attributes")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the time spent in each execution phase (pool checkout, DDL evaluation, execution) " +
+            "is added in microseconds to the <i>timings</i> message attribute. The execution of a script with more " +
+            "statements is timed as a whole.")
+    private Boolean timingAttributes;
+
+    @Property("Statement Timings")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the statements of a script with more statements are executed one by one instead of " +
+            "as a single JDBC batch, and the time spent by each statement is added in microseconds to the " +
+            "<i>statementTimings</i> message attribute. Executing the statements one by one takes a round trip " +
+            "to the database for each of them.")
+    private Boolean statementTimings;
+
     @Reference
     DataSourceService dataSourceService;
     @Reference
     ScriptEngineService scriptEngine;
 
     private ExecutionStrategy executionStrategy;
+    private QueryMetrics queryMetrics;
 
     private DataSource dataSource;
 
     @Override
     public void initialize() {
         requireNotNull(DDLExecute.class, connection, "Connection configuration must be defined.");
-        dataSource = dataSourceService.getDataSource(this, connection);
+        dataSource = dataSourceService.getInstrumentedDataSource(this, connection);
+        queryMetrics = dataSourceService.queryMetrics().register(DDLExecute.class,
+                ddlDefinition != null ? ddlDefinition.value() : String.valueOf(ddlFile));
         executionStrategy = ExecutionStrategyBuilder.get()
                 .with(strategy)
                 .with(ddlFile)
                 .with(dataSource)
+                .with(connection.getDatabaseDriver())
                 .with(ddlDefinition)
                 .with(scriptEngine)
+                .with(queryMetrics)
+                .timingAttributes(Boolean.TRUE.equals(timingAttributes))
+                .statementTimings(Boolean.TRUE.equals(statementTimings))
                 .build();
 
     }
@@ -98,10 +124,12 @@ public class DDLExecute implements ProcessorSync {
 
     @Override
     public void dispose() {
+        this.dataSourceService.queryMetrics().unregister(queryMetrics);
         this.dataSourceService.dispose(this, connection);
         this.ddlFile = null;
         this.dataSource = null;
         this.ddlDefinition = null;
+        this.queryMetrics = null;
     }
 
     public void setConnection(ConnectionConfiguration connection) {
@@ -119,4 +147,12 @@ public class DDLExecute implements ProcessorSync {
     public void setDdlFile(ResourceText ddlFile) {
         this.ddlFile = ddlFile;
     }
+
+    public void setTimingAttributes(Boolean timingAttributes) {
+        this.timingAttributes = timingAttributes;
+    }
+
+    public void setStatementTimings(Boolean statementTimings) {
+        this.statementTimings = statementTimings;
+    }
 }
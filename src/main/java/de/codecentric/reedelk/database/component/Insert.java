@@ -1,137 +1,30 @@
 package de.codecentric.reedelk.database.component;
 
-import com.mchange.v2.c3p0.ComboPooledDataSource;
 import de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes;
-import de.codecentric.reedelk.database.internal.commons.DataSourceService;
-import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
-import de.codecentric.reedelk.database.internal.commons.QueryStatementTemplate;
-import de.codecentric.reedelk.database.internal.exception.InsertException;
 import de.codecentric.reedelk.runtime.api.annotation.*;
 import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
 import de.codecentric.reedelk.runtime.api.flow.FlowContext;
 import de.codecentric.reedelk.runtime.api.message.Message;
-import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
-import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
-import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
-import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
 import org.osgi.service.component.annotations.Component;
-import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.annotations.ServiceScope;
 
-import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.Statement;
-import java.util.Map;
-import java.util.Optional;
-
-import static de.codecentric.reedelk.database.internal.commons.Messages.Insert.QUERY_EXECUTE_ERROR;
-import static de.codecentric.reedelk.database.internal.commons.Messages.Insert.QUERY_EXECUTE_ERROR_WITH_QUERY;
-import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
-import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
-
 @ModuleComponent("SQL Insert")
 @ComponentOutput(
         attributes = DatabaseAttributes.class,
         payload = int.class,
-        description = "The number of rows inserted into the database.")
+        description = "The number of rows inserted into the database. In batch mode the total number of rows " +
+                "inserted, while the number of rows inserted by each batch is available in the message attributes.")
 @ComponentInput(
         payload = Object.class,
-        description = "The input payload is used to evaluate the expressions bound to the query parameters mappings.")
+        description = "The input payload is used to evaluate the expressions bound to the query parameters mappings. " +
+                "In batch mode the input payload is a collection or a stream of records: " +
+                "the expressions are evaluated for each record.")
 @Description("Executes an INSERT SQL statement on the configured data source connection. Supported databases and drivers: H2 (org.h2.Driver), MySQL (com.mysql.cj.jdbc.Driver), Oracle (oracle.jdbc.Driver), PostgreSQL (org.postgresql.Driver).")
 @Component(service = Insert.class, scope = ServiceScope.PROTOTYPE)
-public class Insert implements ProcessorSync {
-
-    @DialogTitle("Data Source Configuration")
-    @Property("Connection")
-    @Description("Data source configuration to be used by this query. " +
-            "Shared configurations use the same connection pool.")
-    private ConnectionConfiguration connection;
-
-    @Property("Insert Query")
-    @Example("<ul>" +
-            "<li><code>INSERT orders (id, name) VALUES (1, 'Items order')</code></li>" +
-            "<li><code>INSERT orders VALUES (32, 'Items order', 'Online shop order')</code></li>" +
-            "</ul>")
-    @Hint("INSERT orders (id, name) VALUES (1, 'Items order')")
-    @Description("The <b>insert</b> query to be executed on the database with the given Data Source connection. " +
-            "The query might contain parameters which will be filled from the expressions defined in " +
-            "the parameters mapping configuration below.")
-    private String query;
-
-    @Property("Query Parameter Mappings")
-    @TabGroup("Query Parameter Mappings")
-    @KeyName("Query Parameter Name")
-    @ValueName("Query Parameter Value")
-    @Example("name > <code>message.payload()</code>")
-    @Description("Mapping of insert query parameters > values. Query parameters will be evaluated and replaced each time before the query is executed.")
-    private DynamicObjectMap parametersMapping = DynamicObjectMap.empty();
-
-    @Reference
-    DataSourceService dataSourceService;
-    @Reference
-    ScriptEngineService scriptEngine;
-
-    private ComboPooledDataSource dataSource;
-    private QueryStatementTemplate queryStatement;
-
-    @Override
-    public void initialize() {
-        requireNotBlank(Insert.class, query, "Insert query is not defined");
-        dataSource = dataSourceService.getDataSource(this, connection);
-        queryStatement = new QueryStatementTemplate(query);
-    }
+public class Insert extends AbstractInsert implements ProcessorSync {
 
     @Override
     public Message apply(FlowContext flowContext, Message message) {
-        Connection connection = null;
-        Statement statement = null;
-        ResultSet resultSet = null;
-        String realQuery = null;
-        try {
-            connection = dataSource.getConnection();
-            statement = connection.createStatement();
-
-            Map<String, Object> evaluatedMap = scriptEngine.evaluate(parametersMapping, flowContext, message);
-            realQuery = queryStatement.replace(evaluatedMap);
-
-            int rowCount = statement.executeUpdate(realQuery);
-
-            MessageAttributes attributes = new DatabaseAttributes(realQuery);
-
-            return MessageBuilder.get(Select.class)
-                    .withJavaObject(rowCount)
-                    .attributes(attributes)
-                    .build();
-
-        } catch (Throwable exception) {
-            String error = Optional.ofNullable(realQuery)
-                    .map(query -> QUERY_EXECUTE_ERROR_WITH_QUERY.format(query, rootCauseMessageOf(exception)))
-                    .orElse(QUERY_EXECUTE_ERROR.format(rootCauseMessageOf(exception)));
-            throw new InsertException(error, exception);
-
-        } finally {
-            DatabaseUtils.closeSilently(resultSet);
-            DatabaseUtils.closeSilently(statement);
-            DatabaseUtils.closeSilently(connection);
-        }
-    }
-
-    @Override
-    public void dispose() {
-        this.dataSourceService.dispose(this, connection);
-        this.dataSource = null;
-        this.queryStatement = null;
-    }
-
-    public void setParametersMapping(DynamicObjectMap parametersMapping) {
-        this.parametersMapping = parametersMapping;
-    }
-
-    public void setConnection(ConnectionConfiguration connection) {
-        this.connection = connection;
-    }
-
-    public void setQuery(String query) {
-        this.query = query;
+        return execute(flowContext, message);
     }
 }
@@ -0,0 +1,50 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes;
+import de.codecentric.reedelk.database.internal.commons.AsyncExecution;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.OnResult;
+import de.codecentric.reedelk.runtime.api.component.ProcessorAsync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.util.concurrent.ExecutorService;
+
+@ModuleComponent("SQL Insert (Async)")
+@ComponentOutput(
+        attributes = DatabaseAttributes.class,
+        payload = int.class,
+        description = "The number of rows inserted into the database. In batch mode the total number of rows " +
+                "inserted, while the number of rows inserted by each batch is available in the message attributes.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is used to evaluate the expressions bound to the query parameters mappings. " +
+                "In batch mode the input payload is a collection or a stream of records: " +
+                "the expressions are evaluated for each record.")
+@Description("Executes an INSERT SQL statement on the configured data source connection without blocking the flow thread: " +
+        "the statement is executed on a dedicated executor of the connection configuration, with as many threads as the maximum pool size. " +
+        "Supported databases and drivers: H2 (org.h2.Driver), MySQL (com.mysql.cj.jdbc.Driver), Oracle (oracle.jdbc.Driver), PostgreSQL (org.postgresql.Driver).")
+@Component(service = InsertAsync.class, scope = ServiceScope.PROTOTYPE)
+public class InsertAsync extends AbstractInsert implements ProcessorAsync {
+
+    private ExecutorService executor;
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        executor = dataSourceService.getExecutor(connection);
+    }
+
+    @Override
+    public void apply(FlowContext flowContext, Message message, OnResult callback) {
+        AsyncExecution.execute(executor, this::execute, flowContext, message, callback);
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        this.executor = null;
+    }
+}
@@ -0,0 +1,53 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.Implementor;
+import de.codecentric.reedelk.runtime.api.resource.ResourceText;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+
+@Component(service = MigrationScript.class, scope = ServiceScope.PROTOTYPE)
+public class MigrationScript implements Implementor {
+
+    @Property("Version")
+    @Hint("1.0.0")
+    @Example("2")
+    @Description("The unique version of the migration script, recorded in the ledger table once the script has been applied.")
+    private String version;
+
+    @Property("Description")
+    @Hint("Create orders table")
+    @Example("Add customer index")
+    @Description("A short description of the migration script, recorded in the ledger table.")
+    private String description;
+
+    @Property("Script File")
+    @HintBrowseFile("Select Migration Script ...")
+    @Example("assets/migrations/V1__create_orders.sql")
+    @Description("The file in the project's resources directory containing the migration statements. Statements are separated by ';'.")
+    private ResourceText script;
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public ResourceText getScript() {
+        return script;
+    }
+
+    public void setScript(ResourceText script) {
+        this.script = script;
+    }
+}
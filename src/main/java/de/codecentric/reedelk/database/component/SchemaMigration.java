@@ -0,0 +1,186 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.attribute.SchemaMigrationAttributes;
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
+import de.codecentric.reedelk.database.internal.exception.MigrationException;
+import de.codecentric.reedelk.database.internal.migration.Migration;
+import de.codecentric.reedelk.database.internal.migration.MigrationRunner;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Migration.DUPLICATE_VERSION;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Migration.LEDGER_ERROR;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.*;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+@ModuleComponent("SQL Schema Migration")
+@ComponentOutput(
+        attributes = SchemaMigrationAttributes.class,
+        payload = int.class,
+        description = "The number of migration scripts applied by this execution, 0 if the schema was already up to date.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is not used by this component.")
+@Description("Migrates the database schema of the configured data source connection by applying, in order, the migration " +
+        "scripts not yet recorded in the ledger table. Each applied script is recorded in the ledger table together with " +
+        "the checksum of its content. When the schema is up to date the migration is a single query on the ledger table, " +
+        "otherwise a database lock ensures that only one node at a time applies the pending scripts. " +
+        "Supported databases and drivers: H2 (org.h2.Driver), MySQL (com.mysql.cj.jdbc.Driver), Oracle (oracle.jdbc.Driver), PostgreSQL (org.postgresql.Driver).")
+@Component(service = SchemaMigration.class, scope = ServiceScope.PROTOTYPE)
+public class SchemaMigration implements ProcessorSync {
+
+    private static final String DEFAULT_LEDGER_TABLE = "reedelk_schema_history";
+    private static final int DEFAULT_LOCK_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_LOCK_EXPIRY_SECONDS = 1800;
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    @DialogTitle("Data Source Configuration")
+    @Property("Connection")
+    @Description("Data source configuration of the database to be migrated. " +
+            "Shared configurations use the same connection pool.")
+    private ConnectionConfiguration connection;
+
+    @Property("Migration Scripts")
+    @ListDisplayProperty("version")
+    @DialogTitle("Migration Script")
+    @Description("The migration scripts, in the order they are applied. Once applied, a script must not be " +
+            "modified: schema changes are added as new scripts with a new version.")
+    private List<MigrationScript> scripts = new ArrayList<>();
+
+    @Property("Ledger Table")
+    @Hint("reedelk_schema_history")
+    @Example("schema_version")
+    @DefaultValue("reedelk_schema_history")
+    @Description("The table recording the applied migration scripts. It is created if it does not exist.")
+    private String ledgerTable;
+
+    @Property("Validate Checksums")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the checksum of each applied script is compared with the checksum recorded in the ledger " +
+            "table, and the migration fails if an applied script has been modified: every script is then read and " +
+            "checksummed once after each start. If false, applied scripts are never read, only the pending ones.")
+    private Boolean validateChecksums;
+
+    @Property("Lock Timeout (s)")
+    @Hint("60")
+    @Example("300")
+    @DefaultValue("60")
+    @Description("Seconds to wait for another node to complete its migration before failing.")
+    private Integer lockTimeout;
+
+    @Property("Lock Expiry (s)")
+    @Hint("1800")
+    @Example("3600")
+    @DefaultValue("1800")
+    @Description("Seconds after which a migration lock left behind by a node stopped while migrating is considered " +
+            "expired and is taken over by another node. The lock is refreshed before each script, " +
+            "hence it must be longer than the longest migration script. " +
+            "Used only by databases where the lock is a row of the ledger table (H2, Oracle): elsewhere the database " +
+            "releases the lock when the connection of the stopped node is closed.")
+    private Integer lockExpiry;
+
+    @Reference
+    DataSourceService dataSourceService;
+
+    private MigrationRunner migrationRunner;
+    private DataSource dataSource;
+    private String table;
+    private String currentVersion;
+
+    @Override
+    public void initialize() {
+        requireNotNull(SchemaMigration.class, connection, "Connection configuration must be defined.");
+        requireTrue(SchemaMigration.class, scripts != null && !scripts.isEmpty(), "At least one migration script must be defined.");
+
+        table = Optional.ofNullable(ledgerTable).filter(name -> !name.trim().isEmpty()).map(String::trim).orElse(DEFAULT_LEDGER_TABLE);
+        requireTrue(SchemaMigration.class, TABLE_NAME.matcher(table).matches(), "Ledger table name is not valid.");
+
+        int timeout = Optional.ofNullable(lockTimeout).orElse(DEFAULT_LOCK_TIMEOUT_SECONDS);
+        requireTrue(SchemaMigration.class, timeout >= 0, "Lock timeout must not be negative.");
+
+        int expiry = Optional.ofNullable(lockExpiry).orElse(DEFAULT_LOCK_EXPIRY_SECONDS);
+        requireTrue(SchemaMigration.class, expiry > 0, "Lock expiry must be greater than zero.");
+
+        Set<String> versions = new HashSet<>();
+        List<Migration> migrations = new ArrayList<>();
+        for (MigrationScript script : scripts) {
+            requireNotBlank(SchemaMigration.class, script.getVersion(), "Migration script version must be defined.");
+            requireNotNull(SchemaMigration.class, script.getScript(), "Migration script file must be defined.");
+            String version = script.getVersion().trim();
+            requireTrue(SchemaMigration.class, versions.add(version), DUPLICATE_VERSION.format(version));
+            migrations.add(new Migration(version, script.getDescription(), script.getScript(), connection.getDatabaseDriver()));
+        }
+        currentVersion = migrations.get(migrations.size() - 1).version();
+
+        dataSource = dataSourceService.getInstrumentedDataSource(this, connection);
+        migrationRunner = new MigrationRunner(migrations, table, connection.getDatabaseDriver(),
+                Boolean.TRUE.equals(validateChecksums), timeout, expiry);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        Connection connection = null;
+        List<String> appliedVersions;
+        try {
+            connection = dataSource.getConnection();
+            appliedVersions = migrationRunner.migrate(connection);
+
+        } catch (SQLException exception) {
+            throw new MigrationException(LEDGER_ERROR.format(table, rootCauseMessageOf(exception)), exception);
+
+        } finally {
+            DatabaseUtils.closeSilently(connection);
+        }
+
+        SchemaMigrationAttributes attributes = new SchemaMigrationAttributes(table, appliedVersions, currentVersion);
+        return MessageBuilder.get(SchemaMigration.class)
+                .withJavaObject(appliedVersions.size())
+                .attributes(attributes)
+                .build();
+    }
+
+    @Override
+    public void dispose() {
+        this.dataSourceService.dispose(this, connection);
+        this.migrationRunner = null;
+        this.dataSource = null;
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setScripts(List<MigrationScript> scripts) {
+        this.scripts = scripts;
+    }
+
+    public void setLedgerTable(String ledgerTable) {
+        this.ledgerTable = ledgerTable;
+    }
+
+    public void setValidateChecksums(Boolean validateChecksums) {
+        this.validateChecksums = validateChecksums;
+    }
+
+    public void setLockTimeout(Integer lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+
+    public void setLockExpiry(Integer lockExpiry) {
+        this.lockExpiry = lockExpiry;
+    }
+}
@@ -0,0 +1,50 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes;
+import de.codecentric.reedelk.database.internal.commons.AsyncExecution;
+import de.codecentric.reedelk.database.internal.type.ListOfDatabaseRow;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.OnResult;
+import de.codecentric.reedelk.runtime.api.component.ProcessorAsync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.util.concurrent.ExecutorService;
+
+@ModuleComponent("SQL Select (Async)")
+@ComponentOutput(
+        attributes = DatabaseAttributes.class,
+        payload = ListOfDatabaseRow.class,
+        description = "A list of database rows.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is used to evaluate the expressions bound to the query parameters mappings.")
+@Description("Executes a SELECT SQL statement on the configured data source connection without blocking the flow thread: " +
+        "the statement is executed on a dedicated executor of the connection configuration, with as many threads as the maximum pool size " +
+        "and a bounded queue of waiting executions. Only the execution is asynchronous: the rows are fetched from the database " +
+        "by the flow thread consuming them, which blocks while each batch of <i>Fetch Size</i> rows is fetched. " +
+        "Supported databases and drivers: H2 (org.h2.Driver), MySQL (com.mysql.cj.jdbc.Driver), Oracle (oracle.jdbc.Driver), PostgreSQL (org.postgresql.Driver).")
+@Component(service = SelectAsync.class, scope = ServiceScope.PROTOTYPE)
+public class SelectAsync extends AbstractSelect implements ProcessorAsync {
+
+    private ExecutorService executor;
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        executor = dataSourceService.getExecutor(connection);
+    }
+
+    @Override
+    public void apply(FlowContext flowContext, Message message, OnResult callback) {
+        AsyncExecution.execute(executor, this::execute, flowContext, message, callback);
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        this.executor = null;
+    }
+}
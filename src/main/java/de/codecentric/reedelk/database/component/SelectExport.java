@@ -0,0 +1,316 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.attribute.ExportAttributes;
+import de.codecentric.reedelk.database.internal.commons.*;
+import de.codecentric.reedelk.database.internal.exception.ExportException;
+import de.codecentric.reedelk.database.internal.export.ExportFormat;
+import de.codecentric.reedelk.database.internal.export.ExportResult;
+import de.codecentric.reedelk.database.internal.export.ResultSetExporter;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
+import de.codecentric.reedelk.database.internal.metrics.QueryPhase;
+import de.codecentric.reedelk.database.internal.metrics.QueryTimings;
+import de.codecentric.reedelk.database.internal.slowquery.SlowQueryLog;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import de.codecentric.reedelk.runtime.api.script.dynamicvalue.DynamicString;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+import java.util.Optional;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Export.*;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.*;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+import static java.nio.file.StandardOpenOption.*;
+
+@ModuleComponent("SQL Select Export")
+@ComponentOutput(
+        attributes = ExportAttributes.class,
+        payload = String.class,
+        description = "The path of the file the rows have been written to. The number of rows and bytes written " +
+                "are available in the message attributes.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is used to evaluate the expressions bound to the query parameters mappings and the file path.")
+@Description("Executes a SELECT SQL statement on the configured data source connection and writes the rows to a file " +
+        "as CSV or JSON Lines while they are fetched from the database cursor, without creating a row object for each of them: " +
+        "memory usage stays constant regardless of the number of rows. The file is written under a temporary name " +
+        "and renamed when the export is complete. Supported databases and drivers: H2 (org.h2.Driver), MySQL (com.mysql.cj.jdbc.Driver), " +
+        "Oracle (oracle.jdbc.Driver), PostgreSQL (org.postgresql.Driver).")
+@Component(service = SelectExport.class, scope = ServiceScope.PROTOTYPE)
+public class SelectExport implements ProcessorSync {
+
+    private static final String TEMPORARY_FILE_SUFFIX = ".part";
+
+    @DialogTitle("Data Source Configuration")
+    @Property("Connection")
+    @Description("Data source configuration to be used by this query. " +
+            "Shared configurations use the same connection pool.")
+    private ConnectionConfiguration connection;
+
+    @Property("Select Query")
+    @Hint("SELECT * FROM orders WHERE created >= :since")
+    @Example("<ul>" +
+            "<li><code>SELECT * FROM orders</code></li>" +
+            "<li><code>SELECT id, name, amount FROM orders WHERE created >= :since</code></li>" +
+            "</ul>")
+    @Description("The <b>select</b> query whose rows are exported. The query might contain parameters which will be " +
+            "filled from the expressions defined in the parameters mapping configuration below.")
+    private String query;
+
+    @Property("Query Parameter Mappings")
+    @TabGroup("Query Parameter Mappings")
+    @KeyName("Query Parameter Name")
+    @ValueName("Query Parameter Value")
+    @Example("since > <code>message.payload()</code>")
+    @Description("Mapping of select query parameters > values. Query parameters will be evaluated and bound to the prepared statement each time before the query is executed.")
+    private DynamicObjectMap parametersMapping = DynamicObjectMap.empty();
+
+    @Property("File Path")
+    @Hint("/var/exports/orders.csv")
+    @Example("<code>'/var/exports/orders-' + Util.now() + '.jsonl'</code>")
+    @Description("The path of the file the rows are written to. Missing parent directories are created " +
+            "and an existing file is replaced. The path might be a static or dynamic value.")
+    private DynamicString filePath;
+
+    @Property("Format")
+    @InitValue("CSV")
+    @Example("JSON_LINES")
+    @DefaultValue("CSV")
+    @Description("The format of the exported file: <b>CSV</b> with one line per row, or <b>JSON_LINES</b> " +
+            "with one JSON object per row, whose keys are the column labels. Both are UTF-8 encoded. " +
+            "Binary values are Base64 encoded.")
+    private ExportFormat format;
+
+    @Property("CSV Delimiter")
+    @Hint(",")
+    @Example(";")
+    @DefaultValue(",")
+    @When(propertyName = "format", propertyValue = "CSV")
+    @Description("The character separating the values of a row.")
+    private String csvDelimiter;
+
+    @Property("CSV Header")
+    @Example("false")
+    @DefaultValue("true")
+    @When(propertyName = "format", propertyValue = "CSV")
+    @Description("If true, the first line contains the column labels.")
+    private Boolean csvHeader;
+
+    @Property("Fetch Size")
+    @Hint("1000")
+    @Example("5000")
+    @Description("The number of rows fetched from the database in a single round trip. The rows are read " +
+            "from a forward only, read only server side cursor, configured accordingly for the selected driver. " +
+            "If not defined, 1000 rows are fetched at a time.")
+    private Integer fetchSize;
+
+    @Property("Timing Attributes")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the time spent in each query phase (pool checkout, parameters evaluation, " +
+            "statement preparation and binding, execution, rows fetch and write) is added in microseconds to the <i>timings</i> message attribute.")
+    private Boolean timingAttributes;
+
+    @Reference
+    DataSourceService dataSourceService;
+    @Reference
+    ScriptEngineService scriptEngine;
+
+    private DataSource dataSource;
+    private DatabaseDriver databaseDriver;
+    private QueryStatementTemplate queryStatement;
+    private QueryMetrics queryMetrics;
+    private SlowQueryLog slowQueryLog;
+    private FlowConnections flowConnections;
+    private ExportFormat exportFormat;
+    private char delimiter;
+
+    @Override
+    public void initialize() {
+        requireNotBlank(SelectExport.class, query, "Select query is not defined");
+        requireNotNull(SelectExport.class, filePath, "File path is not defined");
+        exportFormat = Optional.ofNullable(format).orElse(ExportFormat.CSV);
+        String delimiterValue = Optional.ofNullable(csvDelimiter).filter(value -> !value.isEmpty()).orElse(",");
+        requireTrue(SelectExport.class, delimiterValue.length() == 1, "CSV delimiter must be a single character");
+        delimiter = delimiterValue.charAt(0);
+
+        dataSource = dataSourceService.getReadDataSource(this, connection);
+        databaseDriver = connection.getDatabaseDriver();
+        queryStatement = new QueryStatementTemplate(query, parametersMapping.keySet());
+        queryMetrics = dataSourceService.queryMetrics().register(SelectExport.class, query);
+        slowQueryLog = dataSourceService.getSlowQueryLog(connection);
+        flowConnections = dataSourceService.getFlowConnections(connection);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        Path file = filePathOf(flowContext, message);
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        String realQuery = null;
+        QueryTimings timings = new QueryTimings(queryMetrics);
+
+        // Within a transaction the query is executed on its connection. Otherwise the
+        // cursor is opened on a connection of its own, returned once the rows are written.
+        boolean bound = flowConnections.isTransactionActive(flowContext);
+
+        Map<String, Object> evaluatedMap;
+        try {
+            connection = bound ?
+                    flowConnections.getConnection(flowContext) :
+                    dataSource.getConnection();
+            timings.mark(QueryPhase.CHECKOUT);
+
+            realQuery = queryStatement.preparedQuery();
+
+            evaluatedMap = scriptEngine.evaluate(parametersMapping, flowContext, message);
+            timings.mark(QueryPhase.EVALUATE);
+
+            statement = StreamingCursor.prepare(connection, databaseDriver, realQuery, fetchSize);
+            queryStatement.bind(statement, evaluatedMap);
+            timings.mark(QueryPhase.RENDER);
+
+            resultSet = statement.executeQuery();
+            timings.mark(QueryPhase.EXECUTE);
+
+            ResultSetExporter exporter = new ResultSetExporter(
+                    exportFormat.encoder(resultSet.getMetaData(), delimiter, !Boolean.FALSE.equals(csvHeader)));
+            ExportResult result = write(exporter, resultSet, file);
+            timings.mark(QueryPhase.FETCH);
+
+            slowQueryLog.record(queryMetrics.getId(), queryStatement, evaluatedMap, timings.nanos(QueryPhase.EXECUTE), result.rowCount());
+
+            ExportAttributes attributes = new ExportAttributes(query, file.toString(), exportFormat.name(), result.rowCount(), result.bytesWritten());
+            if (isTimingAttributes()) attributes.setTimings(timings.asMap());
+
+            return MessageBuilder.get(SelectExport.class)
+                    .withText(file.toString())
+                    .attributes(attributes)
+                    .build();
+
+        } catch (ExportException exception) {
+            throw exception;
+
+        } catch (Throwable exception) {
+            String error = Optional.ofNullable(realQuery)
+                    .map(query -> QUERY_EXECUTE_ERROR_WITH_QUERY.format(query, rootCauseMessageOf(exception)))
+                    .orElse(QUERY_EXECUTE_ERROR.format(rootCauseMessageOf(exception)));
+            throw new ExportException(error, exception);
+
+        } finally {
+            DatabaseUtils.closeSilently(resultSet);
+            DatabaseUtils.closeSilently(statement);
+            if (!bound) DatabaseUtils.restoreAutoCommitSilently(connection);
+            DatabaseUtils.closeSilently(connection);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        this.dataSourceService.queryMetrics().unregister(queryMetrics);
+        this.dataSourceService.dispose(this, connection);
+        this.dataSource = null;
+        this.databaseDriver = null;
+        this.queryStatement = null;
+        this.queryMetrics = null;
+        this.slowQueryLog = null;
+        this.flowConnections = null;
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public void setParametersMapping(DynamicObjectMap parametersMapping) {
+        this.parametersMapping = parametersMapping;
+    }
+
+    public void setFilePath(DynamicString filePath) {
+        this.filePath = filePath;
+    }
+
+    public void setFormat(ExportFormat format) {
+        this.format = format;
+    }
+
+    public void setCsvDelimiter(String csvDelimiter) {
+        this.csvDelimiter = csvDelimiter;
+    }
+
+    public void setCsvHeader(Boolean csvHeader) {
+        this.csvHeader = csvHeader;
+    }
+
+    public void setFetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public void setTimingAttributes(Boolean timingAttributes) {
+        this.timingAttributes = timingAttributes;
+    }
+
+    private boolean isTimingAttributes() {
+        return Boolean.TRUE.equals(timingAttributes);
+    }
+
+    private Path filePathOf(FlowContext flowContext, Message message) {
+        String path = scriptEngine.evaluate(filePath, flowContext, message)
+                .filter(value -> !value.trim().isEmpty())
+                .orElseThrow(() -> new ExportException(FILE_PATH_EMPTY.format(filePath.value())));
+        return Paths.get(path);
+    }
+
+    // The rows are written to a temporary file in the same directory, moved to the
+    // target path only once complete: readers never see a partially written export.
+    private ExportResult write(ResultSetExporter exporter, ResultSet resultSet, Path file) throws Exception {
+        Path temporary = file.resolveSibling(file.getFileName() + TEMPORARY_FILE_SUFFIX);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+
+            ExportResult result;
+            try (FileChannel channel = FileChannel.open(temporary, CREATE, TRUNCATE_EXISTING, WRITE)) {
+                result = exporter.export(resultSet, channel);
+            }
+            move(temporary, file);
+            return result;
+
+        } catch (IOException exception) {
+            Files.deleteIfExists(temporary);
+            throw new ExportException(FILE_WRITE_ERROR.format(file, rootCauseMessageOf(exception)), exception);
+
+        } catch (Exception exception) {
+            Files.deleteIfExists(temporary);
+            throw exception;
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException exception) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
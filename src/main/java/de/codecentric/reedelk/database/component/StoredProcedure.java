@@ -0,0 +1,395 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.attribute.BatchAttributes;
+import de.codecentric.reedelk.database.internal.attribute.StoredProcedureAttributes;
+import de.codecentric.reedelk.database.internal.batch.BatchResult;
+import de.codecentric.reedelk.database.internal.batch.BatchStatementExecutor;
+import de.codecentric.reedelk.database.internal.commons.*;
+import de.codecentric.reedelk.database.internal.exception.StoredProcedureException;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
+import de.codecentric.reedelk.database.internal.metrics.QueryPhase;
+import de.codecentric.reedelk.database.internal.metrics.QueryTimings;
+import de.codecentric.reedelk.database.internal.slowquery.SlowQueryLog;
+import de.codecentric.reedelk.database.internal.storedprocedure.ProcedureCall;
+import de.codecentric.reedelk.database.internal.type.DatabaseRow;
+import de.codecentric.reedelk.database.internal.type.ListOfDatabaseRow;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.message.content.TypedPublisher;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.io.Serializable;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.StoredProcedure.*;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotBlank;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireTrue;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+@ModuleComponent("SQL Stored Procedure")
+@ComponentOutput(
+        attributes = StoredProcedureAttributes.class,
+        payload = { ListOfDatabaseRow.class, Map.class, int.class },
+        description = "The rows of the result set returned by the stored procedure, if any, otherwise the map of output " +
+                "parameter names and values. In batch mode the total number of rows affected by the calls.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is used to evaluate the expressions bound to the input parameters mappings. " +
+                "In batch mode the input payload is a collection or a stream of records: " +
+                "the expressions are evaluated for each record.")
+@Description("Calls a stored procedure on the configured data source connection. Supported databases and drivers: H2 (org.h2.Driver), MySQL (com.mysql.cj.jdbc.Driver), Oracle (oracle.jdbc.Driver), PostgreSQL (org.postgresql.Driver).")
+@Component(service = StoredProcedure.class, scope = ServiceScope.PROTOTYPE)
+public class StoredProcedure implements ProcessorSync {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    @DialogTitle("Data Source Configuration")
+    @Property("Connection")
+    @Description("Data source configuration to be used by this stored procedure call. " +
+            "Shared configurations use the same connection pool.")
+    private ConnectionConfiguration connection;
+
+    @Property("Procedure Call")
+    @Example("<ul>" +
+            "<li><code>{call raise_salary(:employeeId, :percent, :newSalary)}</code></li>" +
+            "<li><code>{:total = call order_total(:orderId)}</code></li>" +
+            "</ul>")
+    @Hint("{call raise_salary(:employeeId, :percent, :newSalary)}")
+    @Description("The stored procedure call in JDBC escape syntax. The call might contain named parameters: " +
+            "parameters mapped in the input parameter mappings are IN parameters, parameters with an output SQL type " +
+            "are OUT parameters and parameters having both are INOUT parameters.")
+    private String procedure;
+
+    @Property("Input Parameter Mappings")
+    @TabGroup("Parameter Mappings")
+    @KeyName("Parameter Name")
+    @ValueName("Parameter Value")
+    @Example("employeeId > <code>message.payload()</code>")
+    @Description("Mapping of IN and INOUT parameters > values. Parameters will be evaluated and bound to the callable statement each time before the procedure is called.")
+    private DynamicObjectMap parametersMapping = DynamicObjectMap.empty();
+
+    @Property("Output Parameters")
+    @TabGroup("Parameter Mappings")
+    @KeyName("Parameter Name")
+    @ValueName("SQL Type")
+    @Example("newSalary > DECIMAL")
+    @Description("Mapping of OUT and INOUT parameters > JDBC SQL type names (e.g. VARCHAR, INTEGER, DECIMAL, TIMESTAMP). " +
+            "The output values are added to the <i>outputParameters</i> message attribute. " +
+            "Drivers (e.g. MySQL) return the output values only after the result set of the procedure has been read: " +
+            "when a procedure returns both, the rows are read in memory before the output values instead of being streamed. " +
+            "Cursor types (REF_CURSOR) are not supported.")
+    private Map<String, String> outputParameters = new HashMap<>();
+
+    @Property("Batch Mode")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the input payload is expected to be a collection or a stream of records. " +
+            "The input parameter mappings are evaluated for each record, in which <code>message.payload()</code> " +
+            "is the current record, and the procedure is called for each record using JDBC batches. " +
+            "Output parameters are not supported in batch mode.")
+    private Boolean batch;
+
+    @Property("Batch Size")
+    @Hint("1000")
+    @Example("500")
+    @DefaultValue("1000")
+    @When(propertyName = "batch", propertyValue = "true")
+    @Description("The number of calls sent to the database in a single batch. " +
+            "Each batch is executed and committed in its own transaction: if a batch fails, only that batch " +
+            "is rolled back and the batches before it stay committed. Within a flow transaction, " +
+            "the batches are committed or rolled back together with the transaction.")
+    private Integer batchSize;
+
+    @Property("Lazy LOB Access")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, BLOB and CLOB columns of the result set returned by the procedure are not read into memory: " +
+            "each row holds a handle (<i>getInputStream()</i>, <i>getReader()</i>, <i>read(position, length)</i>) and " +
+            "the content is read from the database only when it is consumed. The connection is kept open and the handles " +
+            "are valid until the end of the flow execution, or until more than <i>Max Open LOBs</i> handles are read " +
+            "by the same call, in which case the oldest ones are released. Handles are not serialized.")
+    private Boolean lazyLobs;
+
+    @Property("Max Open LOBs")
+    @Hint("1000")
+    @Example("5000")
+    @DefaultValue("1000")
+    @When(propertyName = "lazyLobs", propertyValue = "true")
+    @Description("The maximum number of lazy LOB handles kept open for each call execution. Each open handle might hold " +
+            "a locator or a temporary copy of the value in the database. Beyond this number the oldest handles are released " +
+            "and a warning is logged: reading the content of a released handle fails.")
+    private Integer maxOpenLobs;
+
+    @Property("Timing Attributes")
+    @Example("true")
+    @DefaultValue("false")
+    @Description("If true, the time spent in each call phase (pool checkout, parameters evaluation, " +
+            "statement preparation and binding, execution) is added in microseconds to the <i>timings</i> message attribute.")
+    private Boolean timingAttributes;
+
+    @Reference
+    DataSourceService dataSourceService;
+    @Reference
+    ScriptEngineService scriptEngine;
+
+    private DatabaseDriver databaseDriver;
+    private ProcedureCall procedureCall;
+    private BatchStatementExecutor batchExecutor;
+    private QueryMetrics queryMetrics;
+    private SlowQueryLog slowQueryLog;
+    private FlowConnections flowConnections;
+
+    @Override
+    public void initialize() {
+        requireNotBlank(StoredProcedure.class, procedure, "Procedure call is not defined");
+        requireTrue(StoredProcedure.class, maxOpenLobs == null || maxOpenLobs > 0, "Max open LOBs must be greater than zero");
+        Map<String, Integer> outputTypes = new LinkedHashMap<>();
+        outputParameters.forEach((name, typeName) -> {
+            Integer sqlType = ProcedureCall.sqlTypeOf(typeName);
+            requireTrue(StoredProcedure.class, sqlType != null, OUT_PARAMETER_TYPE_NOT_SUPPORTED.format(typeName, name));
+            outputTypes.put(name, sqlType);
+        });
+        dataSourceService.getDataSource(this, connection);
+        databaseDriver = connection.getDatabaseDriver();
+        procedureCall = new ProcedureCall(procedure, parametersMapping.keySet(), outputTypes);
+        queryMetrics = dataSourceService.queryMetrics().register(StoredProcedure.class, procedure);
+        slowQueryLog = dataSourceService.getSlowQueryLog(connection);
+        flowConnections = dataSourceService.getFlowConnections(connection);
+        if (Boolean.TRUE.equals(batch)) {
+            int size = Optional.ofNullable(batchSize).orElse(DEFAULT_BATCH_SIZE);
+            requireTrue(StoredProcedure.class, size > 0, "Batch size must be greater than zero");
+            requireTrue(StoredProcedure.class, !procedureCall.hasOutputParameters(), "Output parameters are not supported in batch mode");
+            batchExecutor = new BatchStatementExecutor(procedureCall.template(), size, true);
+        }
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        if (batchExecutor != null) {
+            return applyBatch(flowContext, message);
+        }
+
+        Connection connection = null;
+        CallableStatement statement = null;
+        ResultSet resultSet = null;
+        String realCall = null;
+        QueryTimings timings = new QueryTimings(queryMetrics);
+        LinkedHashMap<String, Serializable> outputValues = new LinkedHashMap<>();
+        ListOfDatabaseRow rows = null;
+        int updateCount = -1;
+
+        try {
+            connection = flowConnections.getConnection(flowContext);
+            timings.mark(QueryPhase.CHECKOUT);
+
+            realCall = procedureCall.preparedCall();
+
+            Map<String, Object> evaluatedMap = scriptEngine.evaluate(parametersMapping, flowContext, message);
+            timings.mark(QueryPhase.EVALUATE);
+
+            statement = connection.prepareCall(realCall);
+            procedureCall.bind(statement, evaluatedMap);
+            timings.mark(QueryPhase.RENDER);
+
+            boolean hasResultSet = statement.execute();
+            timings.mark(QueryPhase.EXECUTE);
+
+            // The procedure might return update counts before its result set: they are summed up.
+            while (!hasResultSet) {
+                int count = statement.getUpdateCount();
+                if (count == -1) break;
+                updateCount = Math.max(updateCount, 0) + count;
+                hasResultSet = statement.getMoreResults();
+            }
+
+            if (hasResultSet) resultSet = statement.getResultSet();
+
+            // Output values are read after the rows: drivers might return them only once the result
+            // set has been read. H2 instead returns the output values as the row of the call result set.
+            if (resultSet != null && procedureCall.hasOutputParameters()) {
+                if (databaseDriver != DatabaseDriver.H2) rows = rowsOf(resultSet);
+                outputValues = procedureCall.outputValues(statement);
+                DatabaseUtils.closeSilently(resultSet);
+                resultSet = null;
+            } else if (resultSet == null) {
+                outputValues = procedureCall.outputValues(statement);
+            }
+
+        } catch (Throwable exception) {
+            DatabaseUtils.closeSilently(resultSet);
+            DatabaseUtils.closeSilently(statement);
+            DatabaseUtils.closeSilently(connection);
+
+            String error = Optional.ofNullable(realCall)
+                    .map(call -> CALL_ERROR_WITH_CALL.format(call, rootCauseMessageOf(exception)))
+                    .orElse(CALL_ERROR.format(rootCauseMessageOf(exception)));
+            throw new StoredProcedureException(error, exception);
+        }
+
+        StoredProcedureAttributes attributes = new StoredProcedureAttributes(procedure, outputValues, updateCount);
+        if (isTimingAttributes()) attributes.setTimings(timings.asMap());
+
+        if (resultSet == null) {
+            DatabaseUtils.closeSilently(statement);
+            DatabaseUtils.closeSilently(connection);
+
+            // A call has no plan to be captured.
+            int affected = rows != null ? rows.size() : Math.max(updateCount, 0);
+            slowQueryLog.record(queryMetrics.getId(), procedureCall.template(), null, timings.nanos(QueryPhase.EXECUTE), affected);
+
+            return MessageBuilder.get(StoredProcedure.class)
+                    .withJavaObject(rows != null ? rows : outputValues)
+                    .attributes(attributes)
+                    .build();
+        }
+
+        // The rows of the result set are streamed as in the Select component.
+        DisposableResultSet disposableResultSet = new DisposableResultSet(connection, statement, resultSet, false,
+                Optional.ofNullable(maxOpenLobs).orElse(DisposableResultSet.DEFAULT_MAX_OPEN_LOBS));
+        flowContext.register(disposableResultSet);
+
+        DatabaseRowConverter converter;
+        try {
+            converter = DatabaseRowConverter.from(disposableResultSet.getMetaData(), false,
+                    isLazyLobs() ? disposableResultSet::track : null);
+        } catch (SQLException exception) {
+            String error = METADATA_FETCH_ERROR.format(
+                    exception.getErrorCode(),
+                    exception.getSQLState(),
+                    exception.getMessage());
+            throw new StoredProcedureException(error, exception);
+        }
+
+        TypedPublisher<DatabaseRow> stream = DatabaseRowStream.from(
+                converter,
+                disposableResultSet,
+                queryMetrics,
+                slowQueryLog,
+                procedureCall.template(),
+                null,
+                timings.nanos(QueryPhase.EXECUTE),
+                isLazyLobs());
+
+        return MessageBuilder.get(StoredProcedure.class)
+                .withTypedPublisher(stream)
+                .attributes(attributes)
+                .build();
+    }
+
+    @Override
+    public void dispose() {
+        this.dataSourceService.queryMetrics().unregister(queryMetrics);
+        this.dataSourceService.dispose(this, connection);
+        this.flowConnections = null;
+        this.databaseDriver = null;
+        this.procedureCall = null;
+        this.batchExecutor = null;
+        this.queryMetrics = null;
+        this.slowQueryLog = null;
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setProcedure(String procedure) {
+        this.procedure = procedure;
+    }
+
+    public void setParametersMapping(DynamicObjectMap parametersMapping) {
+        this.parametersMapping = parametersMapping;
+    }
+
+    public void setOutputParameters(Map<String, String> outputParameters) {
+        this.outputParameters = outputParameters;
+    }
+
+    public void setBatch(Boolean batch) {
+        this.batch = batch;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setLazyLobs(Boolean lazyLobs) {
+        this.lazyLobs = lazyLobs;
+    }
+
+    public void setMaxOpenLobs(Integer maxOpenLobs) {
+        this.maxOpenLobs = maxOpenLobs;
+    }
+
+    public void setTimingAttributes(Boolean timingAttributes) {
+        this.timingAttributes = timingAttributes;
+    }
+
+    private boolean isTimingAttributes() {
+        return Boolean.TRUE.equals(timingAttributes);
+    }
+
+    private boolean isLazyLobs() {
+        return Boolean.TRUE.equals(lazyLobs);
+    }
+
+    private static ListOfDatabaseRow rowsOf(ResultSet resultSet) throws SQLException {
+        DatabaseRowConverter converter = DatabaseRowConverter.from(resultSet.getMetaData(), false, null);
+        ListOfDatabaseRow rows = new ListOfDatabaseRow();
+        while (resultSet.next()) {
+            rows.add(converter.convert(resultSet));
+        }
+        return rows;
+    }
+
+    private Message applyBatch(FlowContext flowContext, Message message) {
+        Connection connection = null;
+        try {
+            QueryTimings timings = new QueryTimings(queryMetrics);
+
+            connection = flowConnections.getConnection(flowContext);
+            timings.mark(QueryPhase.CHECKOUT);
+
+            Iterable<?> records = BatchStatementExecutor.recordsOf(message.payload());
+
+            BatchResult result = batchExecutor.execute(connection, records, record -> {
+                Message recordMessage = MessageBuilder.get(StoredProcedure.class)
+                        .withJavaObject(record)
+                        .attributes(message.getAttributes())
+                        .build();
+                return scriptEngine.evaluate(parametersMapping, flowContext, recordMessage);
+            });
+
+            // Parameters are evaluated and bound record by record while the batches
+            // are executed: in batch mode all of it is recorded as execution time.
+            timings.mark(QueryPhase.EXECUTE);
+
+            slowQueryLog.record(queryMetrics.getId(), procedureCall.template(), null, timings.nanos(QueryPhase.EXECUTE), result.total());
+
+            BatchAttributes attributes = new BatchAttributes(procedure, result);
+            if (isTimingAttributes()) attributes.setTimings(timings.asMap());
+
+            return MessageBuilder.get(StoredProcedure.class)
+                    .withJavaObject(result.total())
+                    .attributes(attributes)
+                    .build();
+
+        } catch (Throwable exception) {
+            String error = CALL_ERROR_WITH_CALL.format(procedureCall.preparedCall(), rootCauseMessageOf(exception));
+            throw new StoredProcedureException(error, exception);
+
+        } finally {
+            DatabaseUtils.closeSilently(connection);
+        }
+    }
+}
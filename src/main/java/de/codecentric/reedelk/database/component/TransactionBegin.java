@@ -0,0 +1,92 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.FlowConnections;
+import de.codecentric.reedelk.database.internal.exception.TransactionException;
+import de.codecentric.reedelk.database.internal.transaction.TransactionIsolation;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Transaction.ALREADY_ACTIVE;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Transaction.BEGIN_ERROR;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNull;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+@ModuleComponent("SQL Transaction Begin")
+@ComponentOutput(
+        attributes = ComponentOutput.PreviousComponent.class,
+        payload = ComponentOutput.PreviousComponent.class,
+        description = "The input message is not changed by this component.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is not used by this component.")
+@Description("Begins a transaction on the configured data source connection. The SQL components using the same " +
+        "connection configuration in this flow execution run their statements within the transaction, on one connection " +
+        "with auto commit disabled, until the transaction is ended by a <i>SQL Transaction Commit</i> or " +
+        "<i>SQL Transaction Rollback</i> component. A transaction still active when the flow execution ends, " +
+        "for instance because of an error, is rolled back.")
+@Component(service = TransactionBegin.class, scope = ServiceScope.PROTOTYPE)
+public class TransactionBegin implements ProcessorSync {
+
+    @DialogTitle("Data Source Configuration")
+    @Property("Connection")
+    @Description("Data source configuration the transaction is begun on. " +
+            "Shared configurations use the same connection pool.")
+    private ConnectionConfiguration connection;
+
+    @Property("Isolation Level")
+    @Example("SERIALIZABLE")
+    @InitValue("DEFAULT")
+    @DefaultValue("DEFAULT")
+    @Description("The isolation level of the transaction. If <b>DEFAULT</b> the default isolation level of the database is used.")
+    private TransactionIsolation isolation;
+
+    @Reference
+    DataSourceService dataSourceService;
+
+    private FlowConnections flowConnections;
+
+    @Override
+    public void initialize() {
+        requireNotNull(TransactionBegin.class, connection, "Connection configuration must be defined.");
+        dataSourceService.getDataSource(this, connection);
+        flowConnections = dataSourceService.getFlowConnections(connection);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        boolean begun;
+        try {
+            begun = flowConnections.begin(flowContext, Optional.ofNullable(isolation).orElse(TransactionIsolation.DEFAULT));
+        } catch (SQLException exception) {
+            String error = BEGIN_ERROR.format(connection.getId(), rootCauseMessageOf(exception));
+            throw new TransactionException(error, exception);
+        }
+        if (!begun) {
+            throw new TransactionException(ALREADY_ACTIVE.format(connection.getId()));
+        }
+        return message;
+    }
+
+    @Override
+    public void dispose() {
+        this.dataSourceService.dispose(this, connection);
+        this.flowConnections = null;
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+
+    public void setIsolation(TransactionIsolation isolation) {
+        this.isolation = isolation;
+    }
+}
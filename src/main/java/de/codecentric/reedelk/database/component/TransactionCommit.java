@@ -0,0 +1,76 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.FlowConnections;
+import de.codecentric.reedelk.database.internal.exception.TransactionException;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.sql.SQLException;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Transaction.COMMIT_ERROR;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Transaction.NOT_ACTIVE;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNull;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+@ModuleComponent("SQL Transaction Commit")
+@ComponentOutput(
+        attributes = ComponentOutput.PreviousComponent.class,
+        payload = ComponentOutput.PreviousComponent.class,
+        description = "The input message is not changed by this component.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is not used by this component.")
+@Description("Commits the transaction begun by a <i>SQL Transaction Begin</i> component on the configured data source " +
+        "connection in this flow execution. If the commit fails the transaction is rolled back. " +
+        "An error is thrown if no transaction is active.")
+@Component(service = TransactionCommit.class, scope = ServiceScope.PROTOTYPE)
+public class TransactionCommit implements ProcessorSync {
+
+    @DialogTitle("Data Source Configuration")
+    @Property("Connection")
+    @Description("Data source configuration the transaction to be committed was begun on.")
+    private ConnectionConfiguration connection;
+
+    @Reference
+    DataSourceService dataSourceService;
+
+    private FlowConnections flowConnections;
+
+    @Override
+    public void initialize() {
+        requireNotNull(TransactionCommit.class, connection, "Connection configuration must be defined.");
+        dataSourceService.getDataSource(this, connection);
+        flowConnections = dataSourceService.getFlowConnections(connection);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        boolean committed;
+        try {
+            committed = flowConnections.commit(flowContext);
+        } catch (SQLException exception) {
+            String error = COMMIT_ERROR.format(connection.getId(), rootCauseMessageOf(exception));
+            throw new TransactionException(error, exception);
+        }
+        if (!committed) {
+            throw new TransactionException(NOT_ACTIVE.format(connection.getId()));
+        }
+        return message;
+    }
+
+    @Override
+    public void dispose() {
+        this.dataSourceService.dispose(this, connection);
+        this.flowConnections = null;
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+}
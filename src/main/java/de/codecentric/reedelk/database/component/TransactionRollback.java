@@ -0,0 +1,71 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.FlowConnections;
+import de.codecentric.reedelk.database.internal.exception.TransactionException;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.sql.SQLException;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Transaction.ROLLBACK_ERROR;
+import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNull;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+@ModuleComponent("SQL Transaction Rollback")
+@ComponentOutput(
+        attributes = ComponentOutput.PreviousComponent.class,
+        payload = ComponentOutput.PreviousComponent.class,
+        description = "The input message is not changed by this component.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is not used by this component.")
+@Description("Rolls back the transaction begun by a <i>SQL Transaction Begin</i> component on the configured data source " +
+        "connection in this flow execution, for instance in the catch flow of a Try-Catch. " +
+        "Nothing is done if no transaction is active.")
+@Component(service = TransactionRollback.class, scope = ServiceScope.PROTOTYPE)
+public class TransactionRollback implements ProcessorSync {
+
+    @DialogTitle("Data Source Configuration")
+    @Property("Connection")
+    @Description("Data source configuration the transaction to be rolled back was begun on.")
+    private ConnectionConfiguration connection;
+
+    @Reference
+    DataSourceService dataSourceService;
+
+    private FlowConnections flowConnections;
+
+    @Override
+    public void initialize() {
+        requireNotNull(TransactionRollback.class, connection, "Connection configuration must be defined.");
+        dataSourceService.getDataSource(this, connection);
+        flowConnections = dataSourceService.getFlowConnections(connection);
+    }
+
+    @Override
+    public Message apply(FlowContext flowContext, Message message) {
+        try {
+            flowConnections.rollback(flowContext);
+        } catch (SQLException exception) {
+            String error = ROLLBACK_ERROR.format(connection.getId(), rootCauseMessageOf(exception));
+            throw new TransactionException(error, exception);
+        }
+        return message;
+    }
+
+    @Override
+    public void dispose() {
+        this.dataSourceService.dispose(this, connection);
+        this.flowConnections = null;
+    }
+
+    public void setConnection(ConnectionConfiguration connection) {
+        this.connection = connection;
+    }
+}
@@ -0,0 +1,49 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes;
+import de.codecentric.reedelk.database.internal.commons.AsyncExecution;
+import de.codecentric.reedelk.runtime.api.annotation.*;
+import de.codecentric.reedelk.runtime.api.component.OnResult;
+import de.codecentric.reedelk.runtime.api.component.ProcessorAsync;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.ServiceScope;
+
+import java.util.concurrent.ExecutorService;
+
+@ModuleComponent("SQL Update (Async)")
+@ComponentOutput(
+        attributes = DatabaseAttributes.class,
+        payload = int.class,
+        description = "The number of rows updated in the database. In batch mode the total number of rows " +
+                "updated, while the number of rows updated by each statement is available in the message attributes.")
+@ComponentInput(
+        payload = Object.class,
+        description = "The input payload is used to evaluate the expressions bound to the query parameters mappings. " +
+                "In batch mode the input payload is a list of items: the expressions are evaluated for each item.")
+@Description("Executes an UPDATE SQL statement on the configured data source connection without blocking the flow thread: " +
+        "the statement is executed on a dedicated executor of the connection configuration, with as many threads as the maximum pool size. " +
+        "Supported databases and drivers: H2 (org.h2.Driver), MySQL (com.mysql.cj.jdbc.Driver), Oracle (oracle.jdbc.Driver), PostgreSQL (org.postgresql.Driver).")
+@Component(service = UpdateAsync.class, scope = ServiceScope.PROTOTYPE)
+public class UpdateAsync extends AbstractUpdate implements ProcessorAsync {
+
+    private ExecutorService executor;
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        executor = dataSourceService.getExecutor(connection);
+    }
+
+    @Override
+    public void apply(FlowContext flowContext, Message message, OnResult callback) {
+        AsyncExecution.execute(executor, this::execute, flowContext, message, callback);
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        this.executor = null;
+    }
+}
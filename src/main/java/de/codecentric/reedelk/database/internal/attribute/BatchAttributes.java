@@ -0,0 +1,35 @@
+package de.codecentric.reedelk.database.internal.attribute;
+
+import de.codecentric.reedelk.database.internal.batch.BatchResult;
+import de.codecentric.reedelk.runtime.api.annotation.Type;
+import de.codecentric.reedelk.runtime.api.annotation.TypeProperty;
+import de.codecentric.reedelk.runtime.api.commons.SerializableUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static de.codecentric.reedelk.database.internal.attribute.BatchAttributes.CHUNK_ROW_COUNTS;
+import static de.codecentric.reedelk.database.internal.attribute.BatchAttributes.ROW_COUNT;
+import static de.codecentric.reedelk.database.internal.attribute.BatchAttributes.ROW_COUNTS;
+import static de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes.QUERY;
+import static de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes.TIMINGS;
+
+@Type
+@TypeProperty(name = QUERY, type = String.class)
+@TypeProperty(name = ROW_COUNT, type = int.class)
+@TypeProperty(name = CHUNK_ROW_COUNTS, type = List.class)
+@TypeProperty(name = ROW_COUNTS, type = int[].class)
+@TypeProperty(name = TIMINGS, type = Map.class)
+public class BatchAttributes extends DatabaseAttributes {
+
+    static final String ROW_COUNT = "rowCount";
+    static final String CHUNK_ROW_COUNTS = "chunkRowCounts";
+    static final String ROW_COUNTS = "rowCounts";
+
+    public BatchAttributes(String query, BatchResult result) {
+        super(query);
+        put(ROW_COUNT, result.total());
+        put(CHUNK_ROW_COUNTS, SerializableUtils.asSerializableList(result.chunkRowCounts()));
+        put(ROW_COUNTS, result.rowCounts());
+    }
+}
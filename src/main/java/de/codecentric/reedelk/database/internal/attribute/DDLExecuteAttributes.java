@@ -2,15 +2,40 @@ package de.codecentric.reedelk.database.internal.attribute;
 
 import de.codecentric.reedelk.runtime.api.annotation.Type;
 import de.codecentric.reedelk.runtime.api.annotation.TypeProperty;
+import de.codecentric.reedelk.runtime.api.commons.SerializableUtils;
 import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Type
 @TypeProperty(name = DDLExecuteAttributes.DDL, type = String.class)
+@TypeProperty(name = DDLExecuteAttributes.STATEMENT_COUNT, type = int.class)
+@TypeProperty(name = DDLExecuteAttributes.ROW_COUNTS, type = int[].class)
+@TypeProperty(name = DDLExecuteAttributes.TIMINGS, type = Map.class)
+@TypeProperty(name = DDLExecuteAttributes.STATEMENT_TIMINGS, type = List.class)
 public class DDLExecuteAttributes extends MessageAttributes {
 
     static final String DDL = "ddl";
+    static final String STATEMENT_COUNT = "statementCount";
+    static final String ROW_COUNTS = "rowCounts";
+    static final String TIMINGS = "timings";
+    static final String STATEMENT_TIMINGS = "statementTimings";
 
-    public DDLExecuteAttributes(String ddl) {
+    public DDLExecuteAttributes(String ddl, int[] rowCounts) {
         put(DDL, ddl);
+        put(STATEMENT_COUNT, rowCounts.length);
+        put(ROW_COUNTS, rowCounts);
+    }
+
+    // Execution phase > duration in microseconds.
+    public void setTimings(LinkedHashMap<String, Long> timings) {
+        put(TIMINGS, timings);
+    }
+
+    // Duration in microseconds of each statement of the script, in execution order.
+    public void setStatementTimings(List<Long> statementTimings) {
+        put(STATEMENT_TIMINGS, SerializableUtils.asSerializableList(statementTimings));
     }
 }
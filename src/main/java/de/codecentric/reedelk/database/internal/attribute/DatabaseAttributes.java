@@ -4,15 +4,26 @@ import de.codecentric.reedelk.runtime.api.annotation.Type;
 import de.codecentric.reedelk.runtime.api.annotation.TypeProperty;
 import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import static de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes.QUERY;
+import static de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes.TIMINGS;
 
 @Type
 @TypeProperty(name = QUERY, type = String.class)
+@TypeProperty(name = TIMINGS, type = Map.class)
 public class DatabaseAttributes extends MessageAttributes {
 
     static final String QUERY = "query";
+    static final String TIMINGS = "timings";
 
     public DatabaseAttributes(String query) {
         put(QUERY, query);
     }
+
+    // Query phase > duration in microseconds.
+    public void setTimings(LinkedHashMap<String, Long> timings) {
+        put(TIMINGS, timings);
+    }
 }
@@ -0,0 +1,33 @@
+package de.codecentric.reedelk.database.internal.attribute;
+
+import de.codecentric.reedelk.runtime.api.annotation.Type;
+import de.codecentric.reedelk.runtime.api.annotation.TypeProperty;
+
+import java.util.Map;
+
+import static de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes.QUERY;
+import static de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes.TIMINGS;
+import static de.codecentric.reedelk.database.internal.attribute.ExportAttributes.*;
+
+@Type
+@TypeProperty(name = QUERY, type = String.class)
+@TypeProperty(name = FILE, type = String.class)
+@TypeProperty(name = FORMAT, type = String.class)
+@TypeProperty(name = ROW_COUNT, type = long.class)
+@TypeProperty(name = BYTES_WRITTEN, type = long.class)
+@TypeProperty(name = TIMINGS, type = Map.class)
+public class ExportAttributes extends DatabaseAttributes {
+
+    static final String FILE = "file";
+    static final String FORMAT = "format";
+    static final String ROW_COUNT = "rowCount";
+    static final String BYTES_WRITTEN = "bytesWritten";
+
+    public ExportAttributes(String query, String file, String format, long rowCount, long bytesWritten) {
+        super(query);
+        put(FILE, file);
+        put(FORMAT, format);
+        put(ROW_COUNT, rowCount);
+        put(BYTES_WRITTEN, bytesWritten);
+    }
+}
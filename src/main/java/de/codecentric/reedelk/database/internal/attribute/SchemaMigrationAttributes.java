@@ -0,0 +1,25 @@
+package de.codecentric.reedelk.database.internal.attribute;
+
+import de.codecentric.reedelk.runtime.api.annotation.Type;
+import de.codecentric.reedelk.runtime.api.annotation.TypeProperty;
+import de.codecentric.reedelk.runtime.api.commons.SerializableUtils;
+import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
+
+import java.util.List;
+
+@Type
+@TypeProperty(name = SchemaMigrationAttributes.LEDGER_TABLE, type = String.class)
+@TypeProperty(name = SchemaMigrationAttributes.APPLIED_VERSIONS, type = List.class)
+@TypeProperty(name = SchemaMigrationAttributes.CURRENT_VERSION, type = String.class)
+public class SchemaMigrationAttributes extends MessageAttributes {
+
+    static final String LEDGER_TABLE = "ledgerTable";
+    static final String APPLIED_VERSIONS = "appliedVersions";
+    static final String CURRENT_VERSION = "currentVersion";
+
+    public SchemaMigrationAttributes(String ledgerTable, List<String> appliedVersions, String currentVersion) {
+        put(LEDGER_TABLE, ledgerTable);
+        put(APPLIED_VERSIONS, SerializableUtils.asSerializableList(appliedVersions));
+        put(CURRENT_VERSION, currentVersion);
+    }
+}
@@ -5,21 +5,32 @@ import de.codecentric.reedelk.runtime.api.annotation.TypeProperty;
 import de.codecentric.reedelk.runtime.api.commons.SerializableUtils;
 import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static de.codecentric.reedelk.database.internal.attribute.SelectAttributes.COLUMN_TYPES;
 import static de.codecentric.reedelk.database.internal.attribute.SelectAttributes.QUERY;
+import static de.codecentric.reedelk.database.internal.attribute.SelectAttributes.TIMINGS;
 
 @Type
 @TypeProperty(name = QUERY, type = String.class)
 @TypeProperty(name = COLUMN_TYPES, type = String.class)
+@TypeProperty(name = TIMINGS, type = Map.class)
 public class SelectAttributes extends MessageAttributes {
 
     static final String QUERY = "query";
     static final String COLUMN_TYPES = "columnTypes";
+    static final String TIMINGS = "timings";
 
     public SelectAttributes(String query, List<Integer> columnTypes) {
         put(QUERY, query);
         put(COLUMN_TYPES, SerializableUtils.asSerializableList(columnTypes));
     }
+
+    // Query phase > duration in microseconds. The rows fetch
+    // is not included since it happens when the rows are consumed.
+    public void setTimings(LinkedHashMap<String, Long> timings) {
+        put(TIMINGS, timings);
+    }
 }
@@ -0,0 +1,30 @@
+package de.codecentric.reedelk.database.internal.attribute;
+
+import de.codecentric.reedelk.runtime.api.annotation.Type;
+import de.codecentric.reedelk.runtime.api.annotation.TypeProperty;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes.QUERY;
+import static de.codecentric.reedelk.database.internal.attribute.DatabaseAttributes.TIMINGS;
+import static de.codecentric.reedelk.database.internal.attribute.StoredProcedureAttributes.OUTPUT_PARAMETERS;
+import static de.codecentric.reedelk.database.internal.attribute.StoredProcedureAttributes.UPDATE_COUNT;
+
+@Type
+@TypeProperty(name = QUERY, type = String.class)
+@TypeProperty(name = OUTPUT_PARAMETERS, type = Map.class)
+@TypeProperty(name = UPDATE_COUNT, type = int.class)
+@TypeProperty(name = TIMINGS, type = Map.class)
+public class StoredProcedureAttributes extends DatabaseAttributes {
+
+    static final String OUTPUT_PARAMETERS = "outputParameters";
+    static final String UPDATE_COUNT = "updateCount";
+
+    public StoredProcedureAttributes(String call, LinkedHashMap<String, Serializable> outputParameters, int updateCount) {
+        super(call);
+        put(OUTPUT_PARAMETERS, outputParameters);
+        put(UPDATE_COUNT, updateCount);
+    }
+}
@@ -0,0 +1,43 @@
+package de.codecentric.reedelk.database.internal.batch;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BatchResult {
+
+    private final List<Integer> chunkRowCounts = new ArrayList<>();
+    private int[] rowCounts = new int[16];
+    private int size = 0;
+    private int total = 0;
+
+    void add(int[] chunkResult) {
+        int chunkTotal = 0;
+        for (int rowCount : chunkResult) {
+            // Some drivers (e.g. Oracle) return SUCCESS_NO_INFO (-2) when the number
+            // of affected rows is not known, and EXECUTE_FAILED (-3) for failed statements.
+            if (rowCount != Statement.SUCCESS_NO_INFO && rowCount != Statement.EXECUTE_FAILED) chunkTotal += rowCount;
+        }
+        chunkRowCounts.add(chunkTotal);
+        total += chunkTotal;
+
+        if (size + chunkResult.length > rowCounts.length) {
+            rowCounts = Arrays.copyOf(rowCounts, Math.max(rowCounts.length * 2, size + chunkResult.length));
+        }
+        System.arraycopy(chunkResult, 0, rowCounts, size, chunkResult.length);
+        size += chunkResult.length;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public List<Integer> chunkRowCounts() {
+        return chunkRowCounts;
+    }
+
+    public int[] rowCounts() {
+        return Arrays.copyOf(rowCounts, size);
+    }
+}
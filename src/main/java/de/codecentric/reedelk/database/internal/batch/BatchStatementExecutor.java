@@ -0,0 +1,82 @@
+package de.codecentric.reedelk.database.internal.batch;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
+import de.codecentric.reedelk.database.internal.commons.QueryStatementTemplate;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+public class BatchStatementExecutor {
+
+    private final QueryStatementTemplate queryStatement;
+    private final int batchSize;
+    private final boolean callable;
+
+    public BatchStatementExecutor(QueryStatementTemplate queryStatement, int batchSize) {
+        this(queryStatement, batchSize, false);
+    }
+
+    // Callable batches invoke a stored procedure: the statement is prepared with prepareCall.
+    public BatchStatementExecutor(QueryStatementTemplate queryStatement, int batchSize, boolean callable) {
+        this.queryStatement = queryStatement;
+        this.batchSize = batchSize;
+        this.callable = callable;
+    }
+
+    // Records are sent to the database in chunks of 'batchSize' statements and each chunk is
+    // committed in its own transaction. If a chunk fails, only that chunk is rolled back.
+    // Within a transaction of the flow (auto commit already disabled) the chunks are neither
+    // committed nor rolled back: the whole transaction is ended by the component owning it.
+    public BatchResult execute(Connection connection,
+                               Iterable<?> records,
+                               Function<Object, Map<String, Object>> parametersEvaluator) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) connection.setAutoCommit(false);
+
+        try (PreparedStatement statement = prepare(connection)) {
+            BatchResult result = new BatchResult();
+            int pending = 0;
+            for (Object record : records) {
+                Map<String, Object> evaluatedMap = parametersEvaluator.apply(record);
+                queryStatement.bind(statement, evaluatedMap);
+                statement.addBatch();
+                if (++pending == batchSize) {
+                    result.add(statement.executeBatch());
+                    if (autoCommit) connection.commit();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                result.add(statement.executeBatch());
+                if (autoCommit) connection.commit();
+            }
+            return result;
+
+        } finally {
+            // Rolls back the chunk not committed if the batch failed.
+            if (autoCommit) DatabaseUtils.restoreAutoCommitSilently(connection);
+        }
+    }
+
+    private PreparedStatement prepare(Connection connection) throws SQLException {
+        String query = queryStatement.preparedQuery();
+        return callable ? connection.prepareCall(query) : connection.prepareStatement(query);
+    }
+
+    // The records might be given as a collection, an array or a stream.
+    @SuppressWarnings("unchecked")
+    public static Iterable<?> recordsOf(Object payload) {
+        if (payload == null) return Collections.emptyList();
+        if (payload instanceof Iterable) return (Iterable<?>) payload;
+        if (payload instanceof Object[]) return Arrays.asList((Object[]) payload);
+        if (payload instanceof Publisher) return Flux.from((Publisher<Object>) payload).toIterable();
+        return Collections.singletonList(payload);
+    }
+}
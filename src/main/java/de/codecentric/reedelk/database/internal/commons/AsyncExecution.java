@@ -0,0 +1,41 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import de.codecentric.reedelk.runtime.api.component.OnResult;
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
+
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+public class AsyncExecution {
+
+    private AsyncExecution() {
+    }
+
+    // Executes the given execution on the JDBC executor: the calling flow
+    // thread returns immediately and the result is signalled to the callback.
+    public static void execute(ExecutorService executor, BiFunction<FlowContext, Message, Message> execution, FlowContext flowContext, Message message, OnResult callback) {
+        try {
+            executor.execute(() -> {
+                Message result;
+                try {
+                    result = execution.apply(flowContext, message);
+                } catch (Exception exception) {
+                    callback.onError(flowContext, exception);
+                    return;
+                } catch (Throwable error) {
+                    // Errors must reach the callback too, otherwise the flow never completes.
+                    callback.onError(flowContext, new PlatformException(rootCauseMessageOf(error), error));
+                    throw error;
+                }
+                callback.onResult(flowContext, result);
+            });
+        } catch (RejectedExecutionException exception) {
+            callback.onError(flowContext, exception);
+        }
+    }
+}
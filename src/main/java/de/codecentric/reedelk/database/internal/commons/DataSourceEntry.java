@@ -0,0 +1,74 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import de.codecentric.reedelk.database.internal.pool.ConnectionPool;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPoolWarmUp;
+import de.codecentric.reedelk.database.internal.replica.ReadReplicaDataSource;
+import de.codecentric.reedelk.database.internal.slowquery.SlowQueryLog;
+import de.codecentric.reedelk.runtime.api.component.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Registry entry of a connection configuration: the pool and the resources built around it,
+// initialized lazily (under the entry lock, never a global one) and reference counted.
+// The count goes to CLOSED when the last component releases it: a closed entry can no longer
+// be retained, and the caller must replace it with a new one.
+class DataSourceEntry {
+
+    private static final int CLOSED = -1;
+
+    final String configId;
+
+    private final AtomicInteger references = new AtomicInteger();
+    // Components holding a reference: dispose might be called more than once
+    // (or without a successful initialize) and must release at most one reference.
+    private final Set<Component> holders = ConcurrentHashMap.newKeySet();
+
+    volatile ConnectionPool pool;
+    volatile InstrumentedDataSource instrumentedDataSource;
+    // Data source of the read only components: the instrumented data source when there are no replicas.
+    volatile InstrumentedDataSource readDataSource;
+    volatile ReadReplicaDataSource readReplicaDataSource;
+    volatile SlowQueryLog slowQueryLog;
+    volatile FlowConnections flowConnections;
+    volatile ExecutorService executor;
+    // Set when the pool has been warmed up, used to prepare the components statements.
+    volatile ConnectionPoolWarmUp warmUp;
+
+    DataSourceEntry(String configId) {
+        this.configId = configId;
+    }
+
+    boolean isInitialized() {
+        return pool != null;
+    }
+
+    // False if the entry has been closed in the meantime.
+    boolean retain(Component component) {
+        int current;
+        do {
+            current = references.get();
+            if (current == CLOSED) return false;
+        } while (!references.compareAndSet(current, current + 1));
+
+        // The component already holds a reference: the count never reaches zero here.
+        if (!holders.add(component)) references.decrementAndGet();
+        return true;
+    }
+
+    // True if the reference released was the last one: the entry is now closed and must be disposed.
+    boolean release(Component component) {
+        if (!holders.remove(component)) return false;
+        return references.decrementAndGet() == 0 && references.compareAndSet(0, CLOSED);
+    }
+
+    boolean isHeldBy(Component component) {
+        return holders.contains(component);
+    }
+
+    int references() {
+        return Math.max(0, references.get());
+    }
+}
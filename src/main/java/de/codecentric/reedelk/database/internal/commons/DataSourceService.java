@@ -1,84 +1,199 @@
 package de.codecentric.reedelk.database.internal.commons;
 
-import com.mchange.v2.c3p0.ComboPooledDataSource;
 import de.codecentric.reedelk.database.component.ConnectionConfiguration;
 import de.codecentric.reedelk.database.component.Select;
+import de.codecentric.reedelk.database.internal.metrics.ConnectionPoolMetrics;
+import de.codecentric.reedelk.database.internal.metrics.ConnectionPoolSnapshot;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetricsRegistry;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPool;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPoolType;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPoolWarmUp;
+import de.codecentric.reedelk.database.internal.replica.ReadReplicaDataSource;
+import de.codecentric.reedelk.database.internal.replica.Replica;
+import de.codecentric.reedelk.database.internal.replica.ReplicaBalancingPolicy;
+import de.codecentric.reedelk.database.internal.slowquery.SlowQueryLog;
+import de.codecentric.reedelk.database.internal.slowquery.SlowQueryStats;
 import de.codecentric.reedelk.runtime.api.component.Implementor;
 import de.codecentric.reedelk.runtime.api.exception.PlatformException;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireNotNull;
 import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.Configuration.requireTrue;
 import static java.lang.String.format;
 import static org.osgi.service.component.annotations.ServiceScope.SINGLETON;
 
+// The service has no global lock: the pools of different configurations are created in parallel,
+// each one lazily under the lock of its own registry entry, and the entries are reference counted
+// by the components using them. The pool is closed when the last component releases it.
 @Component(service = DataSourceService.class, scope = SINGLETON)
 public class DataSourceService {
 
     private static final Logger logger = LoggerFactory.getLogger(DataSourceService.class);
 
-    final Map<String, ComboPooledDataSource> CONFIG_ID_CONNECTION_POOL_MAP = new HashMap<>();
-    final Map<String, List<de.codecentric.reedelk.runtime.api.component.Component>> CONFIG_ID_COMPONENT_MAP = new HashMap<>();
+    private static final int DEFAULT_WARM_UP_TIMEOUT_MILLIS = 10_000;
+    private static final int DEFAULT_REPLICA_CHECK_INTERVAL_SECONDS = 5;
+    private static final int REPLICA_CHECKOUT_TIMEOUT_MILLIS = 2_000;
+    private static final int DEFAULT_ASYNC_QUEUE_SIZE = 1000;
 
-    public synchronized ComboPooledDataSource getDataSource(de.codecentric.reedelk.runtime.api.component.Component component, ConnectionConfiguration connectionConfiguration) {
+    // The connection pool MBeans registered in the platform MBean server, shared by all the services.
+    private static final Map<ObjectName, ConnectionPoolMetrics> REGISTERED_MBEANS = new HashMap<>();
+
+    final Map<String, DataSourceEntry> CONFIG_ID_DATA_SOURCE_MAP = new ConcurrentHashMap<>();
+    final QueryMetricsRegistry queryMetricsRegistry = new QueryMetricsRegistry();
+
+    public ConnectionPool getDataSource(de.codecentric.reedelk.runtime.api.component.Component component, ConnectionConfiguration connectionConfiguration) {
         requireNotNull((Class<? extends Implementor>) Select.class, connectionConfiguration, "Connection configuration must be available");
         DatabaseDriver databaseDriverClass = connectionConfiguration.getDatabaseDriver();
         requireTrue(component.getClass(),
                 IsDriverAvailable.of(databaseDriverClass),
                 format("Driver '%s' not found. Make sure that the driver is inside {RUNTIME_HOME}/lib directory.", databaseDriverClass));
+        Integer checkoutTimeout = connectionConfiguration.getCheckoutTimeout();
+        requireTrue(ConnectionConfiguration.class,
+                checkoutTimeout == null || checkoutTimeout >= 0,
+                "Checkout timeout must not be negative");
 
-        String configId = connectionConfiguration.getId();
-
-        if (!CONFIG_ID_CONNECTION_POOL_MAP.containsKey(configId)) {
-            // We need to create the data source
-            ComboPooledDataSource pooledDataSource = new ComboPooledDataSource();
+        String configId = keyOf(connectionConfiguration.getId());
+        while (true) {
+            DataSourceEntry entry = CONFIG_ID_DATA_SOURCE_MAP.computeIfAbsent(configId, DataSourceEntry::new);
+            if (!entry.retain(component)) {
+                // The entry has just been closed by the last component releasing it.
+                CONFIG_ID_DATA_SOURCE_MAP.remove(configId, entry);
+                continue;
+            }
             try {
-                pooledDataSource.setDriverClass(databaseDriverClass.qualifiedName());
-            } catch (Throwable exception) {
-                throw new PlatformException(exception);
+                initialize(entry, connectionConfiguration);
+                return entry.pool;
+            } catch (RuntimeException exception) {
+                release(entry, component);
+                throw exception;
             }
-
-            pooledDataSource.setJdbcUrl(connectionConfiguration.getConnectionURL());
-            pooledDataSource.setUser(connectionConfiguration.getUsername());
-            pooledDataSource.setPassword(connectionConfiguration.getPassword());
-            Optional.ofNullable(connectionConfiguration.getMinPoolSize())
-                    .ifPresent(pooledDataSource::setMinPoolSize);
-            Optional.ofNullable(connectionConfiguration.getMaxPoolSize())
-                    .ifPresent(pooledDataSource::setMaxPoolSize);
-            Optional.ofNullable(connectionConfiguration.getAcquireIncrement())
-                    .ifPresent(pooledDataSource::setAcquireIncrement);
-            CONFIG_ID_CONNECTION_POOL_MAP.put(configId, pooledDataSource);
         }
-        addComponentMapping(configId, component);
-        return CONFIG_ID_CONNECTION_POOL_MAP.get(configId);
+    }
+
+    // The data source the components get the connections from: same pool as
+    // getDataSource, but the connection checkouts are recorded in the pool metrics.
+    public InstrumentedDataSource getInstrumentedDataSource(de.codecentric.reedelk.runtime.api.component.Component component, ConnectionConfiguration connectionConfiguration) {
+        getDataSource(component, connectionConfiguration);
+        return initializedEntryOf(connectionConfiguration.getId()).instrumentedDataSource;
+    }
+
+    // The data source of read only queries: connections are taken from the
+    // read replicas of the configuration, if any, otherwise from the primary.
+    public InstrumentedDataSource getReadDataSource(de.codecentric.reedelk.runtime.api.component.Component component, ConnectionConfiguration connectionConfiguration) {
+        getDataSource(component, connectionConfiguration);
+        return initializedEntryOf(connectionConfiguration.getId()).readDataSource;
+    }
+
+    public List<Replica> replicas(String configId) {
+        return Optional.ofNullable(CONFIG_ID_DATA_SOURCE_MAP.get(keyOf(configId)))
+                .map(entry -> entry.readReplicaDataSource)
+                .map(ReadReplicaDataSource::getReplicas)
+                .orElse(Collections.emptyList());
+    }
+
+    // Point in time metrics of the connection pools, one entry for each connection configuration id.
+    public Map<String, ConnectionPoolSnapshot> metrics() {
+        Map<String, ConnectionPoolSnapshot> snapshots = new HashMap<>();
+        CONFIG_ID_DATA_SOURCE_MAP.forEach((configId, entry) -> {
+            InstrumentedDataSource dataSource = entry.instrumentedDataSource;
+            if (dataSource != null) snapshots.put(configId, dataSource.getMetrics().snapshot());
+        });
+        return snapshots;
+    }
+
+    public Optional<ConnectionPoolSnapshot> metrics(String configId) {
+        return Optional.ofNullable(CONFIG_ID_DATA_SOURCE_MAP.get(keyOf(configId)))
+                .map(entry -> entry.instrumentedDataSource)
+                .map(dataSource -> dataSource.getMetrics().snapshot());
+    }
+
+    // Per phase latencies of the queries executed by the components.
+    public QueryMetricsRegistry queryMetrics() {
+        return queryMetricsRegistry;
+    }
+
+    public SlowQueryLog getSlowQueryLog(ConnectionConfiguration connectionConfiguration) {
+        return initializedEntryOf(connectionConfiguration.getId()).slowQueryLog;
+    }
 
+    public FlowConnections getFlowConnections(ConnectionConfiguration connectionConfiguration) {
+        return initializedEntryOf(connectionConfiguration.getId()).flowConnections;
     }
 
-    public synchronized void dispose(de.codecentric.reedelk.runtime.api.component.Component component, ConnectionConfiguration connectionConfiguration) {
-        if (CONFIG_ID_COMPONENT_MAP.containsKey(connectionConfiguration.getId())) {
-            List<de.codecentric.reedelk.runtime.api.component.Component> components = CONFIG_ID_COMPONENT_MAP.get(connectionConfiguration.getId());
-            components.remove(component);
-            if (components.isEmpty()) {
-                // If there are not components using this data source, we
-                // can close it since it is not in use anymore.
-                CONFIG_ID_COMPONENT_MAP.remove(connectionConfiguration.getId());
-                ComboPooledDataSource toClose = CONFIG_ID_CONNECTION_POOL_MAP.remove(connectionConfiguration.getId());
-                silentlyClose(toClose);
+    // The n slowest query fingerprints (by total time) recorded for the given connection configuration id.
+    public List<SlowQueryStats.Snapshot> slowQueries(String configId, int n) {
+        return Optional.ofNullable(CONFIG_ID_DATA_SOURCE_MAP.get(keyOf(configId)))
+                .map(entry -> entry.slowQueryLog)
+                .map(slowQueryLog -> slowQueryLog.top(n))
+                .orElse(Collections.emptyList());
+    }
+
+    // Prepares the given statement on the idle connections of the warmed up pool, if the configuration
+    // requires it. A statement that cannot be prepared fails the component initialization.
+    public void prepareStatement(ConnectionConfiguration connectionConfiguration, String statement) {
+        prepareStatement(connectionConfiguration, statement, Connection::prepareStatement);
+    }
+
+    // The statement is prepared with the given factory, which must prepare it as the component does.
+    public void prepareStatement(ConnectionConfiguration connectionConfiguration, String statement, ConnectionPoolWarmUp.StatementFactory factory) {
+        if (!Boolean.TRUE.equals(connectionConfiguration.getWarmUpStatements())) return;
+        ConnectionPoolWarmUp warmUp = initializedEntryOf(connectionConfiguration.getId()).warmUp;
+        if (warmUp != null) warmUp.prepare(statement, factory);
+    }
+
+    // Executor running the JDBC work of the async components using the given configuration.
+    // It has as many threads as the pool has connections, so that the database concurrency
+    // is capped at the pool size, and a bounded queue: executions submitted when the queue
+    // is full are rejected and signalled as errors. Rows are never fetched on these threads,
+    // otherwise executions waiting for a connection could block the fetches releasing them.
+    public ExecutorService getExecutor(ConnectionConfiguration connectionConfiguration) {
+        DataSourceEntry entry = initializedEntryOf(connectionConfiguration.getId());
+        int queueSize = Optional.ofNullable(connectionConfiguration.getAsyncQueueSize()).orElse(DEFAULT_ASYNC_QUEUE_SIZE);
+        requireTrue(Select.class, queueSize > 0, "Async queue size must be greater than zero");
+        ExecutorService executor = entry.executor;
+        if (executor == null) {
+            synchronized (entry) {
+                executor = entry.executor;
+                if (executor == null) {
+                    int threads = entry.pool.getMaxPoolSize();
+                    executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(queueSize),
+                            new JdbcThreadFactory(entry.configId),
+                            new ThreadPoolExecutor.AbortPolicy());
+                    entry.executor = executor;
+                }
             }
         }
+        return executor;
+    }
+
+    public void dispose(de.codecentric.reedelk.runtime.api.component.Component component, ConnectionConfiguration connectionConfiguration) {
+        DataSourceEntry entry = CONFIG_ID_DATA_SOURCE_MAP.get(keyOf(connectionConfiguration.getId()));
+        if (entry != null) release(entry, component);
     }
 
-    public synchronized void dispose() {
-        CONFIG_ID_CONNECTION_POOL_MAP.forEach((configurationId, comboPooledDataSource) -> silentlyClose(comboPooledDataSource));
-        CONFIG_ID_CONNECTION_POOL_MAP.clear();
-        CONFIG_ID_COMPONENT_MAP.clear();
+    public void dispose() {
+        CONFIG_ID_DATA_SOURCE_MAP.values().forEach(this::close);
+        CONFIG_ID_DATA_SOURCE_MAP.clear();
+        queryMetricsRegistry.clear();
     }
 
-    void silentlyClose(ComboPooledDataSource toClose) {
+    void silentlyClose(ConnectionPool toClose) {
         try {
             if (toClose != null) {
                 toClose.close();
@@ -88,13 +203,209 @@ public class DataSourceService {
         }
     }
 
-    private void addComponentMapping(String configId, de.codecentric.reedelk.runtime.api.component.Component component) {
-        if (CONFIG_ID_COMPONENT_MAP.containsKey(configId)) {
-            CONFIG_ID_COMPONENT_MAP.get(configId).add(component);
-        } else {
-            List<de.codecentric.reedelk.runtime.api.component.Component> components = new ArrayList<>();
-            components.add(component);
-            CONFIG_ID_COMPONENT_MAP.put(configId, components);
+    private void initialize(DataSourceEntry entry, ConnectionConfiguration connectionConfiguration) {
+        if (entry.isInitialized()) return;
+        synchronized (entry) {
+            if (entry.isInitialized()) return;
+
+            String configId = entry.configId;
+            ConnectionPoolType poolType = Optional.ofNullable(connectionConfiguration.getConnectionPool())
+                    .orElse(ConnectionPoolType.C3P0);
+            ConnectionPool pool = poolType.provider().create(connectionConfiguration);
+
+            // Whatever was created before a failure is closed: the next caller creates it all again.
+            try {
+                ConnectionPoolMetrics metrics = new ConnectionPoolMetrics(configId, pool);
+                if (Boolean.TRUE.equals(connectionConfiguration.getWarmUp())) {
+                    entry.warmUp = warmUp(configId, connectionConfiguration, pool, metrics);
+                }
+
+                entry.instrumentedDataSource = new InstrumentedDataSource(pool, metrics);
+                List<String> replicaURLs = Optional.ofNullable(connectionConfiguration.getReplicaURLs()).orElse(Collections.emptyList());
+                if (replicaURLs.isEmpty()) {
+                    entry.readDataSource = entry.instrumentedDataSource;
+                } else {
+                    entry.readReplicaDataSource = readReplicaDataSource(configId, connectionConfiguration, pool, replicaURLs);
+                    entry.readDataSource = new InstrumentedDataSource(entry.readReplicaDataSource, metrics);
+                }
+                entry.flowConnections = new FlowConnections(entry.instrumentedDataSource,
+                        entry.readDataSource,
+                        Boolean.TRUE.equals(connectionConfiguration.getConnectionAffinity()));
+                entry.slowQueryLog = new SlowQueryLog(configId,
+                        connectionConfiguration.getSlowQueryThreshold(),
+                        Boolean.TRUE.equals(connectionConfiguration.getExplainSlowQueries()),
+                        pool,
+                        connectionConfiguration.getDatabaseDriver());
+                registerMBean(configId, metrics);
+
+            } catch (RuntimeException exception) {
+                silentlyClose(pool);
+                closeResources(entry);
+                throw exception;
+            }
+
+            // Published last: the entry is initialized once the pool is visible.
+            entry.pool = pool;
+        }
+    }
+
+    private ReadReplicaDataSource readReplicaDataSource(String configId, ConnectionConfiguration connectionConfiguration, ConnectionPool primary, List<String> replicaURLs) {
+        ConnectionPoolType poolType = Optional.ofNullable(connectionConfiguration.getConnectionPool())
+                .orElse(ConnectionPoolType.C3P0);
+        List<Replica> replicas = new ArrayList<>();
+        try {
+            for (String replicaURL : replicaURLs) {
+                ConnectionPool replicaPool = poolType.provider().create(replicaConfigurationOf(connectionConfiguration, replicaURL));
+                replicas.add(new Replica(replicaURL, replicaPool));
+            }
+        } catch (RuntimeException exception) {
+            replicas.forEach(replica -> silentlyClose(replica.pool()));
+            throw exception;
+        }
+        ReplicaBalancingPolicy policy = Optional.ofNullable(connectionConfiguration.getReplicaBalancing())
+                .orElse(ReplicaBalancingPolicy.ROUND_ROBIN);
+        return new ReadReplicaDataSource(configId,
+                primary,
+                replicas,
+                policy.balancer(),
+                connectionConfiguration.getDatabaseDriver(),
+                connectionConfiguration.getReplicaMaxLag(),
+                Optional.ofNullable(connectionConfiguration.getReplicaCheckInterval()).orElse(DEFAULT_REPLICA_CHECK_INTERVAL_SECONDS));
+    }
+
+    // Replicas use the same driver, credentials and pool settings of the primary, but a short
+    // checkout timeout, also when the primary waits indefinitely: a replica which is down must
+    // fall back to the primary quickly.
+    private static ConnectionConfiguration replicaConfigurationOf(ConnectionConfiguration primary, String replicaURL) {
+        ConnectionConfiguration replica = new ConnectionConfiguration();
+        replica.setId(primary.getId());
+        replica.setConnectionURL(replicaURL);
+        replica.setUsername(primary.getUsername());
+        replica.setPassword(primary.getPassword());
+        replica.setDatabaseDriver(primary.getDatabaseDriver());
+        replica.setConnectionPool(primary.getConnectionPool());
+        replica.setMinPoolSize(primary.getMinPoolSize());
+        replica.setMaxPoolSize(primary.getMaxPoolSize());
+        replica.setAcquireIncrement(primary.getAcquireIncrement());
+        replica.setCheckoutTimeout(Optional.ofNullable(primary.getCheckoutTimeout())
+                .filter(checkoutTimeout -> checkoutTimeout > 0)
+                .map(checkoutTimeout -> Math.min(checkoutTimeout, REPLICA_CHECKOUT_TIMEOUT_MILLIS))
+                .orElse(REPLICA_CHECKOUT_TIMEOUT_MILLIS));
+        replica.setMaxStatementsPerConnection(primary.getMaxStatementsPerConnection());
+        return replica;
+    }
+
+    private ConnectionPoolWarmUp warmUp(String configId, ConnectionConfiguration connectionConfiguration, ConnectionPool pool, ConnectionPoolMetrics metrics) {
+        int timeout = Optional.ofNullable(connectionConfiguration.getWarmUpTimeout()).orElse(DEFAULT_WARM_UP_TIMEOUT_MILLIS);
+        ConnectionPoolWarmUp warmUp = new ConnectionPoolWarmUp(configId,
+                connectionConfiguration.getConnectionURL(),
+                pool,
+                pool.getMinPoolSize(),
+                timeout);
+        try {
+            long nanos = warmUp.warmUp();
+            metrics.warmedUp(nanos);
+            logger.info(format("Connection pool of configuration with id=[%s] warmed up: %d connections in %d ms",
+                    configId, pool.getMinPoolSize(), TimeUnit.NANOSECONDS.toMillis(nanos)));
+            return warmUp;
+        } catch (RuntimeException exception) {
+            warmUp.close();
+            throw exception;
+        }
+    }
+
+    private DataSourceEntry initializedEntryOf(String configId) {
+        DataSourceEntry entry = CONFIG_ID_DATA_SOURCE_MAP.get(keyOf(configId));
+        if (entry == null || !entry.isInitialized()) {
+            throw new PlatformException(format("Data source for configuration with id=[%s] is not initialized", configId));
+        }
+        return entry;
+    }
+
+    private void release(DataSourceEntry entry, de.codecentric.reedelk.runtime.api.component.Component component) {
+        if (entry.release(component)) {
+            // If there are not components using this data source, we
+            // can close it since it is not in use anymore.
+            CONFIG_ID_DATA_SOURCE_MAP.remove(entry.configId, entry);
+            close(entry);
+        }
+    }
+
+    private void close(DataSourceEntry entry) {
+        synchronized (entry) {
+            silentlyClose(entry.pool);
+            Optional.ofNullable(entry.executor).ifPresent(ExecutorService::shutdown);
+            closeResources(entry);
+        }
+    }
+
+    // Closes the resources built around the pool and clears them, so that they are closed only once.
+    private void closeResources(DataSourceEntry entry) {
+        Optional.ofNullable(entry.warmUp).ifPresent(ConnectionPoolWarmUp::close);
+        Optional.ofNullable(entry.slowQueryLog).ifPresent(SlowQueryLog::dispose);
+        Optional.ofNullable(entry.readReplicaDataSource).ifPresent(ReadReplicaDataSource::close);
+        Optional.ofNullable(entry.instrumentedDataSource)
+                .map(InstrumentedDataSource::getMetrics)
+                .ifPresent(metrics -> unregisterMBean(entry.configId, metrics));
+        entry.warmUp = null;
+        entry.slowQueryLog = null;
+        entry.readReplicaDataSource = null;
+        entry.readDataSource = null;
+        entry.instrumentedDataSource = null;
+        entry.flowConnections = null;
+    }
+
+    // A configuration released and created again at the same time has two entries: the MBean
+    // of the new entry replaces the one of the closing entry, which then only unregisters its own.
+    private void registerMBean(String configId, ConnectionPoolMetrics metrics) {
+        synchronized (REGISTERED_MBEANS) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = objectNameOf(configId);
+                if (server.isRegistered(name)) server.unregisterMBean(name);
+                server.registerMBean(metrics, name);
+                REGISTERED_MBEANS.put(name, metrics);
+            } catch (Exception exception) {
+                logger.warn(format("Could not register connection pool metrics for configuration with id=[%s]", configId), exception);
+            }
+        }
+    }
+
+    private void unregisterMBean(String configId, ConnectionPoolMetrics metrics) {
+        synchronized (REGISTERED_MBEANS) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = objectNameOf(configId);
+                if (REGISTERED_MBEANS.remove(name, metrics) && server.isRegistered(name)) server.unregisterMBean(name);
+            } catch (Exception exception) {
+                logger.warn(format("Could not unregister connection pool metrics for configuration with id=[%s]", configId), exception);
+            }
+        }
+    }
+
+    // Concurrent maps do not allow null keys: configurations without id share the empty key.
+    private static String keyOf(String configId) {
+        return configId == null ? "" : configId;
+    }
+
+    private static ObjectName objectNameOf(String configId) throws Exception {
+        return new ObjectName("de.codecentric.reedelk.database:type=ConnectionPool,id=" + ObjectName.quote(String.valueOf(configId)));
+    }
+
+    private static class JdbcThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String configId;
+
+        JdbcThreadFactory(String configId) {
+            this.configId = configId;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "database-" + configId + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
         }
     }
 }
@@ -1,88 +1,194 @@
 package de.codecentric.reedelk.database.internal.commons;
 
 import de.codecentric.reedelk.database.internal.exception.ConversionError;
+import de.codecentric.reedelk.database.internal.type.DatabaseBlob;
+import de.codecentric.reedelk.database.internal.type.DatabaseClob;
+import de.codecentric.reedelk.database.internal.type.DatabaseLob;
 import de.codecentric.reedelk.database.internal.type.DatabaseRow;
+import de.codecentric.reedelk.database.internal.type.DatabaseRowSchema;
 import de.codecentric.reedelk.runtime.api.commons.ByteArrayUtils;
 
 import java.io.*;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 import static de.codecentric.reedelk.database.internal.commons.Messages.Select.*;
 
 public class DatabaseRowConverter {
 
-    public static DatabaseRow convert(ResultSetMetaData metaData,
-                                      ResultSet resultSetRow,
-                                      Map<String, Integer> columnNameIndexMap,
-                                      Map<Integer, String> columnIndexNameMap) throws SQLException {
-        int columnCount = metaData.getColumnCount();
-        List<Serializable> values = new ArrayList<>();
-        for (int i = 1; i <= columnCount; i++) {
-            Serializable rowValue = getObjectByColumnId(metaData, i, resultSetRow);
-            values.add(rowValue);
+    private final ColumnExtractor[] extractors;
+    private final DatabaseRowSchema schema;
+    // Columns stored in the long and double arrays of the row (primitive numerics only).
+    private final int[] longColumns;
+    private final int[] doubleColumns;
+    private final boolean primitiveNumerics;
+
+    private DatabaseRowConverter(ColumnExtractor[] extractors, DatabaseRowSchema schema, int[] longColumns, int[] doubleColumns) {
+        this.extractors = extractors;
+        this.schema = schema;
+        this.longColumns = longColumns;
+        this.doubleColumns = doubleColumns;
+        this.primitiveNumerics = longColumns.length > 0 || doubleColumns.length > 0;
+    }
+
+    public static DatabaseRowConverter from(ResultSetMetaData metaData) {
+        return from(metaData, false, null);
+    }
+
+    // The type of each column is fixed for the life of the result set, therefore the
+    // metadata is looked up only once and the extractor of each column is reused for every row.
+    // All the rows share the same schema instance. If a lazy LOBs tracker is given, BLOB and CLOB
+    // values are not read: the rows hold handles which are given to the tracker to be released.
+    public static DatabaseRowConverter from(ResultSetMetaData metaData, boolean primitiveNumerics, Consumer<DatabaseLob> lazyLobsTracker) {
+        DatabaseRowSchema schema = MetadataUtils.getSchema(metaData, primitiveNumerics);
+        ColumnExtractor[] extractors = new ColumnExtractor[schema.getColumnCount()];
+        int[] longColumns = new int[schema.getLongSlotCount()];
+        int[] doubleColumns = new int[schema.getDoubleSlotCount()];
+        for (int i = 0; i < extractors.length; i++) {
+            if (schema.isPrimitive(i)) {
+                int columnType = schema.getColumnType(i);
+                if (isFloatingPoint(columnType)) doubleColumns[schema.getColumnSlot(i)] = i;
+                else longColumns[schema.getColumnSlot(i)] = i;
+            } else {
+                extractors[i] = extractorOf(schema.getColumnType(i), schema.getColumnName(i), lazyLobsTracker);
+            }
+        }
+        return new DatabaseRowConverter(extractors, schema, longColumns, doubleColumns);
+    }
+
+    public DatabaseRowSchema schema() {
+        return schema;
+    }
+
+    public DatabaseRow convert(ResultSet resultSetRow) throws SQLException {
+        if (primitiveNumerics) return convertPrimitives(resultSetRow);
+
+        Serializable[] values = new Serializable[extractors.length];
+        for (int i = 0; i < extractors.length; i++) {
+            values[i] = extractors[i].extract(resultSetRow, i + 1); // Index Starts from 1 instead of 0
         }
-        return new DatabaseRow(columnNameIndexMap, columnIndexNameMap, values);
+        return new DatabaseRow(schema, values);
     }
 
-    private static Serializable getObjectByColumnId(ResultSetMetaData metaData, int columnId, ResultSet row) throws SQLException {
-        int columnType = metaData.getColumnType(columnId);
-        if (columnType == Types.CHAR) return row.getString(columnId);
-        if (columnType == Types.VARCHAR) return row.getString(columnId);
-        if (columnType == Types.LONGNVARCHAR) return row.getString(columnId);
-        if (columnType == Types.NUMERIC) return row.getBigDecimal(columnId);
-        if (columnType == Types.DECIMAL) return row.getBigDecimal(columnId);
-        if (columnType == Types.BIT) return row.getBoolean(columnId);
-        if (columnType == Types.TINYINT) return row.getByte(columnId);
-        if (columnType == Types.SMALLINT) return row.getShort(columnId);
-        if (columnType == Types.INTEGER) return row.getInt(columnId);
-        if (columnType == Types.BIGINT) return row.getLong(columnId);
-        if (columnType == Types.REAL) return row.getFloat(columnId);
-        if (columnType == Types.FLOAT) return row.getDouble(columnId);
-        if (columnType == Types.DOUBLE) return row.getDouble(columnId);
-        if (columnType == Types.BINARY) return row.getBytes(columnId);
-        if (columnType == Types.VARBINARY) return row.getBytes(columnId);
-        if (columnType == Types.LONGVARBINARY) return row.getBytes(columnId);
-        if (columnType == Types.DATE) return row.getDate(columnId);
-        if (columnType == Types.TIME) return row.getTime(columnId);
-        if (columnType == Types.TIMESTAMP) return row.getTimestamp(columnId);
-        if (columnType == Types.BOOLEAN) return row.getBoolean(columnId);
-        if (columnType == Types.NVARCHAR) return row.getNString(columnId);
+    // Numeric values are read with the primitive JDBC getters and never boxed:
+    // SQL NULL is tracked in the null bitmap of the row using wasNull().
+    private DatabaseRow convertPrimitives(ResultSet resultSetRow) throws SQLException {
+        Serializable[] values = new Serializable[schema.getObjectSlotCount()];
+        long[] longValues = new long[longColumns.length];
+        double[] doubleValues = new double[doubleColumns.length];
+        long[] nulls = new long[(extractors.length + 63) >>> 6];
+
+        for (int i = 0; i < extractors.length; i++) {
+            if (extractors[i] != null) {
+                values[schema.getColumnSlot(i)] = extractors[i].extract(resultSetRow, i + 1);
+            }
+        }
+        for (int slot = 0; slot < longColumns.length; slot++) {
+            int columnIndex = longColumns[slot];
+            int columnType = schema.getColumnType(columnIndex);
+            longValues[slot] = columnType == Types.BIT || columnType == Types.BOOLEAN ?
+                    (resultSetRow.getBoolean(columnIndex + 1) ? 1L : 0L) :
+                    resultSetRow.getLong(columnIndex + 1);
+            if (resultSetRow.wasNull()) nulls[columnIndex >>> 6] |= 1L << columnIndex;
+        }
+        for (int slot = 0; slot < doubleColumns.length; slot++) {
+            int columnIndex = doubleColumns[slot];
+            doubleValues[slot] = resultSetRow.getDouble(columnIndex + 1);
+            if (resultSetRow.wasNull()) nulls[columnIndex >>> 6] |= 1L << columnIndex;
+        }
+        return new DatabaseRow(schema, values, longValues, doubleValues, nulls);
+    }
+
+    private static boolean isFloatingPoint(int columnType) {
+        return columnType == Types.REAL || columnType == Types.FLOAT || columnType == Types.DOUBLE;
+    }
+
+    private static ColumnExtractor extractorOf(int columnType, String columnName, Consumer<DatabaseLob> lazyLobsTracker) {
+        if (columnType == Types.CHAR) return ResultSet::getString;
+        if (columnType == Types.VARCHAR) return ResultSet::getString;
+        if (columnType == Types.LONGNVARCHAR) return ResultSet::getString;
+        if (columnType == Types.NUMERIC) return ResultSet::getBigDecimal;
+        if (columnType == Types.DECIMAL) return ResultSet::getBigDecimal;
+        if (columnType == Types.BIT) return ResultSet::getBoolean;
+        if (columnType == Types.TINYINT) return ResultSet::getByte;
+        if (columnType == Types.SMALLINT) return ResultSet::getShort;
+        if (columnType == Types.INTEGER) return ResultSet::getInt;
+        if (columnType == Types.BIGINT) return ResultSet::getLong;
+        if (columnType == Types.REAL) return ResultSet::getFloat;
+        if (columnType == Types.FLOAT) return ResultSet::getDouble;
+        if (columnType == Types.DOUBLE) return ResultSet::getDouble;
+        if (columnType == Types.BINARY) return ResultSet::getBytes;
+        if (columnType == Types.VARBINARY) return ResultSet::getBytes;
+        if (columnType == Types.LONGVARBINARY) return ResultSet::getBytes;
+        if (columnType == Types.DATE) return ResultSet::getDate;
+        if (columnType == Types.TIME) return ResultSet::getTime;
+        if (columnType == Types.TIMESTAMP) return ResultSet::getTimestamp;
+        if (columnType == Types.BOOLEAN) return ResultSet::getBoolean;
+        if (columnType == Types.NVARCHAR) return ResultSet::getNString;
         if (columnType == Types.BLOB) {
-            Blob blob = row.getBlob(columnId);
-            try (InputStream inputStream = blob.getBinaryStream()) {
-                return ByteArrayUtils.from(inputStream);
-            } catch (IOException exception) {
-                String columnName = metaData.getColumnName(columnId);
-                String error = BLOB_TO_BYTES_ERROR.format(columnName);
-                throw new ConversionError(error, exception);
+            if (lazyLobsTracker != null) {
+                return (row, columnId) -> {
+                    Blob blob = row.getBlob(columnId);
+                    if (blob == null) return null;
+                    DatabaseBlob handle = new DatabaseBlob(columnName, blob);
+                    lazyLobsTracker.accept(handle);
+                    return handle;
+                };
             }
+            return (row, columnId) -> {
+                Blob blob = row.getBlob(columnId);
+                if (blob == null) return null;
+                try (InputStream inputStream = blob.getBinaryStream()) {
+                    return ByteArrayUtils.from(inputStream);
+                } catch (IOException exception) {
+                    String error = BLOB_TO_BYTES_ERROR.format(columnName);
+                    throw new ConversionError(error, exception);
+                }
+            };
         }
         if (columnType == Types.CLOB) {
-            Clob clob = row.getClob(columnId);
-            return clobToString(metaData, columnId, clob);
+            if (lazyLobsTracker != null) {
+                return (row, columnId) -> {
+                    Clob clob = row.getClob(columnId);
+                    if (clob == null) return null;
+                    DatabaseClob handle = new DatabaseClob(columnName, clob);
+                    lazyLobsTracker.accept(handle);
+                    return handle;
+                };
+            }
+            return (row, columnId) -> {
+                Clob clob = row.getClob(columnId);
+                if (clob == null) return null;
+                return clobToString(columnName, clob);
+            };
         }
 
-        String columnName = metaData.getColumnName(columnId);
-        String error = COLUMN_TYPE_NOT_SUPPORTED.format(columnType, columnName);
-        throw new ConversionError(error);
+        // The error is raised only if a row is actually converted.
+        return (row, columnId) -> {
+            String error = COLUMN_TYPE_NOT_SUPPORTED.format(columnType, columnName);
+            throw new ConversionError(error);
+        };
     }
 
-    private static String clobToString(ResultSetMetaData metaData, int columnId, java.sql.Clob data) throws SQLException {
+    private static String clobToString(String columnName, java.sql.Clob data) {
         final StringBuilder sb = new StringBuilder();
-        try (Reader reader = data.getCharacterStream();
-             BufferedReader br = new BufferedReader(reader)) {
-            int b;
-            while(-1 != (b = br.read())) {
-                sb.append((char)b);
+        try (Reader reader = data.getCharacterStream()) {
+            char[] buffer = new char[8192];
+            int read;
+            while(-1 != (read = reader.read(buffer))) {
+                sb.append(buffer, 0, read);
             }
             return sb.toString();
         } catch (SQLException | IOException exception) {
-            String columnName = metaData.getColumnName(columnId);
             String error = CLOB_TO_STRING_ERROR.format(columnName);
             throw new ConversionError(error);
         }
     }
+
+    @FunctionalInterface
+    interface ColumnExtractor {
+
+        Serializable extract(ResultSet row, int columnId) throws SQLException;
+
+    }
 }
@@ -0,0 +1,61 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
+import de.codecentric.reedelk.database.internal.metrics.QueryPhase;
+import de.codecentric.reedelk.database.internal.slowquery.SlowQueryLog;
+import de.codecentric.reedelk.database.internal.type.DatabaseRow;
+import de.codecentric.reedelk.runtime.api.message.content.TypedPublisher;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+public class DatabaseRowStream {
+
+    private DatabaseRowStream() {
+    }
+
+    public static TypedPublisher<DatabaseRow> from(DatabaseRowConverter converter,
+                                                   DisposableResultSet disposableResultSet,
+                                                   QueryMetrics metrics,
+                                                   SlowQueryLog slowQueryLog,
+                                                   QueryStatementTemplate statement,
+                                                   Map<String, Object> evaluatedMap,
+                                                   long executeNanos,
+                                                   boolean lazyLobs) {
+
+        // Rows are pulled from the cursor only when requested by the subscriber (one row
+        // for each generator call), therefore memory stays bounded regardless of the result size.
+        // The result set is released as soon as the stream completes, fails or is cancelled, unless
+        // the rows hold lazy LOB handles: they are released together with the result set at the end of the flow.
+        // The handles are tracked while the rows are converted, so their count is final when the stream terminates.
+        // The time spent reading and converting the rows is recorded as fetch time once the stream terminates,
+        // and the whole execution and fetch time is checked against the slow query threshold.
+        long[] fetchNanos = new long[1];
+        long[] rowCount = new long[1];
+        Flux<DatabaseRow> rows = Flux.<DatabaseRow>generate(sink -> {
+            long start = System.nanoTime();
+            try {
+
+                if (disposableResultSet.next()) {
+                    DatabaseRow row = converter.convert(disposableResultSet);
+                    fetchNanos[0] += System.nanoTime() - start;
+                    rowCount[0]++;
+                    sink.next(row);
+                } else {
+                    fetchNanos[0] += System.nanoTime() - start;
+                    sink.complete();
+                }
+
+            } catch (Throwable exception) {
+                sink.error(exception);
+            }
+
+        }).doFinally(signalType -> {
+            metrics.record(QueryPhase.FETCH, fetchNanos[0]);
+            slowQueryLog.record(metrics.getId(), statement, evaluatedMap, executeNanos + fetchNanos[0], rowCount[0]);
+            if (!lazyLobs || !disposableResultSet.hasLobs()) disposableResultSet.dispose();
+        });
+
+        return TypedPublisher.from(rows, DatabaseRow.class);
+    }
+}
@@ -3,6 +3,8 @@ package de.codecentric.reedelk.database.internal.commons;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+
 public class DatabaseUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(DatabaseUtils.class);
@@ -17,4 +19,18 @@ public class DatabaseUtils {
             }
         }
     }
+
+    public static void restoreAutoCommitSilently(Connection connection) {
+        if (connection != null) {
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } catch (Throwable exception) {
+                String message = String.format("Could not restore auto commit: %s", exception.getMessage());
+                logger.warn(message, exception);
+            }
+        }
+    }
 }
@@ -1,36 +1,96 @@
 package de.codecentric.reedelk.database.internal.commons;
 
+import de.codecentric.reedelk.database.internal.type.DatabaseLob;
 import de.codecentric.reedelk.runtime.api.flow.Disposable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
+import java.util.ArrayDeque;
 import java.util.Calendar;
+import java.util.Deque;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static de.codecentric.reedelk.database.internal.commons.DatabaseUtils.closeSilently;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.OPEN_LOBS_LIMIT_REACHED;
 
 public class DisposableResultSet implements ResultSet, Disposable {
 
+    private static final Logger logger = LoggerFactory.getLogger(DisposableResultSet.class);
+
+    // Open handles kept for each result set by default: each one might hold a locator
+    // or a temporary copy of the value in the database until it is released.
+    public static final int DEFAULT_MAX_OPEN_LOBS = 1000;
+
     private final ResultSet delegate;
     private final Statement statement;
     private final Connection connection;
+    private final boolean restoreAutoCommit;
+    private final int maxOpenLobs;
+    private final Deque<DatabaseLob> lobs = new ArrayDeque<>();
+    private final AtomicBoolean disposed = new AtomicBoolean();
+    private boolean lobsLimitReached;
 
     public DisposableResultSet(Connection connection, Statement statement, ResultSet delegate) {
+        this(connection, statement, delegate, false);
+    }
+
+    public DisposableResultSet(Connection connection, Statement statement, ResultSet delegate, boolean restoreAutoCommit) {
+        this(connection, statement, delegate, restoreAutoCommit, DEFAULT_MAX_OPEN_LOBS);
+    }
+
+    public DisposableResultSet(Connection connection, Statement statement, ResultSet delegate, boolean restoreAutoCommit, int maxOpenLobs) {
         this.delegate = delegate;
         this.statement = statement;
         this.connection = connection;
+        this.restoreAutoCommit = restoreAutoCommit;
+        this.maxOpenLobs = maxOpenLobs;
     }
 
+    // Lazy LOB handles read from this result set: they are released when the result set is disposed.
+    // Beyond maxOpenLobs the oldest handles are released, since their rows were consumed first:
+    // reading them afterwards fails, so the first time it happens it is logged.
+    public synchronized void track(DatabaseLob lob) {
+        lobs.addLast(lob);
+        if (lobs.size() > maxOpenLobs) {
+            if (!lobsLimitReached) {
+                lobsLimitReached = true;
+                logger.warn(OPEN_LOBS_LIMIT_REACHED.format(maxOpenLobs));
+            }
+            lobs.removeFirst().release();
+        }
+    }
+
+    public synchronized boolean hasLobs() {
+        return !lobs.isEmpty();
+    }
+
+    // Disposed both when the rows stream terminates and at the end of the flow: only the first call
+    // releases the resources, the connection might be in use by another flow by the second one.
     @Override
     public void dispose() {
+        if (!disposed.compareAndSet(false, true)) return;
+        releaseLobs();
         closeSilently(delegate);
         closeSilently(statement);
+        if (restoreAutoCommit) {
+            // The read only transaction opened for the cursor must be ended
+            // before the connection is given back to the pool.
+            DatabaseUtils.restoreAutoCommitSilently(connection);
+        }
         closeSilently(connection);
     }
 
+    private synchronized void releaseLobs() {
+        lobs.forEach(DatabaseLob::release);
+        lobs.clear();
+    }
+
     @Override
     public boolean next() throws SQLException {
         return delegate.next();
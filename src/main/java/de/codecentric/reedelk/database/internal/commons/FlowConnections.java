@@ -0,0 +1,189 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import de.codecentric.reedelk.database.internal.transaction.TransactionIsolation;
+import de.codecentric.reedelk.runtime.api.flow.Disposable;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static de.codecentric.reedelk.database.internal.commons.DatabaseUtils.closeSilently;
+
+// Connections of a configuration bound to the flow executions: when the affinity is enabled,
+// the components sharing the configuration within the same flow execution use one connection,
+// given back to the pool when the flow execution is disposed. A transaction begun in a flow
+// execution binds its connection whether or not the affinity is enabled, until the flow execution
+// is disposed, since result sets read within the transaction might still be open after it ends.
+// A transaction still active when the flow execution is disposed is rolled back. The components
+// get a handle on the bound connection, on which close does nothing. When reads are routed to
+// a read data source (e.g. replicas), the read connection is bound apart from the primary one.
+public class FlowConnections {
+
+    // Flow contexts are maps: they must be compared by identity.
+    private final Map<FlowContext, FlowConnection> connections = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private final DataSource dataSource;
+    private final boolean affinity;
+    private final FlowConnections reads;
+
+    public FlowConnections(DataSource dataSource, boolean affinity) {
+        this(dataSource, dataSource, affinity);
+    }
+
+    public FlowConnections(DataSource dataSource, DataSource readDataSource, boolean affinity) {
+        this.dataSource = dataSource;
+        this.affinity = affinity;
+        this.reads = readDataSource == dataSource ? this : new FlowConnections(readDataSource, affinity);
+    }
+
+    public boolean isAffinity() {
+        return affinity;
+    }
+
+    public Connection getConnection(FlowContext flowContext) throws SQLException {
+        FlowConnection bound = connections.get(flowContext);
+        if (bound != null) return bound.handle;
+        if (!affinity) return dataSource.getConnection();
+        return bind(flowContext).handle;
+    }
+
+    // Read only queries use the transaction connection if a transaction is active,
+    // otherwise a connection of the read data source.
+    public Connection getReadConnection(FlowContext flowContext) throws SQLException {
+        if (isTransactionActive(flowContext)) return getConnection(flowContext);
+        return reads.getConnection(flowContext);
+    }
+
+    public boolean isTransactionActive(FlowContext flowContext) {
+        FlowConnection bound = connections.get(flowContext);
+        return bound != null && bound.transaction;
+    }
+
+    // Returns false if a transaction is already active in the flow execution.
+    public boolean begin(FlowContext flowContext, TransactionIsolation isolation) throws SQLException {
+        FlowConnection bound = connections.get(flowContext);
+        if (bound == null) bound = bind(flowContext);
+        if (bound.transaction) return false;
+        bound.begin(isolation.level());
+        return true;
+    }
+
+    // Returns false if there is no active transaction in the flow execution.
+    public boolean commit(FlowContext flowContext) throws SQLException {
+        FlowConnection bound = connections.get(flowContext);
+        if (bound == null || !bound.transaction) return false;
+        try {
+            bound.connection.commit();
+        } finally {
+            bound.end();
+        }
+        return true;
+    }
+
+    // Returns false if there is no active transaction in the flow execution.
+    public boolean rollback(FlowContext flowContext) throws SQLException {
+        FlowConnection bound = connections.get(flowContext);
+        if (bound == null || !bound.transaction) return false;
+        try {
+            bound.connection.rollback();
+        } finally {
+            bound.end();
+        }
+        return true;
+    }
+
+    public int size() {
+        return connections.size();
+    }
+
+    // The checkout happens outside of the lock: other flow
+    // executions must not wait on the pool for this one.
+    private FlowConnection bind(FlowContext flowContext) throws SQLException {
+        FlowConnection created = new FlowConnection(flowContext, dataSource.getConnection());
+        FlowConnection bound = connections.putIfAbsent(flowContext, created);
+        if (bound != null) {
+            closeSilently(created.connection);
+            return bound;
+        }
+        flowContext.register(created);
+        return created;
+    }
+
+    class FlowConnection implements Disposable {
+
+        private final FlowContext flowContext;
+        private final Connection connection;
+        private final Connection handle;
+        private final AtomicBoolean disposed = new AtomicBoolean(false);
+
+        private volatile boolean transaction;
+        private Integer previousIsolationLevel;
+
+        FlowConnection(FlowContext flowContext, Connection connection) {
+            this.flowContext = flowContext;
+            this.connection = connection;
+            this.handle = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    this::invoke);
+        }
+
+        void begin(Integer isolationLevel) throws SQLException {
+            if (isolationLevel != null && isolationLevel != connection.getTransactionIsolation()) {
+                previousIsolationLevel = connection.getTransactionIsolation();
+                connection.setTransactionIsolation(isolationLevel);
+            }
+            connection.setAutoCommit(false);
+            transaction = true;
+        }
+
+        // Restores the auto commit and isolation level the connection had before the transaction.
+        void end() {
+            transaction = false;
+            DatabaseUtils.restoreAutoCommitSilently(connection);
+            if (previousIsolationLevel != null) {
+                try {
+                    connection.setTransactionIsolation(previousIsolationLevel);
+                } catch (SQLException exception) {
+                    // The pool validates the connection at the next checkout.
+                } finally {
+                    previousIsolationLevel = null;
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (disposed.compareAndSet(false, true)) {
+                connections.remove(flowContext, this);
+                end();
+                closeSilently(connection);
+            }
+        }
+
+        private Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException exception) {
+                        throw exception.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -32,6 +32,16 @@ public class Messages {
         COLUMN_TYPE_NOT_SUPPORTED("Column type id=[%d] not supported for column name=[%s]"),
         BLOB_TO_BYTES_ERROR("Could not convert bytes from blob, column name=[%s]"),
         CLOB_TO_STRING_ERROR("Could not convert string from clob, column name=[%s]"),
+        BLOB_READ_ERROR("Could not read blob, column name=[%s]"),
+        CLOB_READ_ERROR("Could not read clob, column name=[%s]"),
+        LOB_NOT_AVAILABLE("Content of lazy LOB column name=[%s] is not available: the handle was released " +
+                "at the end of the flow execution or to bound the open handles, or it was serialized"),
+        LOB_RELEASE_ERROR("Could not release lazy LOB column name=[%s]: %s"),
+        OPEN_LOBS_LIMIT_REACHED("More than %d lazy LOB handles were read from the same result set: the oldest ones " +
+                "are released and their content is no longer available. Increase the Max Open LOBs or consume the content " +
+                "of each row before reading the next ones"),
+        COLUMN_NOT_FOUND("Column with name=[%s] not found"),
+        COLUMN_NOT_NUMERIC("Column with name=[%s] and value type=[%s] is not numeric"),
         METADATA_FETCH_ERROR("Could not fetch query metadata, SQL error code=[%d], SQL state=[%s], cause=[%s]");
 
         private String message;
@@ -96,4 +106,108 @@ public class Messages {
             return message;
         }
     }
+
+    public enum ConnectionPool implements FormattedMessage {
+
+        WARM_UP_ERROR("Could not warm up the connection pool of configuration with id=[%s], connection URL=[%s]: %s"),
+        WARM_UP_TIMEOUT("Could not warm up the connection pool of configuration with id=[%s], connection URL=[%s]: " +
+                "%d of %d connections not opened within %d ms"),
+        STATEMENT_PREPARE_ERROR("Could not prepare statement=[%s] on warm up: %s");
+
+        private String message;
+
+        ConnectionPool(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum Transaction implements FormattedMessage {
+
+        BEGIN_ERROR("Could not begin transaction on configuration with id=[%s]: %s"),
+        COMMIT_ERROR("Could not commit transaction on configuration with id=[%s]: %s"),
+        ROLLBACK_ERROR("Could not rollback transaction on configuration with id=[%s]: %s"),
+        ALREADY_ACTIVE("Could not begin transaction: a transaction on configuration with id=[%s] is already active in this flow execution"),
+        NOT_ACTIVE("Could not commit transaction: no transaction on configuration with id=[%s] is active in this flow execution");
+
+        private String message;
+
+        Transaction(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum StoredProcedure implements FormattedMessage {
+
+        CALL_ERROR("Could not execute stored procedure: %s"),
+        CALL_ERROR_WITH_CALL("Could not execute stored procedure call=[%s]: %s"),
+        OUT_PARAMETER_TYPE_NOT_SUPPORTED("SQL type=[%s] of output parameter=[%s] is not supported"),
+        OUT_PARAMETER_CURSOR_NOT_SUPPORTED("Output parameter=[%s] is a cursor: cursors are not supported as output parameters, " +
+                "the procedure must return the rows as its result set"),
+        METADATA_FETCH_ERROR("Could not fetch stored procedure result set metadata, SQL error code=[%d], SQL state=[%s], cause=[%s]");
+
+        private String message;
+
+        StoredProcedure(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum Migration implements FormattedMessage {
+
+        LEDGER_ERROR("Could not read or create migration ledger table=[%s]: %s"),
+        LOCK_ERROR("Could not acquire migration lock on ledger table=[%s]: %s"),
+        LOCK_TIMEOUT("Could not acquire migration lock on ledger table=[%s] within %d seconds. " +
+                "If a previous migration was interrupted, the row with version=[%s] in the ledger table expires %d seconds after it was inserted"),
+        LOCK_LOST("Migration lock on ledger table=[%s] expired and was taken over by another node: " +
+                "the lock expiry of %d seconds must be longer than the longest migration script"),
+        CHECKSUM_MISMATCH("Migration script version=[%s] was modified after it was applied: applied checksum=[%d], current checksum=[%d]"),
+        SCRIPT_ERROR("Could not apply migration script version=[%s]: %s"),
+        SCRIPT_ERROR_WITH_STATEMENT("Could not apply migration script version=[%s], statement=[%s]: %s"),
+        DUPLICATE_VERSION("Migration script version=[%s] is defined more than once");
+
+        private String message;
+
+        Migration(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
+
+    public enum Export implements FormattedMessage {
+
+        QUERY_EXECUTE_ERROR("Could not execute export query: %s"),
+        QUERY_EXECUTE_ERROR_WITH_QUERY("Could not execute export query=[%s]: %s"),
+        FILE_PATH_EMPTY("The export file path evaluated from=[%s] is empty"),
+        FILE_WRITE_ERROR("Could not write export file=[%s]: %s");
+
+        private String message;
+
+        Export(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String template() {
+            return message;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package de.codecentric.reedelk.database.internal.commons;
 
+import de.codecentric.reedelk.database.internal.type.DatabaseRowSchema;
 import de.codecentric.reedelk.runtime.api.exception.PlatformException;
 
 import java.sql.ResultSetMetaData;
@@ -49,4 +50,23 @@ public class MetadataUtils {
             throw new PlatformException(exception);
         }
     }
+
+    public static DatabaseRowSchema getSchema(ResultSetMetaData metadata) {
+        return getSchema(metadata, false);
+    }
+
+    public static DatabaseRowSchema getSchema(ResultSetMetaData metadata, boolean primitiveNumerics) {
+        try {
+            int columnCount = metadata.getColumnCount();
+            String[] columnNames = new String[columnCount];
+            int[] columnTypes = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columnNames[i] = metadata.getColumnName(i + 1); // Index Starts from 1 instead of 0
+                columnTypes[i] = metadata.getColumnType(i + 1);
+            }
+            return new DatabaseRowSchema(columnNames, columnTypes, primitiveNumerics);
+        } catch (SQLException exception) {
+            throw new PlatformException(exception);
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.*;
+
+public class ParameterBinder {
+
+    private ParameterBinder() {
+    }
+
+    public static void bind(PreparedStatement statement, int parameterIndex, Object value) throws SQLException {
+        bind(statement, parameterIndex, value, new ParameterTypes(parameterIndex));
+    }
+
+    // The parameter types are shared by the statements of the same query, so that null
+    // values do not read the parameter metadata of each statement.
+    public static void bind(PreparedStatement statement, int parameterIndex, Object value, ParameterTypes parameterTypes) throws SQLException {
+        if (value == null) statement.setNull(parameterIndex, parameterTypes.nullTypeOf(statement, parameterIndex));
+        else if (value instanceof String) statement.setString(parameterIndex, (String) value);
+        else if (value instanceof Integer) statement.setInt(parameterIndex, (Integer) value);
+        else if (value instanceof Long) statement.setLong(parameterIndex, (Long) value);
+        else if (value instanceof Double) statement.setDouble(parameterIndex, (Double) value);
+        else if (value instanceof Float) statement.setFloat(parameterIndex, (Float) value);
+        else if (value instanceof Short) statement.setShort(parameterIndex, (Short) value);
+        else if (value instanceof Byte) statement.setByte(parameterIndex, (Byte) value);
+        else if (value instanceof Boolean) statement.setBoolean(parameterIndex, (Boolean) value);
+        else if (value instanceof BigDecimal) statement.setBigDecimal(parameterIndex, (BigDecimal) value);
+        else if (value instanceof BigInteger) statement.setBigDecimal(parameterIndex, new BigDecimal((BigInteger) value));
+        else if (value instanceof byte[]) statement.setBytes(parameterIndex, (byte[]) value);
+        else if (value instanceof Timestamp) statement.setTimestamp(parameterIndex, (Timestamp) value);
+        else if (value instanceof Date) statement.setDate(parameterIndex, (Date) value);
+        else if (value instanceof Time) statement.setTime(parameterIndex, (Time) value);
+        else if (value instanceof java.util.Date) statement.setTimestamp(parameterIndex, new Timestamp(((java.util.Date) value).getTime()));
+        else if (value instanceof Character) statement.setString(parameterIndex, String.valueOf(value));
+        else statement.setObject(parameterIndex, value);
+    }
+}
@@ -0,0 +1,57 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+// The SQL types null values are bound with, for each parameter of a query. Reading the parameter
+// metadata might need a round trip to the database (e.g. PostgreSQL, Oracle): the types are read
+// from the first statement binding a null value, and reused by all the statements of the same query.
+// Oracle rejects Types.NULL: the declared type of the parameter is used when the driver reports it
+// (PostgreSQL does not convert a typed null), otherwise VARCHAR, which the other drivers convert
+// to the column type.
+public class ParameterTypes {
+
+    private final int parameterCount;
+    private volatile int[] nullTypes;
+
+    public ParameterTypes(int parameterCount) {
+        this.parameterCount = parameterCount;
+    }
+
+    public int nullTypeOf(PreparedStatement statement, int parameterIndex) {
+        int[] types = nullTypes;
+        if (types == null) {
+            types = lookup(statement, parameterCount);
+            nullTypes = types;
+        }
+        return parameterIndex <= types.length ? types[parameterIndex - 1] : Types.VARCHAR;
+    }
+
+    private static int[] lookup(PreparedStatement statement, int parameterCount) {
+        int[] types = new int[parameterCount];
+        ParameterMetaData metaData;
+        try {
+            metaData = statement.getParameterMetaData();
+        } catch (SQLException | RuntimeException exception) {
+            // Parameter metadata not supported by the driver.
+            metaData = null;
+        }
+        for (int i = 0; i < parameterCount; i++) {
+            types[i] = typeOf(metaData, i + 1);
+        }
+        return types;
+    }
+
+    private static int typeOf(ParameterMetaData metaData, int parameterIndex) {
+        if (metaData == null) return Types.VARCHAR;
+        try {
+            int type = metaData.getParameterType(parameterIndex);
+            if (type != Types.NULL) return type;
+        } catch (SQLException | RuntimeException exception) {
+            // Parameter type not reported by the driver.
+        }
+        return Types.VARCHAR;
+    }
+}
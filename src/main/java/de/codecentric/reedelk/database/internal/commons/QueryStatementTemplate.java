@@ -1,16 +1,57 @@
 package de.codecentric.reedelk.database.internal.commons;
 
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
 
 public class QueryStatementTemplate {
 
-    private static final Pattern REGEXP = Pattern.compile("(:\\w+)");
+    private static final char PLACEHOLDER = '?';
+
     private final String query;
+    private final String preparedQuery;
+    private final List<Parameter> parameters;
+    private final ParameterTypes parameterTypes;
 
     public QueryStatementTemplate(String query) {
+        this(query, null);
+    }
+
+    public QueryStatementTemplate(String query, Collection<String> parameterNames) {
+        // The query is parsed only once: named parameters (e.g. :name) are translated into
+        // positional '?' placeholders so that the same SQL string can be prepared and cached
+        // by the driver. If parameter names are given, any other ':token' is left untouched.
         this.query = query;
+        this.parameters = parse(query, parameterNames);
+        this.preparedQuery = prepare(query, parameters);
+        this.parameterTypes = new ParameterTypes(parameters.size());
+    }
+
+    public String query() {
+        return query;
+    }
+
+    public String preparedQuery() {
+        return preparedQuery;
+    }
+
+    public ParameterTypes parameterTypes() {
+        return parameterTypes;
+    }
+
+    public List<String> parameterNames() {
+        List<String> names = new ArrayList<>(parameters.size());
+        for (Parameter parameter : parameters) {
+            names.add(parameter.name);
+        }
+        return names;
+    }
+
+    public void bind(PreparedStatement statement, Map<String,Object> values) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            Object value = values.get(parameters.get(i).name);
+            ParameterBinder.bind(statement, i + 1, value, parameterTypes); // Index Starts from 1 instead of 0
+        }
     }
 
     public String replace(Map<String,Object> replacements) {
@@ -18,15 +59,13 @@ public class QueryStatementTemplate {
             return query;
         }
 
-        Matcher matcher = REGEXP.matcher(query);
-
         StringBuilder builder = new StringBuilder();
-        int i  = 0;
-        while (matcher.find()) {
-            Object replacement = replacements.get(matcher.group(1).substring(1));
-            builder.append(query, i, matcher.start());
+        int i = 0;
+        for (Parameter parameter : parameters) {
+            Object replacement = replacements.get(parameter.name);
+            builder.append(query, i, parameter.start);
             if (replacement == null) {
-                builder.append(matcher.group(0));
+                builder.append(query, parameter.start, parameter.end);
             } else {
                 if (replacement instanceof String) {
                     builder.append("'").append(replacement).append("'");
@@ -34,7 +73,7 @@ public class QueryStatementTemplate {
                     builder.append(replacement);
                 }
             }
-            i = matcher.end();
+            i = parameter.end;
         }
 
         // We must make sure that we append the remaining query string.
@@ -43,4 +82,74 @@ public class QueryStatementTemplate {
         }
         return builder.toString();
     }
+
+    private static String prepare(String query, List<Parameter> parameters) {
+        if (parameters.isEmpty()) {
+            return query;
+        }
+        StringBuilder builder = new StringBuilder(query.length());
+        int i = 0;
+        for (Parameter parameter : parameters) {
+            builder.append(query, i, parameter.start).append(PLACEHOLDER);
+            i = parameter.end;
+        }
+        builder.append(query, i, query.length());
+        return builder.toString();
+    }
+
+    // Named parameters inside string literals, quoted identifiers and comments are ignored.
+    private static List<Parameter> parse(String query, Collection<String> parameterNames) {
+        List<Parameter> parameters = new ArrayList<>();
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char current = query.charAt(i);
+            if (current == '\'' || current == '"') {
+                i = skipQuoted(query, i, current);
+            } else if (current == '-' && i + 1 < length && query.charAt(i + 1) == '-') {
+                int endOfLine = query.indexOf('\n', i);
+                i = endOfLine == -1 ? length : endOfLine + 1;
+            } else if (current == '/' && i + 1 < length && query.charAt(i + 1) == '*') {
+                int endOfComment = query.indexOf("*/", i + 2);
+                i = endOfComment == -1 ? length : endOfComment + 2;
+            } else if (current == ':' && i + 1 < length && query.charAt(i + 1) == ':') {
+                // Cast operator, e.g. PostgreSQL 'value::int'.
+                i += 2;
+            } else if (current == ':') {
+                int end = i + 1;
+                while (end < length && isIdentifierPart(query.charAt(end))) end++;
+                String name = query.substring(i + 1, end);
+                if (!name.isEmpty() && (parameterNames == null || parameterNames.contains(name))) {
+                    parameters.add(new Parameter(name, i, end));
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        return Collections.unmodifiableList(parameters);
+    }
+
+    private static int skipQuoted(String query, int start, char quote) {
+        // Escaped quotes (e.g. 'O''Neil') are handled as two consecutive literals.
+        int endOfQuoted = query.indexOf(quote, start + 1);
+        return endOfQuoted == -1 ? query.length() : endOfQuoted + 1;
+    }
+
+    private static boolean isIdentifierPart(char character) {
+        return Character.isLetterOrDigit(character) || character == '_';
+    }
+
+    private static class Parameter {
+
+        final String name;
+        final int start;
+        final int end;
+
+        Parameter(String name, int start, int end) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class StreamingCursor {
+
+    static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private StreamingCursor() {
+    }
+
+    // Prepares a forward only, read only statement configured so that the driver fetches
+    // the rows from a server side cursor in chunks of 'fetchSize' rows instead of loading
+    // the whole result set into memory before the first row is returned.
+    public static PreparedStatement prepare(Connection connection,
+                                            DatabaseDriver databaseDriver,
+                                            String query,
+                                            Integer fetchSize) throws SQLException {
+        if (requiresTransaction(databaseDriver)) {
+            connection.setAutoCommit(false);
+        }
+
+        PreparedStatement statement = prepareStatement(connection, query);
+        statement.setFetchSize(fetchSizeOf(databaseDriver, fetchSize));
+        return statement;
+    }
+
+    public static PreparedStatement prepareStatement(Connection connection, String query) throws SQLException {
+        return connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    }
+
+    // PostgreSQL ignores the fetch size (and loads the whole result set)
+    // unless the statement is executed within a transaction.
+    public static boolean requiresTransaction(DatabaseDriver databaseDriver) {
+        return DatabaseDriver.POSTGRESQL.equals(databaseDriver);
+    }
+
+    private static int fetchSizeOf(DatabaseDriver databaseDriver, Integer fetchSize) {
+        // MySQL Connector/J streams the result set row by row only
+        // when the fetch size is Integer.MIN_VALUE.
+        if (DatabaseDriver.MYSQL.equals(databaseDriver)) return Integer.MIN_VALUE;
+        return fetchSize != null && fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE;
+    }
+}
@@ -2,17 +2,19 @@ package de.codecentric.reedelk.database.internal.ddlexecute;
 
 import de.codecentric.reedelk.database.component.DDLExecute;
 import de.codecentric.reedelk.database.internal.attribute.DDLExecuteAttributes;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
 import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
 import de.codecentric.reedelk.database.internal.exception.DDLExecuteException;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
+import de.codecentric.reedelk.database.internal.metrics.QueryPhase;
+import de.codecentric.reedelk.database.internal.metrics.QueryTimings;
 import de.codecentric.reedelk.runtime.api.flow.FlowContext;
 import de.codecentric.reedelk.runtime.api.message.Message;
-import de.codecentric.reedelk.runtime.api.message.MessageAttributes;
 import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import java.util.Arrays;
 import java.util.Optional;
 
 import static de.codecentric.reedelk.database.internal.commons.Messages.DDLExecute.DDL_EXECUTE_ERROR;
@@ -22,44 +24,65 @@ import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCau
 abstract class AbstractExecutionStrategy implements ExecutionStrategy {
 
     private final DataSource dataSource;
+    private final DatabaseDriver databaseDriver;
+    private final QueryMetrics queryMetrics;
+    private final boolean timingAttributes;
+    private final boolean statementTimings;
 
-    AbstractExecutionStrategy(DataSource dataSource) {
+    AbstractExecutionStrategy(DataSource dataSource, DatabaseDriver databaseDriver, QueryMetrics queryMetrics, boolean timingAttributes, boolean statementTimings) {
         this.dataSource = dataSource;
+        this.databaseDriver = databaseDriver;
+        this.queryMetrics = queryMetrics;
+        this.timingAttributes = timingAttributes;
+        this.statementTimings = statementTimings;
     }
 
     @Override
     public Message execute(FlowContext flowContext, Message message) {
         Connection connection = null;
-        Statement statement = null;
-        ResultSet resultSet = null;
-        String ddlToExecute = null;
+        DDLScript script = null;
+        DDLScriptExecution execution = null;
         try {
+            QueryTimings timings = new QueryTimings(queryMetrics);
+
             connection = dataSource.getConnection();
-            statement = connection.createStatement();
+            timings.mark(QueryPhase.CHECKOUT);
 
-            ddlToExecute = ddl(flowContext, message);
+            script = script(flowContext, message);
+            timings.mark(QueryPhase.EVALUATE);
 
-            int rowCount = statement.executeUpdate(ddlToExecute);
+            execution = new DDLScriptExecution(script, isTransactionalDDL(), statementTimings);
+            int[] rowCounts = execution.execute(connection);
+            timings.mark(QueryPhase.EXECUTE);
 
-            MessageAttributes attributes = new DDLExecuteAttributes(ddlToExecute);
+            DDLExecuteAttributes attributes = new DDLExecuteAttributes(script.text(), rowCounts);
+            if (timingAttributes) attributes.setTimings(timings.asMap());
+            if (statementTimings) attributes.setStatementTimings(execution.statementTimings());
 
             return MessageBuilder.get(DDLExecute.class)
-                    .withJavaObject(rowCount)
+                    .withJavaObject(Arrays.stream(rowCounts).filter(count -> count > 0).sum())
                     .attributes(attributes)
                     .build();
 
         } catch (Throwable exception) {
-            String error = Optional.ofNullable(ddlToExecute)
+            String failed = execution != null && execution.failedStatement() != null ?
+                    execution.failedStatement() :
+                    script != null ? script.text() : null;
+            String error = Optional.ofNullable(failed)
                     .map(ddl -> DDL_EXECUTE_ERROR_WITH_DDL.format(ddl, rootCauseMessageOf(exception)))
                     .orElse(DDL_EXECUTE_ERROR.format(rootCauseMessageOf(exception)));
             throw new DDLExecuteException(error, exception);
 
         } finally {
-            DatabaseUtils.closeSilently(resultSet);
-            DatabaseUtils.closeSilently(statement);
             DatabaseUtils.closeSilently(connection);
         }
     }
 
-    abstract String ddl(FlowContext flowContext, Message message);
+    abstract DDLScript script(FlowContext flowContext, Message message);
+
+    // Only PostgreSQL rolls back DDL statements: the other databases
+    // commit the current transaction before and after each DDL statement.
+    private boolean isTransactionalDDL() {
+        return DatabaseDriver.POSTGRESQL.equals(databaseDriver);
+    }
 }
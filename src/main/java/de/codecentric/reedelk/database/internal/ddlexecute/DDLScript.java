@@ -0,0 +1,25 @@
+package de.codecentric.reedelk.database.internal.ddlexecute;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+
+import java.util.List;
+
+// A DDL script and its statements, parsed once.
+public class DDLScript {
+
+    private final String text;
+    private final List<String> statements;
+
+    public DDLScript(String text, DatabaseDriver databaseDriver) {
+        this.text = text;
+        this.statements = DDLScriptParser.parse(text, databaseDriver);
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public List<String> statements() {
+        return statements;
+    }
+}
@@ -0,0 +1,106 @@
+package de.codecentric.reedelk.database.internal.ddlexecute;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Executes the statements of a DDL script on the given connection. A single statement is executed
+// as it is, while the statements of a multi statement script are sent as one JDBC batch, or one by one
+// when the time spent by each statement is measured. Where DDL is transactional the whole script is
+// executed in one transaction, otherwise each statement is committed by the database as it is executed.
+public class DDLScriptExecution {
+
+    private final DDLScript script;
+    private final boolean transactional;
+    private final List<Long> statementTimings;
+
+    private String failedStatement;
+
+    public DDLScriptExecution(DDLScript script, boolean transactional, boolean timed) {
+        this.script = script;
+        this.transactional = transactional;
+        this.statementTimings = timed ? new ArrayList<>(script.statements().size()) : null;
+    }
+
+    public int[] execute(Connection connection) throws SQLException {
+        List<String> statements = script.statements();
+        if (statements.size() == 1) {
+            return new int[] { executeTimed(connection, statements.get(0)) };
+        }
+
+        boolean transaction = transactional && connection.getAutoCommit();
+        if (transaction) connection.setAutoCommit(false);
+        try {
+            int[] rowCounts = statementTimings == null ?
+                    executeBatch(connection, statements) :
+                    executeOneByOne(connection, statements);
+            if (transaction) connection.commit();
+            return rowCounts;
+
+        } finally {
+            // Rolls back the statements not committed if the script failed.
+            if (transaction) DatabaseUtils.restoreAutoCommitSilently(connection);
+        }
+    }
+
+    // The statement which failed, null if not known.
+    public String failedStatement() {
+        return failedStatement;
+    }
+
+    // Statement index > duration in microseconds, null if the statements were not timed.
+    public List<Long> statementTimings() {
+        return statementTimings;
+    }
+
+    private int[] executeBatch(Connection connection, List<String> statements) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : statements) {
+                statement.addBatch(ddl);
+            }
+            return statement.executeBatch();
+        } catch (BatchUpdateException exception) {
+            // Drivers stopping at the first failure return the counts of the statements executed before it.
+            int[] updateCounts = exception.getUpdateCounts();
+            if (updateCounts != null && updateCounts.length < statements.size()) {
+                failedStatement = statements.get(updateCounts.length);
+            } else if (updateCounts != null) {
+                for (int i = 0; i < updateCounts.length; i++) {
+                    if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                        failedStatement = statements.get(i);
+                        break;
+                    }
+                }
+            }
+            throw exception;
+        }
+    }
+
+    private int[] executeOneByOne(Connection connection, List<String> statements) throws SQLException {
+        int[] rowCounts = new int[statements.size()];
+        for (int i = 0; i < statements.size(); i++) {
+            rowCounts[i] = executeTimed(connection, statements.get(i));
+        }
+        return rowCounts;
+    }
+
+    private int executeTimed(Connection connection, String ddl) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            int rowCount = statement.executeUpdate(ddl);
+            if (statementTimings != null) {
+                statementTimings.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            }
+            return rowCount;
+        } catch (SQLException | RuntimeException exception) {
+            failedStatement = ddl;
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package de.codecentric.reedelk.database.internal.ddlexecute;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Splits a DDL script into its statements on the ';' delimiter. Delimiters within string
+// literals, quoted identifiers (double quotes and MySQL backticks), comments and PostgreSQL
+// dollar quoted bodies (e.g. $$ ... $$ or $body$ ... $body$) do not end a statement.
+// Backslash escapes within literals (e.g. 'It\'s') are recognized on MySQL, where they are
+// enabled by default, and in PostgreSQL escape strings (e.g. E'It\'s').
+// Delimiters within BEGIN ... END blocks (e.g. MySQL triggers and procedures, Oracle anonymous
+// blocks and triggers, also with a DECLARE section) do not end a statement either: on Oracle the
+// delimiter after the END of a block is kept, since it is part of the PL/SQL block. Not supported: MySQL
+// client DELIMITER commands, and Oracle stored program units declaring variables between
+// IS/AS and BEGIN, which must be created with one DDL execution each, without the script delimiter.
+// Comments outside of the statements bodies are removed and empty statements are skipped.
+public class DDLScriptParser {
+
+    private static final char DELIMITER = ';';
+
+    // Words following BEGIN when it starts a transaction rather than a block.
+    private static final Set<String> TRANSACTION_MODES =
+            new HashSet<>(Arrays.asList("TRANSACTION", "WORK", "TRAN", "DEFERRED", "IMMEDIATE", "EXCLUSIVE"));
+    // Words following END when it closes a statement which does not open a block.
+    private static final Set<String> END_OF_STATEMENTS =
+            new HashSet<>(Arrays.asList("IF", "LOOP", "WHILE", "REPEAT", "FOR"));
+
+    private DDLScriptParser() {
+    }
+
+    public static List<String> parse(String script) {
+        return parse(script, null);
+    }
+
+    public static List<String> parse(String script, DatabaseDriver databaseDriver) {
+        boolean backslashEscapes = databaseDriver == DatabaseDriver.MYSQL;
+        boolean plsql = databaseDriver == DatabaseDriver.ORACLE;
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        // Open BEGIN and CASE blocks: CASE expressions end with END too.
+        int depth = 0;
+        boolean beginBlock = false;
+        boolean declareBlock = false;
+        boolean blockEnded = false;
+        int length = script.length();
+        int i = 0;
+        while (i < length) {
+            char character = script.charAt(i);
+            if (character == '\'' || character == '"' || character == '`') {
+                boolean escapes = character == '\'' && (backslashEscapes || isEscapeStringPrefix(script, i)) ||
+                        character == '"' && backslashEscapes;
+                int end = endOfQuoted(script, i, character, escapes);
+                current.append(script, i, end);
+                i = end;
+            } else if (character == '-' && i + 1 < length && script.charAt(i + 1) == '-') {
+                int endOfLine = script.indexOf('\n', i);
+                i = endOfLine == -1 ? length : endOfLine + 1;
+                current.append('\n');
+            } else if (character == '/' && i + 1 < length && script.charAt(i + 1) == '*') {
+                int endOfComment = script.indexOf("*/", i + 2);
+                i = endOfComment == -1 ? length : endOfComment + 2;
+                current.append(' ');
+            } else if (character == '$' && dollarTagEnd(script, i) != -1) {
+                int tagEnd = dollarTagEnd(script, i);
+                String tag = script.substring(i, tagEnd);
+                int closing = script.indexOf(tag, tagEnd);
+                int end = closing == -1 ? length : closing + tag.length();
+                current.append(script, i, end);
+                i = end;
+            } else if (isWordStart(script, i)) {
+                int end = endOfWord(script, i);
+                String word = script.substring(i, end).toUpperCase(Locale.ROOT);
+                if (word.equals("DECLARE") && depth == 0 && plsql) {
+                    // The BEGIN following the declarations belongs to the same block.
+                    depth++;
+                    beginBlock = true;
+                    declareBlock = true;
+                } else if (word.equals("BEGIN") && isBlockBegin(script, end)) {
+                    if (declareBlock && depth == 1) {
+                        declareBlock = false;
+                    } else {
+                        if (depth == 0) beginBlock = true;
+                        depth++;
+                    }
+                } else if (word.equals("CASE")) {
+                    if (depth == 0) beginBlock = false;
+                    depth++;
+                } else if (word.equals("END") && depth > 0) {
+                    int nextStart = skipWhitespace(script, end);
+                    int nextEnd = endOfWord(script, nextStart);
+                    String next = script.substring(nextStart, nextEnd).toUpperCase(Locale.ROOT);
+                    if (!END_OF_STATEMENTS.contains(next)) {
+                        if (next.equals("CASE")) end = nextEnd;
+                        depth--;
+                        if (depth == 0) blockEnded = beginBlock;
+                    }
+                }
+                current.append(script, i, end);
+                i = end;
+            } else if (character == DELIMITER) {
+                if (depth > 0) {
+                    current.append(character);
+                } else {
+                    if (blockEnded && plsql) current.append(character);
+                    add(statements, current);
+                    current.setLength(0);
+                    beginBlock = false;
+                    blockEnded = false;
+                }
+                i++;
+            } else {
+                current.append(character);
+                i++;
+            }
+        }
+        add(statements, current);
+        return Collections.unmodifiableList(statements);
+    }
+
+    private static void add(List<String> statements, StringBuilder statement) {
+        String trimmed = statement.toString().trim();
+        if (!trimmed.isEmpty()) statements.add(trimmed);
+    }
+
+    // Escaped quotes (e.g. 'O''Neil') are handled as two consecutive literals.
+    private static int endOfQuoted(String script, int start, char quote, boolean backslashEscapes) {
+        int length = script.length();
+        for (int i = start + 1; i < length; i++) {
+            char character = script.charAt(i);
+            if (backslashEscapes && character == '\\') i++;
+            else if (character == quote) return i + 1;
+        }
+        return length;
+    }
+
+    // A PostgreSQL escape string constant, e.g. E'It\'s'.
+    private static boolean isEscapeStringPrefix(String script, int quote) {
+        if (quote == 0) return false;
+        char prefix = script.charAt(quote - 1);
+        return (prefix == 'E' || prefix == 'e') && (quote == 1 || !isIdentifierPart(script.charAt(quote - 2)));
+    }
+
+    // BEGIN starts a block unless it starts a transaction, e.g. 'BEGIN;' or 'BEGIN TRANSACTION'.
+    private static boolean isBlockBegin(String script, int wordEnd) {
+        int next = skipWhitespace(script, wordEnd);
+        if (next == script.length() || script.charAt(next) == DELIMITER) return false;
+        String word = script.substring(next, endOfWord(script, next)).toUpperCase(Locale.ROOT);
+        return !TRANSACTION_MODES.contains(word);
+    }
+
+    // A keyword candidate: not part of an identifier, a qualified name (e.g. t.end) or a parameter.
+    private static boolean isWordStart(String script, int index) {
+        char character = script.charAt(index);
+        if (!Character.isLetter(character) && character != '_') return false;
+        if (index == 0) return true;
+        char previous = script.charAt(index - 1);
+        return !isIdentifierPart(previous) && previous != '.' && previous != '$' && previous != ':';
+    }
+
+    private static int endOfWord(String script, int start) {
+        int i = start;
+        while (i < script.length() && isIdentifierPart(script.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipWhitespace(String script, int start) {
+        int i = start;
+        while (i < script.length() && Character.isWhitespace(script.charAt(i))) i++;
+        return i;
+    }
+
+    // The end (exclusive) of the dollar quote tag starting at the given index, e.g. '$$' or '$body$',
+    // -1 if there is no tag: a '$' preceded by an identifier character (e.g. a positional
+    // parameter like $1 or an identifier like a$b) does not start a tag.
+    private static int dollarTagEnd(String script, int start) {
+        if (start > 0 && isIdentifierPart(script.charAt(start - 1))) return -1;
+        int length = script.length();
+        int i = start + 1;
+        if (i < length && Character.isDigit(script.charAt(i))) return -1;
+        while (i < length && isIdentifierPart(script.charAt(i))) i++;
+        return i < length && script.charAt(i) == '$' ? i + 1 : -1;
+    }
+
+    private static boolean isIdentifierPart(char character) {
+        return Character.isLetterOrDigit(character) || character == '_';
+    }
+}
@@ -1,5 +1,7 @@
 package de.codecentric.reedelk.database.internal.ddlexecute;
 
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
 import de.codecentric.reedelk.runtime.api.resource.ResourceText;
 import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
 import de.codecentric.reedelk.runtime.api.script.dynamicvalue.DynamicString;
@@ -12,7 +14,11 @@ public class ExecutionStrategyBuilder {
     private DynamicString ddlDefinition;
     private ResourceText ddlFile;
     private DataSource dataSource;
+    private DatabaseDriver databaseDriver;
     private ScriptEngineService scriptEngine;
+    private QueryMetrics queryMetrics;
+    private boolean timingAttributes;
+    private boolean statementTimings;
 
     private ExecutionStrategyBuilder() {
     }
@@ -31,6 +37,11 @@ public class ExecutionStrategyBuilder {
         return this;
     }
 
+    public ExecutionStrategyBuilder with(DatabaseDriver databaseDriver) {
+        this.databaseDriver = databaseDriver;
+        return this;
+    }
+
     public ExecutionStrategyBuilder with(DynamicString ddlDefinition) {
         this.ddlDefinition = ddlDefinition;
         return this;
@@ -46,11 +57,26 @@ public class ExecutionStrategyBuilder {
         return this;
     }
 
+    public ExecutionStrategyBuilder with(QueryMetrics queryMetrics) {
+        this.queryMetrics = queryMetrics;
+        return this;
+    }
+
+    public ExecutionStrategyBuilder timingAttributes(boolean timingAttributes) {
+        this.timingAttributes = timingAttributes;
+        return this;
+    }
+
+    public ExecutionStrategyBuilder statementTimings(boolean statementTimings) {
+        this.statementTimings = statementTimings;
+        return this;
+    }
+
     public ExecutionStrategy build() {
         if (DDLDefinitionStrategy.INLINE.equals(strategy)) {
-            return new ExecutionStrategyInline(dataSource, ddlDefinition, scriptEngine);
+            return new ExecutionStrategyInline(dataSource, databaseDriver, queryMetrics, timingAttributes, statementTimings, ddlDefinition, scriptEngine);
         } else if (DDLDefinitionStrategy.FROM_FILE.equals(strategy)) {
-            return new ExecutionStrategyFromFile(dataSource, ddlFile);
+            return new ExecutionStrategyFromFile(dataSource, databaseDriver, queryMetrics, timingAttributes, statementTimings, ddlFile);
         } else {
             throw new IllegalStateException("Execution strategy=[%s] not supported.");
         }
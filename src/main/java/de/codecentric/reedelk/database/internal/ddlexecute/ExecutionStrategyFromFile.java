@@ -1,6 +1,8 @@
 package de.codecentric.reedelk.database.internal.ddlexecute;
 
 import de.codecentric.reedelk.database.component.DDLExecute;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
 import de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition;
 import de.codecentric.reedelk.runtime.api.commons.StreamUtils;
 import de.codecentric.reedelk.runtime.api.flow.FlowContext;
@@ -11,16 +13,18 @@ import javax.sql.DataSource;
 
 class ExecutionStrategyFromFile extends AbstractExecutionStrategy {
 
-    private final ResourceText ddlFile;
+    private final DDLScript script;
 
-    ExecutionStrategyFromFile(DataSource dataSource, ResourceText ddlFile) {
-        super(dataSource);
+    // The file is read and parsed once, when the component is initialized.
+    ExecutionStrategyFromFile(DataSource dataSource, DatabaseDriver databaseDriver, QueryMetrics queryMetrics, boolean timingAttributes, boolean statementTimings, ResourceText ddlFile) {
+        super(dataSource, databaseDriver, queryMetrics, timingAttributes, statementTimings);
         ComponentPrecondition.Configuration.requireNotNull(DDLExecute.class, ddlFile, "DDL file must be defined for DDL execute component.");
-        this.ddlFile = ddlFile;
+        this.script = new DDLScript(StreamUtils.FromString.consume(ddlFile.data()), databaseDriver);
+        ComponentPrecondition.Configuration.requireTrue(DDLExecute.class, !script.statements().isEmpty(), "DDL file must contain at least one statement for DDL execute component.");
     }
 
     @Override
-    String ddl(FlowContext flowContext, Message message) {
-        return StreamUtils.FromString.consume(ddlFile.data());
+    DDLScript script(FlowContext flowContext, Message message) {
+        return script;
     }
 }
@@ -1,7 +1,9 @@
 package de.codecentric.reedelk.database.internal.ddlexecute;
 
 import de.codecentric.reedelk.database.component.DDLExecute;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
 import de.codecentric.reedelk.database.internal.exception.DDLExecuteException;
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
 import de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition;
 import de.codecentric.reedelk.runtime.api.flow.FlowContext;
 import de.codecentric.reedelk.runtime.api.message.Message;
@@ -15,20 +17,23 @@ import static de.codecentric.reedelk.runtime.api.commons.ComponentPrecondition.C
 
 class ExecutionStrategyInline extends AbstractExecutionStrategy {
 
+    private final DatabaseDriver databaseDriver;
     private final DynamicString ddlDefinition;
     private final ScriptEngineService scriptEngine;
 
-    ExecutionStrategyInline(DataSource dataSource, DynamicString ddlDefinition, ScriptEngineService scriptEngine) {
-        super(dataSource);
+    ExecutionStrategyInline(DataSource dataSource, DatabaseDriver databaseDriver, QueryMetrics queryMetrics, boolean timingAttributes, boolean statementTimings, DynamicString ddlDefinition, ScriptEngineService scriptEngine) {
+        super(dataSource, databaseDriver, queryMetrics, timingAttributes, statementTimings);
         ComponentPrecondition.Configuration.requireNotNull(DDLExecute.class, ddlDefinition, "DDL definition string must be defined for DDL execute component.");
         requireNotBlank(DDLExecute.class, ddlDefinition.value(), "DDL definition string must not empty for DDL execute component.");
+        this.databaseDriver = databaseDriver;
         this.ddlDefinition = ddlDefinition;
         this.scriptEngine = scriptEngine;
     }
 
     @Override
-    String ddl(FlowContext flowContext, Message message) {
+    DDLScript script(FlowContext flowContext, Message message) {
         return scriptEngine.evaluate(ddlDefinition, flowContext, message)
+                .map(ddl -> new DDLScript(ddl, databaseDriver))
                 .orElseThrow(() -> new DDLExecuteException(DDL_SCRIPT_EVALUATE_ERROR.format(ddlDefinition.value())));
     }
 }
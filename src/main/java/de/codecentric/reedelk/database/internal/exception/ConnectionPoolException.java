@@ -0,0 +1,14 @@
+package de.codecentric.reedelk.database.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class ConnectionPoolException extends PlatformException {
+
+    public ConnectionPoolException(String message) {
+        super(message);
+    }
+
+    public ConnectionPoolException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
@@ -0,0 +1,14 @@
+package de.codecentric.reedelk.database.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class ExportException extends PlatformException {
+
+    public ExportException(String message) {
+        super(message);
+    }
+
+    public ExportException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
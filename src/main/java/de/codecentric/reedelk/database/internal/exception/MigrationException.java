@@ -0,0 +1,14 @@
+package de.codecentric.reedelk.database.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class MigrationException extends PlatformException {
+
+    public MigrationException(String message) {
+        super(message);
+    }
+
+    public MigrationException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
@@ -0,0 +1,10 @@
+package de.codecentric.reedelk.database.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class StoredProcedureException extends PlatformException {
+
+    public StoredProcedureException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
@@ -0,0 +1,14 @@
+package de.codecentric.reedelk.database.internal.exception;
+
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+public class TransactionException extends PlatformException {
+
+    public TransactionException(String message) {
+        super(message);
+    }
+
+    public TransactionException(String message, Throwable exception) {
+        super(message, exception);
+    }
+}
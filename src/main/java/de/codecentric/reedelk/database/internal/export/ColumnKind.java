@@ -0,0 +1,48 @@
+package de.codecentric.reedelk.database.internal.export;
+
+import java.sql.Types;
+
+// How the values of a column are read from the result set and written: integers and floating
+// point numbers are read as primitives and appended without boxing or intermediate strings.
+// Single precision values are read as floats, so that they are not written with the digits
+// of their double expansion (e.g. 1.1 as 1.100000023841858).
+enum ColumnKind {
+
+    INTEGER,
+    REAL,
+    FLOATING,
+    DECIMAL,
+    BOOLEAN,
+    BINARY,
+    TEXT;
+
+    static ColumnKind of(int sqlType, boolean signed) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return INTEGER;
+            case Types.BIGINT:
+                // Unsigned BIGINT values (e.g. MySQL BIGINT UNSIGNED) might not fit a long.
+                return signed ? INTEGER : DECIMAL;
+            case Types.REAL:
+                return REAL;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return FLOATING;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return DECIMAL;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return BOOLEAN;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return BINARY;
+            default:
+                return TEXT;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.codecentric.reedelk.database.internal.export;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+// RFC 4180 CSV: text values are quoted only when they contain the delimiter, a quote or a line break,
+// quotes are doubled. SQL NULL values are written as empty fields.
+class CsvRowEncoder extends RowEncoder {
+
+    private final char delimiter;
+    private final boolean header;
+
+    CsvRowEncoder(ResultSetMetaData metaData, char delimiter, boolean header) throws SQLException {
+        super(metaData);
+        this.delimiter = delimiter;
+        this.header = header;
+    }
+
+    @Override
+    public void header(StringBuilder out) {
+        if (!header) return;
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) out.append(delimiter);
+            appendText(names[i], out);
+        }
+        out.append('\n');
+    }
+
+    @Override
+    public void row(ResultSet resultSet, StringBuilder out) throws SQLException {
+        for (int i = 0; i < kinds.length; i++) {
+            if (i > 0) out.append(delimiter);
+            ColumnKind kind = kinds[i];
+            if (kind == ColumnKind.TEXT || kind == ColumnKind.BINARY) {
+                String value = textOf(resultSet, i + 1, kind);
+                if (value != null) appendText(value, out);
+            } else {
+                appendPrimitive(resultSet, i + 1, kind, out);
+            }
+        }
+        out.append('\n');
+    }
+
+    private void appendText(String value, StringBuilder out) {
+        if (!requiresQuotes(value)) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private boolean requiresQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
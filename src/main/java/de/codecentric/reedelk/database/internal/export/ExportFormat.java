@@ -0,0 +1,20 @@
+package de.codecentric.reedelk.database.internal.export;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+public enum ExportFormat {
+
+    @DisplayName("CSV")
+    CSV,
+    @DisplayName("JSON Lines")
+    JSON_LINES;
+
+    public RowEncoder encoder(ResultSetMetaData metaData, char csvDelimiter, boolean csvHeader) throws SQLException {
+        return this == CSV ?
+                new CsvRowEncoder(metaData, csvDelimiter, csvHeader) :
+                new JsonLinesRowEncoder(metaData);
+    }
+}
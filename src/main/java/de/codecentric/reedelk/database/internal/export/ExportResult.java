@@ -0,0 +1,20 @@
+package de.codecentric.reedelk.database.internal.export;
+
+public class ExportResult {
+
+    private final long rowCount;
+    private final long bytesWritten;
+
+    ExportResult(long rowCount, long bytesWritten) {
+        this.rowCount = rowCount;
+        this.bytesWritten = bytesWritten;
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,72 @@
+package de.codecentric.reedelk.database.internal.export;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+// JSON Lines: one JSON object per row, column label > value. The object keys are escaped once.
+// Non finite floating point values, not representable in JSON, are written as strings.
+class JsonLinesRowEncoder extends RowEncoder {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String[] keys;
+
+    JsonLinesRowEncoder(ResultSetMetaData metaData) throws SQLException {
+        super(metaData);
+        this.keys = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            StringBuilder key = new StringBuilder(i == 0 ? "{" : ",");
+            appendString(names[i], key);
+            keys[i] = key.append(':').toString();
+        }
+    }
+
+    @Override
+    public void row(ResultSet resultSet, StringBuilder out) throws SQLException {
+        if (keys.length == 0) out.append('{');
+        for (int i = 0; i < kinds.length; i++) {
+            out.append(keys[i]);
+            ColumnKind kind = kinds[i];
+            if (kind == ColumnKind.TEXT || kind == ColumnKind.BINARY) {
+                String value = textOf(resultSet, i + 1, kind);
+                if (value == null) out.append("null");
+                else appendString(value, out);
+            } else if (kind == ColumnKind.REAL) {
+                float value = resultSet.getFloat(i + 1);
+                if (resultSet.wasNull()) out.append("null");
+                else if (Float.isNaN(value) || Float.isInfinite(value)) out.append('"').append(value).append('"');
+                else out.append(value);
+            } else if (kind == ColumnKind.FLOATING) {
+                double value = resultSet.getDouble(i + 1);
+                if (resultSet.wasNull()) out.append("null");
+                else if (Double.isNaN(value) || Double.isInfinite(value)) out.append('"').append(value).append('"');
+                else out.append(value);
+            } else if (!appendPrimitive(resultSet, i + 1, kind, out)) {
+                out.append("null");
+            }
+        }
+        out.append("}\n");
+    }
+
+    private static void appendString(String value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,43 @@
+package de.codecentric.reedelk.database.internal.export;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Writes the rows of a result set to a channel as they are read from the cursor:
+// no row objects are created, and memory usage does not depend on the number of rows.
+public class ResultSetExporter {
+
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final RowEncoder encoder;
+    private final int bufferSize;
+
+    public ResultSetExporter(RowEncoder encoder) {
+        this(encoder, DEFAULT_BUFFER_SIZE);
+    }
+
+    ResultSetExporter(RowEncoder encoder, int bufferSize) {
+        this.encoder = encoder;
+        this.bufferSize = bufferSize;
+    }
+
+    public ExportResult export(ResultSet resultSet, WritableByteChannel channel) throws SQLException, IOException {
+        ChannelWriter writer = new ChannelWriter(channel, bufferSize);
+        StringBuilder row = new StringBuilder(256);
+
+        encoder.header(row);
+        if (row.length() > 0) writer.write(row);
+
+        long rowCount = 0;
+        while (resultSet.next()) {
+            row.setLength(0);
+            encoder.row(resultSet, row);
+            writer.write(row);
+            rowCount++;
+        }
+        writer.flush();
+        return new ExportResult(rowCount, writer.bytesWritten());
+    }
+}
@@ -0,0 +1,78 @@
+package de.codecentric.reedelk.database.internal.export;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Base64;
+
+// Encodes the current row of a result set, reading the values straight from the cursor
+// into a reused buffer. The column names and kinds are resolved once from the metadata.
+public abstract class RowEncoder {
+
+    final String[] names;
+    final ColumnKind[] kinds;
+
+    RowEncoder(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        this.names = new String[columnCount];
+        this.kinds = new ColumnKind[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = metaData.getColumnLabel(i + 1);
+            kinds[i] = ColumnKind.of(metaData.getColumnType(i + 1), metaData.isSigned(i + 1));
+        }
+    }
+
+    // Appended once, before the first row.
+    public void header(StringBuilder out) {
+    }
+
+    public abstract void row(ResultSet resultSet, StringBuilder out) throws SQLException;
+
+    // Appends the value of a numeric or boolean column, returns false if the value is SQL NULL.
+    static boolean appendPrimitive(ResultSet resultSet, int column, ColumnKind kind, StringBuilder out) throws SQLException {
+        switch (kind) {
+            case INTEGER: {
+                long value = resultSet.getLong(column);
+                if (resultSet.wasNull()) return false;
+                out.append(value);
+                return true;
+            }
+            case REAL: {
+                float value = resultSet.getFloat(column);
+                if (resultSet.wasNull()) return false;
+                out.append(value);
+                return true;
+            }
+            case FLOATING: {
+                double value = resultSet.getDouble(column);
+                if (resultSet.wasNull()) return false;
+                out.append(value);
+                return true;
+            }
+            case DECIMAL: {
+                BigDecimal value = resultSet.getBigDecimal(column);
+                if (value == null) return false;
+                out.append(value.toPlainString());
+                return true;
+            }
+            case BOOLEAN: {
+                boolean value = resultSet.getBoolean(column);
+                if (resultSet.wasNull()) return false;
+                out.append(value);
+                return true;
+            }
+            default:
+                throw new IllegalArgumentException("Not a primitive column kind: " + kind);
+        }
+    }
+
+    // The value of a text or binary column, binary values are Base64 encoded. Null if SQL NULL.
+    static String textOf(ResultSet resultSet, int column, ColumnKind kind) throws SQLException {
+        if (kind == ColumnKind.BINARY) {
+            byte[] bytes = resultSet.getBytes(column);
+            return bytes == null ? null : Base64.getEncoder().encodeToString(bytes);
+        }
+        return resultSet.getString(column);
+    }
+}
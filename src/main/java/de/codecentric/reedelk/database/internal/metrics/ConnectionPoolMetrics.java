@@ -0,0 +1,124 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+import de.codecentric.reedelk.database.internal.pool.ConnectionPool;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Metrics of the connection pool of a connection configuration. The pool
+// gauges are read from the pool while the checkouts are recorded by the data source.
+public class ConnectionPoolMetrics implements ConnectionPoolMetricsMXBean {
+
+    private static final int NOT_AVAILABLE = -1;
+
+    private final String configurationId;
+    private final ConnectionPool pool;
+    private final LatencyHistogram checkoutWaitTime = new LatencyHistogram();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder checkoutFailures = new LongAdder();
+    private volatile long warmUpNanos;
+
+    public ConnectionPoolMetrics(String configurationId, ConnectionPool pool) {
+        this.configurationId = configurationId;
+        this.pool = pool;
+    }
+
+    public void checkoutSucceeded(long waitNanos) {
+        checkouts.increment();
+        checkoutWaitTime.record(waitNanos);
+    }
+
+    public void warmedUp(long nanos) {
+        this.warmUpNanos = nanos;
+    }
+
+    public void checkoutFailed(long waitNanos) {
+        checkoutFailures.increment();
+        checkoutWaitTime.record(waitNanos);
+    }
+
+    @Override
+    public String getConfigurationId() {
+        return configurationId;
+    }
+
+    @Override
+    public int getBusyConnections() {
+        try {
+            return pool.getBusyConnections();
+        } catch (SQLException exception) {
+            return NOT_AVAILABLE;
+        }
+    }
+
+    @Override
+    public int getIdleConnections() {
+        try {
+            return pool.getIdleConnections();
+        } catch (SQLException exception) {
+            return NOT_AVAILABLE;
+        }
+    }
+
+    @Override
+    public int getTotalConnections() {
+        try {
+            return pool.getTotalConnections();
+        } catch (SQLException exception) {
+            return NOT_AVAILABLE;
+        }
+    }
+
+    @Override
+    public int getThreadsAwaitingCheckout() {
+        try {
+            return pool.getThreadsAwaitingCheckout();
+        } catch (SQLException exception) {
+            return NOT_AVAILABLE;
+        }
+    }
+
+    @Override
+    public long getCheckouts() {
+        return checkouts.sum();
+    }
+
+    @Override
+    public long getCheckoutFailures() {
+        return checkoutFailures.sum();
+    }
+
+    @Override
+    public String getLastConnectionFailure() {
+        try {
+            Throwable failure = pool.getLastConnectionFailure();
+            return failure == null ? null : failure.toString();
+        } catch (SQLException exception) {
+            return null;
+        }
+    }
+
+    @Override
+    public int getCachedStatements() {
+        try {
+            return pool.getCachedStatements();
+        } catch (SQLException exception) {
+            return NOT_AVAILABLE;
+        }
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getCheckoutWaitTime() {
+        return checkoutWaitTime.snapshot();
+    }
+
+    // Zero when the pool has not been warmed up.
+    @Override
+    public double getWarmUpMillis() {
+        return warmUpNanos / 1_000_000d;
+    }
+
+    public ConnectionPoolSnapshot snapshot() {
+        return new ConnectionPoolSnapshot(this);
+    }
+}
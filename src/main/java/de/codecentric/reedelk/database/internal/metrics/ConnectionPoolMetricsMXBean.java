@@ -0,0 +1,27 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+public interface ConnectionPoolMetricsMXBean {
+
+    String getConfigurationId();
+
+    int getBusyConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    int getThreadsAwaitingCheckout();
+
+    long getCheckouts();
+
+    long getCheckoutFailures();
+
+    String getLastConnectionFailure();
+
+    int getCachedStatements();
+
+    LatencyHistogram.Snapshot getCheckoutWaitTime();
+
+    double getWarmUpMillis();
+
+}
@@ -0,0 +1,91 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+// Point in time copy of the metrics of a connection pool.
+public class ConnectionPoolSnapshot {
+
+    private final String configurationId;
+    private final int busyConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int threadsAwaitingCheckout;
+    private final long checkouts;
+    private final long checkoutFailures;
+    private final String lastConnectionFailure;
+    private final int cachedStatements;
+    private final LatencyHistogram.Snapshot checkoutWaitTime;
+    private final double warmUpMillis;
+
+    ConnectionPoolSnapshot(ConnectionPoolMetricsMXBean metrics) {
+        this.configurationId = metrics.getConfigurationId();
+        this.busyConnections = metrics.getBusyConnections();
+        this.idleConnections = metrics.getIdleConnections();
+        this.totalConnections = metrics.getTotalConnections();
+        this.threadsAwaitingCheckout = metrics.getThreadsAwaitingCheckout();
+        this.checkouts = metrics.getCheckouts();
+        this.checkoutFailures = metrics.getCheckoutFailures();
+        this.lastConnectionFailure = metrics.getLastConnectionFailure();
+        this.cachedStatements = metrics.getCachedStatements();
+        this.checkoutWaitTime = metrics.getCheckoutWaitTime();
+        this.warmUpMillis = metrics.getWarmUpMillis();
+    }
+
+    public String getConfigurationId() {
+        return configurationId;
+    }
+
+    public int getBusyConnections() {
+        return busyConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getThreadsAwaitingCheckout() {
+        return threadsAwaitingCheckout;
+    }
+
+    public long getCheckouts() {
+        return checkouts;
+    }
+
+    public long getCheckoutFailures() {
+        return checkoutFailures;
+    }
+
+    public String getLastConnectionFailure() {
+        return lastConnectionFailure;
+    }
+
+    public int getCachedStatements() {
+        return cachedStatements;
+    }
+
+    public LatencyHistogram.Snapshot getCheckoutWaitTime() {
+        return checkoutWaitTime;
+    }
+
+    public double getWarmUpMillis() {
+        return warmUpMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolSnapshot{" +
+                "configurationId='" + configurationId + '\'' +
+                ", busyConnections=" + busyConnections +
+                ", idleConnections=" + idleConnections +
+                ", totalConnections=" + totalConnections +
+                ", threadsAwaitingCheckout=" + threadsAwaitingCheckout +
+                ", checkouts=" + checkouts +
+                ", checkoutFailures=" + checkoutFailures +
+                ", cachedStatements=" + cachedStatements +
+                ", checkoutWaitP99Millis=" + checkoutWaitTime.getP99Millis() +
+                ", warmUpMillis=" + warmUpMillis +
+                '}';
+    }
+}
@@ -0,0 +1,119 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock free histogram of latencies in microseconds. As in HdrHistogram, each power of two range
+// [2^k, 2^(k+1)) is split into SUB_BUCKETS linear buckets, and values below SUB_BUCKETS have a
+// bucket each: a bucket is at most 1/SUB_BUCKETS of the values it counts wide, which bounds the
+// relative error of the percentiles. Recording a value costs a few atomic increments, therefore
+// it can be used on every call.
+public class LatencyHistogram {
+
+    static final int SUB_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    // Up to 2^40 microseconds (about 12 days): larger values are counted in the last bucket.
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new Snapshot(counts, count.sum(), totalNanos.sum(), maxNanos.get());
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int bucket = SUB_BUCKETS + shift * SUB_BUCKETS + (int) (micros >>> shift) - SUB_BUCKETS;
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    // The exclusive upper bound of the values counted in the given bucket, in microseconds.
+    static long upperBoundMicrosOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket + 1L;
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << shift;
+    }
+
+    public static class Snapshot {
+
+        private final long[] bucketCounts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Snapshot(long[] bucketCounts, long count, long totalNanos, long maxNanos) {
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0d : totalNanos / (double) count / 1_000_000d;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1_000_000d;
+        }
+
+        public double getP50Millis() {
+            return percentileMillis(0.50);
+        }
+
+        public double getP90Millis() {
+            return percentileMillis(0.90);
+        }
+
+        public double getP99Millis() {
+            return percentileMillis(0.99);
+        }
+
+        // Number of values in each bucket, see upperBoundMicrosOf for the bucket bounds.
+        public long[] getBucketCounts() {
+            return bucketCounts.clone();
+        }
+
+        // The upper bound of the bucket containing the given percentile, capped at the max value.
+        public double percentileMillis(double percentile) {
+            long total = 0;
+            for (long bucketCount : bucketCounts) total += bucketCount;
+            if (total == 0) return 0d;
+
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    double upperBoundMillis = upperBoundMicrosOf(i) / 1000d;
+                    return Math.min(upperBoundMillis, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+    }
+}
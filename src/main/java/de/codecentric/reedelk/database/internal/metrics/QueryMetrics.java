@@ -0,0 +1,49 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Latency of each query phase of a single component instance.
+public class QueryMetrics implements QueryMetricsMXBean {
+
+    private final String id;
+    private final String component;
+    private final String statement;
+    private final Map<QueryPhase, LatencyHistogram> histograms = new EnumMap<>(QueryPhase.class);
+
+    QueryMetrics(String id, String component, String statement) {
+        this.id = id;
+        this.component = component;
+        this.statement = statement;
+        for (QueryPhase phase : QueryPhase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    public void record(QueryPhase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getComponent() {
+        return component;
+    }
+
+    @Override
+    public String getStatement() {
+        return statement;
+    }
+
+    @Override
+    public Map<String, LatencyHistogram.Snapshot> getPhases() {
+        Map<String, LatencyHistogram.Snapshot> phases = new LinkedHashMap<>();
+        histograms.forEach((phase, histogram) -> phases.put(phase.key(), histogram.snapshot()));
+        return phases;
+    }
+}
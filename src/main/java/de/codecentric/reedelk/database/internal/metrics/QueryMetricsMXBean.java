@@ -0,0 +1,15 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+import java.util.Map;
+
+public interface QueryMetricsMXBean {
+
+    String getId();
+
+    String getComponent();
+
+    String getStatement();
+
+    Map<String, LatencyHistogram.Snapshot> getPhases();
+
+}
@@ -0,0 +1,64 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+// Query metrics of all the component instances: each one is also registered as an MXBean.
+public class QueryMetricsRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetricsRegistry.class);
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, QueryMetrics> metricsById = new ConcurrentHashMap<>();
+
+    public QueryMetrics register(Class<?> component, String statement) {
+        String id = component.getSimpleName() + "-" + sequence.incrementAndGet();
+        QueryMetrics metrics = new QueryMetrics(id, component.getSimpleName(), statement);
+        metricsById.put(id, metrics);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = objectNameOf(metrics);
+            if (!server.isRegistered(name)) server.registerMBean(metrics, name);
+        } catch (Exception exception) {
+            logger.warn(format("Could not register query metrics with id=[%s]", id), exception);
+        }
+        return metrics;
+    }
+
+    public void unregister(QueryMetrics metrics) {
+        if (metrics == null || metricsById.remove(metrics.getId()) == null) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = objectNameOf(metrics);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (Exception exception) {
+            logger.warn(format("Could not unregister query metrics with id=[%s]", metrics.getId()), exception);
+        }
+    }
+
+    public void clear() {
+        metricsById.values().forEach(this::unregister);
+    }
+
+    // Metrics id > phase key > latency histogram.
+    public Map<String, Map<String, LatencyHistogram.Snapshot>> snapshot() {
+        Map<String, Map<String, LatencyHistogram.Snapshot>> snapshot = new TreeMap<>();
+        metricsById.forEach((id, metrics) -> snapshot.put(id, metrics.getPhases()));
+        return snapshot;
+    }
+
+    private static ObjectName objectNameOf(QueryMetrics metrics) throws Exception {
+        return new ObjectName("de.codecentric.reedelk.database:type=Query,component=" +
+                metrics.getComponent() + ",id=" + ObjectName.quote(metrics.getId()));
+    }
+}
@@ -0,0 +1,25 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+public enum QueryPhase {
+
+    // Wait for a connection from the pool.
+    CHECKOUT("checkout"),
+    // Evaluation of the query parameters (or DDL) scripts.
+    EVALUATE("evaluate"),
+    // Statement preparation and binding of the evaluated parameters.
+    RENDER("render"),
+    // Statement execution on the database.
+    EXECUTE("execute"),
+    // Fetch and conversion of the result set rows (select and export only).
+    FETCH("fetch");
+
+    private final String key;
+
+    QueryPhase(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+}
@@ -0,0 +1,44 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+import java.util.LinkedHashMap;
+
+// Timings of a single query execution: each phase is recorded in the
+// component metrics and kept to be optionally added to the message attributes.
+public class QueryTimings {
+
+    private final QueryMetrics metrics;
+    private final long[] phaseNanos = new long[QueryPhase.values().length];
+    private final boolean[] recorded = new boolean[QueryPhase.values().length];
+    private long last;
+
+    public QueryTimings(QueryMetrics metrics) {
+        this.metrics = metrics;
+        this.last = System.nanoTime();
+    }
+
+    // Records the time elapsed since the previous mark (or since creation) as the given phase.
+    public void mark(QueryPhase phase) {
+        long now = System.nanoTime();
+        add(phase, now - last);
+        last = now;
+    }
+
+    public void add(QueryPhase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+        recorded[phase.ordinal()] = true;
+        metrics.record(phase, nanos);
+    }
+
+    public long nanos(QueryPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    // Phase key > duration in microseconds, only the phases recorded so far.
+    public LinkedHashMap<String, Long> asMap() {
+        LinkedHashMap<String, Long> timings = new LinkedHashMap<>();
+        for (QueryPhase phase : QueryPhase.values()) {
+            if (recorded[phase.ordinal()]) timings.put(phase.key(), phaseNanos[phase.ordinal()] / 1000);
+        }
+        return timings;
+    }
+}
@@ -0,0 +1,52 @@
+package de.codecentric.reedelk.database.internal.migration;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.ddlexecute.DDLScript;
+import de.codecentric.reedelk.runtime.api.commons.StreamUtils;
+import de.codecentric.reedelk.runtime.api.resource.ResourceText;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+// A versioned migration script. The script resource is read, parsed and checksummed lazily
+// and at most once: scripts already applied are never read unless their checksum is validated.
+public class Migration {
+
+    private final String version;
+    private final String description;
+    private final ResourceText resource;
+    private final DatabaseDriver databaseDriver;
+
+    private DDLScript script;
+    private long checksum;
+
+    public Migration(String version, String description, ResourceText resource, DatabaseDriver databaseDriver) {
+        this.version = version;
+        this.description = description;
+        this.resource = resource;
+        this.databaseDriver = databaseDriver;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    synchronized DDLScript script() {
+        if (script == null) {
+            script = new DDLScript(StreamUtils.FromString.consume(resource.data()), databaseDriver);
+            CRC32 crc32 = new CRC32();
+            crc32.update(script.text().getBytes(StandardCharsets.UTF_8));
+            checksum = crc32.getValue();
+        }
+        return script;
+    }
+
+    synchronized long checksum() {
+        script();
+        return checksum;
+    }
+}
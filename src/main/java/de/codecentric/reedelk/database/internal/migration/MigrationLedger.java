@@ -0,0 +1,134 @@
+package de.codecentric.reedelk.database.internal.migration;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The table recording the applied migration scripts: version, description, checksum,
+// installation time and execution time. The row with the lock version is not a migration:
+// it is the lock held by a migrating node on databases without named locks, and its
+// installation time is the time the lock was acquired.
+class MigrationLedger {
+
+    static final String LOCK_VERSION = "__lock__";
+
+    private final String table;
+    private final DatabaseDriver databaseDriver;
+
+    MigrationLedger(String table, DatabaseDriver databaseDriver) {
+        this.table = table;
+        this.databaseDriver = databaseDriver;
+    }
+
+    String table() {
+        return table;
+    }
+
+    // Applied version > checksum, in installation order. The ledger table is
+    // created the first time it is found missing.
+    Map<String, Long> applied(Connection connection) throws SQLException {
+        try {
+            return select(connection);
+        } catch (SQLException missing) {
+            try {
+                create(connection);
+            } catch (SQLException exception) {
+                // Another node might have created it in the meantime.
+                exception.addSuppressed(missing);
+                return select(connection);
+            }
+            return select(connection);
+        }
+    }
+
+    void insert(Connection connection, Migration migration, long executionMillis) throws SQLException {
+        insert(connection, migration.version(), migration.description(), migration.checksum(), executionMillis);
+    }
+
+    // True if the lock row was inserted, false if another node holds it.
+    boolean insertLock(Connection connection, String owner) throws SQLException {
+        try {
+            insert(connection, LOCK_VERSION, owner, 0, 0);
+            return true;
+        } catch (SQLException exception) {
+            if (isIntegrityConstraintViolation(exception)) return false;
+            throw exception;
+        }
+    }
+
+    // Only the lock row inserted by the given owner is deleted: an expired lock might
+    // have been taken over by another node in the meantime.
+    void deleteLock(Connection connection, String owner) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table + " WHERE version = ? AND description = ?")) {
+            statement.setString(1, LOCK_VERSION);
+            statement.setString(2, owner);
+            statement.executeUpdate();
+        }
+    }
+
+    // True if the lock row of the given owner was found and its time set to now, so that it does not expire.
+    boolean refreshLock(Connection connection, String owner) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE " + table + " SET installed_on = ? WHERE version = ? AND description = ?")) {
+            statement.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+            statement.setString(2, LOCK_VERSION);
+            statement.setString(3, owner);
+            return statement.executeUpdate() > 0;
+        }
+    }
+
+    // True if a lock row inserted before the given time was found and deleted.
+    boolean deleteLockInsertedBefore(Connection connection, long timeMillis) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table + " WHERE version = ? AND installed_on < ?")) {
+            statement.setString(1, LOCK_VERSION);
+            statement.setTimestamp(2, new Timestamp(timeMillis));
+            return statement.executeUpdate() > 0;
+        }
+    }
+
+    private Map<String, Long> select(Connection connection) throws SQLException {
+        Map<String, Long> applied = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM " + table + " ORDER BY installed_on, version")) {
+            while (resultSet.next()) {
+                String version = resultSet.getString(1);
+                if (!LOCK_VERSION.equals(version)) {
+                    applied.put(version, resultSet.getLong(2));
+                }
+            }
+        }
+        return applied;
+    }
+
+    private void create(Connection connection) throws SQLException {
+        String number = databaseDriver == DatabaseDriver.ORACLE ? "NUMBER(19)" : "BIGINT";
+        String varchar = databaseDriver == DatabaseDriver.ORACLE ? "VARCHAR2" : "VARCHAR";
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE " + table + " (" +
+                    "version " + varchar + "(50) NOT NULL PRIMARY KEY, " +
+                    "description " + varchar + "(200), " +
+                    "checksum " + number + " NOT NULL, " +
+                    "installed_on TIMESTAMP NOT NULL, " +
+                    "execution_millis " + number + " NOT NULL)");
+        }
+    }
+
+    private void insert(Connection connection, String version, String description, long checksum, long executionMillis) throws SQLException {
+        String insert = "INSERT INTO " + table + " (version, description, checksum, installed_on, execution_millis) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(insert)) {
+            statement.setString(1, version);
+            statement.setString(2, description);
+            statement.setLong(3, checksum);
+            statement.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            statement.setLong(5, executionMillis);
+            statement.executeUpdate();
+        }
+    }
+
+    // SQL state class 23: integrity constraint violation, e.g. a duplicate primary key.
+    private static boolean isIntegrityConstraintViolation(SQLException exception) {
+        return exception instanceof SQLIntegrityConstraintViolationException ||
+                (exception.getSQLState() != null && exception.getSQLState().startsWith("23"));
+    }
+}
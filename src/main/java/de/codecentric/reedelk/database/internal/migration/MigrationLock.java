@@ -0,0 +1,157 @@
+package de.codecentric.reedelk.database.internal.migration;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// A database wide lock held while migrating, so that only one node at a time applies the pending
+// scripts. The lock is bound to the connection it is acquired with: it must be released on it.
+interface MigrationLock {
+
+    long RETRY_INTERVAL_MILLIS = 500;
+
+    // True if the lock was acquired within the given timeout.
+    boolean acquire(Connection connection, int timeoutSeconds) throws SQLException;
+
+    void release(Connection connection) throws SQLException;
+
+    // Called before each script: false if the lock is no longer held.
+    default boolean refresh(Connection connection) throws SQLException {
+        return true;
+    }
+
+    static MigrationLock of(DatabaseDriver databaseDriver, MigrationLedger ledger, int expirySeconds) {
+        switch (databaseDriver) {
+            case POSTGRESQL:
+                return new AdvisoryLock(ledger.table());
+            case MYSQL:
+                return new NamedLock(ledger.table());
+            default:
+                return new LedgerRowLock(ledger, expirySeconds);
+        }
+    }
+
+    // PostgreSQL session level advisory lock, keyed by the ledger table name.
+    class AdvisoryLock implements MigrationLock {
+
+        private final long key;
+
+        AdvisoryLock(String table) {
+            this.key = table.toLowerCase().hashCode();
+        }
+
+        @Override
+        public boolean acquire(Connection connection, int timeoutSeconds) throws SQLException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (!queryBoolean(connection, "SELECT pg_try_advisory_lock(?)")) {
+                if (System.nanoTime() > deadline) return false;
+                sleep();
+            }
+            return true;
+        }
+
+        @Override
+        public void release(Connection connection) throws SQLException {
+            queryBoolean(connection, "SELECT pg_advisory_unlock(?)");
+        }
+
+        private boolean queryBoolean(Connection connection, String query) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setLong(1, key);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() && resultSet.getBoolean(1);
+                }
+            }
+        }
+    }
+
+    // MySQL user level lock, named after the ledger table.
+    class NamedLock implements MigrationLock {
+
+        private final String name;
+
+        NamedLock(String table) {
+            this.name = "reedelk_migration_" + table.toLowerCase();
+        }
+
+        @Override
+        public boolean acquire(Connection connection, int timeoutSeconds) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                statement.setString(1, name);
+                statement.setInt(2, timeoutSeconds);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() && resultSet.getInt(1) == 1;
+                }
+            }
+        }
+
+        @Override
+        public void release(Connection connection) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                statement.setString(1, name);
+                statement.executeQuery().close();
+            }
+        }
+    }
+
+    // H2 has no session level named locks, and Oracle's DBMS_LOCK needs an EXECUTE grant most
+    // schema owners do not have: the lock is a row inserted in the ledger table, whose primary key
+    // lets only one node insert it. The row records when it was inserted, and it is refreshed before
+    // each script: a node stopped while migrating leaves it behind, and once expired it is deleted by
+    // the next node trying to migrate. A node whose lock was taken over finds it missing at the next
+    // refresh and stops, and it never deletes the lock of another node.
+    // Expiry is measured with the clocks of the nodes, which are assumed to be roughly in sync.
+    class LedgerRowLock implements MigrationLock {
+
+        private static final Logger logger = LoggerFactory.getLogger(LedgerRowLock.class);
+
+        private final MigrationLedger ledger;
+        private final long expiryMillis;
+        private final String owner = UUID.randomUUID().toString();
+
+        LedgerRowLock(MigrationLedger ledger, int expirySeconds) {
+            this.ledger = ledger;
+            this.expiryMillis = TimeUnit.SECONDS.toMillis(expirySeconds);
+        }
+
+        @Override
+        public boolean acquire(Connection connection, int timeoutSeconds) throws SQLException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (!ledger.insertLock(connection, owner)) {
+                if (ledger.deleteLockInsertedBefore(connection, System.currentTimeMillis() - expiryMillis)) {
+                    logger.warn(String.format("Deleted expired migration lock from ledger table=[%s]", ledger.table()));
+                    continue;
+                }
+                if (System.nanoTime() > deadline) return false;
+                sleep();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean refresh(Connection connection) throws SQLException {
+            return ledger.refreshLock(connection, owner);
+        }
+
+        @Override
+        public void release(Connection connection) throws SQLException {
+            ledger.deleteLock(connection, owner);
+        }
+    }
+
+    static void sleep() throws SQLException {
+        try {
+            Thread.sleep(RETRY_INTERVAL_MILLIS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the migration lock", exception);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package de.codecentric.reedelk.database.internal.migration;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
+import de.codecentric.reedelk.database.internal.ddlexecute.DDLScript;
+import de.codecentric.reedelk.database.internal.ddlexecute.DDLScriptExecution;
+import de.codecentric.reedelk.database.internal.exception.MigrationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Migration.*;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+// Applies the migration scripts not yet recorded in the ledger, in the given order. When the schema
+// is up to date a migration is a single query on the ledger table: the lock is taken, and the ledger
+// read again under it, only when there are pending scripts.
+public class MigrationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+
+    private final List<Migration> migrations;
+    private final MigrationLedger ledger;
+    private final MigrationLock lock;
+    private final DatabaseDriver databaseDriver;
+    private final boolean validateChecksums;
+    private final int lockTimeoutSeconds;
+    private final int lockExpirySeconds;
+
+    public MigrationRunner(List<Migration> migrations, String ledgerTable, DatabaseDriver databaseDriver, boolean validateChecksums, int lockTimeoutSeconds, int lockExpirySeconds) {
+        this.migrations = migrations;
+        this.ledger = new MigrationLedger(ledgerTable, databaseDriver);
+        this.lock = MigrationLock.of(databaseDriver, ledger, lockExpirySeconds);
+        this.databaseDriver = databaseDriver;
+        this.validateChecksums = validateChecksums;
+        this.lockTimeoutSeconds = lockTimeoutSeconds;
+        this.lockExpirySeconds = lockExpirySeconds;
+    }
+
+    // The versions applied by this migration, in order.
+    public List<String> migrate(Connection connection) {
+        List<Migration> pending = pending(connection);
+        if (pending.isEmpty()) return Collections.emptyList();
+
+        acquireLock(connection);
+        try {
+            // Another node might have applied some of them while waiting for the lock.
+            pending = pending(connection);
+            List<String> applied = new ArrayList<>(pending.size());
+            for (Migration migration : pending) {
+                refreshLock(connection);
+                apply(connection, migration);
+                applied.add(migration.version());
+            }
+            return applied;
+
+        } finally {
+            releaseLock(connection);
+        }
+    }
+
+    private List<Migration> pending(Connection connection) {
+        Map<String, Long> applied;
+        try {
+            applied = ledger.applied(connection);
+        } catch (SQLException exception) {
+            throw new MigrationException(LEDGER_ERROR.format(ledger.table(), rootCauseMessageOf(exception)), exception);
+        }
+
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations) {
+            Long appliedChecksum = applied.get(migration.version());
+            if (appliedChecksum == null) {
+                pending.add(migration);
+            } else if (validateChecksums && appliedChecksum != migration.checksum()) {
+                throw new MigrationException(CHECKSUM_MISMATCH.format(migration.version(), appliedChecksum, migration.checksum()));
+            }
+        }
+        return pending;
+    }
+
+    // On PostgreSQL DDL is transactional: the script and its ledger row are committed together.
+    // Elsewhere DDL statements are committed as they are executed, and a failing script
+    // might leave the schema partially migrated.
+    private void apply(Connection connection, Migration migration) {
+        DDLScript script = migration.script();
+        DDLScriptExecution execution = new DDLScriptExecution(script, false, false);
+        boolean transactional = databaseDriver == DatabaseDriver.POSTGRESQL;
+        long start = System.nanoTime();
+        try {
+            if (transactional) connection.setAutoCommit(false);
+            if (!script.statements().isEmpty()) execution.execute(connection);
+            long executionMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            ledger.insert(connection, migration, executionMillis);
+            if (transactional) connection.commit();
+            logger.info(String.format("Applied migration script version=[%s] in %d ms", migration.version(), executionMillis));
+
+        } catch (SQLException | RuntimeException exception) {
+            String error = execution.failedStatement() != null ?
+                    SCRIPT_ERROR_WITH_STATEMENT.format(migration.version(), execution.failedStatement(), rootCauseMessageOf(exception)) :
+                    SCRIPT_ERROR.format(migration.version(), rootCauseMessageOf(exception));
+            throw new MigrationException(error, exception);
+
+        } finally {
+            // Rolls back the script and its ledger row if they were not committed.
+            if (transactional) DatabaseUtils.restoreAutoCommitSilently(connection);
+        }
+    }
+
+    private void acquireLock(Connection connection) {
+        boolean acquired;
+        try {
+            acquired = lock.acquire(connection, lockTimeoutSeconds);
+        } catch (SQLException exception) {
+            throw new MigrationException(LOCK_ERROR.format(ledger.table(), rootCauseMessageOf(exception)), exception);
+        }
+        if (!acquired) {
+            throw new MigrationException(LOCK_TIMEOUT.format(ledger.table(), lockTimeoutSeconds, MigrationLedger.LOCK_VERSION, lockExpirySeconds));
+        }
+    }
+
+    private void refreshLock(Connection connection) {
+        boolean held;
+        try {
+            held = lock.refresh(connection);
+        } catch (SQLException exception) {
+            throw new MigrationException(LOCK_ERROR.format(ledger.table(), rootCauseMessageOf(exception)), exception);
+        }
+        if (!held) {
+            throw new MigrationException(LOCK_LOST.format(ledger.table(), lockExpirySeconds));
+        }
+    }
+
+    private void releaseLock(Connection connection) {
+        try {
+            lock.release(connection);
+        } catch (Throwable exception) {
+            logger.warn(String.format("Could not release migration lock on ledger table=[%s]: %s", ledger.table(), exception.getMessage()), exception);
+        }
+    }
+}
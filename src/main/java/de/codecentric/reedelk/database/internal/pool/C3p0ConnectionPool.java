@@ -0,0 +1,108 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+public class C3p0ConnectionPool implements ConnectionPool {
+
+    private final ComboPooledDataSource pool;
+
+    C3p0ConnectionPool(ComboPooledDataSource pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int getMinPoolSize() {
+        return pool.getMinPoolSize();
+    }
+
+    @Override
+    public int getMaxPoolSize() {
+        return pool.getMaxPoolSize();
+    }
+
+    @Override
+    public int getBusyConnections() throws SQLException {
+        return pool.getNumBusyConnectionsDefaultUser();
+    }
+
+    @Override
+    public int getIdleConnections() throws SQLException {
+        return pool.getNumIdleConnectionsDefaultUser();
+    }
+
+    @Override
+    public int getTotalConnections() throws SQLException {
+        return pool.getNumConnectionsDefaultUser();
+    }
+
+    @Override
+    public int getThreadsAwaitingCheckout() throws SQLException {
+        return pool.getNumThreadsAwaitingCheckoutDefaultUser();
+    }
+
+    @Override
+    public int getCachedStatements() throws SQLException {
+        return pool.getStatementCacheNumStatementsAllUsers();
+    }
+
+    @Override
+    public Throwable getLastConnectionFailure() throws SQLException {
+        return pool.getLastAcquisitionFailureDefaultUser();
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return pool.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return pool.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        pool.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        pool.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return pool.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return pool.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(pool) ? iface.cast(pool) : pool.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(pool) || pool.isWrapperFor(iface);
+    }
+}
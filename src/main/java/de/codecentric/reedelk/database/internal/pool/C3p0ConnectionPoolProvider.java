@@ -0,0 +1,48 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import de.codecentric.reedelk.database.component.ConnectionConfiguration;
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+import java.util.Optional;
+
+public class C3p0ConnectionPoolProvider implements ConnectionPoolProvider {
+
+    private static final int DEFAULT_MAX_STATEMENTS_PER_CONNECTION = 50;
+    private static final int ACQUIRE_RETRY_DELAY_MILLIS = 1_000;
+
+    @Override
+    public ConnectionPool create(ConnectionConfiguration configuration) {
+        ComboPooledDataSource pooledDataSource = new ComboPooledDataSource();
+        try {
+            pooledDataSource.setDriverClass(configuration.getDatabaseDriver().qualifiedName());
+        } catch (Throwable exception) {
+            throw new PlatformException(exception);
+        }
+
+        pooledDataSource.setJdbcUrl(configuration.getConnectionURL());
+        pooledDataSource.setUser(configuration.getUsername());
+        pooledDataSource.setPassword(configuration.getPassword());
+        Optional.ofNullable(configuration.getMinPoolSize())
+                .ifPresent(pooledDataSource::setMinPoolSize);
+        Optional.ofNullable(configuration.getMaxPoolSize())
+                .ifPresent(pooledDataSource::setMaxPoolSize);
+        Optional.ofNullable(configuration.getAcquireIncrement())
+                .ifPresent(pooledDataSource::setAcquireIncrement);
+        pooledDataSource.setMaxStatementsPerConnection(Optional.ofNullable(configuration.getMaxStatementsPerConnection())
+                .orElse(DEFAULT_MAX_STATEMENTS_PER_CONNECTION));
+
+        // c3p0 defaults apply unless a checkout timeout is given: 0 waits indefinitely. A positive
+        // timeout also bounds the acquire attempts: c3p0 otherwise keeps retrying an unreachable
+        // database 30 times, one second apart, for every checkout.
+        Optional.ofNullable(configuration.getCheckoutTimeout()).ifPresent(checkoutTimeout -> {
+            pooledDataSource.setCheckoutTimeout(checkoutTimeout);
+            if (checkoutTimeout > 0) {
+                int acquireRetryDelay = Math.min(ACQUIRE_RETRY_DELAY_MILLIS, checkoutTimeout);
+                pooledDataSource.setAcquireRetryDelay(acquireRetryDelay);
+                pooledDataSource.setAcquireRetryAttempts(Math.max(1, checkoutTimeout / acquireRetryDelay));
+            }
+        });
+        return new C3p0ConnectionPool(pooledDataSource);
+    }
+}
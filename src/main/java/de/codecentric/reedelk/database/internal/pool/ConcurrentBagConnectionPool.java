@@ -0,0 +1,308 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
+
+import java.io.PrintWriter;
+import java.sql.*;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+
+// A lightweight pool for highly concurrent flows: idle connections are kept in a lock free
+// deque (most recently used first) and the pool size is bounded by a semaphore, whose
+// uncontended acquire is a single CAS. Checkouts only wait when all connections are busy.
+// A housekeeping thread closes connections idle for longer than the idle timeout and keeps
+// at least min pool size connections open. Prepared statements are not cached by this pool.
+public class ConcurrentBagConnectionPool implements ConnectionPool {
+
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 30_000;
+    // Connections idle for less than this are handed out without being validated.
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final Driver driver;
+    private final String connectionURL;
+    private final Properties connectionProperties = new Properties();
+    private final int minPoolSize;
+    private final int maxPoolSize;
+    private final long checkoutTimeoutMillis;
+    private final long idleTimeoutNanos;
+
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger awaitingCheckout = new AtomicInteger();
+    private final ScheduledExecutorService housekeeping;
+
+    private volatile boolean closed;
+    private volatile Throwable lastConnectionFailure;
+    private volatile PrintWriter logWriter;
+    private volatile int loginTimeout;
+
+    ConcurrentBagConnectionPool(String configId,
+                                Driver driver,
+                                String connectionURL,
+                                String username,
+                                String password,
+                                int minPoolSize,
+                                int maxPoolSize,
+                                long checkoutTimeoutMillis,
+                                long idleTimeoutMillis) {
+        this.driver = driver;
+        this.connectionURL = connectionURL;
+        if (username != null) connectionProperties.setProperty("user", username);
+        if (password != null) connectionProperties.setProperty("password", password);
+        this.minPoolSize = minPoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.checkoutTimeoutMillis = checkoutTimeoutMillis;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.permits = new Semaphore(maxPoolSize);
+
+        // The connections are created on demand when the database is not available yet.
+        fill();
+
+        this.housekeeping = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-" + configId + "-pool-housekeeping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeping.scheduleWithFixedDelay(this::housekeep, HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("The connection pool is closed");
+        acquirePermit();
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (pooled.isUsable()) return pooled.checkout();
+                pooled.destroy();
+            }
+            // Holding a permit while no connection is idle guarantees the pool is below its max size.
+            return newPooledConnection().checkout();
+        } catch (SQLException | RuntimeException exception) {
+            permits.release();
+            throw exception;
+        }
+    }
+
+    @Override
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    @Override
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    @Override
+    public int getBusyConnections() {
+        return Math.max(0, total.get() - idle.size());
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public int getTotalConnections() {
+        return total.get();
+    }
+
+    @Override
+    public int getThreadsAwaitingCheckout() {
+        return awaitingCheckout.get();
+    }
+
+    @Override
+    public int getCachedStatements() {
+        return 0;
+    }
+
+    @Override
+    public Throwable getLastConnectionFailure() {
+        return lastConnectionFailure;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeping.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.destroy();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connections are created with the configured username and password");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException(format("Not a wrapper for [%s]", iface.getName()));
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private void acquirePermit() throws SQLException {
+        if (permits.tryAcquire()) return;
+        awaitingCheckout.incrementAndGet();
+        try {
+            // A checkout timeout of 0 waits indefinitely.
+            if (checkoutTimeoutMillis == 0) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(checkoutTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        format("Could not get a connection within %d ms, all %d connections are busy", checkoutTimeoutMillis, maxPoolSize));
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", exception);
+        } finally {
+            awaitingCheckout.decrementAndGet();
+        }
+    }
+
+    // Closes the connections idle for longer than the idle timeout, down to min pool size,
+    // and opens the connections missing to min pool size, e.g. after the database restarted.
+    void housekeep() {
+        if (closed) return;
+        long now = System.nanoTime();
+        // The least recently used connections are at the end of the deque.
+        Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext() && total.get() > minPoolSize) {
+            PooledConnection pooled = iterator.next();
+            // A connection taken by a checkout in the meantime is not removed.
+            if (now - pooled.lastUsed > idleTimeoutNanos && idle.removeLastOccurrence(pooled)) {
+                pooled.destroy();
+            }
+        }
+        fill();
+    }
+
+    // New idle connections are opened holding a permit, so that the pool never exceeds its max size.
+    private void fill() {
+        while (!closed && total.get() < minPoolSize && permits.tryAcquire()) {
+            try {
+                idle.offerLast(newPooledConnection());
+            } catch (SQLException exception) {
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private PooledConnection newPooledConnection() throws SQLException {
+        Connection connection;
+        try {
+            connection = driver.connect(connectionURL, connectionProperties);
+        } catch (SQLException | RuntimeException exception) {
+            lastConnectionFailure = exception;
+            throw exception;
+        }
+        if (connection == null) {
+            SQLException exception = new SQLException(format("Driver [%s] does not accept URL [%s]", driver.getClass().getName(), connectionURL));
+            lastConnectionFailure = exception;
+            throw exception;
+        }
+        total.incrementAndGet();
+        return new PooledConnection(connection);
+    }
+
+    private void checkin(PooledConnection pooled) {
+        try {
+            if (closed || !pooled.reset()) {
+                pooled.destroy();
+            } else {
+                pooled.lastUsed = System.nanoTime();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private class PooledConnection {
+
+        private final Connection connection;
+        private volatile long lastUsed = System.nanoTime();
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        boolean isUsable() {
+            try {
+                if (connection.isClosed()) return false;
+                return System.nanoTime() - lastUsed < VALIDATION_BYPASS_NANOS || connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException exception) {
+                return false;
+            }
+        }
+
+        // Each checkout gets its own handle, which returns the connection to the pool when closed.
+        Connection checkout() {
+            return ConnectionHandle.of(connection, () -> checkin(this));
+        }
+
+        // Restores the state a flow might have changed before handing out the connection again.
+        boolean reset() {
+            try {
+                if (connection.isClosed()) return false;
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                if (connection.isReadOnly()) connection.setReadOnly(false);
+                connection.clearWarnings();
+                return true;
+            } catch (SQLException exception) {
+                return false;
+            }
+        }
+
+        void destroy() {
+            total.decrementAndGet();
+            DatabaseUtils.closeSilently(connection);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import de.codecentric.reedelk.database.component.ConnectionConfiguration;
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+
+import java.sql.Driver;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentBagConnectionPoolProvider implements ConnectionPoolProvider {
+
+    private static final int DEFAULT_MIN_POOL_SIZE = 3;
+    private static final int DEFAULT_MAX_POOL_SIZE = 15;
+    private static final int DEFAULT_CHECKOUT_TIMEOUT_MILLIS = 30_000;
+    private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    @Override
+    public ConnectionPool create(ConnectionConfiguration configuration) {
+        Driver driver;
+        try {
+            driver = (Driver) Class.forName(configuration.getDatabaseDriver().qualifiedName())
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (Throwable exception) {
+            throw new PlatformException(exception);
+        }
+
+        int maxPoolSize = Optional.ofNullable(configuration.getMaxPoolSize()).orElse(DEFAULT_MAX_POOL_SIZE);
+        int minPoolSize = Math.min(Optional.ofNullable(configuration.getMinPoolSize()).orElse(DEFAULT_MIN_POOL_SIZE), maxPoolSize);
+        return new ConcurrentBagConnectionPool(
+                configuration.getId(),
+                driver,
+                configuration.getConnectionURL(),
+                configuration.getUsername(),
+                configuration.getPassword(),
+                minPoolSize,
+                maxPoolSize,
+                Optional.ofNullable(configuration.getCheckoutTimeout()).orElse(DEFAULT_CHECKOUT_TIMEOUT_MILLIS),
+                IDLE_TIMEOUT_MILLIS);
+    }
+}
@@ -0,0 +1,134 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// The connection handed out by the concurrent bag pool for a single checkout: closing it closes
+// the statements left open and returns the connection to the pool, and any further use of the same
+// handle fails as if the connection was closed. Statements are wrapped as well: they return the
+// handle as their connection, so that the pooled connection is never handed out.
+class ConnectionHandle {
+
+    private final Connection delegate;
+    private final Runnable checkin;
+    private final Connection connection;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final List<Statement> statements = new ArrayList<>();
+
+    private ConnectionHandle(Connection delegate, Runnable checkin) {
+        this.delegate = delegate;
+        this.checkin = checkin;
+        this.connection = proxyOf(Connection.class, this::invokeConnection);
+    }
+
+    static Connection of(Connection delegate, Runnable checkin) {
+        return new ConnectionHandle(delegate, checkin).connection;
+    }
+
+    private Object invokeConnection(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if (released.compareAndSet(false, true)) {
+                    closeStatements();
+                    checkin.run();
+                }
+                return null;
+            case "isClosed":
+                return released.get() || delegate.isClosed();
+            case "toString":
+                return "Pooled" + delegate;
+            default:
+                if (isObjectOrWrapperMethod(method)) return invokeObjectOrWrapper(proxy, delegate, method, args);
+                if (released.get()) {
+                    // setClientInfo only declares SQLClientInfoException.
+                    throw method.getName().equals("setClientInfo") ?
+                            new SQLClientInfoException("The connection is closed", null) :
+                            new SQLException("The connection is closed");
+                }
+                Object result = invoke(delegate, method, args);
+                return result instanceof Statement ? track((Statement) result, method.getReturnType()) : result;
+        }
+    }
+
+    // The proxy implements the statement interface returned by the method,
+    // e.g. PreparedStatement for prepareStatement and CallableStatement for prepareCall.
+    private synchronized Statement track(Statement delegate, Class<?> type) {
+        Statement[] statement = new Statement[1];
+        statement[0] = (Statement) proxyOf(type, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close":
+                    try {
+                        delegate.close();
+                    } finally {
+                        untrack(statement[0]);
+                    }
+                    return null;
+                case "getConnection":
+                    return connection;
+                default:
+                    return isObjectOrWrapperMethod(method) ?
+                            invokeObjectOrWrapper(proxy, delegate, method, args) :
+                            invoke(delegate, method, args);
+            }
+        });
+        statements.add(statement[0]);
+        return statement[0];
+    }
+
+    private synchronized void untrack(Statement statement) {
+        statements.remove(statement);
+    }
+
+    private synchronized void closeStatements() {
+        new ArrayList<>(statements).forEach(DatabaseUtils::closeSilently);
+        statements.clear();
+    }
+
+    private static boolean isObjectOrWrapperMethod(Method method) {
+        switch (method.getName()) {
+            case "equals":
+            case "hashCode":
+            case "unwrap":
+            case "isWrapperFor":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Object invokeObjectOrWrapper(Object proxy, Object delegate, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "unwrap":
+                return ((Class<?>) args[0]).isInstance(proxy) ? proxy : invoke(delegate, method, args);
+            default:
+                return ((Class<?>) args[0]).isInstance(proxy) || (boolean) invoke(delegate, method, args);
+        }
+    }
+
+    private static Object invoke(Object delegate, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxyOf(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
@@ -0,0 +1,27 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+// A connection pool created by a ConnectionPoolProvider for a connection configuration.
+// Components only see it as a javax.sql.DataSource, the gauges are used by the pool metrics.
+public interface ConnectionPool extends DataSource {
+
+    int getMinPoolSize();
+
+    int getMaxPoolSize();
+
+    int getBusyConnections() throws SQLException;
+
+    int getIdleConnections() throws SQLException;
+
+    int getTotalConnections() throws SQLException;
+
+    int getThreadsAwaitingCheckout() throws SQLException;
+
+    int getCachedStatements() throws SQLException;
+
+    Throwable getLastConnectionFailure() throws SQLException;
+
+    void close();
+}
@@ -0,0 +1,8 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import de.codecentric.reedelk.database.component.ConnectionConfiguration;
+
+public interface ConnectionPoolProvider {
+
+    ConnectionPool create(ConnectionConfiguration configuration);
+}
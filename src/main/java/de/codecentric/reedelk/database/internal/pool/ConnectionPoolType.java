@@ -0,0 +1,21 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+public enum ConnectionPoolType {
+
+    @DisplayName("c3p0")
+    C3P0(new C3p0ConnectionPoolProvider()),
+    @DisplayName("Concurrent Bag")
+    CONCURRENT_BAG(new ConcurrentBagConnectionPoolProvider());
+
+    private final ConnectionPoolProvider provider;
+
+    ConnectionPoolType(ConnectionPoolProvider provider) {
+        this.provider = provider;
+    }
+
+    public ConnectionPoolProvider provider() {
+        return provider;
+    }
+}
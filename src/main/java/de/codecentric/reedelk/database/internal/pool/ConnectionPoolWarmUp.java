@@ -0,0 +1,152 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseUtils;
+import de.codecentric.reedelk.database.internal.exception.ConnectionPoolException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.ConnectionPool.*;
+import static de.codecentric.reedelk.runtime.api.commons.StackTraceUtils.rootCauseMessageOf;
+
+// Checks out the given number of connections in parallel, so that the pool opens them before
+// the first request instead of on demand. All the connections are held until every checkout
+// completed, hence they are distinct connections of the pool, and then returned to the pool.
+// One warm up exists for each pool: it also prepares the statements of the components using
+// the pool when they are initialized. Its threads stop once idle.
+public class ConnectionPoolWarmUp {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    private static final int IDLE_THREAD_SECONDS = 30;
+
+    private final String configId;
+    private final String connectionURL;
+    private final ConnectionPool pool;
+    private final int connections;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    public ConnectionPoolWarmUp(String configId, String connectionURL, ConnectionPool pool, int connections, long timeoutMillis) {
+        this.configId = configId;
+        this.connectionURL = connectionURL;
+        this.pool = pool;
+        this.connections = connections;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(Math.max(1, connections), Math.max(1, connections),
+                IDLE_THREAD_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new WarmUpThreadFactory(configId));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Opens and validates the connections, returns the time it took in nanoseconds.
+    public long warmUp() {
+        return checkoutAll(connection -> {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                throw new SQLException("Connection validation failed");
+            }
+        });
+    }
+
+    // Prepares the statement on the idle connections: pools caching prepared statements keep it when
+    // the statement is closed. The pool might already be serving requests, hence the connections are
+    // checked out one at a time and only while some are idle: c3p0, the pool caching statements, hands
+    // out its idle connections in turn. The cache key includes the prepare method and its arguments
+    // (e.g. the result set type and concurrency): the statement must be prepared as the component does.
+    public void prepare(String statement, StatementFactory factory) {
+        try {
+            for (int i = 0; i < connections && pool.getIdleConnections() > 0; i++) {
+                try (Connection connection = pool.getConnection();
+                     PreparedStatement ignored = factory.prepare(connection, statement)) {
+                    // Nothing to do: the statement is cached by the pool when closed.
+                }
+            }
+        } catch (SQLException exception) {
+            throw new ConnectionPoolException(STATEMENT_PREPARE_ERROR.format(statement, rootCauseMessageOf(exception)), exception);
+        }
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private long checkoutAll(ConnectionTask task) {
+        long start = System.nanoTime();
+        if (connections <= 0) return 0L;
+
+        List<Connection> checkedOut = new ArrayList<>();
+        List<Future<?>> checkouts = new ArrayList<>();
+        boolean[] completed = new boolean[1];
+        try {
+            for (int i = 0; i < connections; i++) {
+                checkouts.add(executor.submit(() -> {
+                    Connection connection = pool.getConnection();
+                    synchronized (checkedOut) {
+                        // Checkouts completing after a failure or a timeout are returned right away.
+                        if (completed[0]) {
+                            DatabaseUtils.closeSilently(connection);
+                            return null;
+                        }
+                        checkedOut.add(connection);
+                    }
+                    task.execute(connection);
+                    return null;
+                }));
+            }
+
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            for (Future<?> checkout : checkouts) {
+                try {
+                    checkout.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException exception) {
+                    Throwable cause = exception.getCause();
+                    if (cause instanceof ConnectionPoolException) throw (ConnectionPoolException) cause;
+                    throw new ConnectionPoolException(WARM_UP_ERROR.format(configId, connectionURL, rootCauseMessageOf(cause)), cause);
+                } catch (TimeoutException exception) {
+                    long pending = checkouts.stream().filter(future -> !future.isDone()).count();
+                    throw new ConnectionPoolException(WARM_UP_TIMEOUT.format(configId, connectionURL, pending, connections, timeoutMillis));
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new ConnectionPoolException(WARM_UP_ERROR.format(configId, connectionURL, "interrupted"), exception);
+                }
+            }
+            return System.nanoTime() - start;
+
+        } finally {
+            synchronized (checkedOut) {
+                completed[0] = true;
+                checkedOut.forEach(DatabaseUtils::closeSilently);
+            }
+            // Checkouts still waiting after a failure or a timeout must not hold the threads.
+            checkouts.forEach(checkout -> checkout.cancel(true));
+        }
+    }
+
+    public interface StatementFactory {
+        PreparedStatement prepare(Connection connection, String statement) throws SQLException;
+    }
+
+    private interface ConnectionTask {
+        void execute(Connection connection) throws SQLException;
+    }
+
+    private static class WarmUpThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String configId;
+
+        WarmUpThreadFactory(String configId) {
+            this.configId = configId;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "database-" + configId + "-warmup-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package de.codecentric.reedelk.database.internal.replica;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+
+// Data source for read only queries: connections are taken from the replicas in rotation,
+// chosen by the balancer, and from the primary when no replica is available. Replicas start
+// in rotation: a replica failing a checkout is taken out of rotation right away, while the
+// periodic health check validates every replica (and its lag, if a max lag is set) and puts
+// it back once it recovers. A replica whose connections are all busy is not failing: the
+// checkout falls back to another replica or to the primary, and the replica stays in rotation.
+public class ReadReplicaDataSource implements DataSource {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(ReadReplicaDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final String configId;
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaBalancer balancer;
+    private final DatabaseDriver databaseDriver;
+    private final Double maxLagSeconds;
+    private final ScheduledExecutorService healthCheck;
+    private final AtomicBoolean lagProbeFailureLogged = new AtomicBoolean(false);
+
+    public ReadReplicaDataSource(String configId,
+                                 DataSource primary,
+                                 List<Replica> replicas,
+                                 ReplicaBalancer balancer,
+                                 DatabaseDriver databaseDriver,
+                                 Integer maxLagSeconds,
+                                 int checkIntervalSeconds) {
+        this.configId = configId;
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.balancer = balancer;
+        this.databaseDriver = databaseDriver;
+        this.maxLagSeconds = maxLagSeconds == null ? null : maxLagSeconds.doubleValue();
+        if (maxLagSeconds != null && !ReplicaLagProbe.isSupported(databaseDriver)) {
+            logger.warn(format("Replication lag of configuration with id=[%s] cannot be checked for driver [%s]: only validation is used", configId, databaseDriver));
+        }
+        this.healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-" + configId + "-replicas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.healthCheck.scheduleWithFixedDelay(this::check, checkIntervalSeconds, checkIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        List<Replica> candidates = available();
+        while (!candidates.isEmpty()) {
+            Replica replica = balancer.choose(candidates);
+            try {
+                return replica.getConnection();
+            } catch (SQLException exception) {
+                if (!replica.isExhausted()) unavailable(replica, exception.getMessage());
+                candidates.remove(replica);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    public void close() {
+        healthCheck.shutdownNow();
+        replicas.forEach(Replica::close);
+    }
+
+    void check() {
+        for (Replica replica : replicas) {
+            // A replica serving all its connections is reachable: the check would only wait for
+            // one of them to be released and eject the replica when the checkout times out.
+            if (replica.isExhausted()) continue;
+            try (Connection connection = replica.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    unavailable(replica, "connection validation failed");
+                    continue;
+                }
+                if (maxLagSeconds != null) {
+                    Double lag = lagSeconds(replica, connection);
+                    if (lag != null && lag > maxLagSeconds) {
+                        unavailable(replica, format("replication lag of %.1f seconds", lag));
+                        continue;
+                    }
+                }
+                if (replica.markAvailable()) {
+                    logger.info(format("Replica [%s] of configuration with id=[%s] back in rotation", replica.getConnectionURL(), configId));
+                }
+            } catch (Exception exception) {
+                if (!replica.isExhausted()) unavailable(replica, exception.getMessage());
+            }
+        }
+    }
+
+    // A failing probe means the lag is unknown, not that the replica is down: the
+    // replica passed validation, so it stays in rotation.
+    private Double lagSeconds(Replica replica, Connection connection) {
+        try {
+            return ReplicaLagProbe.lagSeconds(databaseDriver, connection);
+        } catch (SQLException exception) {
+            if (lagProbeFailureLogged.compareAndSet(false, true)) {
+                logger.warn(format("Replication lag of replica [%s] of configuration with id=[%s] could not be checked, " +
+                        "only validation is used: %s", replica.getConnectionURL(), configId, exception.getMessage()));
+            }
+            return null;
+        }
+    }
+
+    private List<Replica> available() {
+        List<Replica> available = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.isAvailable()) available.add(replica);
+        }
+        return available;
+    }
+
+    private void unavailable(Replica replica, String reason) {
+        if (replica.markUnavailable(reason)) {
+            logger.warn(format("Replica [%s] of configuration with id=[%s] taken out of rotation: %s", replica.getConnectionURL(), configId, reason));
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,81 @@
+package de.codecentric.reedelk.database.internal.replica;
+
+import de.codecentric.reedelk.database.internal.pool.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// A read replica backed by its own connection pool. It is taken out of
+// rotation when a connection cannot be obtained or validated, or when
+// it lags too far behind the primary, and put back once it recovers.
+// A pool with all its connections busy does not take it out of rotation.
+public class Replica {
+
+    private final String connectionURL;
+    private final ConnectionPool pool;
+    private volatile boolean available = true;
+    private volatile String unavailableReason;
+
+    public Replica(String connectionURL, ConnectionPool pool) {
+        this.connectionURL = connectionURL;
+        this.pool = pool;
+    }
+
+    public String getConnectionURL() {
+        return connectionURL;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public String getUnavailableReason() {
+        return unavailableReason;
+    }
+
+    public int getBusyConnections() {
+        try {
+            return pool.getBusyConnections();
+        } catch (SQLException exception) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    // True if all the connections of the pool are checked out, e.g. when a
+    // checkout timed out because the replica is busy rather than down.
+    boolean isExhausted() {
+        try {
+            int maxPoolSize = pool.getMaxPoolSize();
+            return maxPoolSize > 0 && pool.getBusyConnections() >= maxPoolSize;
+        } catch (SQLException exception) {
+            return false;
+        }
+    }
+
+    Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    public ConnectionPool pool() {
+        return pool;
+    }
+
+    // True if the availability changed.
+    boolean markUnavailable(String reason) {
+        this.unavailableReason = reason;
+        boolean changed = available;
+        available = false;
+        return changed;
+    }
+
+    boolean markAvailable() {
+        this.unavailableReason = null;
+        boolean changed = !available;
+        available = true;
+        return changed;
+    }
+
+    void close() {
+        pool.close();
+    }
+}
@@ -0,0 +1,9 @@
+package de.codecentric.reedelk.database.internal.replica;
+
+import java.util.List;
+
+public interface ReplicaBalancer {
+
+    // Chooses among the replicas currently in rotation, never empty.
+    Replica choose(List<Replica> candidates);
+}
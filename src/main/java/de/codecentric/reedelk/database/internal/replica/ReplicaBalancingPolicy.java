@@ -0,0 +1,55 @@
+package de.codecentric.reedelk.database.internal.replica;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public enum ReplicaBalancingPolicy {
+
+    @DisplayName("Round Robin")
+    ROUND_ROBIN(RoundRobin::new),
+    @DisplayName("Least Busy")
+    LEAST_BUSY(LeastBusy::new);
+
+    private final Supplier<ReplicaBalancer> factory;
+
+    ReplicaBalancingPolicy(Supplier<ReplicaBalancer> factory) {
+        this.factory = factory;
+    }
+
+    // A new balancer for each configuration, since balancers might hold state.
+    public ReplicaBalancer balancer() {
+        return factory.get();
+    }
+
+    static class RoundRobin implements ReplicaBalancer {
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Override
+        public Replica choose(List<Replica> candidates) {
+            return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+        }
+    }
+
+    // The replica with the fewest busy connections according to its pool.
+    static class LeastBusy implements ReplicaBalancer {
+
+        @Override
+        public Replica choose(List<Replica> candidates) {
+            Replica leastBusy = candidates.get(0);
+            int leastBusyConnections = leastBusy.getBusyConnections();
+            for (int i = 1; i < candidates.size(); i++) {
+                Replica candidate = candidates.get(i);
+                int busyConnections = candidate.getBusyConnections();
+                if (busyConnections < leastBusyConnections) {
+                    leastBusy = candidate;
+                    leastBusyConnections = busyConnections;
+                }
+            }
+            return leastBusy;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package de.codecentric.reedelk.database.internal.replica;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Replication lag in seconds as reported by the replica itself.
+class ReplicaLagProbe {
+
+    // The time since the last replayed transaction keeps growing while the primary is idle:
+    // a replica which replayed everything it received is not lagging.
+    private static final String POSTGRESQL_LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                    "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+    private static final String MYSQL_LAG_QUERY = "SHOW SLAVE STATUS";
+    private static final String MYSQL_LAG_COLUMN = "Seconds_Behind_Master";
+
+    private ReplicaLagProbe() {
+    }
+
+    static boolean isSupported(DatabaseDriver databaseDriver) {
+        return databaseDriver == DatabaseDriver.POSTGRESQL || databaseDriver == DatabaseDriver.MYSQL;
+    }
+
+    // Null if the lag is not known: H2 and Oracle are not supported, and MySQL
+    // reports no lag when the replication threads are not running. Throws if the
+    // probe query fails, e.g. when the user lacks the REPLICATION CLIENT privilege.
+    static Double lagSeconds(DatabaseDriver databaseDriver, Connection connection) throws SQLException {
+        if (databaseDriver == DatabaseDriver.POSTGRESQL) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(POSTGRESQL_LAG_QUERY)) {
+                return resultSet.next() ? resultSet.getDouble(1) : null;
+            }
+        } else if (databaseDriver == DatabaseDriver.MYSQL) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(MYSQL_LAG_QUERY)) {
+                if (!resultSet.next()) return null;
+                long lag = resultSet.getLong(MYSQL_LAG_COLUMN);
+                return resultSet.wasNull() ? null : (double) lag;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,146 @@
+package de.codecentric.reedelk.database.internal.slowquery;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.commons.QueryStatementTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+// Records the queries taking longer than the configured threshold, aggregated by fingerprint.
+// The plan of a slow query is optionally captured (once for each fingerprint) on a background
+// thread using a separate connection, so that the component execution is never slowed down.
+public class SlowQueryLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final int MAX_FINGERPRINTS = 1000;
+    private static final int EXPLAIN_QUEUE_SIZE = 16;
+
+    private final String configId;
+    private final long thresholdNanos;
+    private final DataSource dataSource;
+    private final DatabaseDriver databaseDriver;
+    private final ExecutorService explainExecutor;
+    private final Map<String, SlowQueryStats> statsByFingerprint = new ConcurrentHashMap<>();
+
+    public SlowQueryLog(String configId, Integer thresholdMillis, boolean explain, DataSource dataSource, DatabaseDriver databaseDriver) {
+        this.configId = configId;
+        this.thresholdNanos = thresholdMillis == null || thresholdMillis < 0 ?
+                Long.MAX_VALUE :
+                TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.dataSource = dataSource;
+        this.databaseDriver = databaseDriver;
+        this.explainExecutor = explain && isEnabled() && explainPrefixOf(databaseDriver) != null ?
+                new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE),
+                        new ExplainThreadFactory(configId),
+                        new ThreadPoolExecutor.DiscardPolicy()) :
+                null;
+    }
+
+    public boolean isEnabled() {
+        return thresholdNanos != Long.MAX_VALUE;
+    }
+
+    // The parameters might be null (e.g. batch executions): in that case the plan is not captured.
+    public void record(String componentId, QueryStatementTemplate statement, Map<String, Object> parameters, long durationNanos, long rowCount) {
+        if (durationNanos < thresholdNanos) return;
+
+        String sql = statement.preparedQuery();
+        String fingerprint = SqlFingerprint.of(sql);
+
+        logger.warn(format("Slow query on connection with id=[%s] by component [%s]: %.3f ms, %d rows: %s",
+                configId, componentId, durationNanos / 1_000_000d, rowCount, fingerprint));
+
+        SlowQueryStats stats = statsByFingerprint.get(fingerprint);
+        if (stats == null) {
+            // Bounded so that queries built from literals cannot grow the log indefinitely.
+            if (statsByFingerprint.size() >= MAX_FINGERPRINTS) return;
+            stats = statsByFingerprint.computeIfAbsent(fingerprint, SlowQueryStats::new);
+        }
+        stats.record(componentId, durationNanos, rowCount);
+
+        if (explainExecutor != null && parameters != null && stats.claimExplain()) {
+            SlowQueryStats target = stats;
+            explainExecutor.execute(() -> explain(target, statement, parameters));
+        }
+    }
+
+    // The n fingerprints with the highest total time spent.
+    public List<SlowQueryStats.Snapshot> top(int n) {
+        return statsByFingerprint.values().stream()
+                .sorted(Comparator.comparingLong(SlowQueryStats::totalNanos).reversed())
+                .limit(n)
+                .map(SlowQueryStats::snapshot)
+                .collect(Collectors.toList());
+    }
+
+    public void clear() {
+        statsByFingerprint.clear();
+    }
+
+    public void dispose() {
+        if (explainExecutor != null) explainExecutor.shutdownNow();
+        statsByFingerprint.clear();
+    }
+
+    private void explain(SlowQueryStats stats, QueryStatementTemplate statement, Map<String, Object> parameters) {
+        String explainQuery = explainPrefixOf(databaseDriver) + statement.preparedQuery();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explainStatement = connection.prepareStatement(explainQuery)) {
+            statement.bind(explainStatement, parameters);
+            try (ResultSet resultSet = explainStatement.executeQuery()) {
+                int columnCount = resultSet.getMetaData().getColumnCount();
+                StringJoiner plan = new StringJoiner("\n");
+                while (resultSet.next()) {
+                    StringJoiner row = new StringJoiner(" | ");
+                    for (int i = 1; i <= columnCount; i++) {
+                        row.add(String.valueOf(resultSet.getObject(i)));
+                    }
+                    plan.add(row.toString());
+                }
+                stats.explainPlan(plan.toString());
+            }
+        } catch (Exception exception) {
+            logger.warn(format("Could not capture the plan of slow query on connection with id=[%s]", configId), exception);
+        }
+    }
+
+    // Oracle writes the plan into PLAN_TABLE instead of returning it, hence it is not supported.
+    private static String explainPrefixOf(DatabaseDriver databaseDriver) {
+        if (databaseDriver == null) return null;
+        switch (databaseDriver) {
+            case H2:
+            case MYSQL:
+            case POSTGRESQL:
+                return "EXPLAIN ";
+            default:
+                return null;
+        }
+    }
+
+    private static class ExplainThreadFactory implements ThreadFactory {
+
+        private final String configId;
+
+        ExplainThreadFactory(String configId) {
+            this.configId = configId;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "database-" + configId + "-explain");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
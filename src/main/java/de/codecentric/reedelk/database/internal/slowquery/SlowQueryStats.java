@@ -0,0 +1,112 @@
+package de.codecentric.reedelk.database.internal.slowquery;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Aggregated slow executions of the queries with the same fingerprint.
+public class SlowQueryStats {
+
+    private final String fingerprint;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder totalRows = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+    private final AtomicBoolean explainClaimed = new AtomicBoolean(false);
+    private volatile String lastComponentId;
+    private volatile String explainPlan;
+
+    SlowQueryStats(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    void record(String componentId, long durationNanos, long rowCount) {
+        count.increment();
+        totalNanos.add(durationNanos);
+        totalRows.add(rowCount);
+        maxNanos.accumulate(durationNanos);
+        lastComponentId = componentId;
+    }
+
+    // The plan is captured only once for each fingerprint.
+    boolean claimExplain() {
+        return explainClaimed.compareAndSet(false, true);
+    }
+
+    void explainPlan(String explainPlan) {
+        this.explainPlan = explainPlan;
+    }
+
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(fingerprint, count.sum(), totalNanos.sum(), maxNanos.get(), totalRows.sum(), lastComponentId, explainPlan);
+    }
+
+    public static class Snapshot {
+
+        private final String fingerprint;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long totalRows;
+        private final String lastComponentId;
+        private final String explainPlan;
+
+        Snapshot(String fingerprint, long count, long totalNanos, long maxNanos, long totalRows, String lastComponentId, String explainPlan) {
+            this.fingerprint = fingerprint;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.totalRows = totalRows;
+            this.lastComponentId = lastComponentId;
+            this.explainPlan = explainPlan;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getTotalMillis() {
+            return totalNanos / 1_000_000d;
+        }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0d : totalNanos / (double) count / 1_000_000d;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1_000_000d;
+        }
+
+        public long getTotalRows() {
+            return totalRows;
+        }
+
+        public String getLastComponentId() {
+            return lastComponentId;
+        }
+
+        public String getExplainPlan() {
+            return explainPlan;
+        }
+
+        @Override
+        public String toString() {
+            return "SlowQuery{" +
+                    "fingerprint='" + fingerprint + '\'' +
+                    ", count=" + count +
+                    ", totalMillis=" + getTotalMillis() +
+                    ", maxMillis=" + getMaxMillis() +
+                    ", totalRows=" + totalRows +
+                    ", lastComponentId='" + lastComponentId + '\'' +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package de.codecentric.reedelk.database.internal.slowquery;
+
+import java.util.regex.Pattern;
+
+// Normalized form of a SQL statement used to aggregate the executions of the same query:
+// string and numeric literals become '?', comments are removed, whitespace is collapsed
+// and lists of placeholders (e.g. IN (?, ?, ?)) are collapsed to a single '(?+)'.
+public class SqlFingerprint {
+
+    private static final Pattern PLACEHOLDERS_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        StringBuilder fingerprint = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char current = sql.charAt(i);
+            char next = i + 1 < length ? sql.charAt(i + 1) : 0;
+
+            if (current == '\'') {
+                // String literal: '' is an escaped quote.
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') i += 2;
+                        else break;
+                    } else {
+                        i++;
+                    }
+                }
+                i++;
+                fingerprint.append('?');
+
+            } else if (current == '"') {
+                // Quoted identifier: kept as it is.
+                int end = sql.indexOf('"', i + 1);
+                end = end < 0 ? length : end + 1;
+                fingerprint.append(sql, i, end);
+                i = end;
+
+            } else if (current == '-' && next == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end;
+
+            } else if (current == '/' && next == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+
+            } else if (Character.isWhitespace(current)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) i++;
+                appendSpace(fingerprint);
+
+            } else if (Character.isDigit(current) && !isIdentifierPart(fingerprint)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+                fingerprint.append('?');
+
+            } else if (current == ':' && next != ':' && Character.isJavaIdentifierStart(next) && !endsWith(fingerprint, ':')) {
+                // Named parameter of a query template.
+                i++;
+                while (i < length && Character.isJavaIdentifierPart(sql.charAt(i))) i++;
+                fingerprint.append('?');
+
+            } else {
+                fingerprint.append(current);
+                i++;
+            }
+        }
+
+        String normalized = fingerprint.toString().trim();
+        if (normalized.endsWith(";")) normalized = normalized.substring(0, normalized.length() - 1).trim();
+        return PLACEHOLDERS_LIST.matcher(normalized).replaceAll("(?+)");
+    }
+
+    private static void appendSpace(StringBuilder fingerprint) {
+        if (fingerprint.length() > 0 && fingerprint.charAt(fingerprint.length() - 1) != ' ') {
+            fingerprint.append(' ');
+        }
+    }
+
+    private static boolean isIdentifierPart(StringBuilder fingerprint) {
+        if (fingerprint.length() == 0) return false;
+        char last = fingerprint.charAt(fingerprint.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    private static boolean endsWith(StringBuilder fingerprint, char character) {
+        return fingerprint.length() > 0 && fingerprint.charAt(fingerprint.length() - 1) == character;
+    }
+}
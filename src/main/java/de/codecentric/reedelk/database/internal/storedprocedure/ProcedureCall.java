@@ -0,0 +1,96 @@
+package de.codecentric.reedelk.database.internal.storedprocedure;
+
+import de.codecentric.reedelk.database.internal.commons.ParameterBinder;
+import de.codecentric.reedelk.database.internal.commons.QueryStatementTemplate;
+
+import java.io.Serializable;
+import java.sql.*;
+import java.util.*;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.StoredProcedure.OUT_PARAMETER_CURSOR_NOT_SUPPORTED;
+
+// A stored procedure call with named parameters, e.g. {call raise_salary(:id, :percent, :salary)}
+// or {:total = call order_total(:id)}. Parameters with a value mapping are IN parameters, parameters
+// with a SQL type are OUT parameters, and parameters having both are INOUT parameters.
+public class ProcedureCall {
+
+    private final QueryStatementTemplate template;
+    private final Set<String> inputNames;
+    private final Map<String, Integer> outputTypes;
+    private final List<String> parameterNames;
+
+    public ProcedureCall(String call, Collection<String> inputNames, Map<String, Integer> outputTypes) {
+        Set<String> names = new HashSet<>(inputNames);
+        names.addAll(outputTypes.keySet());
+        this.template = new QueryStatementTemplate(call, names);
+        this.inputNames = new HashSet<>(inputNames);
+        this.outputTypes = new LinkedHashMap<>(outputTypes);
+        this.parameterNames = template.parameterNames();
+    }
+
+    public QueryStatementTemplate template() {
+        return template;
+    }
+
+    public String preparedCall() {
+        return template.preparedQuery();
+    }
+
+    public boolean hasOutputParameters() {
+        return !outputTypes.isEmpty();
+    }
+
+    public void bind(CallableStatement statement, Map<String, Object> values) throws SQLException {
+        for (int i = 0; i < parameterNames.size(); i++) {
+            String name = parameterNames.get(i);
+            int index = i + 1; // Index Starts from 1 instead of 0
+            if (inputNames.contains(name)) ParameterBinder.bind(statement, index, values.get(name), template.parameterTypes());
+            Integer outputType = outputTypes.get(name);
+            if (outputType != null) statement.registerOutParameter(index, outputType);
+        }
+    }
+
+    // Output parameter name > value. A parameter used more than once
+    // in the call is read from its first position.
+    public LinkedHashMap<String, Serializable> outputValues(CallableStatement statement) throws SQLException {
+        LinkedHashMap<String, Serializable> values = new LinkedHashMap<>();
+        for (int i = 0; i < parameterNames.size(); i++) {
+            String name = parameterNames.get(i);
+            if (outputTypes.containsKey(name) && !values.containsKey(name)) {
+                values.put(name, serializableOf(name, statement.getObject(i + 1)));
+            }
+        }
+        return values;
+    }
+
+    // The SQL type code of the given JDBC type name (e.g. VARCHAR, INTEGER, DECIMAL),
+    // null if the name is not a JDBC type or it is a cursor type, which is not supported.
+    public static Integer sqlTypeOf(String typeName) {
+        if (typeName == null) return null;
+        try {
+            JDBCType type = JDBCType.valueOf(typeName.trim().toUpperCase(Locale.ROOT));
+            return type == JDBCType.REF_CURSOR ? null : type.getVendorTypeNumber();
+        } catch (IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    private static Serializable serializableOf(String name, Object value) throws SQLException {
+        if (value == null) return null;
+        // Drivers return cursors for generic types too (e.g. PostgreSQL for OTHER).
+        if (value instanceof ResultSet) {
+            ((ResultSet) value).close();
+            throw new SQLException(OUT_PARAMETER_CURSOR_NOT_SUPPORTED.format(name));
+        }
+        if (value instanceof Clob) {
+            Clob clob = (Clob) value;
+            return clob.getSubString(1, (int) clob.length());
+        }
+        if (value instanceof Blob) {
+            Blob blob = (Blob) value;
+            return blob.getBytes(1, (int) blob.length());
+        }
+        if (value instanceof Serializable) return (Serializable) value;
+        return String.valueOf(value);
+    }
+}
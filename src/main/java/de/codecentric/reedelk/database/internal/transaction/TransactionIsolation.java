@@ -0,0 +1,30 @@
+package de.codecentric.reedelk.database.internal.transaction;
+
+import de.codecentric.reedelk.runtime.api.annotation.DisplayName;
+
+import java.sql.Connection;
+
+public enum TransactionIsolation {
+
+    @DisplayName("Database Default")
+    DEFAULT(null),
+    @DisplayName("Read Uncommitted")
+    READ_UNCOMMITTED(Connection.TRANSACTION_READ_UNCOMMITTED),
+    @DisplayName("Read Committed")
+    READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+    @DisplayName("Repeatable Read")
+    REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ),
+    @DisplayName("Serializable")
+    SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+    private final Integer level;
+
+    TransactionIsolation(Integer level) {
+        this.level = level;
+    }
+
+    // The JDBC isolation level, null if the connection keeps the default level of the database.
+    public Integer level() {
+        return level;
+    }
+}
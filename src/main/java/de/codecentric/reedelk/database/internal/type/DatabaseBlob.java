@@ -0,0 +1,99 @@
+package de.codecentric.reedelk.database.internal.type;
+
+import de.codecentric.reedelk.database.internal.exception.ConversionError;
+import de.codecentric.reedelk.runtime.api.annotation.Type;
+import de.codecentric.reedelk.runtime.api.annotation.TypeFunction;
+import de.codecentric.reedelk.runtime.api.commons.ByteArrayUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.BLOB_READ_ERROR;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.BLOB_TO_BYTES_ERROR;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.LOB_NOT_AVAILABLE;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.LOB_RELEASE_ERROR;
+
+@Type(displayName = "DatabaseBlob")
+public class DatabaseBlob implements DatabaseLob, Serializable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseBlob.class);
+
+    private final String columnName;
+    // The JDBC blob is bound to the connection it was read from: it is not
+    // serialized, and it is null once released.
+    private transient volatile Blob blob;
+
+    public DatabaseBlob(String columnName, Blob blob) {
+        this.columnName = columnName;
+        this.blob = blob;
+    }
+
+    @TypeFunction(returnType = Long.class, signature = "length()", cursorOffset = 1)
+    @Override
+    public long length() {
+        try {
+            return blob().length();
+        } catch (SQLException exception) {
+            throw new ConversionError(BLOB_READ_ERROR.format(columnName), exception);
+        }
+    }
+
+    @TypeFunction(returnType = InputStream.class, signature = "getInputStream()", cursorOffset = 1)
+    public InputStream getInputStream() {
+        try {
+            return blob().getBinaryStream();
+        } catch (SQLException exception) {
+            throw new ConversionError(BLOB_READ_ERROR.format(columnName), exception);
+        }
+    }
+
+    // Reads at most length bytes starting from the given (zero based) position.
+    @TypeFunction(returnType = byte[].class, signature = "read(long position, int length)", cursorOffset = 1)
+    public byte[] read(long position, int length) {
+        try {
+            Blob current = blob();
+            int available = (int) Math.max(0L, Math.min(length, current.length() - position));
+            return current.getBytes(position + 1, available); // Blob position starts from 1 instead of 0
+        } catch (SQLException exception) {
+            throw new ConversionError(BLOB_READ_ERROR.format(columnName), exception);
+        }
+    }
+
+    @TypeFunction(returnType = byte[].class, signature = "getBytes()", cursorOffset = 1)
+    public byte[] getBytes() {
+        try (InputStream inputStream = getInputStream()) {
+            return ByteArrayUtils.from(inputStream);
+        } catch (IOException exception) {
+            throw new ConversionError(BLOB_TO_BYTES_ERROR.format(columnName), exception);
+        }
+    }
+
+    @Override
+    public void release() {
+        Blob released = blob;
+        blob = null;
+        if (released == null) return;
+        try {
+            released.free();
+        } catch (SQLException exception) {
+            // The blob is released anyway when the result set and connection are closed.
+            logger.warn(LOB_RELEASE_ERROR.format(columnName, exception.getMessage()), exception);
+        }
+    }
+
+    private Blob blob() {
+        Blob current = blob;
+        if (current == null) throw new ConversionError(LOB_NOT_AVAILABLE.format(columnName));
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseBlob{columnName='" + columnName + "'}";
+    }
+}
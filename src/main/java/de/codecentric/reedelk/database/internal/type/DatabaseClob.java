@@ -0,0 +1,104 @@
+package de.codecentric.reedelk.database.internal.type;
+
+import de.codecentric.reedelk.database.internal.exception.ConversionError;
+import de.codecentric.reedelk.runtime.api.annotation.Type;
+import de.codecentric.reedelk.runtime.api.annotation.TypeFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Serializable;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.CLOB_READ_ERROR;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.CLOB_TO_STRING_ERROR;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.LOB_NOT_AVAILABLE;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.LOB_RELEASE_ERROR;
+
+@Type(displayName = "DatabaseClob")
+public class DatabaseClob implements DatabaseLob, Serializable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseClob.class);
+
+    private final String columnName;
+    // The JDBC clob is bound to the connection it was read from: it is not
+    // serialized, and it is null once released.
+    private transient volatile Clob clob;
+
+    public DatabaseClob(String columnName, Clob clob) {
+        this.columnName = columnName;
+        this.clob = clob;
+    }
+
+    @TypeFunction(returnType = Long.class, signature = "length()", cursorOffset = 1)
+    @Override
+    public long length() {
+        try {
+            return clob().length();
+        } catch (SQLException exception) {
+            throw new ConversionError(CLOB_READ_ERROR.format(columnName), exception);
+        }
+    }
+
+    @TypeFunction(returnType = Reader.class, signature = "getReader()", cursorOffset = 1)
+    public Reader getReader() {
+        try {
+            return clob().getCharacterStream();
+        } catch (SQLException exception) {
+            throw new ConversionError(CLOB_READ_ERROR.format(columnName), exception);
+        }
+    }
+
+    // Reads at most length characters starting from the given (zero based) position.
+    @TypeFunction(returnType = String.class, signature = "read(long position, int length)", cursorOffset = 1)
+    public String read(long position, int length) {
+        try {
+            Clob current = clob();
+            int available = (int) Math.max(0L, Math.min(length, current.length() - position));
+            return current.getSubString(position + 1, available); // Clob position starts from 1 instead of 0
+        } catch (SQLException exception) {
+            throw new ConversionError(CLOB_READ_ERROR.format(columnName), exception);
+        }
+    }
+
+    @TypeFunction(returnType = String.class, signature = "getString()", cursorOffset = 1)
+    public String getString() {
+        try (Reader reader = getReader()) {
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, read);
+            }
+            return builder.toString();
+        } catch (IOException exception) {
+            throw new ConversionError(CLOB_TO_STRING_ERROR.format(columnName), exception);
+        }
+    }
+
+    @Override
+    public void release() {
+        Clob released = clob;
+        clob = null;
+        if (released == null) return;
+        try {
+            released.free();
+        } catch (SQLException exception) {
+            // The clob is released anyway when the result set and connection are closed.
+            logger.warn(LOB_RELEASE_ERROR.format(columnName, exception.getMessage()), exception);
+        }
+    }
+
+    private Clob clob() {
+        Clob current = clob;
+        if (current == null) throw new ConversionError(LOB_NOT_AVAILABLE.format(columnName));
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseClob{columnName='" + columnName + "'}";
+    }
+}
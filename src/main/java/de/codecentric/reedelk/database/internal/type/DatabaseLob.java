@@ -0,0 +1,12 @@
+package de.codecentric.reedelk.database.internal.type;
+
+// A handle to a large object value of a row: the content is read from the database
+// only when it is consumed. The handle is valid until it is released: when the result set
+// it comes from is disposed, or earlier when too many handles of the same result set are open.
+public interface DatabaseLob {
+
+    long length();
+
+    void release();
+
+}
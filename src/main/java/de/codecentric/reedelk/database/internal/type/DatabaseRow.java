@@ -1,65 +1,131 @@
 package de.codecentric.reedelk.database.internal.type;
 
+import de.codecentric.reedelk.database.internal.exception.ConversionError;
 import de.codecentric.reedelk.runtime.api.annotation.Type;
 import de.codecentric.reedelk.runtime.api.annotation.TypeFunction;
 
 import java.io.Serializable;
+import java.sql.Types;
 import java.util.*;
+import java.util.function.BiConsumer;
+
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.COLUMN_NOT_FOUND;
+import static de.codecentric.reedelk.database.internal.commons.Messages.Select.COLUMN_NOT_NUMERIC;
 
 @Type(displayName = "DatabaseRow", mapKeyType = String.class, mapValueType = Serializable.class)
-public class DatabaseRow extends HashMap<String, Serializable> {
+public class DatabaseRow extends AbstractMap<String, Serializable> implements Serializable {
+
+    private static final long[] EMPTY_LONGS = new long[0];
+    private static final double[] EMPTY_DOUBLES = new double[0];
+
+    private final DatabaseRowSchema schema;
+    private final Serializable[] values;
+    private final long[] longValues;
+    private final double[] doubleValues;
+    // One bit for each column: set if the primitive column value is SQL NULL.
+    private final long[] nulls;
+
+    private transient Set<Entry<String, Serializable>> entrySet;
 
-    private final List<Serializable> values;
-    private final Map<String,Integer> columnNameIndexMap;
-    private final Map<Integer,String> columnIndexNameMap;
+    public DatabaseRow(DatabaseRowSchema schema, Serializable[] values) {
+        this(schema, values, EMPTY_LONGS, EMPTY_DOUBLES, EMPTY_LONGS);
+    }
 
-    public DatabaseRow(Map<String,Integer> columnNameIndexMap,
-                       Map<Integer,String> columnIndexNameMap,
-                       List<Serializable> values) {
-        this.columnIndexNameMap = columnIndexNameMap;
-        this.columnNameIndexMap = columnNameIndexMap;
+    public DatabaseRow(DatabaseRowSchema schema, Serializable[] values, long[] longValues, double[] doubleValues, long[] nulls) {
+        this.schema = schema;
         this.values = values;
+        this.longValues = longValues;
+        this.doubleValues = doubleValues;
+        this.nulls = nulls;
     }
 
     @TypeFunction(returnType = Integer.class, signature = "getColumnIndex(String columnName)", cursorOffset = 1)
     public Integer getColumnIndex(String columnName) {
-        return columnNameIndexMap.get(columnName);
+        return schema.getColumnIndex(columnName);
     }
 
     @TypeFunction(returnType = String.class, signature = "getColumnName(int columnIndex)", cursorOffset = 1)
     public String getColumnName(int columnIndex) {
-        return columnIndexNameMap.get(columnIndex);
+        return schema.getColumnName(columnIndex);
     }
 
     @TypeFunction(returnType = Serializable.class, signature = "get(int columnIndex)", cursorOffset = 1)
     public Serializable get(int columnIndex) {
-        return values.get(columnIndex);
+        return value(columnIndex);
+    }
+
+    @TypeFunction(returnType = Boolean.class, signature = "isNull(int columnIndex)", cursorOffset = 1)
+    public boolean isNull(int columnIndex) {
+        if (schema.isPrimitive(columnIndex)) return isNullBitSet(columnIndex);
+        return values[schema.getColumnSlot(columnIndex)] == null;
+    }
+
+    // Like JDBC, the typed accessors return 0 when the column value is SQL NULL.
+    @TypeFunction(returnType = Long.class, signature = "getLong(int columnIndex)", cursorOffset = 1)
+    public long getLong(int columnIndex) {
+        int slot = schema.getColumnSlot(columnIndex);
+        byte storage = schema.getColumnStorage(columnIndex);
+        if (storage == DatabaseRowSchema.LONG_STORAGE) return longValues[slot];
+        if (storage == DatabaseRowSchema.DOUBLE_STORAGE) return (long) doubleValues[slot];
+        Serializable value = values[slot];
+        if (value == null) return 0L;
+        if (value instanceof Boolean) return (Boolean) value ? 1L : 0L;
+        return numberOf(columnIndex, value).longValue();
+    }
+
+    @TypeFunction(returnType = Long.class, signature = "getLong(String columnName)", cursorOffset = 1)
+    public long getLong(String columnName) {
+        return getLong(indexOrThrow(columnName));
+    }
+
+    @TypeFunction(returnType = Double.class, signature = "getDouble(int columnIndex)", cursorOffset = 1)
+    public double getDouble(int columnIndex) {
+        int slot = schema.getColumnSlot(columnIndex);
+        byte storage = schema.getColumnStorage(columnIndex);
+        if (storage == DatabaseRowSchema.DOUBLE_STORAGE) return doubleValues[slot];
+        if (storage == DatabaseRowSchema.LONG_STORAGE) return longValues[slot];
+        Serializable value = values[slot];
+        if (value == null) return 0d;
+        if (value instanceof Boolean) return (Boolean) value ? 1d : 0d;
+        return numberOf(columnIndex, value).doubleValue();
+    }
+
+    @TypeFunction(returnType = Double.class, signature = "getDouble(String columnName)", cursorOffset = 1)
+    public double getDouble(String columnName) {
+        return getDouble(indexOrThrow(columnName));
+    }
+
+    public DatabaseRowSchema getSchema() {
+        return schema;
     }
 
     @Override
     public int size() {
-        return values.size();
+        return schema.keyCount();
     }
 
     @Override
     public boolean isEmpty() {
-        return values.isEmpty();
+        return schema.keyCount() == 0;
     }
 
     @Override
     public boolean containsKey(Object key) {
-        return columnNameIndexMap.containsKey(key);
+        return indexOf(key) != null;
     }
 
     @Override
     public boolean containsValue(Object value) {
-        return values.contains(value);
+        for (int position = 0; position < schema.keyCount(); position++) {
+            if (Objects.equals(value(schema.keyColumnIndex(position)), value)) return true;
+        }
+        return false;
     }
 
     @Override
     public Serializable get(Object key) {
-        Integer valueIndex = columnNameIndexMap.get(key);
-        return values.get(valueIndex);
+        Integer valueIndex = indexOf(key);
+        return valueIndex == null ? null : value(valueIndex);
     }
 
     @Override
@@ -84,22 +150,144 @@ public class DatabaseRow extends HashMap<String, Serializable> {
 
     @Override
     public Set<String> keySet() {
-        return columnNameIndexMap.keySet();
+        return schema.keySet();
     }
 
     @Override
-    public Collection<Serializable> values() {
-        return values;
+    public Set<Entry<String, Serializable>> entrySet() {
+        // A view over the row values: no map is built when the entries are accessed.
+        if (entrySet == null) entrySet = new EntrySetView();
+        return entrySet;
     }
 
+    // Iterates the columns without allocating any entry: preferred over entrySet() on hot paths.
     @Override
-    public Set<Entry<String, Serializable>> entrySet() {
-        Map<String, Serializable> map = new HashMap<>();
-        for (Entry<String,Integer> entry : columnNameIndexMap.entrySet()) {
-            String columnName = entry.getKey();
-            Integer columnIndex = entry.getValue();
-            map.put(columnName, values.get(columnIndex));
+    public void forEach(BiConsumer<? super String, ? super Serializable> action) {
+        for (int position = 0; position < schema.keyCount(); position++) {
+            int columnIndex = schema.keyColumnIndex(position);
+            action.accept(schema.getColumnName(columnIndex), value(columnIndex));
+        }
+    }
+
+    // Primitive values are boxed to the same type the JDBC getter
+    // of the column type would return (e.g. Short for SMALLINT).
+    private Serializable value(int columnIndex) {
+        int slot = schema.getColumnSlot(columnIndex);
+        byte storage = schema.getColumnStorage(columnIndex);
+        if (storage == DatabaseRowSchema.OBJECT_STORAGE) return values[slot];
+        if (isNullBitSet(columnIndex)) return null;
+
+        int columnType = schema.getColumnType(columnIndex);
+        if (storage == DatabaseRowSchema.DOUBLE_STORAGE) {
+            double value = doubleValues[slot];
+            return columnType == Types.REAL ? (Serializable) (float) value : (Serializable) value;
+        }
+
+        long value = longValues[slot];
+        switch (columnType) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return value != 0;
+            case Types.TINYINT:
+                return (byte) value;
+            case Types.SMALLINT:
+                return (short) value;
+            case Types.INTEGER:
+                return (int) value;
+            default:
+                return value;
+        }
+    }
+
+    private boolean isNullBitSet(int columnIndex) {
+        return (nulls[columnIndex >>> 6] & (1L << columnIndex)) != 0;
+    }
+
+    private Number numberOf(int columnIndex, Serializable value) {
+        if (value instanceof Number) return (Number) value;
+        String error = COLUMN_NOT_NUMERIC.format(schema.getColumnName(columnIndex), value.getClass().getName());
+        throw new ConversionError(error);
+    }
+
+    private int indexOrThrow(String columnName) {
+        Integer columnIndex = schema.getColumnIndex(columnName);
+        if (columnIndex == null) throw new ConversionError(COLUMN_NOT_FOUND.format(columnName));
+        return columnIndex;
+    }
+
+    private Integer indexOf(Object key) {
+        return key instanceof String ? schema.getColumnIndex((String) key) : null;
+    }
+
+    private class EntrySetView extends AbstractSet<Entry<String, Serializable>> {
+
+        @Override
+        public Iterator<Entry<String, Serializable>> iterator() {
+            return new Iterator<Entry<String, Serializable>>() {
+
+                private int position = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return position < schema.keyCount();
+                }
+
+                @Override
+                public Entry<String, Serializable> next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return new ColumnEntry(schema.keyColumnIndex(position++));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return schema.keyCount();
+        }
+    }
+
+    // The Map.Entry contract keeps an entry valid as long as its map is not modified, and rows never
+    // are: a single reused entry would change under callers keeping entries past the iteration
+    // (toArray, collecting streams, copies of the entry set), hence each next() returns a new one.
+    // It only holds the column index and boxes the value when read: forEach allocates nothing.
+    private class ColumnEntry implements Entry<String, Serializable> {
+
+        private final int columnIndex;
+
+        ColumnEntry(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public String getKey() {
+            return schema.getColumnName(columnIndex);
+        }
+
+        @Override
+        public Serializable getValue() {
+            return value(columnIndex);
+        }
+
+        @Override
+        public Serializable setValue(Serializable value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Entry)) return false;
+            Entry<?, ?> entry = (Entry<?, ?>) other;
+            return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
         }
-        return map.entrySet();
     }
 }
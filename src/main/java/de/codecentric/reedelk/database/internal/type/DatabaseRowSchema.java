@@ -0,0 +1,136 @@
+package de.codecentric.reedelk.database.internal.type;
+
+import java.io.Serializable;
+import java.sql.Types;
+import java.util.*;
+
+// Column names and types of a result set: a single instance is shared by all the rows of the same result.
+public class DatabaseRowSchema implements Serializable {
+
+    static final byte OBJECT_STORAGE = 0;
+    static final byte LONG_STORAGE = 1;
+    static final byte DOUBLE_STORAGE = 2;
+
+    private final String[] columnNames;
+    private final int[] columnTypes;
+    // Where the value of each column is stored in the row (object, long or double
+    // array) and its position (slot) in that array.
+    private final byte[] columnStorages;
+    private final int[] columnSlots;
+    private final int objectSlotCount;
+    private final int longSlotCount;
+    private final int doubleSlotCount;
+    private final Map<String, Integer> columnNameIndexMap;
+    // Index of the columns visible as map keys, in the same order as the key set. If two columns
+    // have the same name (e.g. joins), only the last one is visible by name, in the position
+    // of the first one.
+    private final int[] keyColumnIndexes;
+
+    public DatabaseRowSchema(String[] columnNames, int[] columnTypes) {
+        this(columnNames, columnTypes, false);
+    }
+
+    // If primitive numerics is true, integral and floating point columns are stored
+    // in primitive arrays and boxed only when read through the generic Map API.
+    public DatabaseRowSchema(String[] columnNames, int[] columnTypes, boolean primitiveNumerics) {
+        this.columnNames = columnNames.clone();
+        this.columnTypes = columnTypes.clone();
+        this.columnStorages = new byte[columnNames.length];
+        this.columnSlots = new int[columnNames.length];
+
+        int objectSlots = 0, longSlots = 0, doubleSlots = 0;
+        for (int i = 0; i < columnNames.length; i++) {
+            byte storage = primitiveNumerics ? storageOf(columnTypes[i]) : OBJECT_STORAGE;
+            columnStorages[i] = storage;
+            if (storage == LONG_STORAGE) columnSlots[i] = longSlots++;
+            else if (storage == DOUBLE_STORAGE) columnSlots[i] = doubleSlots++;
+            else columnSlots[i] = objectSlots++;
+        }
+        this.objectSlotCount = objectSlots;
+        this.longSlotCount = longSlots;
+        this.doubleSlotCount = doubleSlots;
+
+        Map<String, Integer> nameIndexMap = new LinkedHashMap<>();
+        for (int i = 0; i < columnNames.length; i++) {
+            nameIndexMap.put(columnNames[i], i);
+        }
+        this.columnNameIndexMap = Collections.unmodifiableMap(nameIndexMap);
+
+        int[] keyIndexes = new int[nameIndexMap.size()];
+        int position = 0;
+        for (int columnIndex : nameIndexMap.values()) {
+            keyIndexes[position++] = columnIndex;
+        }
+        this.keyColumnIndexes = keyIndexes;
+    }
+
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    public String getColumnName(int columnIndex) {
+        return columnIndex >= 0 && columnIndex < columnNames.length ? columnNames[columnIndex] : null;
+    }
+
+    public int getColumnType(int columnIndex) {
+        return columnTypes[columnIndex];
+    }
+
+    public Integer getColumnIndex(String columnName) {
+        return columnNameIndexMap.get(columnName);
+    }
+
+    public boolean isPrimitive(int columnIndex) {
+        return columnStorages[columnIndex] != OBJECT_STORAGE;
+    }
+
+    public int getObjectSlotCount() {
+        return objectSlotCount;
+    }
+
+    public int getLongSlotCount() {
+        return longSlotCount;
+    }
+
+    public int getDoubleSlotCount() {
+        return doubleSlotCount;
+    }
+
+    public int getColumnSlot(int columnIndex) {
+        return columnSlots[columnIndex];
+    }
+
+    byte getColumnStorage(int columnIndex) {
+        return columnStorages[columnIndex];
+    }
+
+    Set<String> keySet() {
+        return columnNameIndexMap.keySet();
+    }
+
+    int keyCount() {
+        return keyColumnIndexes.length;
+    }
+
+    int keyColumnIndex(int position) {
+        return keyColumnIndexes[position];
+    }
+
+    private static byte storageOf(int columnType) {
+        switch (columnType) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return LONG_STORAGE;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return DOUBLE_STORAGE;
+            default:
+                return OBJECT_STORAGE;
+        }
+    }
+}
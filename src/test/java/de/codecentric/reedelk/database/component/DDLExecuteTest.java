@@ -24,6 +24,7 @@ import org.zapodot.junit.db.common.Engine;
 import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -82,6 +83,64 @@ class DDLExecuteTest {
         assertThat(result).isEqualTo(0);
     }
 
+    @Test
+    void shouldExecuteEachStatementOfMultiStatementDDL(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        String script = "CREATE TABLE Supplier(id INTEGER PRIMARY KEY, name VARCHAR(512));\n" +
+                "-- Index on the supplier name\n" +
+                "CREATE INDEX supplier_name ON Supplier(name);";
+        lenient()
+                .doReturn(Optional.of(script))
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicString.class), any(FlowContext.class), any(Message.class));
+
+        component.setStrategy(DDLDefinitionStrategy.INLINE);
+        component.setDdlDefinition(DynamicString.from(script));
+        component.setTimingAttributes(true);
+        component.setStatementTimings(true);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        ResultSet resultSet = dataSource.getConnection().createStatement().executeQuery("SELECT 1 FROM Supplier LIMIT 1;");
+        assertThat(resultSet).isNotNull();
+
+        MessageAttributes attributes = actual.getAttributes();
+        assertThat(attributes).containsEntry("statementCount", 2);
+        assertThat((List<?>) attributes.get("statementTimings")).hasSize(2);
+
+        dataSource.getConnection().createStatement().execute("DROP TABLE Supplier");
+    }
+
+    @Test
+    void shouldTimeMultiStatementDDLAsWholeWhenStatementTimingsAreNotRequired(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        String script = "CREATE TABLE Courier(id INTEGER PRIMARY KEY, name VARCHAR(512));\n" +
+                "CREATE INDEX courier_name ON Courier(name);";
+        lenient()
+                .doReturn(Optional.of(script))
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicString.class), any(FlowContext.class), any(Message.class));
+
+        component.setStrategy(DDLDefinitionStrategy.INLINE);
+        component.setDdlDefinition(DynamicString.from(script));
+        component.setTimingAttributes(true);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        MessageAttributes attributes = actual.getAttributes();
+        assertThat(attributes).containsEntry("statementCount", 2);
+        assertThat(attributes).containsKey("timings");
+        assertThat(attributes).doesNotContainKey("statementTimings");
+
+        dataSource.getConnection().createStatement().execute("DROP TABLE Courier");
+    }
+
     @Disabled
     void shouldIncludeInTheExceptionDDLStatementWhenExceptionThrown() {
         // Given
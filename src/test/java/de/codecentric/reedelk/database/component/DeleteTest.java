@@ -24,6 +24,7 @@ import org.zapodot.junit.db.common.Engine;
 import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
 
 import static de.codecentric.reedelk.runtime.api.commons.ImmutableMap.of;
@@ -141,6 +142,46 @@ class DeleteTest {
         assertThat(resultSet.next()).isFalse();
     }
 
+    @Test
+    void shouldDeleteRowsInSingleBatchWhenBatchMode(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        DynamicObjectMap map =
+                DynamicObjectMap.from(of("id", "#[message.payload()]"), moduleContext);
+
+        lenient()
+                .doAnswer(invocation -> {
+                    Message item = invocation.getArgument(2);
+                    return of("id", item.payload());
+                })
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        Message batchMessage = MessageBuilder.get(TestComponent.class)
+                .withJavaObject(Arrays.asList(1, 2, 99))
+                .build();
+
+        component.setQuery("DELETE FROM Customer WHERE id=:id");
+        component.setParametersMapping(map);
+        component.setBatch(true);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, batchMessage);
+
+        // Then
+        int deleted = actual.payload();
+        assertThat(deleted).isEqualTo(2);
+
+        int[] rowCounts = (int[]) actual.getAttributes().get("rowCounts");
+        assertThat(rowCounts).containsExactly(1, 1, 0);
+
+        ResultSet resultSet = dataSource
+                .getConnection()
+                .createStatement()
+                .executeQuery("SELECT * FROM Customer");
+        assertThat(resultSet.next()).isFalse();
+    }
+
     @Disabled
     void shouldIncludeStatementWhenExceptionThrown() {
         // Given
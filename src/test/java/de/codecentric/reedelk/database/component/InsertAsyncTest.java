@@ -0,0 +1,134 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.runtime.api.component.OnResult;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.zapodot.junit.db.annotations.EmbeddedDatabase;
+import org.zapodot.junit.db.annotations.EmbeddedDatabaseTest;
+import org.zapodot.junit.db.common.Engine;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@EmbeddedDatabaseTest(
+        engine = Engine.H2,
+        initialSqls = "CREATE TABLE Customer(id INTEGER PRIMARY KEY, name VARCHAR(512));"
+)
+@ExtendWith(MockitoExtension.class)
+class InsertAsyncTest {
+
+    @Mock
+    private ScriptEngineService mockScriptEngine;
+    @Mock
+    private FlowContext mockFlowContext;
+
+    private InsertAsync component = new InsertAsync();
+
+    private Message testMessage;
+
+    @BeforeEach
+    void setUp() {
+        testMessage = MessageBuilder.get(TestComponent.class).withText("Test").build();
+        lenient()
+                .doReturn(new HashMap<>())
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration();
+        connectionConfiguration.setConnectionURL("jdbc:h2:mem:" + InsertAsyncTest.class.getSimpleName());
+        connectionConfiguration.setDatabaseDriver(DatabaseDriver.H2);
+        component.setConnection(connectionConfiguration);
+        component.dataSourceService = new DataSourceService();
+        component.scriptEngine = mockScriptEngine;
+    }
+
+    @AfterEach
+    void tearDown(@EmbeddedDatabase final DataSource dataSource) {
+        component.dispose();
+        try {
+            dataSource.getConnection().createStatement().execute("DROP TABLE Customer");
+        } catch (SQLException exception) {
+            // Nothing we can really do here.
+            exception.printStackTrace();
+        }
+    }
+
+    @Test
+    void shouldInsertRowOnDatabaseExecutorThread() throws InterruptedException {
+        // Given
+        component.setQuery("INSERT INTO Customer VALUES (1,'John Doe')");
+        component.initialize();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Message> result = new AtomicReference<>();
+        AtomicReference<String> threadName = new AtomicReference<>();
+
+        // When
+        component.apply(mockFlowContext, testMessage, new OnResult() {
+            @Override
+            public void onResult(FlowContext flowContext, Message message) {
+                threadName.set(Thread.currentThread().getName());
+                result.set(message);
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(FlowContext flowContext, Exception exception) {
+                latch.countDown();
+            }
+        });
+
+        // Then
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(threadName.get()).startsWith("database-");
+        int inserted = result.get().payload();
+        assertThat(inserted).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCallOnErrorWhenQueryFails() throws InterruptedException {
+        // Given
+        component.setQuery("INSERT INTO NotExisting VALUES (1,'John Doe')");
+        component.initialize();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+
+        // When
+        component.apply(mockFlowContext, testMessage, new OnResult() {
+            @Override
+            public void onResult(FlowContext flowContext, Message message) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(FlowContext flowContext, Exception exception) {
+                error.set(exception);
+                latch.countDown();
+            }
+        });
+
+        // Then
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(error.get()).isNotNull();
+    }
+}
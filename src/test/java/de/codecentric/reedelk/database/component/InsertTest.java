@@ -23,7 +23,10 @@ import org.zapodot.junit.db.common.Engine;
 import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static de.codecentric.reedelk.runtime.api.commons.ImmutableMap.of;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -137,6 +140,48 @@ class InsertTest {
         assertThat(actualName).isEqualTo("Michael S. Madden");
     }
 
+    @Test
+    void shouldInsertRowsInBatchesWhenBatchMode(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        DynamicObjectMap map =
+                DynamicObjectMap.from(of("id", "#[message.payload().id]", "name", "#[message.payload().name]"), moduleContext);
+
+        lenient()
+                .doAnswer(invocation -> {
+                    Message record = invocation.getArgument(2);
+                    return record.payload();
+                })
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        List<Map<String, Object>> records = Arrays.asList(
+                of("id", 5, "name", "Anne Smith"),
+                of("id", 6, "name", "Paul Brown"),
+                of("id", 7, "name", "Olivia Green"));
+        Message batchMessage = MessageBuilder.get(TestComponent.class).withJavaObject(records).build();
+
+        component.setQuery("INSERT INTO Customer VALUES (:id,:name)");
+        component.setParametersMapping(map);
+        component.setBatch(true);
+        component.setBatchSize(2);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, batchMessage);
+
+        // Then
+        int inserted = actual.payload();
+        assertThat(inserted).isEqualTo(3);
+        assertThat(actual.getAttributes()).containsEntry("chunkRowCounts", Arrays.asList(2, 1));
+
+        ResultSet resultSet = dataSource
+                .getConnection()
+                .createStatement()
+                .executeQuery("SELECT COUNT(*) FROM Customer WHERE id IN (5, 6, 7)");
+        assertThat(resultSet.next()).isTrue();
+        assertThat(resultSet.getInt(1)).isEqualTo(3);
+    }
+
     @Disabled
     void shouldIncludeStatementWhenExceptionThrown() {
         // Given
@@ -151,4 +196,22 @@ class InsertTest {
         assertThat(thrown).hasMessage("Could not execute insert query=[INSERT INTO Customer VAALUES(2,'Mark Anton')NOT CORRECT]: Syntax error in SQL statement \"INSERT INTO CUSTOMER VAALUES[*](2,'Mark Anton')NOT CORRECT\"; expected \"., (, DIRECT, SORTED, DEFAULT, VALUES, SET, (, WITH, SELECT, TABLE, VALUES\"; SQL statement:\n" +
                 "INSERT INTO Customer VAALUES(2,'Mark Anton')NOT CORRECT [42001-200]");
     }
+
+    @Test
+    void shouldAddPhaseTimingsToAttributesWhenTimingAttributes() {
+        // Given
+        component.setQuery("INSERT INTO Customer VALUES (8,'Emma White')");
+        component.setTimingAttributes(true);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        Map<String, Long> timings = (Map<String, Long>) actual.getAttributes().get("timings");
+        assertThat(timings).containsOnlyKeys("checkout", "evaluate", "render", "execute");
+        assertThat(component.dataSourceService.queryMetrics().snapshot())
+                .hasEntrySatisfying("Insert-1", phases -> assertThat(phases.get("execute").getCount()).isEqualTo(1));
+    }
 }
@@ -0,0 +1,267 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.exception.MigrationException;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.resource.ResourceText;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.zapodot.junit.db.annotations.EmbeddedDatabase;
+import org.zapodot.junit.db.annotations.EmbeddedDatabaseTest;
+import org.zapodot.junit.db.common.Engine;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@EmbeddedDatabaseTest(engine = Engine.H2)
+@ExtendWith(MockitoExtension.class)
+class SchemaMigrationTest {
+
+    @Mock
+    private FlowContext mockFlowContext;
+
+    private DataSourceService dataSourceService = new DataSourceService();
+    private List<SchemaMigration> components = new ArrayList<>();
+
+    private Message testMessage;
+
+    @BeforeEach
+    void setUp() {
+        testMessage = MessageBuilder.get(TestComponent.class).withText("Test").build();
+    }
+
+    @AfterEach
+    void tearDown(@EmbeddedDatabase final DataSource dataSource) {
+        components.forEach(SchemaMigration::dispose);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("DROP ALL OBJECTS");
+        } catch (SQLException exception) {
+            // nothing to drop
+        }
+    }
+
+    @Test
+    void shouldApplyAllScriptsAndRecordThemInTheLedger(@EmbeddedDatabase DataSource dataSource) throws SQLException {
+        // Given
+        SchemaMigration component = componentWith(
+                script("1", "CREATE TABLE Orders(id INTEGER PRIMARY KEY, name VARCHAR(255))"),
+                script("2", "ALTER TABLE Orders ADD COLUMN amount DECIMAL(10,2);\nINSERT INTO Orders VALUES (1, 'first', 10.5)"));
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        assertThat((int) actual.payload()).isEqualTo(2);
+        assertThat(actual.getAttributes()).containsEntry("appliedVersions", new ArrayList<>(Arrays.asList("1", "2")));
+        assertThat(actual.getAttributes()).containsEntry("currentVersion", "2");
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM Orders")).isEqualTo(1);
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM reedelk_schema_history")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldApplyOnlyPendingScripts(@EmbeddedDatabase DataSource dataSource) throws SQLException {
+        // Given
+        ResourceText first = script("1", "CREATE TABLE Product(id INTEGER PRIMARY KEY)");
+        componentWith(first).apply(mockFlowContext, testMessage);
+
+        ResourceText second = script("2", "INSERT INTO Product VALUES (1)");
+        SchemaMigration component = componentWith(first, second);
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        assertThat((int) actual.payload()).isEqualTo(1);
+        assertThat(actual.getAttributes()).containsEntry("appliedVersions", new ArrayList<>(Arrays.asList("2")));
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM Product")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotReadScriptsWhenUpToDateAndChecksumsAreNotValidated() {
+        // Given
+        ResourceText script = script("1", "CREATE TABLE Supplier(id INTEGER PRIMARY KEY)");
+        componentWith(script).apply(mockFlowContext, testMessage);
+
+        clearInvocations(script);
+        SchemaMigration component = componentWith(false, script);
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        assertThat((int) actual.payload()).isEqualTo(0);
+        verify(script, never()).data();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenAppliedScriptWasModified() {
+        // Given
+        componentWith(script("1", "CREATE TABLE Category(id INTEGER PRIMARY KEY)"))
+                .apply(mockFlowContext, testMessage);
+
+        SchemaMigration component = componentWith(script("1", "CREATE TABLE Category(id BIGINT PRIMARY KEY)"));
+
+        // When
+        MigrationException thrown = assertThrows(MigrationException.class,
+                () -> component.apply(mockFlowContext, testMessage));
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("Migration script version=[1] was modified after it was applied");
+    }
+
+    @Test
+    void shouldNotRecordFailedScript(@EmbeddedDatabase DataSource dataSource) throws SQLException {
+        // Given
+        SchemaMigration component = componentWith(
+                script("1", "CREATE TABLE Invoice(id INTEGER PRIMARY KEY)"),
+                script("2", "INSERT INTO NotExistingTable VALUES (1)"));
+
+        // When
+        MigrationException thrown = assertThrows(MigrationException.class,
+                () -> component.apply(mockFlowContext, testMessage));
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("Could not apply migration script version=[2]");
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM reedelk_schema_history")).isEqualTo(1);
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM reedelk_schema_history WHERE version = '__lock__'")).isEqualTo(0);
+    }
+
+    @Test
+    void shouldTakeOverExpiredLock(@EmbeddedDatabase DataSource dataSource) throws SQLException {
+        // Given
+        ResourceText first = script("1", "CREATE TABLE Warehouse(id INTEGER PRIMARY KEY)");
+        componentWith(first).apply(mockFlowContext, testMessage);
+        insertLock(dataSource, System.currentTimeMillis() - 120_000);
+
+        SchemaMigration component = newComponent(true, first, script("2", "INSERT INTO Warehouse VALUES (1)"));
+        component.setLockTimeout(0);
+        component.setLockExpiry(60);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        assertThat((int) actual.payload()).isEqualTo(1);
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM Warehouse")).isEqualTo(1);
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM reedelk_schema_history WHERE version = '__lock__'")).isEqualTo(0);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenLockIsHeldAndNotExpired(@EmbeddedDatabase DataSource dataSource) throws SQLException {
+        // Given
+        ResourceText first = script("1", "CREATE TABLE Carrier(id INTEGER PRIMARY KEY)");
+        componentWith(first).apply(mockFlowContext, testMessage);
+        insertLock(dataSource, System.currentTimeMillis());
+
+        SchemaMigration component = newComponent(true, first, script("2", "INSERT INTO Carrier VALUES (1)"));
+        component.setLockTimeout(0);
+        component.setLockExpiry(60);
+        component.initialize();
+
+        // When
+        MigrationException thrown = assertThrows(MigrationException.class,
+                () -> component.apply(mockFlowContext, testMessage));
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("Could not acquire migration lock on ledger table=[reedelk_schema_history] within 0 seconds");
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM reedelk_schema_history WHERE version = '__lock__'")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStopAndKeepLockOfOtherNodeWhenLockWasTakenOver(@EmbeddedDatabase DataSource dataSource) throws SQLException {
+        // Given: the first script simulates another node taking over the lock while it runs.
+        componentWith(script("1", "CREATE TABLE Depot(id INTEGER PRIMARY KEY)")).apply(mockFlowContext, testMessage);
+        SchemaMigration component = componentWith(
+                script("1", "CREATE TABLE Depot(id INTEGER PRIMARY KEY)"),
+                script("2", "DELETE FROM reedelk_schema_history WHERE version = '__lock__';" +
+                        "INSERT INTO reedelk_schema_history (version, description, checksum, installed_on, execution_millis) " +
+                        "VALUES ('__lock__', 'other node', 0, CURRENT_TIMESTAMP, 0)"),
+                script("3", "INSERT INTO Depot VALUES (1)"));
+
+        // When
+        MigrationException thrown = assertThrows(MigrationException.class,
+                () -> component.apply(mockFlowContext, testMessage));
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("Migration lock on ledger table=[reedelk_schema_history] expired and was taken over by another node");
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM Depot")).isEqualTo(0);
+        assertThat(count(dataSource, "SELECT COUNT(*) FROM reedelk_schema_history WHERE version = '__lock__' AND description = 'other node'")).isEqualTo(1);
+    }
+
+    private SchemaMigration componentWith(ResourceText... resources) {
+        return componentWith(true, resources);
+    }
+
+    private SchemaMigration componentWith(boolean validateChecksums, ResourceText... resources) {
+        SchemaMigration component = newComponent(validateChecksums, resources);
+        component.initialize();
+        return component;
+    }
+
+    private SchemaMigration newComponent(boolean validateChecksums, ResourceText... resources) {
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration();
+        connectionConfiguration.setConnectionURL("jdbc:h2:mem:" + SchemaMigrationTest.class.getSimpleName());
+        connectionConfiguration.setDatabaseDriver(DatabaseDriver.H2);
+
+        List<MigrationScript> scripts = new ArrayList<>();
+        for (int i = 0; i < resources.length; i++) {
+            MigrationScript script = new MigrationScript();
+            script.setVersion(String.valueOf(i + 1));
+            script.setDescription("Script " + (i + 1));
+            script.setScript(resources[i]);
+            scripts.add(script);
+        }
+
+        SchemaMigration component = new SchemaMigration();
+        component.dataSourceService = dataSourceService;
+        component.setConnection(connectionConfiguration);
+        component.setScripts(scripts);
+        component.setValidateChecksums(validateChecksums);
+        components.add(component);
+        return component;
+    }
+
+    private static ResourceText script(String version, String content) {
+        ResourceText resource = mock(ResourceText.class);
+        lenient().doAnswer(invocation -> Mono.just(content)).when(resource).data();
+        lenient().doReturn("assets/migrations/V" + version + ".sql").when(resource).path();
+        return resource;
+    }
+
+    private static void insertLock(DataSource dataSource, long installedOn) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO reedelk_schema_history " +
+                     "(version, description, checksum, installed_on, execution_millis) VALUES ('__lock__', 'crashed node', 0, ?, 0)")) {
+            statement.setTimestamp(1, new Timestamp(installedOn));
+            statement.executeUpdate();
+        }
+    }
+
+    private static int count(DataSource dataSource, String query) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet resultSet = connection.createStatement().executeQuery(query)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
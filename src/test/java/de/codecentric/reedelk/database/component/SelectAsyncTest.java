@@ -0,0 +1,124 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.type.DatabaseRow;
+import de.codecentric.reedelk.runtime.api.component.OnResult;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.zapodot.junit.db.annotations.EmbeddedDatabase;
+import org.zapodot.junit.db.annotations.EmbeddedDatabaseTest;
+import org.zapodot.junit.db.common.Engine;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@EmbeddedDatabaseTest(
+        engine = Engine.H2,
+        initialSqls = "CREATE TABLE Customer(id INTEGER PRIMARY KEY, name VARCHAR(512)); "
+                + "INSERT INTO Customer(id, name) VALUES (1, 'John Doe');"
+                + "INSERT INTO Customer(id, name) VALUES (2, 'Mark Anton');"
+)
+@ExtendWith(MockitoExtension.class)
+class SelectAsyncTest {
+
+    private static final int MAX_POOL_SIZE = 2;
+
+    @Mock
+    private ScriptEngineService mockScriptEngine;
+    @Mock
+    private FlowContext mockFlowContext;
+
+    private SelectAsync component = new SelectAsync();
+    private ExecutorService consumers = Executors.newCachedThreadPool();
+
+    private Message testMessage;
+
+    @BeforeEach
+    void setUp() {
+        testMessage = MessageBuilder.get(TestComponent.class).withText("Test").build();
+        lenient()
+                .doReturn(new HashMap<>())
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration();
+        connectionConfiguration.setConnectionURL("jdbc:h2:mem:" + SelectAsyncTest.class.getSimpleName());
+        connectionConfiguration.setDatabaseDriver(DatabaseDriver.H2);
+        connectionConfiguration.setMinPoolSize(1);
+        connectionConfiguration.setMaxPoolSize(MAX_POOL_SIZE);
+        component.setConnection(connectionConfiguration);
+        component.dataSourceService = new DataSourceService();
+        component.scriptEngine = mockScriptEngine;
+    }
+
+    @AfterEach
+    void tearDown(@EmbeddedDatabase final DataSource dataSource) {
+        consumers.shutdownNow();
+        component.dispose();
+        try {
+            dataSource.getConnection().createStatement().execute("DROP TABLE Customer");
+        } catch (SQLException exception) {
+            // Nothing we can really do here.
+            exception.printStackTrace();
+        }
+    }
+
+    @Test
+    void shouldCompleteMoreConcurrentSelectsThanPoolConnections() throws InterruptedException {
+        // Given
+        component.setQuery("SELECT * FROM Customer");
+        component.initialize();
+
+        int executions = MAX_POOL_SIZE * 4;
+        CountDownLatch latch = new CountDownLatch(executions);
+        AtomicInteger consumedRows = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        // When: each result is consumed on a thread other than the executor's,
+        // while the other executions wait for the connections the results hold.
+        for (int i = 0; i < executions; i++) {
+            component.apply(mockFlowContext, testMessage, new OnResult() {
+                @Override
+                public void onResult(FlowContext flowContext, Message message) {
+                    consumers.execute(() -> {
+                        List<DatabaseRow> rows = message.payload();
+                        consumedRows.addAndGet(rows.size());
+                        latch.countDown();
+                    });
+                }
+
+                @Override
+                public void onError(FlowContext flowContext, Exception exception) {
+                    errors.incrementAndGet();
+                    latch.countDown();
+                }
+            });
+        }
+
+        // Then
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(errors.get()).isZero();
+        assertThat(consumedRows.get()).isEqualTo(executions * 2);
+    }
+}
@@ -0,0 +1,171 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.exception.ExportException;
+import de.codecentric.reedelk.database.internal.export.ExportFormat;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import de.codecentric.reedelk.runtime.api.script.dynamicvalue.DynamicString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.zapodot.junit.db.annotations.EmbeddedDatabaseTest;
+import org.zapodot.junit.db.common.Engine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@EmbeddedDatabaseTest(
+        engine = Engine.H2,
+        initialSqls = "CREATE TABLE Customer(id INTEGER PRIMARY KEY, name VARCHAR(512), balance DECIMAL(10,2), active BOOLEAN); "
+                + "INSERT INTO Customer VALUES (1, 'John Doe', 10.50, TRUE);"
+                + "INSERT INTO Customer VALUES (2, 'Mark \"The Mark\", Anton', NULL, FALSE);"
+                + "INSERT INTO Customer VALUES (3, NULL, 0.00, NULL);"
+)
+@ExtendWith(MockitoExtension.class)
+class SelectExportTest {
+
+    @Mock
+    private ScriptEngineService mockScriptEngine;
+    @Mock
+    private FlowContext mockFlowContext;
+
+    private SelectExport component = new SelectExport();
+
+    private Message testMessage;
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testMessage = MessageBuilder.get(TestComponent.class).withText("Test").build();
+        directory = Files.createTempDirectory(SelectExportTest.class.getSimpleName());
+        lenient()
+                .doReturn(new HashMap<>())
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration();
+        connectionConfiguration.setConnectionURL("jdbc:h2:mem:" + SelectExportTest.class.getSimpleName());
+        connectionConfiguration.setDatabaseDriver(DatabaseDriver.H2);
+        component.setConnection(connectionConfiguration);
+        component.dataSourceService = new DataSourceService();
+        component.scriptEngine = mockScriptEngine;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        component.dispose();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void shouldExportRowsAsCsv() throws IOException {
+        // Given
+        Path file = directory.resolve("customers.csv");
+        component.setQuery("SELECT * FROM Customer ORDER BY id");
+        component.setFilePath(filePath(file));
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        assertThat(contentOf(file)).isEqualTo(
+                "ID,NAME,BALANCE,ACTIVE\n" +
+                "1,John Doe,10.50,true\n" +
+                "2,\"Mark \"\"The Mark\"\", Anton\",,false\n" +
+                "3,,0.00,\n");
+        assertThat((String) actual.payload()).isEqualTo(file.toString());
+        assertThat(actual.getAttributes()).containsEntry("rowCount", 3L);
+        assertThat(actual.getAttributes()).containsEntry("bytesWritten", Files.size(file));
+        assertThat(directory.resolve("customers.csv.part")).doesNotExist();
+    }
+
+    @Test
+    void shouldExportRowsAsJsonLines() throws IOException {
+        // Given
+        Path file = directory.resolve("exports").resolve("customers.jsonl");
+        component.setQuery("SELECT id, name, balance, active FROM Customer ORDER BY id");
+        component.setFilePath(filePath(file));
+        component.setFormat(ExportFormat.JSON_LINES);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        assertThat(contentOf(file)).isEqualTo(
+                "{\"ID\":1,\"NAME\":\"John Doe\",\"BALANCE\":10.50,\"ACTIVE\":true}\n" +
+                "{\"ID\":2,\"NAME\":\"Mark \\\"The Mark\\\", Anton\",\"BALANCE\":null,\"ACTIVE\":false}\n" +
+                "{\"ID\":3,\"NAME\":null,\"BALANCE\":0.00,\"ACTIVE\":null}\n");
+        assertThat(actual.getAttributes()).containsEntry("rowCount", 3L);
+        assertThat(actual.getAttributes()).containsEntry("format", "JSON_LINES");
+    }
+
+    @Test
+    void shouldExportOnlyHeaderWhenResultIsEmpty() throws IOException {
+        // Given
+        Path file = directory.resolve("empty.csv");
+        component.setQuery("SELECT id, name FROM Customer WHERE id = 4");
+        component.setFilePath(filePath(file));
+        component.setCsvDelimiter(";");
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        assertThat(contentOf(file)).isEqualTo("ID;NAME\n");
+        assertThat(actual.getAttributes()).containsEntry("rowCount", 0L);
+    }
+
+    @Test
+    void shouldNotLeaveFileWhenQueryFails() {
+        // Given
+        Path file = directory.resolve("missing.csv");
+        component.setQuery("SELECT * FROM NotExistingTable");
+        component.setFilePath(filePath(file));
+        component.initialize();
+
+        // When
+        ExportException thrown = assertThrows(ExportException.class,
+                () -> component.apply(mockFlowContext, testMessage));
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("Could not execute export query=[SELECT * FROM NotExistingTable]");
+        assertThat(file).doesNotExist();
+    }
+
+    private DynamicString filePath(Path file) {
+        DynamicString filePath = DynamicString.from(file.toString());
+        lenient()
+                .doReturn(Optional.of(file.toString()))
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicString.class), any(FlowContext.class), any(Message.class));
+        return filePath;
+    }
+
+    private static String contentOf(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
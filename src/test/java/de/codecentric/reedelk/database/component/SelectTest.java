@@ -171,6 +171,42 @@ class SelectTest {
         assertFound(result, of("ID", 1, "NAME", "John Doe"));
     }
 
+    @Test
+    void shouldReturnAllRowsFromTableWhenStreamingCursor() {
+        // Given
+        component.setQuery("SELECT * FROM Customer");
+        component.setStreaming(true);
+        component.setFetchSize(1);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        List<DatabaseRow> result = actual.payload();
+        assertThat(result).hasSize(2);
+        assertFound(result, of("ID", 1, "NAME", "John Doe"));
+        assertFound(result, of("ID", 2, "NAME", "Mark Anton"));
+    }
+
+    @Test
+    void shouldReturnAllRowsFromTableWhenPrimitiveNumerics() {
+        // Given
+        component.setQuery("SELECT * FROM Customer");
+        component.setPrimitiveNumerics(true);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        List<DatabaseRow> result = actual.payload();
+        assertThat(result).hasSize(2);
+        assertFound(result, of("ID", 1, "NAME", "John Doe"));
+        assertFound(result, of("ID", 2, "NAME", "Mark Anton"));
+        assertThat(result).extracting(row -> row.getLong("ID")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
     @Disabled
     void shouldIncludeStatementWhenExceptionThrown() {
         // Given
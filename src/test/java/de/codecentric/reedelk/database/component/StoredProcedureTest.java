@@ -0,0 +1,274 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.exception.StoredProcedureException;
+import de.codecentric.reedelk.database.internal.type.DatabaseRow;
+import de.codecentric.reedelk.runtime.api.commons.ModuleContext;
+import de.codecentric.reedelk.runtime.api.exception.PlatformException;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.zapodot.junit.db.annotations.EmbeddedDatabase;
+import org.zapodot.junit.db.annotations.EmbeddedDatabaseTest;
+import org.zapodot.junit.db.common.Engine;
+
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.codecentric.reedelk.runtime.api.commons.ImmutableMap.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+
+@EmbeddedDatabaseTest(
+        engine = Engine.H2,
+        initialSqls = "CREATE ALIAS ABS_VALUE FOR \"java.lang.Math.abs(int)\";"
+                + "CREATE TABLE Customer(id INTEGER PRIMARY KEY, name VARCHAR(512));"
+                + "INSERT INTO Customer(id, name) VALUES (1, 'John Doe');"
+                + "INSERT INTO Customer(id, name) VALUES (2, 'Mark Anton');"
+                + "INSERT INTO Customer(id, name) VALUES (3, 'Mary Brown');"
+                + "CREATE ALIAS ADD_CUSTOMER FOR \"de.codecentric.reedelk.database.component.StoredProcedureTest$Procedures.addCustomer\";"
+                + "CREATE ALIAS CUSTOMERS_BY_PREFIX FOR \"de.codecentric.reedelk.database.component.StoredProcedureTest$Procedures.customersByPrefix\";"
+)
+@ExtendWith(MockitoExtension.class)
+class StoredProcedureTest {
+
+    @Mock
+    private ScriptEngineService mockScriptEngine;
+    @Mock
+    private FlowContext mockFlowContext;
+
+    private ModuleContext moduleContext = new ModuleContext(1L);
+
+    private StoredProcedure component = new StoredProcedure();
+
+    private Message testMessage;
+
+    @BeforeEach
+    void setUp() {
+        testMessage = MessageBuilder.get(TestComponent.class).withText("Test").build();
+        Map<String, Object> evaluated = new HashMap<>();
+        evaluated.put("value", -5);
+        lenient()
+                .doReturn(evaluated)
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration();
+        connectionConfiguration.setConnectionURL("jdbc:h2:mem:" + StoredProcedureTest.class.getSimpleName());
+        connectionConfiguration.setDatabaseDriver(DatabaseDriver.H2);
+        component.setConnection(connectionConfiguration);
+        component.dataSourceService = new DataSourceService();
+        component.scriptEngine = mockScriptEngine;
+    }
+
+    @AfterEach
+    void tearDown(@EmbeddedDatabase final DataSource dataSource) {
+        component.dispose();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALIAS ABS_VALUE");
+            statement.execute("DROP ALIAS ADD_CUSTOMER");
+            statement.execute("DROP ALIAS CUSTOMERS_BY_PREFIX");
+            statement.execute("DROP TABLE Customer");
+        } catch (SQLException exception) {
+            // Nothing we can really do here.
+            exception.printStackTrace();
+        }
+    }
+
+    @Test
+    void shouldReturnOutputParameterValues() {
+        // Given
+        component.setProcedure("{:result = call ABS_VALUE(:value)}");
+        component.setParametersMapping(DynamicObjectMap.from(of("value", "#[message.payload()]"), moduleContext));
+        Map<String, String> outputParameters = new HashMap<>();
+        outputParameters.put("result", "INTEGER");
+        component.setOutputParameters(outputParameters);
+        component.initialize();
+
+        // When
+        Message result = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        Map<String, Serializable> outputValues = (Map<String, Serializable>) result.getAttributes().get("outputParameters");
+        assertThat(outputValues).containsEntry("result", 5);
+        assertThat(result.getAttributes().get("query")).isEqualTo("{:result = call ABS_VALUE(:value)}");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenOutputParameterTypeIsNotSupported() {
+        // Given
+        component.setProcedure("{:result = call ABS_VALUE(:value)}");
+        Map<String, String> outputParameters = new HashMap<>();
+        outputParameters.put("result", "NOT_A_TYPE");
+        component.setOutputParameters(outputParameters);
+
+        // When
+        PlatformException thrown = assertThrows(PlatformException.class, () -> component.initialize());
+
+        // Then
+        assertThat(thrown).hasMessageContaining("SQL type=[NOT_A_TYPE] of output parameter=[result] is not supported");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenOutputParametersAreUsedInBatchMode() {
+        // Given
+        component.setProcedure("{:result = call ABS_VALUE(:value)}");
+        Map<String, String> outputParameters = new HashMap<>();
+        outputParameters.put("result", "INTEGER");
+        component.setOutputParameters(outputParameters);
+        component.setBatch(true);
+
+        // When
+        PlatformException thrown = assertThrows(PlatformException.class, () -> component.initialize());
+
+        // Then
+        assertThat(thrown).hasMessageContaining("Output parameters are not supported in batch mode");
+    }
+
+    @Test
+    void shouldReturnInOutParameterValue() {
+        // Given
+        component.setProcedure("{call ABS_VALUE(:value)}");
+        component.setParametersMapping(DynamicObjectMap.from(of("value", "#[message.payload()]"), moduleContext));
+        Map<String, String> outputParameters = new HashMap<>();
+        outputParameters.put("value", "INTEGER");
+        component.setOutputParameters(outputParameters);
+        component.initialize();
+
+        // When
+        Message result = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        Map<String, Serializable> outputValues = (Map<String, Serializable>) result.getAttributes().get("outputParameters");
+        assertThat(outputValues).containsEntry("value", 5);
+    }
+
+    @Test
+    void shouldStreamResultSetRows() {
+        // Given
+        Map<String, Object> evaluated = new HashMap<>();
+        evaluated.put("prefix", "M");
+        doReturn(evaluated)
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        component.setProcedure("{call CUSTOMERS_BY_PREFIX(:prefix)}");
+        component.setParametersMapping(DynamicObjectMap.from(of("prefix", "#[message.payload()]"), moduleContext));
+        component.initialize();
+
+        // When
+        Message result = component.apply(mockFlowContext, testMessage);
+
+        // Then
+        List<DatabaseRow> rows = result.payload();
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).get("NAME")).isEqualTo("Mark Anton");
+        assertThat(rows.get(1).get("NAME")).isEqualTo("Mary Brown");
+        assertThat(result.getAttributes()).containsEntry("updateCount", -1);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenOutputParameterIsCursor() {
+        // Given
+        component.setProcedure("{call OPEN_ORDERS(:orders)}");
+        Map<String, String> outputParameters = new HashMap<>();
+        outputParameters.put("orders", "REF_CURSOR");
+        component.setOutputParameters(outputParameters);
+
+        // When
+        PlatformException thrown = assertThrows(PlatformException.class, () -> component.initialize());
+
+        // Then
+        assertThat(thrown).hasMessageContaining("SQL type=[REF_CURSOR] of output parameter=[orders] is not supported");
+    }
+
+    @Test
+    void shouldCallProcedureInBatchesWhenBatchMode(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        lenient()
+                .doAnswer(invocation -> {
+                    Message record = invocation.getArgument(2);
+                    return record.payload();
+                })
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        List<Map<String, Object>> records = Arrays.asList(
+                of("id", 5, "name", "Anne Smith"),
+                of("id", 6, "name", "Paul Brown"),
+                of("id", 7, "name", "Olivia Green"));
+        Message batchMessage = MessageBuilder.get(TestComponent.class).withJavaObject(records).build();
+
+        component.setProcedure("{call ADD_CUSTOMER(:id, :name)}");
+        component.setParametersMapping(DynamicObjectMap.from(
+                of("id", "#[message.payload().id]", "name", "#[message.payload().name]"), moduleContext));
+        component.setBatch(true);
+        component.setBatchSize(2);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, batchMessage);
+
+        // Then
+        assertThat(actual.getAttributes()).containsEntry("query", "{call ADD_CUSTOMER(:id, :name)}");
+        try (Connection connection = dataSource.getConnection();
+             ResultSet resultSet = connection.createStatement()
+                     .executeQuery("SELECT COUNT(*) FROM Customer WHERE id IN (5, 6, 7)")) {
+            assertThat(resultSet.next()).isTrue();
+            assertThat(resultSet.getInt(1)).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void shouldIncludeCallWhenExceptionThrown() {
+        // Given
+        component.setProcedure("{call NOT_EXISTING(:value)}");
+        component.setParametersMapping(DynamicObjectMap.from(of("value", "#[message.payload()]"), moduleContext));
+        component.initialize();
+
+        // When
+        StoredProcedureException thrown = assertThrows(StoredProcedureException.class,
+                () -> component.apply(mockFlowContext, testMessage));
+
+        // Then
+        assertThat(thrown).hasMessageStartingWith("Could not execute stored procedure call=[{call NOT_EXISTING(?)}]");
+    }
+
+    // Java procedures bound to the H2 aliases: H2 passes the calling connection as first argument.
+    public static class Procedures {
+
+        public static void addCustomer(Connection connection, int id, String name) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO Customer VALUES (?, ?)")) {
+                statement.setInt(1, id);
+                statement.setString(2, name);
+                statement.executeUpdate();
+            }
+        }
+
+        public static ResultSet customersByPrefix(Connection connection, String prefix) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement("SELECT id, name FROM Customer WHERE name LIKE ? ORDER BY id");
+            statement.setString(1, prefix + "%");
+            return statement.executeQuery();
+        }
+    }
+}
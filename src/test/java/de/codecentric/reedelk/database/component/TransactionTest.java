@@ -0,0 +1,192 @@
+package de.codecentric.reedelk.database.component;
+
+import de.codecentric.reedelk.database.internal.commons.DataSourceService;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.exception.TransactionException;
+import de.codecentric.reedelk.runtime.api.flow.Disposable;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import de.codecentric.reedelk.runtime.api.message.Message;
+import de.codecentric.reedelk.runtime.api.message.MessageBuilder;
+import de.codecentric.reedelk.runtime.api.script.ScriptEngineService;
+import de.codecentric.reedelk.runtime.api.script.dynamicmap.DynamicObjectMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.zapodot.junit.db.annotations.EmbeddedDatabase;
+import org.zapodot.junit.db.annotations.EmbeddedDatabaseTest;
+import org.zapodot.junit.db.common.Engine;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+@EmbeddedDatabaseTest(
+        engine = Engine.H2,
+        initialSqls = "CREATE TABLE Customer(id INTEGER PRIMARY KEY, name VARCHAR(512));"
+)
+@ExtendWith(MockitoExtension.class)
+class TransactionTest {
+
+    @Mock
+    private ScriptEngineService mockScriptEngine;
+    @Mock
+    private FlowContext mockFlowContext;
+
+    private DataSourceService dataSourceService = new DataSourceService();
+    private List<Disposable> flowDisposables = new ArrayList<>();
+
+    private TransactionBegin begin = new TransactionBegin();
+    private TransactionCommit commit = new TransactionCommit();
+    private TransactionRollback rollback = new TransactionRollback();
+    private Insert first = new Insert();
+    private Insert second = new Insert();
+
+    private Message testMessage;
+
+    @BeforeEach
+    void setUp() {
+        testMessage = MessageBuilder.get(TestComponent.class).withText("Test").build();
+        lenient()
+                .doReturn(new HashMap<>())
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+        lenient()
+                .doAnswer(invocation -> flowDisposables.add(invocation.getArgument(0)))
+                .when(mockFlowContext)
+                .register(any(Disposable.class));
+
+        ConnectionConfiguration connectionConfiguration = new ConnectionConfiguration();
+        connectionConfiguration.setConnectionURL("jdbc:h2:mem:" + TransactionTest.class.getSimpleName());
+        connectionConfiguration.setDatabaseDriver(DatabaseDriver.H2);
+
+        begin.setConnection(connectionConfiguration);
+        begin.dataSourceService = dataSourceService;
+        commit.setConnection(connectionConfiguration);
+        commit.dataSourceService = dataSourceService;
+        rollback.setConnection(connectionConfiguration);
+        rollback.dataSourceService = dataSourceService;
+
+        first.setConnection(connectionConfiguration);
+        first.setQuery("INSERT INTO Customer VALUES (1,'John Doe')");
+        first.dataSourceService = dataSourceService;
+        first.scriptEngine = mockScriptEngine;
+        second.setConnection(connectionConfiguration);
+        second.setQuery("INSERT INTO Customer VALUES (2,'Mark Anton')");
+        second.dataSourceService = dataSourceService;
+        second.scriptEngine = mockScriptEngine;
+
+        begin.initialize();
+        commit.initialize();
+        rollback.initialize();
+        first.initialize();
+        second.initialize();
+    }
+
+    @AfterEach
+    void tearDown(@EmbeddedDatabase final DataSource dataSource) {
+        disposeFlow();
+        begin.dispose();
+        commit.dispose();
+        rollback.dispose();
+        first.dispose();
+        second.dispose();
+        try {
+            dataSource.getConnection().createStatement().execute("DROP TABLE Customer");
+        } catch (SQLException exception) {
+            // Nothing we can really do here.
+            exception.printStackTrace();
+        }
+    }
+
+    @Test
+    void shouldCommitStatementsExecutedWithinTransaction(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        begin.apply(mockFlowContext, testMessage);
+        first.apply(mockFlowContext, testMessage);
+        second.apply(mockFlowContext, testMessage);
+
+        assertThat(countCustomers(dataSource)).isZero();
+
+        // When
+        Message result = commit.apply(mockFlowContext, testMessage);
+
+        // Then
+        assertThat(result).isSameAs(testMessage);
+        assertThat(countCustomers(dataSource)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRollbackStatementsExecutedWithinTransaction(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        begin.apply(mockFlowContext, testMessage);
+        first.apply(mockFlowContext, testMessage);
+        second.apply(mockFlowContext, testMessage);
+
+        // When
+        rollback.apply(mockFlowContext, testMessage);
+
+        // Then
+        assertThat(countCustomers(dataSource)).isZero();
+    }
+
+    @Test
+    void shouldRollbackActiveTransactionWhenFlowExecutionIsDisposed(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        begin.apply(mockFlowContext, testMessage);
+        first.apply(mockFlowContext, testMessage);
+
+        // When
+        disposeFlow();
+
+        // Then
+        assertThat(countCustomers(dataSource)).isZero();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenTransactionIsAlreadyActive() {
+        // Given
+        begin.apply(mockFlowContext, testMessage);
+
+        // When
+        TransactionException thrown = assertThrows(TransactionException.class,
+                () -> begin.apply(mockFlowContext, testMessage));
+
+        // Then
+        assertThat(thrown).hasMessageContaining("is already active in this flow execution");
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCommittingWithoutActiveTransaction() {
+        // When
+        TransactionException thrown = assertThrows(TransactionException.class,
+                () -> commit.apply(mockFlowContext, testMessage));
+
+        // Then
+        assertThat(thrown).hasMessageContaining("no transaction on configuration");
+    }
+
+    private void disposeFlow() {
+        flowDisposables.forEach(Disposable::dispose);
+        flowDisposables.clear();
+    }
+
+    private static int countCustomers(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet resultSet = connection.createStatement().executeQuery("SELECT COUNT(*) FROM Customer")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -24,7 +24,10 @@ import org.zapodot.junit.db.common.Engine;
 import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static de.codecentric.reedelk.runtime.api.commons.ImmutableMap.of;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -135,6 +138,88 @@ class UpdateTest {
         assertThat(actualName).isEqualTo("Michael S. Madden");
     }
 
+    @Test
+    void shouldUpdateRowsInBatchesWhenBatchMode(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        DynamicObjectMap map =
+                DynamicObjectMap.from(of("id", "#[message.payload().id]", "name", "#[message.payload().name]"), moduleContext);
+
+        lenient()
+                .doAnswer(invocation -> {
+                    Message record = invocation.getArgument(2);
+                    return record.payload();
+                })
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        List<Map<String, Object>> records = Arrays.asList(
+                of("id", 1, "name", "Anne Smith"),
+                of("id", 1, "name", "Paul Brown"),
+                of("id", 99, "name", "Olivia Green"));
+        Message batchMessage = MessageBuilder.get(TestComponent.class).withJavaObject(records).build();
+
+        component.setQuery("UPDATE Customer SET name = :name WHERE id = :id");
+        component.setParametersMapping(map);
+        component.setBatch(true);
+        component.setBatchSize(2);
+        component.initialize();
+
+        // When
+        Message actual = component.apply(mockFlowContext, batchMessage);
+
+        // Then
+        int updated = actual.payload();
+        assertThat(updated).isEqualTo(2);
+        assertThat(actual.getAttributes()).containsEntry("chunkRowCounts", Arrays.asList(2, 0));
+        assertThat((int[]) actual.getAttributes().get("rowCounts")).containsExactly(1, 1, 0);
+
+        ResultSet resultSet = dataSource
+                .getConnection()
+                .createStatement()
+                .executeQuery("SELECT name FROM Customer WHERE id = 1");
+        assertThat(resultSet.next()).isTrue();
+        assertThat(resultSet.getString(1)).isEqualTo("Paul Brown");
+    }
+
+    @Test
+    void shouldRollbackFailedBatchWhenBatchMode(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        DynamicObjectMap map =
+                DynamicObjectMap.from(of("id", "#[message.payload().id]", "name", "#[message.payload().name]"), moduleContext);
+
+        lenient()
+                .doAnswer(invocation -> {
+                    Message record = invocation.getArgument(2);
+                    return record.payload();
+                })
+                .when(mockScriptEngine)
+                .evaluate(any(DynamicObjectMap.class), any(FlowContext.class), any(Message.class));
+
+        char[] tooLong = new char[600];
+        Arrays.fill(tooLong, 'x');
+        List<Map<String, Object>> records = Arrays.asList(
+                of("id", 1, "name", "Anne Smith"),
+                of("id", 1, "name", new String(tooLong)));
+        Message batchMessage = MessageBuilder.get(TestComponent.class).withJavaObject(records).build();
+
+        component.setQuery("UPDATE Customer SET name = :name WHERE id = :id");
+        component.setParametersMapping(map);
+        component.setBatch(true);
+        component.setBatchSize(2);
+        component.initialize();
+
+        // When
+        assertThrows(PlatformException.class, () -> component.apply(mockFlowContext, batchMessage));
+
+        // Then
+        ResultSet resultSet = dataSource
+                .getConnection()
+                .createStatement()
+                .executeQuery("SELECT name FROM Customer WHERE id = 1");
+        assertThat(resultSet.next()).isTrue();
+        assertThat(resultSet.getString(1)).isEqualTo("John Doe");
+    }
+
     @Disabled
     void shouldIncludeStatementWhenExceptionThrown() {
         // Given
@@ -0,0 +1,39 @@
+package de.codecentric.reedelk.database.internal.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchResultTest {
+
+    @Test
+    void shouldSumRowCountsOfAllChunks() {
+        // Given
+        BatchResult result = new BatchResult();
+
+        // When
+        result.add(new int[] {1, 2});
+        result.add(new int[] {3});
+
+        // Then
+        assertThat(result.total()).isEqualTo(6);
+        assertThat(result.chunkRowCounts()).containsExactly(3, 3);
+        assertThat(result.rowCounts()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void shouldNotCountUnknownAndFailedRowCounts() {
+        // Given
+        BatchResult result = new BatchResult();
+
+        // When
+        result.add(new int[] {1, Statement.SUCCESS_NO_INFO, Statement.EXECUTE_FAILED, 2});
+
+        // Then
+        assertThat(result.total()).isEqualTo(3);
+        assertThat(result.chunkRowCounts()).containsExactly(3);
+        assertThat(result.rowCounts()).containsExactly(1, Statement.SUCCESS_NO_INFO, Statement.EXECUTE_FAILED, 2);
+    }
+}
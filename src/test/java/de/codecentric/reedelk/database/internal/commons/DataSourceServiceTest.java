@@ -1,7 +1,10 @@
 package de.codecentric.reedelk.database.internal.commons;
 
-import com.mchange.v2.c3p0.ComboPooledDataSource;
 import de.codecentric.reedelk.database.component.ConnectionConfiguration;
+import de.codecentric.reedelk.database.internal.exception.ConnectionPoolException;
+import de.codecentric.reedelk.database.internal.metrics.ConnectionPoolSnapshot;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPool;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPoolWarmUp;
 import de.codecentric.reedelk.runtime.api.component.Component;
 import de.codecentric.reedelk.runtime.api.component.ProcessorSync;
 import de.codecentric.reedelk.runtime.api.flow.FlowContext;
@@ -12,11 +15,20 @@ import org.mockito.Mockito;
 import org.zapodot.junit.db.annotations.EmbeddedDatabaseTest;
 import org.zapodot.junit.db.common.Engine;
 
-import java.util.Collections;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @EmbeddedDatabaseTest(
@@ -43,13 +55,17 @@ class DataSourceServiceTest {
         Component component = new TestComponent();
 
         // When
-        ComboPooledDataSource dataSource =
+        ConnectionPool dataSource =
                 service.getDataSource(component, configuration);
 
         // Then
         assertThat(dataSource).isNotNull();
-        assertThat(service.CONFIG_ID_CONNECTION_POOL_MAP).containsEntry(connectionId, dataSource);
-        assertThat(service.CONFIG_ID_COMPONENT_MAP).containsEntry(connectionId, Collections.singletonList(component));
+        assertThat(service.CONFIG_ID_DATA_SOURCE_MAP).containsKey(connectionId);
+
+        DataSourceEntry entry = service.CONFIG_ID_DATA_SOURCE_MAP.get(connectionId);
+        assertThat(entry.pool).isEqualTo(dataSource);
+        assertThat(entry.references()).isEqualTo(1);
+        assertThat(entry.isHeldBy(component)).isTrue();
     }
 
     @Test
@@ -65,21 +81,22 @@ class DataSourceServiceTest {
         Component component2 = new TestComponent();
 
         // When
-        ComboPooledDataSource dataSource =
+        ConnectionPool dataSource =
                 service.getDataSource(component2, configuration);
 
         // Then
         assertThat(dataSource).isNotNull();
-        assertThat(service.CONFIG_ID_CONNECTION_POOL_MAP).containsEntry(connectionId, dataSource);
-        assertThat(service.CONFIG_ID_COMPONENT_MAP).containsKey(connectionId);
+        assertThat(service.CONFIG_ID_DATA_SOURCE_MAP).containsKey(connectionId);
 
-        List<Component> componentsUsingConnectionConfig =
-                service.CONFIG_ID_COMPONENT_MAP.get(connectionId);
-        assertThat(componentsUsingConnectionConfig).containsExactlyInAnyOrder(component1, component2);
+        DataSourceEntry entry = service.CONFIG_ID_DATA_SOURCE_MAP.get(connectionId);
+        assertThat(entry.pool).isEqualTo(dataSource);
+        assertThat(entry.references()).isEqualTo(2);
+        assertThat(entry.isHeldBy(component1)).isTrue();
+        assertThat(entry.isHeldBy(component2)).isTrue();
     }
 
     @Test
-    void shouldRemoveComponentFromListOfConfigIdComponentMap() {
+    void shouldReleaseComponentReferenceOnDispose() {
         // Given
         String connectionId = UUID.randomUUID().toString();
         ConnectionConfiguration configuration = newConfig(connectionId);
@@ -94,9 +111,10 @@ class DataSourceServiceTest {
         service.dispose(component1, configuration);
 
         // Then
-        List<Component> componentsUsingConnectionConfig =
-                service.CONFIG_ID_COMPONENT_MAP.get(connectionId);
-        assertThat(componentsUsingConnectionConfig).containsOnly(component2);
+        DataSourceEntry entry = service.CONFIG_ID_DATA_SOURCE_MAP.get(connectionId);
+        assertThat(entry.references()).isEqualTo(1);
+        assertThat(entry.isHeldBy(component1)).isFalse();
+        assertThat(entry.isHeldBy(component2)).isTrue();
     }
 
     @Test
@@ -106,10 +124,10 @@ class DataSourceServiceTest {
         ConnectionConfiguration configuration = newConfig(connectionId);
 
         Component component1 = new TestComponent();
-        ComboPooledDataSource dataSource1 = service.getDataSource(component1, configuration);
+        ConnectionPool dataSource1 = service.getDataSource(component1, configuration);
 
         Component component2 = new TestComponent();
-        ComboPooledDataSource dataSource2 = service.getDataSource(component2, configuration);
+        ConnectionPool dataSource2 = service.getDataSource(component2, configuration);
 
         // When
         service.dispose(component1, configuration);
@@ -118,8 +136,7 @@ class DataSourceServiceTest {
         // Then
         assertThat(dataSource1).isEqualTo(dataSource2);
 
-        assertThat(service.CONFIG_ID_COMPONENT_MAP).doesNotContainKeys(connectionId);
-        assertThat(service.CONFIG_ID_CONNECTION_POOL_MAP).doesNotContainKeys(connectionId);
+        assertThat(service.CONFIG_ID_DATA_SOURCE_MAP).doesNotContainKeys(connectionId);
 
         verify(service).silentlyClose(dataSource1);
     }
@@ -131,7 +148,7 @@ class DataSourceServiceTest {
         ConnectionConfiguration configuration = newConfig(connectionId);
 
         Component component1 = new TestComponent();
-        ComboPooledDataSource dataSource = service.getDataSource(component1, configuration);
+        ConnectionPool dataSource = service.getDataSource(component1, configuration);
 
         Component component2 = new TestComponent();
         service.getDataSource(component2, configuration);
@@ -140,11 +157,12 @@ class DataSourceServiceTest {
         service.dispose(component1, configuration);
 
         // Then
-        assertThat(service.CONFIG_ID_COMPONENT_MAP).containsKey(connectionId);
-        assertThat(service.CONFIG_ID_CONNECTION_POOL_MAP).containsKey(connectionId);
+        assertThat(service.CONFIG_ID_DATA_SOURCE_MAP).containsKey(connectionId);
 
-        assertThat(service.CONFIG_ID_COMPONENT_MAP).containsEntry(connectionId, Collections.singletonList(component2));
-        assertThat(service.CONFIG_ID_CONNECTION_POOL_MAP).containsEntry(connectionId, dataSource);
+        DataSourceEntry entry = service.CONFIG_ID_DATA_SOURCE_MAP.get(connectionId);
+        assertThat(entry.pool).isEqualTo(dataSource);
+        assertThat(entry.references()).isEqualTo(1);
+        assertThat(entry.isHeldBy(component2)).isTrue();
 
         verify(service, never()).silentlyClose(dataSource);
     }
@@ -159,22 +177,202 @@ class DataSourceServiceTest {
         ConnectionConfiguration configuration2 = newConfig(connectionId2);
 
         Component component1 = new TestComponent();
-        ComboPooledDataSource dataSource1 = service.getDataSource(component1, configuration1);
+        ConnectionPool dataSource1 = service.getDataSource(component1, configuration1);
 
         Component component2 = new TestComponent();
-        ComboPooledDataSource dataSource2 = service.getDataSource(component2, configuration2);
+        ConnectionPool dataSource2 = service.getDataSource(component2, configuration2);
 
         // When
         service.dispose();
 
         // Then
-        assertThat(service.CONFIG_ID_COMPONENT_MAP).isEmpty();
-        assertThat(service.CONFIG_ID_CONNECTION_POOL_MAP).isEmpty();
+        assertThat(service.CONFIG_ID_DATA_SOURCE_MAP).isEmpty();
 
         verify(service).silentlyClose(dataSource1);
         verify(service).silentlyClose(dataSource2);
     }
 
+    @Test
+    void shouldReleaseOnlyOneReferenceWhenComponentDisposedTwice() {
+        // Given
+        String connectionId = UUID.randomUUID().toString();
+        ConnectionConfiguration configuration = newConfig(connectionId);
+
+        Component component1 = new TestComponent();
+        ConnectionPool dataSource = service.getDataSource(component1, configuration);
+
+        Component component2 = new TestComponent();
+        service.getDataSource(component2, configuration);
+
+        // When
+        service.dispose(component1, configuration);
+        service.dispose(component1, configuration);
+
+        // Then
+        assertThat(service.CONFIG_ID_DATA_SOURCE_MAP.get(connectionId).references()).isEqualTo(1);
+        verify(service, never()).silentlyClose(dataSource);
+    }
+
+    @Test
+    void shouldCreateNewDataSourceWhenRequestedAfterClose() {
+        // Given
+        String connectionId = UUID.randomUUID().toString();
+        ConnectionConfiguration configuration = newConfig(connectionId);
+
+        Component component = new TestComponent();
+        ConnectionPool closed = service.getDataSource(component, configuration);
+        service.dispose(component, configuration);
+
+        // When
+        ConnectionPool dataSource = service.getDataSource(component, configuration);
+
+        // Then
+        assertThat(dataSource).isNotSameAs(closed);
+        assertThat(service.CONFIG_ID_DATA_SOURCE_MAP.get(connectionId).references()).isEqualTo(1);
+        service.dispose(component, configuration);
+    }
+
+    @Test
+    void shouldRecordConnectionCheckoutsInPoolMetrics() throws SQLException {
+        // Given
+        String connectionId = UUID.randomUUID().toString();
+        ConnectionConfiguration configuration = new ConnectionConfiguration();
+        configuration.setConnectionURL("jdbc:h2:mem:" + connectionId);
+        configuration.setDatabaseDriver(DatabaseDriver.H2);
+        configuration.setId(connectionId);
+
+        Component component = new TestComponent();
+        DataSource dataSource = service.getInstrumentedDataSource(component, configuration);
+
+        // When
+        try (Connection ignored = dataSource.getConnection()) {
+            // Then
+            ConnectionPoolSnapshot snapshot = service.metrics(connectionId).orElseThrow(IllegalStateException::new);
+            assertThat(snapshot.getConfigurationId()).isEqualTo(connectionId);
+            assertThat(snapshot.getCheckouts()).isEqualTo(1);
+            assertThat(snapshot.getCheckoutFailures()).isZero();
+            assertThat(snapshot.getCheckoutWaitTime().getCount()).isEqualTo(1);
+        } finally {
+            service.dispose(component, configuration);
+        }
+
+        assertThat(service.metrics()).doesNotContainKey(connectionId);
+    }
+
+    @Test
+    void shouldCreateDataSourceWaitingIndefinitelyWhenCheckoutTimeoutIsZero() throws SQLException {
+        // Given
+        String connectionId = UUID.randomUUID().toString();
+        ConnectionConfiguration configuration = newConfig(connectionId);
+        configuration.setCheckoutTimeout(0);
+
+        Component component = new TestComponent();
+
+        // When
+        ConnectionPool dataSource = service.getDataSource(component, configuration);
+
+        // Then
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+        service.dispose(component, configuration);
+    }
+
+    @Test
+    void shouldKeepMBeanOfNewDataSourceWhenPreviousOneIsClosedAfterIt() throws Exception {
+        // Given: the same configuration created again before the previous data source is closed.
+        String connectionId = UUID.randomUUID().toString();
+        ConnectionConfiguration configuration = newConfig(connectionId);
+        ObjectName name = new ObjectName("de.codecentric.reedelk.database:type=ConnectionPool,id=" + ObjectName.quote(connectionId));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        DataSourceService previous = new DataSourceService();
+        Component previousComponent = new TestComponent();
+        previous.getDataSource(previousComponent, configuration);
+
+        Component component = new TestComponent();
+        service.getDataSource(component, configuration);
+
+        // When
+        previous.dispose(previousComponent, configuration);
+
+        // Then
+        assertThat(server.isRegistered(name)).isTrue();
+        service.dispose(component, configuration);
+        assertThat(server.isRegistered(name)).isFalse();
+    }
+
+    @Test
+    void shouldWarmUpPoolWhenRequested() {
+        // Given
+        String connectionId = UUID.randomUUID().toString();
+        ConnectionConfiguration configuration = newConfig(connectionId);
+        configuration.setWarmUp(true);
+        configuration.setMinPoolSize(2);
+
+        Component component = new TestComponent();
+
+        // When
+        service.getDataSource(component, configuration);
+
+        // Then
+        ConnectionPoolSnapshot snapshot = service.metrics(connectionId).orElseThrow(IllegalStateException::new);
+        assertThat(snapshot.getTotalConnections()).isGreaterThanOrEqualTo(2);
+        assertThat(snapshot.getBusyConnections()).isZero();
+        assertThat(snapshot.getWarmUpMillis()).isPositive();
+        service.dispose(component, configuration);
+    }
+
+    @Test
+    void shouldFailFastWhenPoolCannotBeWarmedUp() {
+        // Given
+        String connectionId = UUID.randomUUID().toString();
+        ConnectionConfiguration configuration = newConfig(connectionId);
+        configuration.setConnectionURL("jdbc:h2:tcp://localhost:1/not-reachable");
+        configuration.setWarmUp(true);
+        configuration.setWarmUpTimeout(1000);
+
+        Component component = new TestComponent();
+
+        // Expect
+        assertThatThrownBy(() -> service.getDataSource(component, configuration))
+                .isInstanceOf(ConnectionPoolException.class)
+                .hasMessageContaining("jdbc:h2:tcp://localhost:1/not-reachable");
+        assertThat(service.CONFIG_ID_DATA_SOURCE_MAP).doesNotContainKey(connectionId);
+    }
+
+    @Test
+    void shouldPrepareStatementsOnIdleConnectionsOneAtATime() {
+        // Given
+        String connectionId = UUID.randomUUID().toString();
+        ConnectionConfiguration configuration = newConfig(connectionId);
+        configuration.setWarmUp(true);
+        configuration.setWarmUpStatements(true);
+        configuration.setMinPoolSize(2);
+
+        Component component = new TestComponent();
+        ConnectionPool pool = service.getDataSource(component, configuration);
+
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        List<Integer> busyConnections = new CopyOnWriteArrayList<>();
+        ConnectionPoolWarmUp.StatementFactory factory = (connection, statement) -> {
+            threads.add(Thread.currentThread());
+            busyConnections.add(pool.getBusyConnections());
+            return connection.prepareStatement(statement, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        };
+
+        // When
+        service.prepareStatement(configuration, "SELECT * FROM Customer", factory);
+        service.prepareStatement(configuration, "SELECT name FROM Customer", factory);
+
+        // Then
+        assertThat(threads).hasSize(4);
+        assertThat(new HashSet<>(threads)).containsExactly(Thread.currentThread());
+        assertThat(new HashSet<>(busyConnections)).containsExactly(1);
+
+        service.dispose(component, configuration);
+    }
+
     private ConnectionConfiguration newConfig(String connectionId) {
         ConnectionConfiguration configuration = new ConnectionConfiguration();
         configuration.setPassword("mypass");
@@ -0,0 +1,93 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import de.codecentric.reedelk.database.internal.metrics.QueryMetrics;
+import de.codecentric.reedelk.database.internal.slowquery.SlowQueryLog;
+import de.codecentric.reedelk.database.internal.type.DatabaseRow;
+import de.codecentric.reedelk.database.internal.type.DatabaseRowSchema;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DatabaseRowStreamTest {
+
+    private Connection connection = mock(Connection.class);
+    private Statement statement = mock(Statement.class);
+    private ResultSet resultSet = mock(ResultSet.class);
+    private DatabaseRowConverter converter = mock(DatabaseRowConverter.class);
+
+    @Test
+    void shouldPullRowsFromResultSetOnlyWhenRequested() throws SQLException {
+        // Given
+        DatabaseRowSchema schema = new DatabaseRowSchema(new String[] {"ID"}, new int[] {Types.INTEGER});
+        doReturn(true, true, true, false).when(resultSet).next();
+        doReturn(new DatabaseRow(schema, new Serializable[] {1})).when(converter).convert(any(ResultSet.class));
+
+        DisposableResultSet disposableResultSet = new DisposableResultSet(connection, statement, resultSet);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        DatabaseRowStream.from(converter, disposableResultSet, mock(QueryMetrics.class), mock(SlowQueryLog.class),
+                new QueryStatementTemplate("SELECT * FROM Customer"), Collections.emptyMap(), 0L, false)
+                .subscribe(subscriber);
+
+        // Expect: nothing is read until rows are requested.
+        verify(resultSet, never()).next();
+
+        // When
+        subscriber.subscription.request(2);
+
+        // Then
+        assertThat(subscriber.rows).hasSize(2);
+        assertThat(subscriber.completed).isFalse();
+        verify(resultSet, times(2)).next();
+        verify(connection, never()).close();
+
+        // When
+        subscriber.subscription.request(10);
+
+        // Then
+        assertThat(subscriber.rows).hasSize(3);
+        assertThat(subscriber.completed).isTrue();
+        verify(resultSet, times(4)).next();
+        verify(connection).close();
+    }
+
+    private static class RecordingSubscriber implements Subscriber<DatabaseRow> {
+
+        private final List<DatabaseRow> rows = new ArrayList<>();
+        private Subscription subscription;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(DatabaseRow row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import de.codecentric.reedelk.database.internal.type.DatabaseLob;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class DisposableResultSetTest {
+
+    private Connection connection = mock(Connection.class);
+    private Statement statement = mock(Statement.class);
+    private ResultSet resultSet = mock(ResultSet.class);
+
+    @Test
+    void shouldReleaseOldestLobsBeyondMaxOpenLobs() {
+        // Given
+        DisposableResultSet disposableResultSet = new DisposableResultSet(connection, statement, resultSet);
+        List<DatabaseLob> lobs = new ArrayList<>();
+        for (int i = 0; i < DisposableResultSet.DEFAULT_MAX_OPEN_LOBS + 2; i++) {
+            lobs.add(mock(DatabaseLob.class));
+        }
+
+        // When
+        lobs.forEach(disposableResultSet::track);
+
+        // Then
+        verify(lobs.get(0)).release();
+        verify(lobs.get(1)).release();
+        verify(lobs.get(2), never()).release();
+        verify(lobs.get(lobs.size() - 1), never()).release();
+    }
+
+    @Test
+    void shouldReleaseOldestLobsBeyondGivenMaxOpenLobs() {
+        // Given
+        DisposableResultSet disposableResultSet = new DisposableResultSet(connection, statement, resultSet, false, 2);
+        DatabaseLob first = mock(DatabaseLob.class);
+        DatabaseLob second = mock(DatabaseLob.class);
+        DatabaseLob third = mock(DatabaseLob.class);
+
+        // When
+        disposableResultSet.track(first);
+        disposableResultSet.track(second);
+        disposableResultSet.track(third);
+
+        // Then
+        verify(first).release();
+        verify(second, never()).release();
+        verify(third, never()).release();
+    }
+
+    @Test
+    void shouldReleaseTrackedLobsWhenDisposed() {
+        // Given
+        DisposableResultSet disposableResultSet = new DisposableResultSet(connection, statement, resultSet);
+        DatabaseLob lob = mock(DatabaseLob.class);
+        disposableResultSet.track(lob);
+
+        // When
+        disposableResultSet.dispose();
+
+        // Then
+        verify(lob).release();
+    }
+
+    @Test
+    void shouldReleaseResourcesOnlyOnceWhenDisposedTwice() throws SQLException {
+        // Given
+        DisposableResultSet disposableResultSet = new DisposableResultSet(connection, statement, resultSet, true);
+        doReturn(false).when(connection).getAutoCommit();
+
+        // When
+        disposableResultSet.dispose();
+        disposableResultSet.dispose();
+
+        // Then
+        verify(resultSet).close();
+        verify(statement).close();
+        verify(connection).rollback();
+        verify(connection).close();
+    }
+}
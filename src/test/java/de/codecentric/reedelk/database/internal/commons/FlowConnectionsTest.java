@@ -0,0 +1,161 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import de.codecentric.reedelk.database.component.ConnectionConfiguration;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPool;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPoolType;
+import de.codecentric.reedelk.database.internal.transaction.TransactionIsolation;
+import de.codecentric.reedelk.runtime.api.flow.Disposable;
+import de.codecentric.reedelk.runtime.api.flow.FlowContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class FlowConnectionsTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = poolOf("jdbc:h2:mem:" + FlowConnectionsTest.class.getSimpleName());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void shouldReuseConnectionWithinTheSameFlowExecution() throws SQLException {
+        // Given
+        FlowConnections connections = new FlowConnections(pool, true);
+        FlowContext flowContext = mock(FlowContext.class);
+
+        // When
+        Connection first = connections.getConnection(flowContext);
+        first.close();
+        Connection second = connections.getConnection(flowContext);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(second.isClosed()).isFalse();
+        assertThat(pool.getBusyConnections()).isEqualTo(1);
+        verify(flowContext, times(1)).register(any(Disposable.class));
+    }
+
+    @Test
+    void shouldUseDifferentConnectionsForDifferentFlowExecutions() throws SQLException {
+        // Given
+        FlowConnections connections = new FlowConnections(pool, true);
+
+        // When
+        Connection first = connections.getConnection(mock(FlowContext.class));
+        Connection second = connections.getConnection(mock(FlowContext.class));
+
+        // Then
+        assertThat(second).isNotSameAs(first);
+        assertThat(connections.size()).isEqualTo(2);
+        assertThat(pool.getBusyConnections()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldGiveConnectionBackToThePoolWhenFlowExecutionIsDisposed() throws SQLException {
+        // Given
+        FlowConnections connections = new FlowConnections(pool, true);
+        FlowContext flowContext = mock(FlowContext.class);
+        Connection connection = connections.getConnection(flowContext);
+        connection.setAutoCommit(false);
+
+        ArgumentCaptor<Disposable> captor = ArgumentCaptor.forClass(Disposable.class);
+        verify(flowContext).register(captor.capture());
+
+        // When
+        captor.getValue().dispose();
+
+        // Then
+        assertThat(connections.size()).isZero();
+        assertThat(pool.getBusyConnections()).isZero();
+        try (Connection next = connections.getConnection(flowContext)) {
+            assertThat(next).isNotSameAs(connection);
+            assertThat(next.getAutoCommit()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldCheckOutConnectionEachTimeWhenAffinityIsDisabled() throws SQLException {
+        // Given
+        FlowConnections connections = new FlowConnections(pool, false);
+        FlowContext flowContext = mock(FlowContext.class);
+
+        // When
+        Connection first = connections.getConnection(flowContext);
+        first.close();
+        Connection second = connections.getConnection(flowContext);
+
+        // Then
+        assertThat(first.isClosed()).isTrue();
+        assertThat(second.isClosed()).isFalse();
+        verify(flowContext, never()).register(any(Disposable.class));
+        second.close();
+    }
+
+    @Test
+    void shouldBindReadConnectionApartFromPrimaryConnection() throws SQLException {
+        // Given
+        String replicaURL = "jdbc:h2:mem:" + FlowConnectionsTest.class.getSimpleName() + "Replica";
+        ConnectionPool replica = poolOf(replicaURL);
+        try {
+            FlowConnections connections = new FlowConnections(pool, replica, true);
+            FlowContext flowContext = mock(FlowContext.class);
+
+            // When
+            Connection firstRead = connections.getReadConnection(flowContext);
+            Connection secondRead = connections.getReadConnection(flowContext);
+            Connection write = connections.getConnection(flowContext);
+
+            // Then
+            assertThat(secondRead).isSameAs(firstRead);
+            assertThat(write).isNotSameAs(firstRead);
+            assertThat(firstRead.getMetaData().getURL()).isEqualTo(replicaURL);
+            assertThat(replica.getBusyConnections()).isEqualTo(1);
+            assertThat(pool.getBusyConnections()).isEqualTo(1);
+        } finally {
+            replica.close();
+        }
+    }
+
+    @Test
+    void shouldUseTransactionConnectionForReadsWhenTransactionIsActive() throws SQLException {
+        // Given
+        ConnectionPool replica = poolOf("jdbc:h2:mem:" + FlowConnectionsTest.class.getSimpleName() + "Replica");
+        try {
+            FlowConnections connections = new FlowConnections(pool, replica, true);
+            FlowContext flowContext = mock(FlowContext.class);
+            connections.begin(flowContext, TransactionIsolation.DEFAULT);
+
+            // When
+            Connection read = connections.getReadConnection(flowContext);
+
+            // Then
+            assertThat(read).isSameAs(connections.getConnection(flowContext));
+            assertThat(replica.getBusyConnections()).isZero();
+        } finally {
+            replica.close();
+        }
+    }
+
+    private static ConnectionPool poolOf(String url) {
+        ConnectionConfiguration configuration = new ConnectionConfiguration();
+        configuration.setConnectionURL(url);
+        configuration.setDatabaseDriver(DatabaseDriver.H2);
+        configuration.setMinPoolSize(1);
+        configuration.setMaxPoolSize(3);
+        return ConnectionPoolType.CONCURRENT_BAG.provider().create(configuration);
+    }
+}
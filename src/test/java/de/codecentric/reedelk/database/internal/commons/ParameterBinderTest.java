@@ -0,0 +1,110 @@
+package de.codecentric.reedelk.database.internal.commons;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.zapodot.junit.db.annotations.EmbeddedDatabase;
+import org.zapodot.junit.db.annotations.EmbeddedDatabaseTest;
+import org.zapodot.junit.db.common.Engine;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@EmbeddedDatabaseTest(
+        engine = Engine.H2,
+        initialSqls = "CREATE TABLE Orders(id INTEGER PRIMARY KEY, amount DECIMAL(10,2), created TIMESTAMP);"
+)
+class ParameterBinderTest {
+
+    @AfterEach
+    void tearDown(@EmbeddedDatabase final DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement().execute("DROP TABLE Orders");
+        } catch (SQLException exception) {
+            // Nothing we can really do here.
+            exception.printStackTrace();
+        }
+    }
+
+    @Test
+    void shouldBindNullWithDeclaredParameterType(@EmbeddedDatabase final DataSource dataSource) throws SQLException {
+        // Given
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO Orders VALUES (?, ?, ?)")) {
+
+            // When
+            ParameterBinder.bind(statement, 1, 1);
+            ParameterBinder.bind(statement, 2, null);
+            ParameterBinder.bind(statement, 3, null);
+            statement.executeUpdate();
+
+            // Then
+            try (ResultSet resultSet = connection.createStatement().executeQuery("SELECT amount, created FROM Orders WHERE id = 1")) {
+                assertThat(resultSet.next()).isTrue();
+                assertThat(resultSet.getBigDecimal(1)).isNull();
+                assertThat(resultSet.getTimestamp(2)).isNull();
+            }
+        }
+    }
+
+    @Test
+    void shouldBindNullAsVarcharWhenParameterMetadataIsNotSupported() throws SQLException {
+        // Given
+        PreparedStatement statement = mock(PreparedStatement.class);
+        doThrow(new SQLFeatureNotSupportedException()).when(statement).getParameterMetaData();
+
+        // When
+        ParameterBinder.bind(statement, 1, null);
+
+        // Then
+        verify(statement).setNull(1, Types.VARCHAR);
+        verify(statement, never()).setNull(1, Types.NULL);
+    }
+
+    @Test
+    void shouldBindNullWithTypeReportedByParameterMetadata() throws SQLException {
+        // Given
+        ParameterMetaData metaData = mock(ParameterMetaData.class);
+        doReturn(Types.INTEGER).when(metaData).getParameterType(1);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        doReturn(metaData).when(statement).getParameterMetaData();
+
+        // When
+        ParameterBinder.bind(statement, 1, null);
+
+        // Then
+        verify(statement).setNull(1, Types.INTEGER);
+    }
+
+    @Test
+    void shouldReadParameterMetadataOnceForAllStatementsOfTheSameQuery() throws SQLException {
+        // Given
+        ParameterMetaData metaData = mock(ParameterMetaData.class);
+        doReturn(Types.INTEGER).when(metaData).getParameterType(1);
+        doReturn(Types.TIMESTAMP).when(metaData).getParameterType(2);
+        PreparedStatement first = mock(PreparedStatement.class);
+        doReturn(metaData).when(first).getParameterMetaData();
+        PreparedStatement second = mock(PreparedStatement.class);
+
+        QueryStatementTemplate template = new QueryStatementTemplate("INSERT INTO Orders (id, created) VALUES (:id, :created)");
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", null);
+        values.put("created", null);
+
+        // When
+        template.bind(first, values);
+        template.bind(first, values);
+        template.bind(second, values);
+
+        // Then
+        verify(first).getParameterMetaData();
+        verify(second, never()).getParameterMetaData();
+        verify(first, times(2)).setNull(2, Types.TIMESTAMP);
+        verify(second).setNull(1, Types.INTEGER);
+        verify(second).setNull(2, Types.TIMESTAMP);
+    }
+}
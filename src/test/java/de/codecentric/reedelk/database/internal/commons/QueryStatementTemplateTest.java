@@ -3,9 +3,16 @@ package de.codecentric.reedelk.database.internal.commons;
 import de.codecentric.reedelk.runtime.api.commons.ImmutableMap;
 import org.junit.jupiter.api.Test;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 class   QueryStatementTemplateTest {
 
@@ -61,4 +68,60 @@ class   QueryStatementTemplateTest {
         // Then
         assertThat(replaced).isEqualTo("INSERT INTO ORDERS VALUES ('aabbcc','my test name')");
     }
+
+    @Test
+    void shouldTranslateNamedParametersToPositionalPlaceholders() {
+        // Given
+        QueryStatementTemplate template = new QueryStatementTemplate("SELECT * FROM Orders WHERE name = :name AND surname = :surname AND alias = :name");
+
+        // When
+        String preparedQuery = template.preparedQuery();
+
+        // Then
+        assertThat(preparedQuery).isEqualTo("SELECT * FROM Orders WHERE name = ? AND surname = ? AND alias = ?");
+        assertThat(template.parameterNames()).containsExactly("name", "surname", "name");
+    }
+
+    @Test
+    void shouldNotTranslateNamedParametersInsideLiteralsCommentsAndCasts() {
+        // Given
+        QueryStatementTemplate template = new QueryStatementTemplate(
+                "SELECT id::text, ':name' FROM Orders /* :name */ WHERE time = '10:30' AND name = :name -- :name");
+
+        // When
+        String preparedQuery = template.preparedQuery();
+
+        // Then
+        assertThat(preparedQuery).isEqualTo("SELECT id::text, ':name' FROM Orders /* :name */ WHERE time = '10:30' AND name = ? -- :name");
+        assertThat(template.parameterNames()).containsExactly("name");
+    }
+
+    @Test
+    void shouldTranslateOnlyMappedParameterNames() {
+        // Given
+        QueryStatementTemplate template = new QueryStatementTemplate(
+                "SELECT * FROM Orders WHERE name = :name AND surname = :surname", Collections.singletonList("surname"));
+
+        // When
+        String preparedQuery = template.preparedQuery();
+
+        // Then
+        assertThat(preparedQuery).isEqualTo("SELECT * FROM Orders WHERE name = :name AND surname = ?");
+    }
+
+    @Test
+    void shouldBindEvaluatedValuesByPosition() throws SQLException {
+        // Given
+        QueryStatementTemplate template = new QueryStatementTemplate(
+                "INSERT INTO ORDERS VALUES (:id,:name,:description)", Arrays.asList("id", "name", "description"));
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        // When
+        template.bind(statement, ImmutableMap.of("id", 23, "name", "my test name"));
+
+        // Then
+        verify(statement).setInt(1, 23);
+        verify(statement).setString(2, "my test name");
+        verify(statement).setNull(3, Types.VARCHAR);
+    }
 }
@@ -0,0 +1,164 @@
+package de.codecentric.reedelk.database.internal.ddlexecute;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DDLScriptParserTest {
+
+    @Test
+    void shouldSplitStatementsOnDelimiter() {
+        // Given
+        String script = "CREATE TABLE orders (id INT);\n" +
+                "CREATE INDEX orders_id ON orders (id);\n";
+
+        // When
+        List<String> statements = DDLScriptParser.parse(script);
+
+        // Then
+        assertThat(statements).containsExactly(
+                "CREATE TABLE orders (id INT)",
+                "CREATE INDEX orders_id ON orders (id)");
+    }
+
+    @Test
+    void shouldReturnSingleStatementWithoutDelimiter() {
+        // When
+        List<String> statements = DDLScriptParser.parse("DROP TABLE orders");
+
+        // Then
+        assertThat(statements).containsExactly("DROP TABLE orders");
+    }
+
+    @Test
+    void shouldNotSplitOnDelimiterWithinQuotes() {
+        // Given
+        String script = "INSERT INTO notes VALUES ('first; second', 'O''Neil;');" +
+                "CREATE TABLE \"odd;name\" (id INT);" +
+                "CREATE TABLE `other;name` (id INT)";
+
+        // When
+        List<String> statements = DDLScriptParser.parse(script);
+
+        // Then
+        assertThat(statements).containsExactly(
+                "INSERT INTO notes VALUES ('first; second', 'O''Neil;')",
+                "CREATE TABLE \"odd;name\" (id INT)",
+                "CREATE TABLE `other;name` (id INT)");
+    }
+
+    @Test
+    void shouldRemoveCommentsAndSkipEmptyStatements() {
+        // Given
+        String script = "-- Orders table; created first\n" +
+                "CREATE TABLE orders (id INT); /* the index; for lookups */\n" +
+                "CREATE INDEX orders_id ON orders (id);;\n" +
+                "-- trailing comment";
+
+        // When
+        List<String> statements = DDLScriptParser.parse(script);
+
+        // Then
+        assertThat(statements).containsExactly(
+                "CREATE TABLE orders (id INT)",
+                "CREATE INDEX orders_id ON orders (id)");
+    }
+
+    @Test
+    void shouldNotSplitOnDelimiterWithinDollarQuotedBody() {
+        // Given
+        String function = "CREATE FUNCTION increment(i integer) RETURNS integer AS $body$\n" +
+                "BEGIN\n" +
+                "    RETURN i + 1; -- not a comment here\n" +
+                "END;\n" +
+                "$body$ LANGUAGE plpgsql";
+        String anonymous = "DO $$ BEGIN PERFORM 1; END $$";
+
+        // When
+        List<String> statements = DDLScriptParser.parse(function + ";\n" + anonymous + ";");
+
+        // Then
+        assertThat(statements).containsExactly(function, anonymous);
+    }
+
+    @Test
+    void shouldNotTreatPositionalParametersAsDollarQuotes() {
+        // Given
+        String script = "PREPARE find (int) AS SELECT * FROM orders WHERE id = $1; DROP TABLE a$b";
+
+        // When
+        List<String> statements = DDLScriptParser.parse(script);
+
+        // Then
+        assertThat(statements).containsExactly(
+                "PREPARE find (int) AS SELECT * FROM orders WHERE id = $1",
+                "DROP TABLE a$b");
+    }
+
+    @Test
+    void shouldNotSplitOnDelimiterAfterBackslashEscapedQuoteOnMySQL() {
+        // Given
+        String script = "INSERT INTO notes VALUES ('It\\'s; fine', \"say \\\"hi\\\";\");" +
+                "INSERT INTO notes VALUES ('C:\\\\')";
+
+        // When
+        List<String> statements = DDLScriptParser.parse(script, DatabaseDriver.MYSQL);
+
+        // Then
+        assertThat(statements).containsExactly(
+                "INSERT INTO notes VALUES ('It\\'s; fine', \"say \\\"hi\\\";\")",
+                "INSERT INTO notes VALUES ('C:\\\\')");
+    }
+
+    @Test
+    void shouldTreatBackslashAsLiteralCharacterOutsideOfMySQL() {
+        // Given
+        String script = "INSERT INTO paths VALUES ('C:\\'); INSERT INTO notes VALUES (E'It\\'s; fine')";
+
+        // When
+        List<String> statements = DDLScriptParser.parse(script, DatabaseDriver.POSTGRESQL);
+
+        // Then
+        assertThat(statements).containsExactly(
+                "INSERT INTO paths VALUES ('C:\\')",
+                "INSERT INTO notes VALUES (E'It\\'s; fine')");
+    }
+
+    @Test
+    void shouldNotSplitOnDelimiterWithinBeginEndBlock() {
+        // Given
+        String trigger = "CREATE TRIGGER orders_total BEFORE INSERT ON orders FOR EACH ROW\n" +
+                "BEGIN\n" +
+                "    IF NEW.total < 0 THEN SET NEW.total = 0; END IF;\n" +
+                "    SET NEW.label = CASE WHEN NEW.total > 100 THEN 'large' ELSE 'small' END;\n" +
+                "END";
+        String script = "BEGIN;\n" + trigger + ";\nCOMMIT;";
+
+        // When
+        List<String> statements = DDLScriptParser.parse(script, DatabaseDriver.MYSQL);
+
+        // Then
+        assertThat(statements).containsExactly("BEGIN", trigger, "COMMIT");
+    }
+
+    @Test
+    void shouldKeepDelimiterAfterPlsqlBlockOnOracle() {
+        // Given
+        String block = "DECLARE\n" +
+                "    total NUMBER;\n" +
+                "BEGIN\n" +
+                "    SELECT COUNT(*) INTO total FROM orders;\n" +
+                "    CASE WHEN total > 0 THEN NULL; ELSE total := 1; END CASE;\n" +
+                "END;";
+        String script = "CREATE TABLE orders (id NUMBER);\n" + block + "\nDROP TABLE orders;";
+
+        // When
+        List<String> statements = DDLScriptParser.parse(script, DatabaseDriver.ORACLE);
+
+        // Then
+        assertThat(statements).containsExactly("CREATE TABLE orders (id NUMBER)", block, "DROP TABLE orders");
+    }
+}
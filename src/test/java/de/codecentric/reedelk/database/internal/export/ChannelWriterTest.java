@@ -0,0 +1,48 @@
+package de.codecentric.reedelk.database.internal.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelWriterTest {
+
+    @Test
+    void shouldEncodeRowsLargerThanTheBuffer() throws IOException {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ChannelWriter writer = new ChannelWriter(Channels.newChannel(output), 8);
+        StringBuilder row = new StringBuilder();
+
+        // When
+        row.append("Z\u00fcrich,\u65e5\u672c\u8a9e,\ud83d\ude00\n");
+        writer.write(row);
+        row.setLength(0);
+        row.append("second row longer than the buffer\n");
+        writer.write(row);
+        writer.flush();
+
+        // Then
+        String expected = "Z\u00fcrich,\u65e5\u672c\u8a9e,\ud83d\ude00\nsecond row longer than the buffer\n";
+        assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(expected);
+        assertThat(writer.bytesWritten()).isEqualTo(expected.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void shouldWriteNothingWhenNoRows() throws IOException {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ChannelWriter writer = new ChannelWriter(Channels.newChannel(output), 8);
+
+        // When
+        writer.flush();
+
+        // Then
+        assertThat(output.size()).isZero();
+        assertThat(writer.bytesWritten()).isZero();
+    }
+}
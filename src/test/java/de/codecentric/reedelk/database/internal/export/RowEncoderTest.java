@@ -0,0 +1,61 @@
+package de.codecentric.reedelk.database.internal.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class RowEncoderTest {
+
+    private ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+    private ResultSet resultSet = mock(ResultSet.class);
+
+    @Test
+    void shouldWriteRealValuesWithSinglePrecision() throws SQLException {
+        // Given
+        column(1, "price", Types.REAL, true);
+        doReturn(1.1f).when(resultSet).getFloat(1);
+        StringBuilder csv = new StringBuilder();
+        StringBuilder json = new StringBuilder();
+
+        // When
+        new CsvRowEncoder(metaData, ',', false).row(resultSet, csv);
+        new JsonLinesRowEncoder(metaData).row(resultSet, json);
+
+        // Then
+        assertThat(csv.toString()).isEqualTo("1.1\n");
+        assertThat(json.toString()).isEqualTo("{\"price\":1.1}\n");
+        verify(resultSet, never()).getDouble(1);
+    }
+
+    @Test
+    void shouldWriteUnsignedBigintValuesBeyondLongRange() throws SQLException {
+        // Given
+        column(1, "id", Types.BIGINT, false);
+        doReturn(new BigDecimal("18446744073709551615")).when(resultSet).getBigDecimal(1);
+        StringBuilder csv = new StringBuilder();
+        StringBuilder json = new StringBuilder();
+
+        // When
+        new CsvRowEncoder(metaData, ',', false).row(resultSet, csv);
+        new JsonLinesRowEncoder(metaData).row(resultSet, json);
+
+        // Then
+        assertThat(csv.toString()).isEqualTo("18446744073709551615\n");
+        assertThat(json.toString()).isEqualTo("{\"id\":18446744073709551615}\n");
+        verify(resultSet, never()).getLong(1);
+    }
+
+    private void column(int index, String label, int type, boolean signed) throws SQLException {
+        doReturn(index).when(metaData).getColumnCount();
+        doReturn(label).when(metaData).getColumnLabel(index);
+        doReturn(type).when(metaData).getColumnType(index);
+        doReturn(signed).when(metaData).isSigned(index);
+    }
+}
@@ -0,0 +1,72 @@
+package de.codecentric.reedelk.database.internal.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldReturnBucketUpperBoundForPercentiles() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for (int i = 0; i < 99; i++) {
+            histogram.record(3_000); // 3 microseconds
+        }
+        histogram.record(5_000_000); // 5 milliseconds
+
+        // Then
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(100);
+        assertThat(snapshot.getP50Millis()).isEqualTo(0.004);
+        assertThat(snapshot.getP99Millis()).isEqualTo(0.004);
+        assertThat(snapshot.percentileMillis(1.0)).isEqualTo(5.0);
+        assertThat(snapshot.getMaxMillis()).isEqualTo(5.0);
+    }
+
+    @Test
+    void shouldReturnPercentilesWithinOneSixteenthOfTheRecordedValue() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_500_000); // 1.5 milliseconds
+        }
+        histogram.record(5_000_000); // 5 milliseconds
+
+        // Then: the power of two bucket upper bound would be 2.048 milliseconds.
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getP50Millis()).isEqualTo(1.536);
+        assertThat(snapshot.getP99Millis()).isEqualTo(1.536);
+        assertThat(snapshot.percentileMillis(1.0)).isEqualTo(5.0);
+    }
+
+    @Test
+    void shouldCountEachValueInTheBucketBoundingIt() {
+        for (long micros = 0; micros < 1_000_000; micros += 7) {
+            // When
+            int bucket = LatencyHistogram.bucketOf(micros * 1000);
+
+            // Then
+            long lowerBound = bucket == 0 ? 0 : LatencyHistogram.upperBoundMicrosOf(bucket - 1);
+            long upperBound = LatencyHistogram.upperBoundMicrosOf(bucket);
+            assertThat(micros).isGreaterThanOrEqualTo(lowerBound).isLessThan(upperBound);
+            assertThat((upperBound - lowerBound) * LatencyHistogram.SUB_BUCKETS).isLessThanOrEqualTo(Math.max(micros, LatencyHistogram.SUB_BUCKETS));
+        }
+    }
+
+    @Test
+    void shouldReturnZeroWhenEmpty() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // Then
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isZero();
+        assertThat(snapshot.getP99Millis()).isZero();
+        assertThat(snapshot.getMeanMillis()).isZero();
+    }
+}
@@ -0,0 +1,161 @@
+package de.codecentric.reedelk.database.internal.pool;
+
+import de.codecentric.reedelk.database.component.ConnectionConfiguration;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrentBagConnectionPoolTest {
+
+    private static final String CONNECTION_URL = "jdbc:h2:mem:" + ConcurrentBagConnectionPoolTest.class.getSimpleName();
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionConfiguration configuration = new ConnectionConfiguration();
+        configuration.setConnectionURL(CONNECTION_URL);
+        configuration.setDatabaseDriver(DatabaseDriver.H2);
+        configuration.setMinPoolSize(1);
+        configuration.setMaxPoolSize(2);
+        configuration.setCheckoutTimeout(200);
+        pool = ConnectionPoolType.CONCURRENT_BAG.provider().create(configuration);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void shouldReuseConnectionReturnedToThePool() throws SQLException {
+        // Given
+        assertThat(pool.getTotalConnections()).isEqualTo(1);
+        assertThat(pool.getIdleConnections()).isEqualTo(1);
+
+        // When
+        Connection first = pool.getConnection();
+        assertThat(pool.getBusyConnections()).isEqualTo(1);
+        first.close();
+
+        Connection second = pool.getConnection();
+
+        // Then
+        assertThat(pool.getTotalConnections()).isEqualTo(1);
+        assertThat(first.isClosed()).isTrue();
+        assertThat(second.isClosed()).isFalse();
+        second.close();
+    }
+
+    @Test
+    void shouldNotAllowUseOfClosedHandle() throws SQLException {
+        // Given
+        Connection connection = pool.getConnection();
+        connection.close();
+
+        // Expect
+        assertThatThrownBy(connection::createStatement)
+                .isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void shouldRestoreAutoCommitWhenConnectionReturned() throws SQLException {
+        // Given
+        Connection connection = pool.getConnection();
+        connection.setAutoCommit(false);
+
+        // When
+        connection.close();
+
+        // Then
+        try (Connection reused = pool.getConnection()) {
+            assertThat(reused.getAutoCommit()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldCreateConnectionsUpToMaxPoolSize() throws SQLException {
+        // When
+        try (Connection first = pool.getConnection();
+             Connection second = pool.getConnection()) {
+
+            // Then
+            assertThat(pool.getTotalConnections()).isEqualTo(2);
+            assertThat(pool.getBusyConnections()).isEqualTo(2);
+            assertThat(pool.getIdleConnections()).isZero();
+        }
+        assertThat(pool.getIdleConnections()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReturnHandleAsConnectionOfItsStatements() throws SQLException {
+        // Given
+        try (Connection connection = pool.getConnection()) {
+
+            // When
+            PreparedStatement statement = connection.prepareStatement("SELECT 1");
+
+            // Then
+            assertThat(statement.getConnection()).isSameAs(connection);
+        }
+    }
+
+    @Test
+    void shouldCloseOpenStatementsWhenConnectionReturned() throws SQLException {
+        // Given
+        Connection connection = pool.getConnection();
+        Statement statement = connection.createStatement();
+        PreparedStatement preparedStatement = connection.prepareStatement("SELECT 1");
+
+        // When
+        connection.close();
+
+        // Then
+        assertThat(statement.isClosed()).isTrue();
+        assertThat(preparedStatement.isClosed()).isTrue();
+    }
+
+    @Test
+    void shouldFailCheckoutWhenAllConnectionsAreBusyAfterCheckoutTimeout() throws SQLException {
+        // Given
+        try (Connection first = pool.getConnection();
+             Connection second = pool.getConnection()) {
+
+            // Expect
+            assertThatThrownBy(pool::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class)
+                    .hasMessage("Could not get a connection within 200 ms, all 2 connections are busy");
+        }
+    }
+
+    @Test
+    void shouldCloseIdleConnectionsDownToMinPoolSize() throws SQLException {
+        // Given: connections are idle for too long as soon as they are returned.
+        ConcurrentBagConnectionPool evicting = new ConcurrentBagConnectionPool(
+                "test", DriverManager.getDriver(CONNECTION_URL), CONNECTION_URL, null, null, 1, 3, 200, 0);
+        try {
+            Connection first = evicting.getConnection();
+            Connection second = evicting.getConnection();
+            Connection third = evicting.getConnection();
+            first.close();
+            second.close();
+            third.close();
+            assertThat(evicting.getIdleConnections()).isEqualTo(3);
+
+            // When
+            evicting.housekeep();
+
+            // Then
+            assertThat(evicting.getTotalConnections()).isEqualTo(1);
+            assertThat(evicting.getIdleConnections()).isEqualTo(1);
+        } finally {
+            evicting.close();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package de.codecentric.reedelk.database.internal.replica;
+
+import de.codecentric.reedelk.database.component.ConnectionConfiguration;
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPool;
+import de.codecentric.reedelk.database.internal.pool.ConnectionPoolType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class ReadReplicaDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+    private static final String REPLICA_ONE_URL = "jdbc:h2:mem:replicaOne";
+    private static final String REPLICA_TWO_URL = "jdbc:h2:mem:replicaTwo";
+
+    private ConnectionPool primary;
+    private ReadReplicaDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        primary = poolOf(PRIMARY_URL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dataSource != null) dataSource.close();
+        primary.close();
+    }
+
+    @Test
+    void shouldRouteConnectionsToReplicasInRotation() throws SQLException {
+        // Given
+        dataSource = readReplicaDataSourceOf(
+                new Replica(REPLICA_ONE_URL, poolOf(REPLICA_ONE_URL)),
+                new Replica(REPLICA_TWO_URL, poolOf(REPLICA_TWO_URL)));
+
+        // When
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) urls.add(urlOfConnection());
+
+        // Then
+        assertThat(urls).containsExactly(REPLICA_ONE_URL, REPLICA_TWO_URL, REPLICA_ONE_URL, REPLICA_TWO_URL);
+    }
+
+    @Test
+    void shouldTakeReplicaOutOfRotationWhenCheckoutFails() throws SQLException {
+        // Given
+        ConnectionPool failing = mock(ConnectionPool.class);
+        doThrow(new SQLException("Connection refused")).when(failing).getConnection();
+        Replica failingReplica = new Replica("jdbc:h2:tcp://localhost:1/not-reachable", failing);
+        dataSource = readReplicaDataSourceOf(failingReplica, new Replica(REPLICA_ONE_URL, poolOf(REPLICA_ONE_URL)));
+
+        // When
+        String first = urlOfConnection();
+        String second = urlOfConnection();
+
+        // Then
+        assertThat(first).isEqualTo(REPLICA_ONE_URL);
+        assertThat(second).isEqualTo(REPLICA_ONE_URL);
+        assertThat(failingReplica.isAvailable()).isFalse();
+        assertThat(failingReplica.getUnavailableReason()).isEqualTo("Connection refused");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryAndKeepReplicaInRotationWhenReplicaConnectionsAreBusy() throws SQLException {
+        // Given
+        ConnectionConfiguration configuration = new ConnectionConfiguration();
+        configuration.setConnectionURL(REPLICA_ONE_URL);
+        configuration.setDatabaseDriver(DatabaseDriver.H2);
+        configuration.setMinPoolSize(1);
+        configuration.setMaxPoolSize(2);
+        configuration.setCheckoutTimeout(100);
+        ConnectionPool replicaPool = ConnectionPoolType.CONCURRENT_BAG.provider().create(configuration);
+        Replica replica = new Replica(REPLICA_ONE_URL, replicaPool);
+        dataSource = readReplicaDataSourceOf(replica);
+
+        try (Connection first = replicaPool.getConnection();
+             Connection second = replicaPool.getConnection()) {
+
+            // When
+            String url = urlOfConnection();
+            dataSource.check();
+
+            // Then
+            assertThat(url).isEqualTo(PRIMARY_URL);
+            assertThat(replica.isAvailable()).isTrue();
+        }
+        assertThat(urlOfConnection()).isEqualTo(REPLICA_ONE_URL);
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenNoReplicaIsAvailable() throws SQLException {
+        // Given
+        ConnectionPool failing = mock(ConnectionPool.class);
+        doThrow(new SQLException("Connection refused")).when(failing).getConnection();
+        dataSource = readReplicaDataSourceOf(new Replica("jdbc:h2:tcp://localhost:1/not-reachable", failing));
+
+        // When
+        String url = urlOfConnection();
+
+        // Then
+        assertThat(url).isEqualTo(PRIMARY_URL);
+    }
+
+    @Test
+    void shouldPutReplicaBackInRotationWhenHealthCheckSucceeds() throws SQLException {
+        // Given
+        Replica replica = new Replica(REPLICA_ONE_URL, poolOf(REPLICA_ONE_URL));
+        dataSource = readReplicaDataSourceOf(replica);
+        replica.markUnavailable("connection validation failed");
+        assertThat(urlOfConnection()).isEqualTo(PRIMARY_URL);
+
+        // When
+        dataSource.check();
+
+        // Then
+        assertThat(replica.isAvailable()).isTrue();
+        assertThat(urlOfConnection()).isEqualTo(REPLICA_ONE_URL);
+    }
+
+    @Test
+    void shouldKeepReplicaInRotationWhenLagCannotBeChecked() throws SQLException {
+        // Given: the PostgreSQL lag query fails on H2, like it would for a user
+        // without the privileges to query the replication status.
+        Replica replica = new Replica(REPLICA_ONE_URL, poolOf(REPLICA_ONE_URL));
+        dataSource = new ReadReplicaDataSource("test",
+                primary,
+                Arrays.asList(replica),
+                ReplicaBalancingPolicy.ROUND_ROBIN.balancer(),
+                DatabaseDriver.POSTGRESQL,
+                10,
+                3600);
+
+        // When
+        dataSource.check();
+
+        // Then
+        assertThat(replica.isAvailable()).isTrue();
+        assertThat(urlOfConnection()).isEqualTo(REPLICA_ONE_URL);
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWithinCheckoutTimeoutWhenReplicaIsDown() throws SQLException {
+        // Given
+        ConnectionConfiguration configuration = new ConnectionConfiguration();
+        configuration.setConnectionURL("jdbc:h2:tcp://localhost:1/not-reachable");
+        configuration.setDatabaseDriver(DatabaseDriver.H2);
+        configuration.setMinPoolSize(0);
+        configuration.setMaxPoolSize(2);
+        configuration.setCheckoutTimeout(500);
+        ConnectionPool replicaPool = ConnectionPoolType.C3P0.provider().create(configuration);
+        dataSource = readReplicaDataSourceOf(new Replica(configuration.getConnectionURL(), replicaPool));
+
+        // When
+        long start = System.nanoTime();
+        String url = urlOfConnection();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(url).isEqualTo(PRIMARY_URL);
+        assertThat(elapsedMillis).isLessThan(5_000);
+    }
+
+    private ReadReplicaDataSource readReplicaDataSourceOf(Replica... replicas) {
+        // A long check interval, so that the tests drive the health check.
+        return new ReadReplicaDataSource("test",
+                primary,
+                Arrays.asList(replicas),
+                ReplicaBalancingPolicy.ROUND_ROBIN.balancer(),
+                DatabaseDriver.H2,
+                null,
+                3600);
+    }
+
+    private String urlOfConnection() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private static ConnectionPool poolOf(String url) {
+        ConnectionConfiguration configuration = new ConnectionConfiguration();
+        configuration.setConnectionURL(url);
+        configuration.setDatabaseDriver(DatabaseDriver.H2);
+        configuration.setMinPoolSize(1);
+        configuration.setMaxPoolSize(2);
+        return ConnectionPoolType.CONCURRENT_BAG.provider().create(configuration);
+    }
+}
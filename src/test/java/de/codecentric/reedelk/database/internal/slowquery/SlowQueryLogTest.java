@@ -0,0 +1,71 @@
+package de.codecentric.reedelk.database.internal.slowquery;
+
+import de.codecentric.reedelk.database.internal.commons.DatabaseDriver;
+import de.codecentric.reedelk.database.internal.commons.QueryStatementTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLogTest {
+
+    private final QueryStatementTemplate insert = new QueryStatementTemplate("INSERT INTO orders VALUES (1, 'Order')");
+    private final QueryStatementTemplate delete = new QueryStatementTemplate("DELETE FROM orders WHERE id = 1");
+
+    @Test
+    void shouldIgnoreQueriesFasterThanThreshold() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog("config1", 100, false, null, DatabaseDriver.H2);
+
+        // When
+        slowQueryLog.record("Insert-1", insert, Collections.emptyMap(), millis(99), 1);
+
+        // Then
+        assertThat(slowQueryLog.top(10)).isEmpty();
+    }
+
+    @Test
+    void shouldBeDisabledWhenThresholdNotDefined() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog("config1", null, true, null, DatabaseDriver.H2);
+
+        // When
+        slowQueryLog.record("Insert-1", insert, Collections.emptyMap(), millis(60_000), 1);
+
+        // Then
+        assertThat(slowQueryLog.isEnabled()).isFalse();
+        assertThat(slowQueryLog.top(10)).isEmpty();
+    }
+
+    @Test
+    void shouldAggregateByFingerprintAndSortByTotalTime() {
+        // Given
+        SlowQueryLog slowQueryLog = new SlowQueryLog("config1", 100, false, null, DatabaseDriver.H2);
+
+        // When
+        slowQueryLog.record("Insert-1", insert, Collections.emptyMap(), millis(150), 1);
+        slowQueryLog.record("Insert-1", new QueryStatementTemplate("INSERT INTO orders VALUES (2, 'Other')"), Collections.emptyMap(), millis(200), 1);
+        slowQueryLog.record("Delete-1", delete, Collections.emptyMap(), millis(300), 4);
+
+        // Then
+        List<SlowQueryStats.Snapshot> top = slowQueryLog.top(10);
+        assertThat(top).hasSize(2);
+
+        SlowQueryStats.Snapshot slowest = top.get(0);
+        assertThat(slowest.getFingerprint()).isEqualTo("INSERT INTO orders VALUES (?+)");
+        assertThat(slowest.getCount()).isEqualTo(2);
+        assertThat(slowest.getTotalMillis()).isEqualTo(350d);
+        assertThat(slowest.getMaxMillis()).isEqualTo(200d);
+        assertThat(slowest.getLastComponentId()).isEqualTo("Insert-1");
+
+        assertThat(top.get(1).getTotalRows()).isEqualTo(4);
+        assertThat(slowQueryLog.top(1)).hasSize(1);
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
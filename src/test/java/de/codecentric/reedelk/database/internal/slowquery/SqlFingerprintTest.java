@@ -0,0 +1,46 @@
+package de.codecentric.reedelk.database.internal.slowquery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintTest {
+
+    @Test
+    void shouldReplaceLiteralsWithPlaceholders() {
+        // When
+        String fingerprint = SqlFingerprint.of("SELECT * FROM orders WHERE id = 23 AND name = 'John''s' AND total > 12.5");
+
+        // Then
+        assertThat(fingerprint).isEqualTo("SELECT * FROM orders WHERE id = ? AND name = ? AND total > ?");
+    }
+
+    @Test
+    void shouldCollapseWhitespacesAndRemoveComments() {
+        // When
+        String fingerprint = SqlFingerprint.of("SELECT name\n  FROM   orders -- all orders\n /* no filter */ ;");
+
+        // Then
+        assertThat(fingerprint).isEqualTo("SELECT name FROM orders");
+    }
+
+    @Test
+    void shouldCollapseInListsAndNamedParameters() {
+        // When
+        String first = SqlFingerprint.of("DELETE FROM orders WHERE id IN (1, 2, 3) AND name = :name");
+        String second = SqlFingerprint.of("DELETE FROM orders WHERE id IN (?,?) AND name = ?");
+
+        // Then
+        assertThat(first).isEqualTo("DELETE FROM orders WHERE id IN (?+) AND name = ?");
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void shouldKeepIdentifiersContainingDigits() {
+        // When
+        String fingerprint = SqlFingerprint.of("SELECT col1, \"Table 2\".x FROM t2");
+
+        // Then
+        assertThat(fingerprint).isEqualTo("SELECT col1, \"Table 2\".x FROM t2");
+    }
+}
@@ -0,0 +1,82 @@
+package de.codecentric.reedelk.database.internal.type;
+
+import de.codecentric.reedelk.database.internal.exception.ConversionError;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import java.io.*;
+import java.sql.SQLException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DatabaseLobTest {
+
+    @Test
+    void shouldReadBlobInChunks() throws Exception {
+        // Given
+        DatabaseBlob blob = new DatabaseBlob("DATA", new SerialBlob("0123456789".getBytes(UTF_8)));
+
+        // Then
+        assertThat(blob.length()).isEqualTo(10);
+        assertThat(blob.read(0, 4)).isEqualTo("0123".getBytes(UTF_8));
+        assertThat(blob.read(8, 4)).isEqualTo("89".getBytes(UTF_8));
+        try (InputStream inputStream = blob.getInputStream()) {
+            assertThat(inputStream).hasSameContentAs(new ByteArrayInputStream("0123456789".getBytes(UTF_8)));
+        }
+    }
+
+    @Test
+    void shouldReadClobInChunks() throws SQLException {
+        // Given
+        DatabaseClob clob = new DatabaseClob("TEXT", new SerialClob("Hello World".toCharArray()));
+
+        // Then
+        assertThat(clob.length()).isEqualTo(11);
+        assertThat(clob.read(6, 100)).isEqualTo("World");
+        assertThat(clob.getString()).isEqualTo("Hello World");
+    }
+
+    @Test
+    void shouldThrowConversionErrorWhenReleasedHandleIsRead() throws SQLException {
+        // Given
+        DatabaseClob clob = new DatabaseClob("TEXT", new SerialClob("Hello World".toCharArray()));
+
+        // When
+        clob.release();
+
+        // Then
+        ConversionError thrown = assertThrows(ConversionError.class, clob::getString);
+        assertThat(thrown).hasMessageStartingWith("Content of lazy LOB column name=[TEXT] is not available");
+    }
+
+    @Test
+    void shouldThrowConversionErrorWhenDeserializedHandleIsRead() throws Exception {
+        // Given
+        DatabaseBlob blob = new DatabaseBlob("DATA", new SerialBlob("0123456789".getBytes(UTF_8)));
+
+        // When
+        DatabaseBlob deserialized = deserialize(serialize(blob));
+
+        // Then
+        ConversionError thrown = assertThrows(ConversionError.class, deserialized::length);
+        assertThat(thrown).hasMessageStartingWith("Content of lazy LOB column name=[DATA] is not available");
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (T) input.readObject();
+        }
+    }
+}
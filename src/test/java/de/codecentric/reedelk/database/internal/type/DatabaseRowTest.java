@@ -0,0 +1,157 @@
+package de.codecentric.reedelk.database.internal.type;
+
+import de.codecentric.reedelk.database.internal.exception.ConversionError;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.sql.Types;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseRowTest {
+
+    private final DatabaseRowSchema schema = new DatabaseRowSchema(
+            new String[] {"ID", "NAME", "SURNAME"},
+            new int[] {Types.INTEGER, Types.VARCHAR, Types.VARCHAR});
+
+    @Test
+    void shouldBehaveAsMapOfColumnNameAndValue() {
+        // Given
+        DatabaseRow row = new DatabaseRow(schema, new Serializable[] {1, "John", null});
+
+        // Then
+        Map<String, Serializable> expected = new LinkedHashMap<>();
+        expected.put("ID", 1);
+        expected.put("NAME", "John");
+        expected.put("SURNAME", null);
+        assertThat(row).isEqualTo(expected);
+        assertThat(row.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(row).containsKeys("ID", "NAME", "SURNAME");
+        assertThat(row.get("NAME")).isEqualTo("John");
+        assertThat(row.get("NOT_EXISTING")).isNull();
+        assertThat(row.get(0)).isEqualTo(1);
+        assertThat(row.getColumnIndex("SURNAME")).isEqualTo(2);
+        assertThat(row.getColumnName(1)).isEqualTo("NAME");
+    }
+
+    @Test
+    void shouldShareSchemaAcrossRows() {
+        // Given
+        DatabaseRow first = new DatabaseRow(schema, new Serializable[] {1, "John", "Doe"});
+        DatabaseRow second = new DatabaseRow(schema, new Serializable[] {2, "Mark", "Anton"});
+
+        // Then
+        assertThat(first.getSchema()).isSameAs(second.getSchema());
+        assertThat(first.keySet()).isSameAs(second.keySet());
+    }
+
+    @Test
+    void shouldExposeLastColumnWhenDuplicateColumnNames() {
+        // Given
+        DatabaseRowSchema duplicates = new DatabaseRowSchema(
+                new String[] {"ID", "ID"},
+                new int[] {Types.INTEGER, Types.INTEGER});
+
+        // When
+        DatabaseRow row = new DatabaseRow(duplicates, new Serializable[] {1, 2});
+
+        // Then
+        assertThat(row).hasSize(1);
+        assertThat(row.get("ID")).isEqualTo(2);
+        assertThat(row.get(0)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldIterateKeysAndEntriesInTheSameOrderWhenDuplicateColumnNames() {
+        // Given
+        DatabaseRowSchema duplicates = new DatabaseRowSchema(
+                new String[] {"ID", "NAME", "ID"},
+                new int[] {Types.INTEGER, Types.VARCHAR, Types.INTEGER});
+
+        // When
+        DatabaseRow row = new DatabaseRow(duplicates, new Serializable[] {1, "John", 2});
+
+        // Then
+        List<String> entryKeys = new ArrayList<>();
+        row.entrySet().forEach(entry -> entryKeys.add(entry.getKey()));
+        List<String> forEachKeys = new ArrayList<>();
+        row.forEach((key, value) -> forEachKeys.add(key));
+        assertThat(new ArrayList<>(row.keySet())).containsExactly("ID", "NAME");
+        assertThat(entryKeys).containsExactly("ID", "NAME");
+        assertThat(forEachKeys).containsExactly("ID", "NAME");
+        assertThat(new ArrayList<>(row.values())).containsExactly(2, "John");
+    }
+
+    @Test
+    void shouldKeepEntriesValidAfterIteration() {
+        // Given
+        DatabaseRow row = new DatabaseRow(schema, new Serializable[] {1, "John", "Doe"});
+
+        // When
+        List<Map.Entry<String, Serializable>> entries = new ArrayList<>(row.entrySet());
+
+        // Then
+        assertThat(entries).containsExactly(
+                new AbstractMap.SimpleImmutableEntry<>("ID", 1),
+                new AbstractMap.SimpleImmutableEntry<>("NAME", "John"),
+                new AbstractMap.SimpleImmutableEntry<>("SURNAME", "Doe"));
+    }
+
+    @Test
+    void shouldNotAllowModifications() {
+        // Given
+        DatabaseRow row = new DatabaseRow(schema, new Serializable[] {1, "John", "Doe"});
+
+        // Expect
+        assertThatThrownBy(() -> row.put("NAME", "Mark"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void shouldBoxPrimitiveValuesOnlyWhenReadThroughMapApi() {
+        // Given
+        DatabaseRowSchema primitives = new DatabaseRowSchema(
+                new String[] {"ID", "NAME", "AMOUNT", "ACTIVE", "QUANTITY"},
+                new int[] {Types.INTEGER, Types.VARCHAR, Types.DOUBLE, Types.BIT, Types.BIGINT},
+                true);
+
+        // ID -> long slot 0, ACTIVE -> long slot 1, QUANTITY -> long slot 2 (null), AMOUNT -> double slot 0.
+        long[] nulls = new long[] { 1L << 4 };
+        DatabaseRow row = new DatabaseRow(primitives,
+                new Serializable[] {"John"},
+                new long[] {7L, 1L, 0L},
+                new double[] {12.5d},
+                nulls);
+
+        // Then
+        assertThat(row.getLong(0)).isEqualTo(7L);
+        assertThat(row.getDouble("AMOUNT")).isEqualTo(12.5d);
+        assertThat(row.getLong("QUANTITY")).isZero();
+        assertThat(row.isNull(4)).isTrue();
+
+        assertThat(row.get("ID")).isEqualTo(7);
+        assertThat(row.get("NAME")).isEqualTo("John");
+        assertThat(row.get("AMOUNT")).isEqualTo(12.5d);
+        assertThat(row.get("ACTIVE")).isEqualTo(true);
+        assertThat(row.get("QUANTITY")).isNull();
+    }
+
+    @Test
+    void shouldReadNumericObjectValuesWithTypedAccessors() {
+        // Given
+        DatabaseRow row = new DatabaseRow(schema, new Serializable[] {3, "John", null});
+
+        // Then
+        assertThat(row.getLong("ID")).isEqualTo(3L);
+        assertThat(row.getDouble(0)).isEqualTo(3d);
+        assertThat(row.isNull(2)).isTrue();
+        assertThatThrownBy(() -> row.getLong("NAME"))
+                .isInstanceOf(ConversionError.class);
+    }
+}